@@ -0,0 +1,68 @@
+package org.java.mqprojectionservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the consumer thread count from the topic instead of a fixed number.
+ * The producer owns the partition count (it grows the topic on startup), the consumer reads it back
+ * when its container is built and runs one thread per partition it can be assigned:
+ * ceil(partitions / instances), capped by the binding's concurrency. Threads beyond that would only idle.
+ */
+@Slf4j
+@Configuration
+public class PartitionConcurrencyConfig {
+	private static final long DESCRIBE_TIMEOUT_MS = 10_000;
+
+	@Bean
+	public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> partitionConcurrencyCustomizer(
+			@Value("${spring.cloud.stream.kafka.binder.brokers}") String brokers,
+			@Value("${tickets.consumer.instances:1}") int instances) {
+		return (container, destination, group) -> {
+			if (!(container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent)) {
+				return;
+			}
+			int partitions = partitionCount(brokers, destination);
+			if (partitions <= 0) {
+				log.warn("[PartitionConcurrencyConfig] Partition count of {} unknown, keeping concurrency {}",
+						destination, concurrent.getConcurrency());
+				return;
+			}
+			int concurrency = concurrencyFor(partitions, instances, concurrent.getConcurrency());
+			concurrent.setConcurrency(concurrency);
+			log.info("[PartitionConcurrencyConfig] {} has {} partitions over {} instances, group {} runs {} consumers",
+					destination, partitions, instances, group, concurrency);
+		};
+	}
+
+	static int concurrencyFor(int partitions, int instances, int maxConcurrency) {
+		int share = (partitions + Math.max(instances, 1) - 1) / Math.max(instances, 1);
+		return Math.max(1, Math.min(share, maxConcurrency));
+	}
+
+	private static int partitionCount(String brokers, String topic) {
+		try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, brokers))) {
+			TopicDescription description = admin.describeTopics(List.of(topic)).allTopicNames()
+					.get(DESCRIBE_TIMEOUT_MS, TimeUnit.MILLISECONDS).get(topic);
+			return description != null ? description.partitions().size() : -1;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return -1;
+		} catch (Exception e) {
+			log.warn("[PartitionConcurrencyConfig] Failed to describe topic {}", topic, e);
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package org.java.mqprojectionservice.config;
+
+import org.java.mqprojectionservice.dto.MqDTO;
+import org.java.mqprojectionservice.model.TicketStatus;
+import org.java.ticketcontracts.TicketWireEvent;
+import org.java.ticketcontracts.codec.TicketEventCodec;
+import org.java.ticketcontracts.codec.TicketEventMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+
+/**
+ * Registers the binary ticket event converter with Spring Cloud Stream.
+ * Messages carrying contentType application/x-ticket-event are decoded straight into MqDTO,
+ * JSON messages still go through the default Jackson converter.
+ */
+@Configuration
+public class TicketWireFormatConfig {
+
+	@Bean
+	public MessageConverter ticketEventMessageConverter() {
+		return new TicketEventMessageConverter<>(new TicketEventCodec(), MqDTO.class,
+				wire -> new MqDTO(wire.ticketId(), wire.venueId(), wire.eventId(), wire.zoneId(), wire.row(),
+						wire.column(), wire.status() != null ? TicketStatus.valueOf(wire.status()) : null,
+						wire.createdOn()),
+				dto -> new TicketWireEvent(dto.getTicketId(), dto.getVenueId(), dto.getEventId(), dto.getZoneId(),
+						dto.getRow(), dto.getColumn(), dto.getStatus() != null ? dto.getStatus().name() : null,
+						dto.getCreatedOn()));
+	}
+}
@@ -4,4 +4,7 @@ import org.java.mqprojectionservice.model.TicketInfo;
 
 public interface MySqlTicketDAOInterface {
 	void createTicket(TicketInfo ticket);
+
+	// cancellation of a ticket that may not be projected yet; never moves the status back
+	void cancelTicket(TicketInfo ticket);
 }
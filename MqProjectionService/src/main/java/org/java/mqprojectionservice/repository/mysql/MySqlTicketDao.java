@@ -20,20 +20,40 @@ public class MySqlTicketDao implements MySqlTicketDAOInterface {
 		this.jdbcTemplate = jdbcTemplate;
 	}
 
+	/**
+	 * Status only moves forward: PENDING_PAYMENT -> PAID -> CANCELLED.
+	 * A redelivered purchase can therefore not revive a cancelled ticket, and a cancellation that is projected
+	 * before its purchase inserts the row as CANCELLED. created_on keeps the earlier of the two timestamps,
+	 * which is the purchase time (a cancellation carries its own time).
+	 */
+	private static final String UPSERT_SQL = """
+			  INSERT INTO ticket(
+			    ticket_id, venue_id, event_id,
+			    zone_id, row_label, col_label, status,
+			    created_on
+			  ) VALUES(?,?,?,?,?,?,?,?)
+			  ON DUPLICATE KEY UPDATE
+			    status = IF(FIELD(VALUES(status), 'PENDING_PAYMENT', 'PAID', 'CANCELLED')
+			                > FIELD(status, 'PENDING_PAYMENT', 'PAID', 'CANCELLED'), VALUES(status), status),
+			    created_on = LEAST(created_on, VALUES(created_on))
+			""";
+
 	@Override
 	public void createTicket(TicketInfo ticketInfo) {
-		String sql = """
-				  INSERT INTO ticket(
-				    ticket_id, venue_id, event_id,
-				    zone_id, row_label, col_label, status,
-				    created_on
-				  ) VALUES(?,?,?,?,?,?,?,?)
-				  ON DUPLICATE KEY UPDATE
-				    status = VALUES(status)
-				""";
+		upsert(ticketInfo);
+	}
+
+	@Override
+	public void cancelTicket(TicketInfo ticketInfo) {
+		ticketInfo.setStatus(TicketStatus.CANCELLED);
+		upsert(ticketInfo);
+		log.info("[MySqlTicketDao] ticket cancelled, id={}", ticketInfo.getTicketId());
+	}
+
+	private void upsert(TicketInfo ticketInfo) {
 		try {
 			jdbcTemplate.update(
-					sql,
+					UPSERT_SQL,
 					ticketInfo.getTicketId(), ticketInfo.getVenueId(), ticketInfo.getEventId(),
 					ticketInfo.getZoneId(), ticketInfo.getRow(), ticketInfo.getColumn(),
 					(ticketInfo.getStatus() == null ? TicketStatus.PENDING_PAYMENT : ticketInfo.getStatus()).name(),
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.java.mqprojectionservice.dto.MqDTO;
 import org.java.mqprojectionservice.mapper.MqMapper;
+import org.java.mqprojectionservice.model.TicketStatus;
 import org.java.mqprojectionservice.repository.MySqlTicketDAOInterface;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,8 +37,12 @@ public class KafkaMySqlConsumer {
 				log.info("【KafkaMQ】Received message: ticketId={}, partition={}, offset={}",
 						dto.getTicketId(), partition, offset);
 
-				// Write to MySQL calling mysqlTicketDao
-				mySqlTicketDAO.createTicket(mqMapper.toTicketInfo(dto));
+				// Write to MySQL calling mysqlTicketDao; a cancellation is a status transition of an existing ticket
+				if (dto.getStatus() == TicketStatus.CANCELLED) {
+					mySqlTicketDAO.cancelTicket(mqMapper.toTicketInfo(dto));
+				} else {
+					mySqlTicketDAO.createTicket(mqMapper.toTicketInfo(dto));
+				}
 
 				log.debug("【KafkaMQ】Successfully processed ticketId={}", dto.getTicketId());
 
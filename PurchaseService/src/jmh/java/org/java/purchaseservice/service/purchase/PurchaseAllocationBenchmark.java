@@ -0,0 +1,112 @@
+package org.java.purchaseservice.service.purchase;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.config.EventConfig;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.dto.TicketRespondDTO;
+import org.java.purchaseservice.event.TicketCreatedEvent;
+import org.java.purchaseservice.mapper.TicketMapperImpl;
+import org.java.purchaseservice.publisher.TicketWireFormat;
+import org.java.purchaseservice.service.admission.PurchaseLoadShedder;
+import org.java.purchaseservice.service.id.TicketIdGenerator;
+import org.java.purchaseservice.service.initialize.VenueConfigService;
+import org.java.purchaseservice.service.redis.SeatBitmapMirror;
+import org.java.purchaseservice.service.redis.SeatFunctionLibrary;
+import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
+import org.java.purchaseservice.service.redis.SeatOccupyCoalescer;
+import org.java.purchaseservice.service.redis.SoldOutCache;
+import org.java.purchaseservice.service.seatmap.SeatAvailabilityFeed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap allocated by one single-seat purchase, from the request DTO to the serialized ticket event.
+ * Runs the real TicketPurchaseService and SeatOccupiedRedisFacade; the FCALL answers "taken" without Redis and the
+ * publisher serializes the event like TicketEventListener does, without the outbox write.
+ * Read gc.alloc.rate.norm (bytes/op), PurchaseAllocationGate fails the jmh build when it grows past the budget.
+ * Run: mvn -pl PurchaseService -P jmh test-compile exec:java -Dexec.args="PurchaseAllocationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseAllocationBenchmark {
+	private TicketPurchaseService service;
+	private TicketPurchaseRequestDTO request;
+	private volatile byte[] published;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// production runs at INFO, the default logback configuration would log every purchase at DEBUG
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.java.purchaseservice"))
+				.setLevel(ch.qos.logback.classic.Level.INFO);
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ObjectMapper objectMapper = new ObjectMapper();
+		SeatFunctionLibrary seatFunctionLibrary = new SeatFunctionLibrary(null, "lean", 5000, 4096) {
+			@Override
+			public Long fcall(String function, Keys keys, String... args) {
+				return 0L;
+			}
+		};
+		VenueConfigService venueConfigService = new VenueConfigService(null, null) {
+			@Override
+			public int getSeatPerRow(String venueId, int zoneId) {
+				return 500;
+			}
+
+			@Override
+			public int getRowCount(String venueId, int zoneId) {
+				return 26;
+			}
+		};
+		PurchaseLoadShedder loadShedder = new PurchaseLoadShedder(meterRegistry, true, 64, 8, 2048, 2.0, 0.9, 30);
+		EventConfig.Event event1 = new EventConfig.Event();
+		event1.setEventId("Event1");
+		event1.setEnabled(true);
+		EventConfig eventConfig = new EventConfig();
+		eventConfig.setList(List.of(event1));
+		SeatOccupiedRedisFacade facade = new SeatOccupiedRedisFacade(venueConfigService, seatFunctionLibrary,
+				new SeatOccupyCoalescer(seatFunctionLibrary, meterRegistry, false, 500, 32, 2, 5000),
+				new SoldOutCache(null, meterRegistry, eventConfig, false, 2000),
+				new SeatBitmapMirror(null, meterRegistry, false, false, 500, 60000, 1024),
+				new SeatAvailabilityFeed(null, meterRegistry, false, 250, 50000, 16, 1800000, 15000), loadShedder,
+				eventConfig);
+
+		TicketWireFormat wireFormat = new TicketWireFormat(objectMapper, "binary");
+		ApplicationEventPublisher publisher = event -> {
+			try {
+				published = wireFormat.serialize((TicketCreatedEvent) event);
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+
+		service = new TicketPurchaseService(new TicketMapperImpl(), facade, publisher, new TicketIdGenerator(),
+				new PurchaseIdempotencyStore(null, objectMapper, meterRegistry, 86400000), loadShedder);
+		request = new TicketPurchaseRequestDTO("Venue1", "Event1", 1, "A", "7");
+	}
+
+	@Benchmark
+	public TicketRespondDTO purchaseTicket() {
+		return service.purchaseTicket(request);
+	}
+}
@@ -0,0 +1,51 @@
+package org.java.purchaseservice.service.purchase;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Allocation budget of the single-seat purchase: runs PurchaseAllocationBenchmark with the GC profiler and exits
+ * with 1 when gc.alloc.rate.norm is above -Dpurchase.alloc.max-bytes, so `mvn -P jmh verify` fails on regressions.
+ * The budget is bytes per purchase; raise it in the same change that adds an allocation on purpose.
+ */
+public class PurchaseAllocationGate {
+	private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+	public static void main(String[] args) throws Exception {
+		double maxBytes = Double.parseDouble(System.getProperty("purchase.alloc.max-bytes", "776"));
+
+		Options options = new OptionsBuilder()
+				.include(PurchaseAllocationBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		Double bytesPerOp = null;
+		for (RunResult result : results) {
+			for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+				// older JMH versions prefix the label with a middle dot
+				if (secondary.getKey().endsWith(ALLOC_NORM)) {
+					bytesPerOp = secondary.getValue().getScore();
+				}
+			}
+		}
+		if (bytesPerOp == null) {
+			System.err.println("[PurchaseAllocationGate] no " + ALLOC_NORM + " result, is the GC profiler supported?");
+			System.exit(1);
+		}
+		System.out.printf("[PurchaseAllocationGate] purchaseTicket allocates %.0f bytes/op, budget %.0f%n",
+				bytesPerOp, maxBytes);
+		if (bytesPerOp > maxBytes) {
+			System.err.printf("[PurchaseAllocationGate] allocation budget exceeded by %.0f bytes/op%n",
+					bytesPerOp - maxBytes);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package org.java.purchaseservice.service.purchase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servlet request threads vs virtual threads for a burst of in-flight purchases.
+ * Each purchase waits on the FCALL future like SeatFunctionLibrary does; the Redis round trip is a future
+ * completed roundTripMs later by a single thread, standing in for the Lettuce event loop.
+ * The outbox append is not modelled, it does not wait on the network.
+ * Run: mvn -pl PurchaseService -P jmh test-compile exec:java -Dexec.args="PurchaseConcurrencyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseConcurrencyBenchmark {
+	// Tomcat default server.tomcat.threads.max
+	private static final int REQUEST_THREADS = 200;
+
+	@Param({"200", "2000", "10000"})
+	public int inFlight;
+
+	@Param({"2"})
+	public long roundTripMs;
+
+	private ScheduledExecutorService eventLoop;
+	private ExecutorService requestThreads;
+	private ExecutorService virtualThreads;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		eventLoop = Executors.newSingleThreadScheduledExecutor();
+		requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+		virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		eventLoop.shutdownNow();
+		requestThreads.shutdownNow();
+		virtualThreads.shutdownNow();
+	}
+
+	@Benchmark
+	public long platformThreads() throws Exception {
+		return burst(requestThreads);
+	}
+
+	@Benchmark
+	public long virtualThreads() throws Exception {
+		return burst(virtualThreads);
+	}
+
+	private long burst(ExecutorService executor) throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(inFlight);
+		for (int i = 0; i < inFlight; i++) {
+			executor.execute(() -> {
+				try {
+					purchase();
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		done.await();
+		return done.getCount();
+	}
+
+	// seat_occupy round trip, awaited the same way as LettuceFutures.awaitOrCancel
+	private Long purchase() throws Exception {
+		CompletableFuture<Long> reply = new CompletableFuture<>();
+		eventLoop.schedule(() -> reply.complete(1L), roundTripMs, TimeUnit.MILLISECONDS);
+		return reply.get(5, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,110 @@
+package org.java.purchaseservice.service.purchase;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load against a running PurchaseService: keeps `concurrency` single-seat purchases in flight until
+ * `total` were sent, each for a different seat (zones x rows x seatsPerRow must cover total).
+ * Start the service once with SPRING_THREADS_VIRTUAL_ENABLED=false and once with true to compare both stacks.
+ * Run: mvn -pl PurchaseService -P jmh test-compile exec:java
+ * -Dexec.mainClass=org.java.purchaseservice.service.purchase.PurchaseLoadHarness
+ * -Dexec.args="http://localhost:8080 Venue1 Event1 2000 50000 4 26 500"
+ */
+public class PurchaseLoadHarness {
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = arg(args, 0, "http://localhost:8080");
+		String venueId = arg(args, 1, "Venue1");
+		String eventId = arg(args, 2, "Event1");
+		int concurrency = Integer.parseInt(arg(args, 3, "1000"));
+		int total = Integer.parseInt(arg(args, 4, "20000"));
+		int zones = Integer.parseInt(arg(args, 5, "4"));
+		int rows = Integer.parseInt(arg(args, 6, "26"));
+		int seatsPerRow = Integer.parseInt(arg(args, 7, "500"));
+		if ((long) zones * rows * seatsPerRow < total) {
+			throw new IllegalArgumentException("zones x rows x seatsPerRow must be at least total");
+		}
+
+		URI uri = URI.create(baseUrl + "/api/v1/tickets");
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		HttpClient client = HttpClient.newBuilder()
+				.executor(executor)
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		Semaphore window = new Semaphore(concurrency);
+		long[] latencies = new long[total];
+		Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		AtomicInteger failures = new AtomicInteger();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < total; i++) {
+			window.acquire();
+			int seat = i;
+			HttpRequest request = HttpRequest.newBuilder(uri)
+					.timeout(Duration.ofSeconds(30))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(body(venueId, eventId, seat, zones, rows, seatsPerRow)))
+					.build();
+			long sentAt = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+				latencies[seat] = System.nanoTime() - sentAt;
+				if (error != null) {
+					failures.incrementAndGet();
+				} else {
+					statuses.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+				}
+				window.release();
+			});
+		}
+		window.acquire(concurrency);
+		long elapsed = System.nanoTime() - start;
+		executor.shutdown();
+
+		Arrays.sort(latencies);
+		System.out.printf("requests=%d concurrency=%d elapsed=%.1fs throughput=%.0f req/s%n", total, concurrency,
+				elapsed / 1e9, total / (elapsed / 1e9));
+		System.out.printf("latency p50=%.1fms p99=%.1fms max=%.1fms%n", percentile(latencies, 0.50) / 1e6,
+				percentile(latencies, 0.99) / 1e6, latencies[total - 1] / 1e6);
+		System.out.println("status " + new TreeMap<>(statuses) + " connection failures=" + failures.get());
+	}
+
+	// seat i -> zone, row letter(s), column, so no two requests compete for one seat
+	private static String body(String venueId, String eventId, int seat, int zones, int rows, int seatsPerRow) {
+		int zoneId = seat % zones + 1;
+		int inZone = seat / zones;
+		int column = inZone % seatsPerRow + 1;
+		int rowIndex = inZone / seatsPerRow % rows;
+		return "{\"venueId\":\"" + venueId + "\",\"eventId\":\"" + eventId + "\",\"zoneId\":" + zoneId
+				+ ",\"row\":\"" + rowName(rowIndex) + "\",\"column\":\"" + column + "\"}";
+	}
+
+	private static String rowName(int index) {
+		StringBuilder name = new StringBuilder();
+		for (int i = index + 1; i > 0; i = (i - 1) / 26) {
+			name.insert(0, (char) ('A' + (i - 1) % 26));
+		}
+		return name.toString();
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+	}
+
+	private static String arg(String[] args, int index, String fallback) {
+		return args.length > index ? args[index] : fallback;
+	}
+}
@@ -25,6 +25,11 @@ public class EventConfig {
      */
     private boolean autoInitialize;
 
+    /**
+     * Number of events initialized at the same time. Defaults to 4.
+     */
+    private int initParallelism = 4;
+
     /**
      * List of configured events.
      */
@@ -0,0 +1,17 @@
+package org.java.purchaseservice.config;
+
+import org.java.purchaseservice.publisher.KafkaStreamPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.messaging.MessageChannel;
+
+@Configuration
+public class KafkaPublishConfig {
+
+	// Kafka binder posts every acknowledged record here (producer.recordMetadataChannel)
+	@Bean(name = KafkaStreamPublisher.ACK_CHANNEL)
+	public MessageChannel ticketPublishAcks() {
+		return new DirectChannel();
+	}
+}
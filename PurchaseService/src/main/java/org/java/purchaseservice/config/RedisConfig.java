@@ -1,10 +1,16 @@
 package org.java.purchaseservice.config;
 
+import org.java.purchaseservice.service.redis.SeatBitmapMirror;
+import org.java.purchaseservice.service.redis.SoldOutCache;
+import org.java.purchaseservice.service.seatmap.SeatAvailabilityFeed;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -48,4 +54,22 @@ public class RedisConfig {
 		template.afterPropertiesSet();
 		return template;
 	}
+
+	// seat release notifications from every node clear the local sold-out cache,
+	// bitmap keyspace notifications mark mirrored zones for refresh,
+	// seat availability frames of the other nodes go to the local stream subscribers
+	@Bean
+	public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+			SoldOutCache soldOutCache, SeatBitmapMirror seatBitmapMirror, SeatAvailabilityFeed seatAvailabilityFeed) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.addMessageListener(soldOutCache, new ChannelTopic(SoldOutCache.RELEASE_CHANNEL));
+		if (seatBitmapMirror.isEnabled()) {
+			container.addMessageListener(seatBitmapMirror, new PatternTopic(SeatBitmapMirror.KEYSPACE_PATTERN));
+		}
+		if (seatAvailabilityFeed.isEnabled()) {
+			container.addMessageListener(seatAvailabilityFeed, new ChannelTopic(SeatAvailabilityFeed.CHANNEL));
+		}
+		return container;
+	}
 }
@@ -0,0 +1,82 @@
+package org.java.purchaseservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.java.purchaseservice.dto.SeatMapDeltaDTO;
+import org.java.purchaseservice.service.seatmap.SeatAvailabilityFeed;
+import org.java.purchaseservice.service.seatmap.SeatMapService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Seat maps: zone availability without trying to buy seats, as snapshots, deltas or a live stream
+@RestController
+@RequestMapping("/api/v1/tickets/seat-map")
+@RequiredArgsConstructor
+public class SeatMapController {
+
+	private final SeatMapService seatMapService;
+	private final SeatAvailabilityFeed seatAvailabilityFeed;
+
+	/**
+	 * Zone bitmap as application/octet-stream, ETag is the seat-map version, If-None-Match answers 304
+	 */
+	@GetMapping("/{eventId}/{zoneId}")
+	public ResponseEntity<byte[]> snapshot(@PathVariable String eventId, @PathVariable int zoneId,
+			@RequestParam String venueId,
+			@RequestParam(defaultValue = SeatMapService.RAW) String encoding,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		SeatMapService.SeatMapSnapshot snapshot = seatMapService.snapshot(eventId, venueId, zoneId,
+				versionOf(ifNoneMatch), encoding);
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.status(snapshot.data() == null ? HttpStatus.NOT_MODIFIED
+						: HttpStatus.OK)
+				.eTag(snapshot.version())
+				.cacheControl(CacheControl.noCache())
+				.header("Seat-Map-Version", snapshot.version())
+				.header("Seat-Map-Rows", String.valueOf(snapshot.rowCount()))
+				.header("Seat-Map-Seats-Per-Row", String.valueOf(snapshot.seatPerRow()))
+				.header("Seat-Map-Encoding", snapshot.encoding());
+		if (snapshot.data() == null) {
+			return response.build();
+		}
+		return response.contentType(MediaType.APPLICATION_OCTET_STREAM).body(snapshot.data());
+	}
+
+	/**
+	 * Seats changed after version since; 304 when nothing changed, 410 when a snapshot is needed
+	 */
+	@GetMapping(value = "/{eventId}/{zoneId}", params = "since")
+	public ResponseEntity<SeatMapDeltaDTO> changes(@PathVariable String eventId, @PathVariable int zoneId,
+			@RequestParam String since) {
+		SeatMapDeltaDTO delta = seatMapService.changesSince(eventId, zoneId, since);
+		if (delta.getVersion().equals(since)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(since).build();
+		}
+		return ResponseEntity.ok().eTag(delta.getVersion()).cacheControl(CacheControl.noCache()).body(delta);
+	}
+
+	/**
+	 * text/event-stream of "seats" events, one per changed zone and tick; 503 when this node is at its limit
+	 */
+	@GetMapping(value = "/{eventId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream(@PathVariable String eventId) {
+		return seatAvailabilityFeed.subscribe(eventId);
+	}
+
+	// "1700000000000-0" or W/"1700000000000-0" -> 1700000000000-0, anything else is ignored
+	private static String versionOf(String ifNoneMatch) {
+		if (ifNoneMatch == null) {
+			return null;
+		}
+		String tag = ifNoneMatch.trim();
+		if (tag.startsWith("W/")) {
+			tag = tag.substring(2);
+		}
+		tag = tag.replace("\"", "");
+		return SeatMapService.isVersion(tag) ? tag : null;
+	}
+}
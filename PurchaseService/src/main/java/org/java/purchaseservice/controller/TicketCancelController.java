@@ -0,0 +1,27 @@
+package org.java.purchaseservice.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.java.purchaseservice.dto.TicketCancelRespondDTO;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.service.cancel.TicketCancellationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Cancellations: the seat of the ticket goes straight back on sale
+@RestController
+@RequestMapping("/api/v1/tickets")
+@RequiredArgsConstructor
+public class TicketCancelController {
+
+	private final TicketCancellationService ticketCancellationService;
+
+	/**
+	 * Body names the seat the ticket was bought for, same fields as POST /api/v1/tickets
+	 */
+	@PostMapping("/{ticketId}/cancel")
+	public ResponseEntity<TicketCancelRespondDTO> cancelTicket(@PathVariable String ticketId,
+			@RequestBody @Valid TicketPurchaseRequestDTO requestDTO) {
+		return ResponseEntity.ok(ticketCancellationService.cancelTicket(ticketId, requestDTO));
+	}
+}
@@ -0,0 +1,38 @@
+package org.java.purchaseservice.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.java.purchaseservice.dto.TicketHoldConfirmDTO;
+import org.java.purchaseservice.dto.TicketHoldRespondDTO;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.dto.TicketRespondDTO;
+import org.java.purchaseservice.service.admission.EventBulkheads;
+import org.java.purchaseservice.service.admission.WaitingRoomService;
+import org.java.purchaseservice.service.hold.SeatHoldService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Seat holds: reserve now, confirm before the hold expires
+@RestController
+@RequestMapping("/api/v1/tickets/holds")
+@RequiredArgsConstructor
+public class TicketHoldController {
+
+	private final SeatHoldService seatHoldService;
+	private final WaitingRoomService waitingRoomService;
+	private final EventBulkheads eventBulkheads;
+
+	// confirm needs no queue token, the hold was already admitted
+	@PostMapping
+	public ResponseEntity<TicketHoldRespondDTO> holdSeat(@RequestBody @Valid TicketPurchaseRequestDTO requestDTO,
+			@RequestHeader(value = WaitingRoomService.HEADER, required = false) String queueToken) {
+		waitingRoomService.checkAdmitted(requestDTO.getEventId(), queueToken);
+		return ResponseEntity.status(201).body(eventBulkheads.call(requestDTO.getEventId(),
+				() -> seatHoldService.holdSeat(requestDTO)));
+	}
+
+	@PostMapping("/confirm")
+	public ResponseEntity<TicketRespondDTO> confirmHold(@RequestBody @Valid TicketHoldConfirmDTO requestDTO) {
+		return ResponseEntity.status(201).body(seatHoldService.confirmHold(requestDTO));
+	}
+}
@@ -2,14 +2,20 @@ package org.java.purchaseservice.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.java.purchaseservice.dto.TicketBestAvailableRequestDTO;
+import org.java.purchaseservice.dto.TicketGroupPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketRespondDTO;
 import org.java.purchaseservice.service.TicketPurchaseServiceInterface;
+import org.java.purchaseservice.service.admission.EventBulkheads;
+import org.java.purchaseservice.service.admission.WaitingRoomService;
+import org.java.purchaseservice.service.purchase.PurchaseIdempotencyStore;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -20,12 +26,23 @@ import java.util.HashMap;
 public class TicketPurchaseController {
 
 	private final TicketPurchaseServiceInterface ticketService;
+	private final WaitingRoomService waitingRoomService;
+	private final EventBulkheads eventBulkheads;
 
+	/**
+	 * Buy one seat. With an Idempotency-Key header a retry returns the first response instead of buying again.
+	 * Events with a waiting room also need an admitted Queue-Token header, on every purchase endpoint.
+	 * Every purchase endpoint runs inside the event's bulkhead, 503 once it is full
+	 */
 	@PostMapping
 	public ResponseEntity<TicketRespondDTO> purchaseTicket(@RequestBody @Valid TicketPurchaseRequestDTO requestDTO,
+			@RequestHeader(value = PurchaseIdempotencyStore.HEADER, required = false) String idempotencyKey,
+			@RequestHeader(value = WaitingRoomService.HEADER, required = false) String queueToken,
 			UriComponentsBuilder uriBuilder) {
-		// Use the new TicketPurchaseService
-		TicketRespondDTO ticketResponse = ticketService.purchaseTicket(requestDTO);
+		waitingRoomService.checkAdmitted(requestDTO.getEventId(), queueToken);
+		// Use the new TicketPurchaseService, inside the event's bulkhead
+		TicketRespondDTO ticketResponse = eventBulkheads.call(requestDTO.getEventId(),
+				() -> ticketService.purchaseTicket(requestDTO, idempotencyKey));
 
 		URI location = uriBuilder
 				.path("/{id}")
@@ -34,6 +51,32 @@ public class TicketPurchaseController {
 		return ResponseEntity.created(location).body(ticketResponse);
 	}
 
+	/**
+	 * Buy several seats of one zone together, either all tickets are created or none
+	 */
+	@PostMapping("/group")
+	public ResponseEntity<List<TicketRespondDTO>> purchaseTickets(
+			@RequestBody @Valid TicketGroupPurchaseRequestDTO requestDTO,
+			@RequestHeader(value = WaitingRoomService.HEADER, required = false) String queueToken) {
+		waitingRoomService.checkAdmitted(requestDTO.getEventId(), queueToken);
+		List<TicketRespondDTO> tickets = eventBulkheads.call(requestDTO.getEventId(),
+				() -> ticketService.purchaseTickets(requestDTO));
+		return ResponseEntity.status(201).body(tickets);
+	}
+
+	/**
+	 * Let the server pick the first block of adjacent free seats in the zone
+	 */
+	@PostMapping("/best-available")
+	public ResponseEntity<List<TicketRespondDTO>> purchaseBestAvailable(
+			@RequestBody @Valid TicketBestAvailableRequestDTO requestDTO,
+			@RequestHeader(value = WaitingRoomService.HEADER, required = false) String queueToken) {
+		waitingRoomService.checkAdmitted(requestDTO.getEventId(), queueToken);
+		List<TicketRespondDTO> tickets = eventBulkheads.call(requestDTO.getEventId(),
+				() -> ticketService.purchaseBestAvailable(requestDTO));
+		return ResponseEntity.status(201).body(tickets);
+	}
+
 	/**
 	 * Handle unsupported HTTP methods with helpful message
 	 */
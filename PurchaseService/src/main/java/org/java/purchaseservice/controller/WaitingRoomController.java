@@ -0,0 +1,33 @@
+package org.java.purchaseservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.java.purchaseservice.dto.WaitingRoomRespondDTO;
+import org.java.purchaseservice.service.admission.WaitingRoomService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Waiting room: queue tokens for events whose purchases are admitted in order
+@RestController
+@RequestMapping("/api/v1/tickets/waiting-room")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+	private final WaitingRoomService waitingRoomService;
+
+	/**
+	 * Take a place in the queue of the event, send the token as Queue-Token header with every purchase
+	 */
+	@PostMapping("/{eventId}")
+	public ResponseEntity<WaitingRoomRespondDTO> join(@PathVariable String eventId) {
+		return ResponseEntity.status(201).body(waitingRoomService.join(eventId));
+	}
+
+	/**
+	 * Poll whether the token has been admitted
+	 */
+	@GetMapping("/{eventId}")
+	public ResponseEntity<WaitingRoomRespondDTO> status(@PathVariable String eventId,
+			@RequestHeader(WaitingRoomService.HEADER) String token) {
+		return ResponseEntity.ok(waitingRoomService.status(eventId, token));
+	}
+}
@@ -0,0 +1,16 @@
+package org.java.purchaseservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Seats (bit positions) whose state changed between the two seat-map versions
+@Getter
+@Setter
+@AllArgsConstructor
+public class SeatMapDeltaDTO {
+	private String since;
+	private String version;
+	private List<Integer> occupied;
+	private List<Integer> released;
+}
@@ -0,0 +1,14 @@
+package org.java.purchaseservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatPositionDTO {
+	@NotBlank(message = "Row cannot be blank")
+	private String row;
+	@NotBlank(message = "Column cannot be blank")
+	private String column;
+}
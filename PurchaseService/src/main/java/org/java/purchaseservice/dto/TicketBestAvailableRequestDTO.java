@@ -0,0 +1,20 @@
+package org.java.purchaseservice.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+
+// Server picks the seats: first block of `quantity` adjacent free seats in one row of the zone
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketBestAvailableRequestDTO {
+	private String venueId;
+	private String eventId;
+	private int zoneId;
+
+	@Min(value = 1, message = "Quantity must be at least 1")
+	@Max(value = TicketGroupPurchaseRequestDTO.MAX_GROUP_SIZE, message = "Quantity is limited to "
+			+ TicketGroupPurchaseRequestDTO.MAX_GROUP_SIZE + " seats")
+	private int quantity = 1;
+}
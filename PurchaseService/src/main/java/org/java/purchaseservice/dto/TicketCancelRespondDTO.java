@@ -0,0 +1,17 @@
+package org.java.purchaseservice.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+// The seat is back on sale from cancelledOn
+@Getter
+@Setter
+@AllArgsConstructor
+public class TicketCancelRespondDTO {
+	private String ticketId;
+	private int zoneId;
+	private String row;
+	private String column;
+	private Instant cancelledOn;
+}
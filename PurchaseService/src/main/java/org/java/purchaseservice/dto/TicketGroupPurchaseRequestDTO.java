@@ -0,0 +1,25 @@
+package org.java.purchaseservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+// N seats in one zone, bought together in a single Lua round trip
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketGroupPurchaseRequestDTO {
+	public static final int MAX_GROUP_SIZE = 10;
+
+	private String venueId;
+	private String eventId;
+	private int zoneId;
+
+	@NotEmpty(message = "At least one seat is required")
+	@Size(max = MAX_GROUP_SIZE, message = "Group purchase is limited to " + MAX_GROUP_SIZE + " seats")
+	@Valid
+	private List<SeatPositionDTO> seats;
+}
@@ -0,0 +1,17 @@
+package org.java.purchaseservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketHoldConfirmDTO {
+	@NotBlank(message = "Hold ID cannot be blank")
+	private String holdId;
+	private String venueId;
+	private String eventId;
+	private int zoneId;
+	private String row;
+	private String column;
+}
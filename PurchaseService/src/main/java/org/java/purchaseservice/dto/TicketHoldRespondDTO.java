@@ -0,0 +1,17 @@
+package org.java.purchaseservice.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+// Seat is reserved until expiresAt, confirm with holdId before then
+@Getter
+@Setter
+@AllArgsConstructor
+public class TicketHoldRespondDTO {
+	private String holdId;
+	private int zoneId;
+	private String row;
+	private String column;
+	private Instant expiresAt;
+}
@@ -8,6 +8,7 @@ import java.time.Instant;
 @Getter
 @Setter
 @AllArgsConstructor
+@NoArgsConstructor
 public class TicketRespondDTO {
 	private String ticketId;
 	private int zoneId;
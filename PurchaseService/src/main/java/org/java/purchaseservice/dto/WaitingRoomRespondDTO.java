@@ -0,0 +1,15 @@
+package org.java.purchaseservice.dto;
+
+import lombok.*;
+
+// Queue token and place in the waiting room; the token may buy once position <= admittedThrough
+@Getter
+@Setter
+@AllArgsConstructor
+public class WaitingRoomRespondDTO {
+	private String eventId;
+	private String token;
+	private long position;
+	private long admittedThrough;
+	private boolean admitted;
+}
@@ -0,0 +1,23 @@
+package org.java.purchaseservice.event;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class TicketCancelledEvent {
+	private String ticketId;
+	private String venueId;
+	private String eventId;
+	private Integer zoneId;
+	private String row;
+	private String column;
+	private Instant cancelledOn;
+
+	// same key as TicketCreatedEvent, so the cancellation is consumed after the purchase of the seat
+	public String getPartitionKey() {
+		return eventId + ":" + zoneId;
+	}
+}
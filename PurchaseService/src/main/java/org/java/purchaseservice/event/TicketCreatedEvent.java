@@ -18,8 +18,13 @@ public class TicketCreatedEvent {
 	private TicketStatus status;
 	private Instant createdOn;
 
+	/**
+	 * Kafka partition key: event and zone.
+	 * A seat belongs to exactly one event and zone, so every event about that seat lands on the same
+	 * partition and is consumed in order, while an on-sale spreads over as many partitions as it has zones.
+	 */
 	public String getPartitionKey() {
-		return venueId;
+		return eventId + ":" + zoneId;
 	}
 
 }
@@ -1,53 +1,68 @@
 package org.java.purchaseservice.event;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.java.purchaseservice.publisher.MessagePublisher;
-import org.java.purchaseservice.service.dlq.DeadLetterQueueService;
+import org.java.purchaseservice.publisher.TicketWireFormat;
+import org.java.purchaseservice.service.outbox.TicketOutbox;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class TicketEventListener {
-	private final MessagePublisher messagePublisher;
-	private final ObjectMapper objectMapper;
-	private final DeadLetterQueueService deadLetterQueueService;
+	private final TicketOutbox ticketOutbox;
+	private final TicketWireFormat ticketWireFormat;
 
 	/**
-	 * Listen to TicketCreatedEvent and send to Kafka
-	 * Changed from @TransactionalEventListener to @EventListener because:
-	 * 1. No actual DB transaction in purchaseTicket()
-	 * 2. Kafka message itself serves as event source
+	 * Listen to TicketCreatedEvent and append it to the local outbox
+	 * Runs inside purchaseTicket(): once this returns the sale is durable, TicketOutboxRelay sends it to Kafka.
+	 * Failures are not swallowed, so the purchase fails and the seat is released.
 	 */
 	@EventListener
-	public void handleTicketCreation(TicketCreatedEvent ticketCreatedEvent) {
-		String payload = null;
-		String partitionKey = ticketCreatedEvent.getPartitionKey();
+	public void handleTicketCreation(TicketCreatedEvent ticketCreatedEvent) throws JsonProcessingException {
+		log.debug("【EventListener】Processing TicketCreatedEvent: ticketId={}", ticketCreatedEvent.getTicketId());
+
+		ticketOutbox.append(ticketCreatedEvent.getPartitionKey(), ticketWireFormat.serialize(ticketCreatedEvent));
 
-		try {
-			log.info("【EventListener】Processing TicketCreatedEvent: ticketId={}", ticketCreatedEvent.getTicketId());
+		log.debug("【EventListener】Event stored in outbox: ticketId={}", ticketCreatedEvent.getTicketId());
+	}
 
-			payload = objectMapper.writeValueAsString(ticketCreatedEvent);
+	/**
+	 * Listen to TicketCancelledEvent and append it to the local outbox, on the partition of the purchase.
+	 * Failures are not swallowed, so the cancellation fails and the seat is occupied again.
+	 */
+	@EventListener
+	public void handleTicketCancellation(TicketCancelledEvent ticketCancelledEvent) throws JsonProcessingException {
+		log.info("【EventListener】Processing TicketCancelledEvent: ticketId={}", ticketCancelledEvent.getTicketId());
 
-			boolean sent = messagePublisher.kafkaPublish(payload, partitionKey);
+		ticketOutbox.append(ticketCancelledEvent.getPartitionKey(), ticketWireFormat.serialize(ticketCancelledEvent));
 
-			if (sent) {
-				log.info("【EventListener】Event sent to Kafka successfully: ticketId={}", ticketCreatedEvent.getTicketId());
-			} else {
-				log.error("【EventListener】Failed to send event to Kafka: ticketId={}", ticketCreatedEvent.getTicketId());
-				deadLetterQueueService.sendToDeadLetterQueue(payload, partitionKey, "Kafka kafkaPublish returned false");
-			}
+		log.info("【EventListener】Cancellation stored in outbox: ticketId={}", ticketCancelledEvent.getTicketId());
+	}
 
-		} catch (Exception e) {
-			log.error("【EventListener】Error processing TicketCreatedEvent: ticketId={}", ticketCreatedEvent.getTicketId(), e);
+	/**
+	 * Group purchase: every ticket keeps its own Kafka message so the projection is unchanged,
+	 * the whole group enters the outbox in one append
+	 */
+	@EventListener
+	public void handleTicketGroupCreation(TicketGroupCreatedEvent ticketGroupCreatedEvent)
+			throws JsonProcessingException {
+		List<TicketCreatedEvent> tickets = ticketGroupCreatedEvent.getTickets();
+		log.info("【EventListener】Processing TicketGroupCreatedEvent: size={}", tickets.size());
 
-			if (payload != null) {
-				deadLetterQueueService.sendToDeadLetterQueue(payload, partitionKey, "Exception: " + e.getMessage());
-			}
+		List<String> partitionKeys = new ArrayList<>(tickets.size());
+		List<byte[]> payloads = new ArrayList<>(tickets.size());
+		for (TicketCreatedEvent ticket : tickets) {
+			partitionKeys.add(ticket.getPartitionKey());
+			payloads.add(ticketWireFormat.serialize(ticket));
 		}
+		ticketOutbox.appendAll(partitionKeys, payloads);
 
+		log.info("【EventListener】Group stored in outbox: size={}", tickets.size());
 	}
 }
@@ -0,0 +1,13 @@
+package org.java.purchaseservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One Spring event for a whole group purchase, each ticket is still sent to Kafka individually
+@Data
+@AllArgsConstructor
+public class TicketGroupCreatedEvent {
+	private List<TicketCreatedEvent> tickets;
+}
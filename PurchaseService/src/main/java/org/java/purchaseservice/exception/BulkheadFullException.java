@@ -0,0 +1,8 @@
+package org.java.purchaseservice.exception;
+
+// the event's bulkhead on this node has no free slot and no room left in its queue
+public class BulkheadFullException extends RuntimeException {
+	public BulkheadFullException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class CancelTicketException extends RuntimeException {
+	public CancelTicketException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class EventFullException extends SeatOccupiedException {
+	public EventFullException(String message) {
+		super(message);
+	}
+}
@@ -1,5 +1,6 @@
 package org.java.purchaseservice.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -15,12 +16,74 @@ public class GeneralExceptionHandler {
 		return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Missing required parameter: " + name);
 	}
 
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid request: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(HoldExpiredException.class)
+	public ResponseEntity<String> handleHoldExpired(HoldExpiredException ex) {
+		return ResponseEntity.status(HttpStatus.GONE).body("Hold Expired: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(SeatMapVersionGoneException.class)
+	public ResponseEntity<String> handleSeatMapVersionGone(SeatMapVersionGoneException ex) {
+		return ResponseEntity.status(HttpStatus.GONE).body("Seat Map Version Gone: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(SeatStreamLimitException.class)
+	public ResponseEntity<String> handleSeatStreamLimit(SeatStreamLimitException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Seat Stream Unavailable: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(BulkheadFullException.class)
+	public ResponseEntity<String> handleBulkheadFull(BulkheadFullException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body("Bulkhead Full: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(OverloadedException.class)
+	public ResponseEntity<String> handleOverloaded(OverloadedException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.body("Overloaded: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(InvalidQueueTokenException.class)
+	public ResponseEntity<String> handleInvalidQueueToken(InvalidQueueTokenException ex) {
+		return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Waiting Room: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(NotAdmittedException.class)
+	public ResponseEntity<String> handleNotAdmitted(NotAdmittedException ex) {
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.body("Waiting Room: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(TicketNotFoundException.class)
+	public ResponseEntity<String> handleTicketNotFound(TicketNotFoundException ex) {
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Ticket Not Found: " + ex.getMessage());
+	}
+
+	@ExceptionHandler(IdempotencyKeyReuseException.class)
+	public ResponseEntity<String> handleIdempotencyKeyReuse(IdempotencyKeyReuseException ex) {
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Idempotency-Key Reused: " + ex.getMessage());
+	}
+
 	@ExceptionHandler(ZoneFullException.class)
 	public ResponseEntity<String> handleZoneFull(ZoneFullException ex) {
 		String errorMessage = "Zone Full: " + ex.getMessage();
 		return ResponseEntity.status(HttpStatus.CONFLICT).body("Redis Error--" + errorMessage);
 	}
 
+	@ExceptionHandler(EventFullException.class)
+	public ResponseEntity<String> handleEventFull(EventFullException ex) {
+		String errorMessage = "Event Full: " + ex.getMessage();
+		return ResponseEntity.status(HttpStatus.CONFLICT).body("Redis Error--" + errorMessage);
+	}
+
 	@ExceptionHandler(RowFullException.class)
 	public ResponseEntity<String> handleRowFull(RowFullException ex) {
 		String errorMessage = "Row Full: " + ex.getMessage();
@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+	public IdempotencyKeyReuseException(String message) {
+		super(message);
+	}
+}
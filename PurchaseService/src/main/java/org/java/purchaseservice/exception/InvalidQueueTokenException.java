@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class InvalidQueueTokenException extends RuntimeException {
+	public InvalidQueueTokenException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class NoAdjacentSeatsException extends SeatOccupiedException {
+	public NoAdjacentSeatsException(String message) {
+		super(message);
+	}
+}
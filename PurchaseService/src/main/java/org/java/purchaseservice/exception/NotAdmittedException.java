@@ -0,0 +1,18 @@
+package org.java.purchaseservice.exception;
+
+import lombok.Getter;
+
+// queue token is valid but its position has not been admitted yet
+@Getter
+public class NotAdmittedException extends RuntimeException {
+	private final long position;
+	private final long admittedThrough;
+	private final long retryAfterSeconds;
+
+	public NotAdmittedException(String message, long position, long admittedThrough, long retryAfterSeconds) {
+		super(message);
+		this.position = position;
+		this.admittedThrough = admittedThrough;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
@@ -0,0 +1,14 @@
+package org.java.purchaseservice.exception;
+
+import lombok.Getter;
+
+// a purchase step is at its adaptive concurrency limit, the request is shed before it queues
+@Getter
+public class OverloadedException extends RuntimeException {
+	private final long retryAfterSeconds;
+
+	public OverloadedException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class SeatMapVersionGoneException extends RuntimeException {
+	public SeatMapVersionGoneException(String message) {
+		super(message);
+	}
+}
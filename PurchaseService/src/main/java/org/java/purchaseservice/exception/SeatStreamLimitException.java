@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class SeatStreamLimitException extends RuntimeException {
+	public SeatStreamLimitException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package org.java.purchaseservice.exception;
+
+public class TicketNotFoundException extends RuntimeException {
+	public TicketNotFoundException(String message) {
+		super(message);
+	}
+}
@@ -2,6 +2,7 @@ package org.java.purchaseservice.mapper;
 
 import org.java.purchaseservice.dto.TicketRespondDTO;
 import org.java.purchaseservice.dto.TicketCreationDTO;
+import org.java.purchaseservice.event.TicketCreatedEvent;
 import org.java.purchaseservice.model.TicketInfo;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -17,4 +18,7 @@ public interface TicketMapper {
 	// Entity to DTO, parameter entity return DTO
 	TicketRespondDTO toRespondDto(TicketInfo entity);
 
+	// Purchase response straight from the published event, no intermediate entity
+	TicketRespondDTO toRespondDto(TicketCreatedEvent event);
+
 }
@@ -1,51 +1,146 @@
 package org.java.purchaseservice.publisher;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Send messages to Kafka through Spring Cloud Stream
+ * Send messages to Kafka through Spring Cloud Stream, without waiting for the broker.
+ * Every send carries a publish id header. The binder reports broker acks on the record metadata
+ * channel and failures on the binding's error channel; both complete the matching future.
+ * At most max-in-flight sends are unacknowledged per node, further callers wait for a slot.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class KafkaStreamPublisher implements MessagePublisher {
+	public static final String ACK_CHANNEL = "ticketPublishAcks";
+	static final String PUBLISH_ID_HEADER = "ticketPublishId";
 
 	private final StreamBridge streamBridge;
+	private final String kafkaBinding;
+	private final Semaphore inFlight;
+	private final long acquireTimeoutMs;
+	private final long ackTimeoutMs;
+
+	private final AtomicLong publishIds = new AtomicLong();
+	private final Map<Long, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+	private final Timer publishLatency;
 
 	// directly call Binding name from YML instead of hard code.
-	@Value("${kafka.binding.ticket-out}")
-	private String kafkaBinding;
+	public KafkaStreamPublisher(StreamBridge streamBridge, MeterRegistry meterRegistry,
+			@Value("${kafka.binding.ticket-out}") String kafkaBinding,
+			@Value("${tickets.kafka.max-in-flight:10000}") int maxInFlight,
+			@Value("${tickets.kafka.acquire-timeout-ms:1000}") long acquireTimeoutMs,
+			@Value("${tickets.kafka.ack-timeout-ms:130000}") long ackTimeoutMs) {
+		this.streamBridge = streamBridge;
+		this.kafkaBinding = kafkaBinding;
+		this.inFlight = new Semaphore(maxInFlight);
+		this.acquireTimeoutMs = acquireTimeoutMs;
+		this.ackTimeoutMs = ackTimeoutMs;
+
+		this.publishLatency = Timer.builder("tickets.kafka.publish.latency")
+				.description("Time from send to broker ack or failure")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		Gauge.builder("tickets.kafka.publish.inflight", pending, Map::size)
+				.description("Sends waiting for a broker ack")
+				.register(meterRegistry);
+	}
 
 	@Override
-	public boolean kafkaPublish(String payload, String partitionKey) {
+	public CompletableFuture<Void> kafkaPublish(byte[] payload, String partitionKey) {
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		try {
+			if (!inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+				result.completeExceptionally(new RejectedExecutionException(
+						"Kafka in-flight window full for " + acquireTimeoutMs + "ms"));
+				return result;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.completeExceptionally(e);
+			return result;
+		}
+
+		long publishId = publishIds.incrementAndGet();
+		long start = System.nanoTime();
+		pending.put(publishId, result);
+		// single cleanup path for ack, failure and timeout
+		result.orTimeout(ackTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((ok, ex) -> {
+			pending.remove(publishId);
+			inFlight.release();
+			publishLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		});
+
 		try {
-			log.info("【KafkaPublisher】Preparing to send message. binding={}, partitionKey={}, payloadLength={}",
-					kafkaBinding, partitionKey, payload.length());
-			log.debug("【KafkaPublisher】Message payload: {}", payload);
+			log.debug("【KafkaPublisher】Sending message. binding={}, partitionKey={}, payloadLength={}, publishId={}",
+					kafkaBinding, partitionKey, payload.length, publishId);
 
-			Message<String> msg = MessageBuilder.withPayload(payload)
+			Message<byte[]> msg = MessageBuilder.withPayload(payload)
 					.setHeader("partitionKey", partitionKey)
+					.setHeader(MessageHeaders.CONTENT_TYPE, TicketWireFormat.contentTypeOf(payload))
+					.setHeader(PUBLISH_ID_HEADER, publishId)
 					.build();
 
-			boolean sent = streamBridge.send(kafkaBinding, msg);
-
-			if (sent) {
-				log.info("【KafkaPublisher】Message sent to Kafka successfully. partitionKey={}", partitionKey);
-			} else {
-				log.error("【KafkaPublisher】Failed to send message to Kafka. partitionKey={}", partitionKey);
+			if (!streamBridge.send(kafkaBinding, msg)) {
+				log.error("【KafkaPublisher】Failed to hand message to binder. partitionKey={}", partitionKey);
+				result.completeExceptionally(new IllegalStateException("StreamBridge refused message"));
 			}
-
-			return sent;
 		} catch (Exception e) {
 			log.error("【KafkaPublisher】Exception occurred while sending message to Kafka. partitionKey={}",
 					partitionKey, e);
-			return false;
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Broker ack: the binder echoes the sent message with its record metadata.
+	 */
+	@ServiceActivator(inputChannel = ACK_CHANNEL)
+	public void onAck(Message<?> sent) {
+		CompletableFuture<Void> result = pendingFor(sent);
+		if (result != null) {
+			result.complete(null);
+		}
+	}
+
+	/**
+	 * Send failure reported by the binder after retries inside the producer are exhausted.
+	 */
+	@ServiceActivator(inputChannel = "${kafka.binding.ticket-out-errors}")
+	public void onError(ErrorMessage error) {
+		if (error.getPayload() instanceof MessagingException failure && failure.getFailedMessage() != null) {
+			CompletableFuture<Void> result = pendingFor(failure.getFailedMessage());
+			if (result != null) {
+				log.warn("【KafkaPublisher】Broker rejected message: {}", failure.getMostSpecificCause().toString());
+				result.completeExceptionally(failure.getMostSpecificCause());
+				return;
+			}
 		}
+		log.error("【KafkaPublisher】Uncorrelated send failure", error.getPayload());
+	}
+
+	private CompletableFuture<Void> pendingFor(Message<?> message) {
+		Object id = message.getHeaders().get(PUBLISH_ID_HEADER);
+		return id instanceof Long publishId ? pending.get(publishId) : null;
 	}
 }
@@ -1,10 +1,12 @@
 package org.java.purchaseservice.publisher;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Message Publish Interface
+ * The returned future completes when the broker acknowledged the message, or exceptionally when it did not.
  */
 public interface MessagePublisher {
-	boolean kafkaPublish(String payload, String partitionKey);
+	CompletableFuture<Void> kafkaPublish(byte[] payload, String partitionKey);
 
 }
-
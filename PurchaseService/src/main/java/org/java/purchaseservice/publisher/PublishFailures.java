@@ -0,0 +1,47 @@
+package org.java.purchaseservice.publisher;
+
+import org.apache.kafka.common.errors.ApiException;
+import org.apache.kafka.common.errors.RetriableException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Classifies failures of MessagePublisher futures.
+ */
+public final class PublishFailures {
+
+	private PublishFailures() {
+	}
+
+	/**
+	 * Waits for a send and returns its failure, or null when the broker acknowledged it.
+	 * Publisher futures are bounded by the ack timeout, so this does not hang.
+	 */
+	public static Throwable await(CompletableFuture<Void> send) {
+		try {
+			send.get();
+			return null;
+		} catch (ExecutionException e) {
+			return e.getCause();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return e;
+		}
+	}
+
+	/**
+	 * Only a definite "no" from the broker (non-retriable Kafka error) is final, anything unknown is retried.
+	 */
+	public static boolean isRetriable(Throwable failure) {
+		for (Throwable t = failure; t != null; t = t.getCause()) {
+			if (t instanceof RetriableException) {
+				return true;
+			}
+			if (t instanceof ApiException) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,58 @@
+package org.java.purchaseservice.publisher;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.java.purchaseservice.event.TicketCancelledEvent;
+import org.java.purchaseservice.event.TicketCreatedEvent;
+import org.java.purchaseservice.model.TicketStatus;
+import org.java.ticketcontracts.TicketWireEvent;
+import org.java.ticketcontracts.codec.TicketEventCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Serializes ticket events for ticket.exchange.
+ * tickets.wire-format=binary (default) uses the shared TicketEventCodec, json keeps the old Jackson payload.
+ * The content type travels with every message, so consumers handle both during a rollout.
+ */
+@Component
+public class TicketWireFormat {
+	public static final MimeType BINARY = MimeType.valueOf(TicketEventCodec.CONTENT_TYPE);
+
+	private final ObjectMapper objectMapper;
+	private final TicketEventCodec codec = new TicketEventCodec();
+	private final boolean binary;
+
+	public TicketWireFormat(ObjectMapper objectMapper, @Value("${tickets.wire-format:binary}") String format) {
+		this.objectMapper = objectMapper;
+		this.binary = !"json".equalsIgnoreCase(format);
+	}
+
+	public byte[] serialize(TicketCreatedEvent event) throws JsonProcessingException {
+		if (!binary) {
+			return objectMapper.writeValueAsBytes(event);
+		}
+		return codec.encode(new TicketWireEvent(event.getTicketId(), event.getVenueId(), event.getEventId(),
+				event.getZoneId(), event.getRow(), event.getColumn(),
+				event.getStatus() != null ? event.getStatus().name() : null, event.getCreatedOn()));
+	}
+
+	/**
+	 * A cancellation travels as the ticket with status CANCELLED; createdOn carries the cancellation time
+	 * and the projection keeps the earlier purchase time.
+	 */
+	public byte[] serialize(TicketCancelledEvent event) throws JsonProcessingException {
+		return serialize(TicketCreatedEvent.builder().ticketId(event.getTicketId()).venueId(event.getVenueId())
+				.eventId(event.getEventId()).zoneId(event.getZoneId()).row(event.getRow()).column(event.getColumn())
+				.status(TicketStatus.CANCELLED).createdOn(event.getCancelledOn()).build());
+	}
+
+	/**
+	 * Content type of a stored payload, outbox records written before a format switch keep their own.
+	 */
+	public static MimeType contentTypeOf(byte[] payload) {
+		return TicketEventCodec.isBinary(payload) ? BINARY : MimeTypeUtils.APPLICATION_JSON;
+	}
+}
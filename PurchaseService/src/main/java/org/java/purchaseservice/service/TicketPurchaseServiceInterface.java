@@ -1,9 +1,22 @@
 package org.java.purchaseservice.service;
 
+import org.java.purchaseservice.dto.TicketBestAvailableRequestDTO;
+import org.java.purchaseservice.dto.TicketGroupPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketRespondDTO;
 
+import java.util.List;
+
 public interface TicketPurchaseServiceInterface {
 	// transfer input data into a Response DTO object and save to Database through DAO and Mapper
 	TicketRespondDTO purchaseTicket(TicketPurchaseRequestDTO dto);
+
+	// same, a retry with the same idempotency key returns the first response instead of buying again
+	TicketRespondDTO purchaseTicket(TicketPurchaseRequestDTO dto, String idempotencyKey);
+
+	// buy N seats of one zone together, all-or-nothing
+	List<TicketRespondDTO> purchaseTickets(TicketGroupPurchaseRequestDTO dto);
+
+	// server picks the first N adjacent free seats in the zone
+	List<TicketRespondDTO> purchaseBestAvailable(TicketBestAvailableRequestDTO dto);
 }
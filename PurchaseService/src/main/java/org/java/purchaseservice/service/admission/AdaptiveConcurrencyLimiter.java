@@ -0,0 +1,150 @@
+package org.java.purchaseservice.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.java.purchaseservice.exception.OverloadedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit of one purchase step that follows the step's latency (gradient algorithm).
+ * Two moving averages of the round trip are kept: a short one (last ~10 calls) and a long one (~500 calls) that
+ * stands for the latency without queueing. While short stays within tolerance x long the limit grows by about
+ * sqrt(limit) per call; once short climbs above that, the limit shrinks in proportion, at most by half.
+ * A call failing with a timeout or connection error cuts the limit by `backoff` (multiplicative decrease).
+ * Calls beyond the limit are rejected at once; Retry-After is the time the step needs, at the current limit
+ * and latency, to serve what was rejected during the last second.
+ */
+public class AdaptiveConcurrencyLimiter {
+	private static final double SHORT_WINDOW = 10;
+	private static final double LONG_WINDOW = 500;
+	private static final double SMOOTHING = 0.2;
+	private static final long REJECT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final String step;
+	private final int minLimit;
+	private final int maxLimit;
+	private final double tolerance;
+	private final double backoff;
+	private final long maxRetryAfterSeconds;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile double limit;
+	private volatile double shortRtt;
+	private double longRtt;
+
+	private final AtomicLong windowRejected = new AtomicLong();
+	private volatile long windowStart = System.nanoTime();
+	private volatile long lastWindowRejected;
+
+	private final Counter rejected;
+
+	public AdaptiveConcurrencyLimiter(String step, MeterRegistry meterRegistry, int initialLimit, int minLimit,
+			int maxLimit, double tolerance, double backoff, long maxRetryAfterSeconds) {
+		if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Limits must satisfy 0 < min-limit <= initial-limit <= max-limit");
+		}
+		if (tolerance < 1 || backoff <= 0 || backoff >= 1 || maxRetryAfterSeconds <= 0) {
+			throw new IllegalArgumentException("tolerance must be >= 1, backoff in (0, 1), max-retry-after positive");
+		}
+		this.step = step;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.tolerance = tolerance;
+		this.backoff = backoff;
+		this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+		this.limit = initialLimit;
+
+		this.rejected = Counter.builder("tickets.load.shed.rejected")
+				.description("Calls rejected because the step was at its concurrency limit")
+				.tag("step", step)
+				.register(meterRegistry);
+		Gauge.builder("tickets.load.shed.limit", this, AdaptiveConcurrencyLimiter::getLimit).tag("step", step)
+				.description("Current adaptive concurrency limit").register(meterRegistry);
+		Gauge.builder("tickets.load.shed.inflight", inFlight, AtomicInteger::get).tag("step", step)
+				.description("Calls of the step in flight").register(meterRegistry);
+	}
+
+	/**
+	 * Takes a slot, the caller must hand the returned start time to {@link #release}.
+	 *
+	 * @throws OverloadedException if the step is at its limit
+	 */
+	public long acquire() {
+		if (inFlight.incrementAndGet() > (int) limit) {
+			inFlight.decrementAndGet();
+			rejected.increment();
+			throw new OverloadedException("Purchase step " + step + " is overloaded, retry later.", retryAfterSeconds());
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Frees the slot and adjusts the limit; dropped = the call failed because the backend was saturated.
+	 */
+	public void release(long startNanos, boolean dropped) {
+		long rtt = System.nanoTime() - startNanos;
+		int inFlightBefore = inFlight.getAndDecrement();
+		lock.lock();
+		try {
+			if (dropped) {
+				limit = Math.max(minLimit, limit * backoff);
+				return;
+			}
+			if (shortRtt == 0) {
+				shortRtt = rtt;
+				longRtt = rtt;
+			} else {
+				shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+				longRtt += (rtt - longRtt) / LONG_WINDOW;
+			}
+			// latency fell for good (e.g. Redis recovered): let the baseline follow faster
+			if (longRtt > shortRtt * 2) {
+				longRtt *= 0.95;
+			}
+			// traffic does not use the limit, there is nothing to learn about a larger one
+			if (inFlightBefore < limit / 2) {
+				return;
+			}
+			double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+			double next = limit * gradient + Math.sqrt(limit);
+			limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + next * SMOOTHING));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// seconds to serve what was turned away in the last full second at limit calls per round trip
+	long retryAfterSeconds() {
+		long now = System.nanoTime();
+		long start = windowStart;
+		if (now - start >= REJECT_WINDOW_NANOS) {
+			windowStart = now;
+			lastWindowRejected = windowRejected.getAndSet(0);
+		}
+		long recent = Math.max(lastWindowRejected, windowRejected.incrementAndGet());
+		double seconds = recent * shortRtt / limit / TimeUnit.SECONDS.toNanos(1);
+		return Math.max(1, Math.min(maxRetryAfterSeconds, (long) Math.ceil(seconds)));
+	}
+
+	public String getStep() {
+		return step;
+	}
+
+	public double getLimit() {
+		return limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public double getRttMillis() {
+		return shortRtt / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
@@ -0,0 +1,265 @@
+package org.java.purchaseservice.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.config.EventConfig;
+import org.java.purchaseservice.exception.BulkheadFullException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * One bulkhead per event around the seat-taking endpoints, so a hot on-sale cannot take all Redis round trips,
+ * request threads and outbox appends of the node.
+ * A bulkhead lets `concurrency` purchases of its event run at once and up to `queue` more wait at most
+ * max-wait-ms for a slot; anything beyond that is rejected at once with 503.
+ * Limits come from tickets.bulkhead.default-* or a per-event entry of tickets.bulkhead.events
+ * ("Event1=256:512,Event2=16:32", concurrency:queue) and can be changed at runtime via /actuator/bulkheads.
+ * Bulkheads and their meters exist only for known events (enabled in events.yml or listed in tickets.bulkhead.events);
+ * any other event id shares one bulkhead with the default limits, so made-up ids cannot grow the map or the meters.
+ */
+@Slf4j
+@Service
+public class EventBulkheads {
+	static final String OTHER_EVENTS = "_other";
+
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+	private final Limits defaults;
+	private final long maxWaitNanos;
+
+	private final Map<String, Limits> configured = new ConcurrentHashMap<>();
+	private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+	private final Bulkhead other;
+
+	public EventBulkheads(MeterRegistry meterRegistry, EventConfig eventConfig,
+			@Value("${tickets.bulkhead.enabled:true}") boolean enabled,
+			@Value("${tickets.bulkhead.default-concurrency:256}") int defaultConcurrency,
+			@Value("${tickets.bulkhead.default-queue:512}") int defaultQueue,
+			@Value("${tickets.bulkhead.max-wait-ms:100}") long maxWaitMs,
+			@Value("${tickets.bulkhead.events:}") String events) {
+		if (maxWaitMs < 0) {
+			throw new IllegalArgumentException("tickets.bulkhead.max-wait-ms must not be negative");
+		}
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.defaults = Limits.of(defaultConcurrency, defaultQueue);
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+		Arrays.stream(events.split(",")).map(String::trim).filter(e -> !e.isEmpty()).forEach(entry -> {
+			int eq = entry.indexOf('=');
+			int colon = entry.indexOf(':', eq);
+			if (eq <= 0 || colon < 0) {
+				throw new IllegalArgumentException("tickets.bulkhead.events entry must be eventId=concurrency:queue, got "
+						+ entry);
+			}
+			int concurrency = Integer.parseInt(entry.substring(eq + 1, colon).trim());
+			int queue = Integer.parseInt(entry.substring(colon + 1).trim());
+			configured.put(entry.substring(0, eq).trim(), Limits.of(concurrency, queue));
+		});
+
+		Set<String> known = new HashSet<>(configured.keySet());
+		if (eventConfig.getList() != null) {
+			eventConfig.getList().stream().filter(EventConfig.Event::isEnabled)
+					.forEach(event -> known.add(event.getEventId()));
+		}
+		known.forEach(eventId -> bulkheads.put(eventId, newBulkhead(eventId)));
+		this.other = newBulkhead(OTHER_EVENTS);
+	}
+
+	/**
+	 * Runs the work inside the event's bulkhead.
+	 *
+	 * @throws BulkheadFullException if the event has no free slot and its queue is full or the wait timed out
+	 */
+	public <T> T call(String eventId, Supplier<T> work) {
+		if (!enabled) {
+			return work.get();
+		}
+		Bulkhead bulkhead = bulkhead(eventId);
+		bulkhead.acquire(maxWaitNanos);
+		try {
+			return work.get();
+		} finally {
+			bulkhead.release();
+		}
+	}
+
+	/**
+	 * Changes the limits of one known event on this node; waiting purchases see the new limit immediately.
+	 */
+	public void update(String eventId, int concurrency, int queue) {
+		Bulkhead bulkhead = bulkheads.get(eventId);
+		if (bulkhead == null) {
+			throw new IllegalArgumentException("Unknown event " + eventId);
+		}
+		Limits limits = Limits.of(concurrency, queue);
+		configured.put(eventId, limits);
+		bulkhead.resize(limits);
+		log.info("[EventBulkheads] Limits of event={} set to concurrency={}, queue={}", eventId, concurrency, queue);
+	}
+
+	/**
+	 * Drops the runtime limits of one event, it falls back to the defaults.
+	 */
+	public void reset(String eventId) {
+		configured.remove(eventId);
+		Bulkhead bulkhead = bulkheads.get(eventId);
+		if (bulkhead != null) {
+			bulkhead.resize(defaults);
+		}
+		log.info("[EventBulkheads] Limits of event={} reset to defaults", eventId);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public Limits getDefaults() {
+		return defaults;
+	}
+
+	public long getMaxWaitMs() {
+		return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+	}
+
+	public Map<String, Bulkhead> getBulkheads() {
+		return bulkheads;
+	}
+
+	/**
+	 * The bulkhead shared by all events that are not known.
+	 */
+	public Bulkhead getOther() {
+		return other;
+	}
+
+	private Bulkhead bulkhead(String eventId) {
+		Bulkhead bulkhead = bulkheads.get(eventId);
+		return bulkhead != null ? bulkhead : other;
+	}
+
+	private Bulkhead newBulkhead(String eventId) {
+		Bulkhead bulkhead = new Bulkhead(eventId, configured.getOrDefault(eventId, defaults),
+				Counter.builder("tickets.bulkhead.rejected")
+						.description("Purchases rejected because the event's bulkhead was full")
+						.tag("event", eventId)
+						.register(meterRegistry));
+		Gauge.builder("tickets.bulkhead.active", bulkhead, Bulkhead::getActive).tag("event", eventId)
+				.description("Purchases of the event running").register(meterRegistry);
+		Gauge.builder("tickets.bulkhead.queued", bulkhead, Bulkhead::getQueued).tag("event", eventId)
+				.description("Purchases of the event waiting for a slot").register(meterRegistry);
+		Gauge.builder("tickets.bulkhead.limit", bulkhead, b -> b.getLimits().concurrency()).tag("event", eventId)
+				.description("Concurrency limit of the event").register(meterRegistry);
+		return bulkhead;
+	}
+
+	public record Limits(int concurrency, int queue) {
+		static Limits of(int concurrency, int queue) {
+			if (concurrency <= 0 || queue < 0) {
+				throw new IllegalArgumentException("Bulkhead concurrency must be positive and queue not negative");
+			}
+			return new Limits(concurrency, queue);
+		}
+	}
+
+	// counting semaphore whose size can change while purchases wait on it
+	public static final class Bulkhead {
+		private final String eventId;
+		private final Counter rejected;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition slotFreed = lock.newCondition();
+		private volatile Limits limits;
+		private volatile int active;
+		private volatile int queued;
+
+		Bulkhead(String eventId, Limits limits, Counter rejected) {
+			this.eventId = eventId;
+			this.limits = limits;
+			this.rejected = rejected;
+		}
+
+		void acquire(long maxWaitNanos) {
+			lock.lock();
+			try {
+				if (active < limits.concurrency()) {
+					active++;
+					return;
+				}
+				if (queued >= limits.queue() || maxWaitNanos == 0) {
+					throw reject("queue full");
+				}
+				queued++;
+				try {
+					long remaining = maxWaitNanos;
+					while (active >= limits.concurrency()) {
+						if (remaining <= 0) {
+							throw reject("no slot within the wait budget");
+						}
+						remaining = slotFreed.awaitNanos(remaining);
+					}
+					active++;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw reject("interrupted");
+				} finally {
+					queued--;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void release() {
+			lock.lock();
+			try {
+				active--;
+				slotFreed.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void resize(Limits limits) {
+			lock.lock();
+			try {
+				this.limits = limits;
+				slotFreed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private BulkheadFullException reject(String reason) {
+			rejected.increment();
+			return new BulkheadFullException("Too many purchases for event " + eventId + " on this node (" + reason
+					+ "), retry shortly.");
+		}
+
+		public Limits getLimits() {
+			return limits;
+		}
+
+		public int getActive() {
+			return active;
+		}
+
+		public int getQueued() {
+			return queued;
+		}
+
+		public double getRejected() {
+			return rejected.count();
+		}
+	}
+}
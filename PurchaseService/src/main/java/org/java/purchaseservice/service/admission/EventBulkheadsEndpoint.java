@@ -0,0 +1,60 @@
+package org.java.purchaseservice.service.admission;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint (/actuator/bulkheads) showing the per-event bulkheads of this node.
+ * POST /actuator/bulkheads/{eventId} with {"concurrency":..,"queue":..} changes a known event's limits,
+ * DELETE /actuator/bulkheads/{eventId} puts it back on the defaults. Both need
+ * management.endpoint.bulkheads.access=unrestricted, the endpoint is read-only by default.
+ */
+@Component
+@Endpoint(id = "bulkheads")
+@RequiredArgsConstructor
+public class EventBulkheadsEndpoint {
+	private final EventBulkheads eventBulkheads;
+
+	@ReadOperation
+	public Map<String, Object> bulkheads() {
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("enabled", eventBulkheads.isEnabled());
+		info.put("defaults", eventBulkheads.getDefaults());
+		info.put("maxWaitMs", eventBulkheads.getMaxWaitMs());
+		Map<String, Object> events = new TreeMap<>();
+		eventBulkheads.getBulkheads().forEach((eventId, bulkhead) -> events.put(eventId, describe(bulkhead)));
+		info.put("events", events);
+		info.put("otherEvents", describe(eventBulkheads.getOther()));
+		return info;
+	}
+
+	@WriteOperation
+	public Map<String, Object> update(@Selector String eventId, int concurrency, int queue) {
+		eventBulkheads.update(eventId, concurrency, queue);
+		return describe(eventBulkheads.getBulkheads().get(eventId));
+	}
+
+	@DeleteOperation
+	public void reset(@Selector String eventId) {
+		eventBulkheads.reset(eventId);
+	}
+
+	private static Map<String, Object> describe(EventBulkheads.Bulkhead bulkhead) {
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("concurrency", bulkhead.getLimits().concurrency());
+		info.put("queue", bulkhead.getLimits().queue());
+		info.put("active", bulkhead.getActive());
+		info.put("queued", bulkhead.getQueued());
+		info.put("rejected", (long) bulkhead.getRejected());
+		return info;
+	}
+}
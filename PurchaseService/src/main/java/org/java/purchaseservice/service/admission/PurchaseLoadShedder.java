@@ -0,0 +1,96 @@
+package org.java.purchaseservice.service.admission;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Load shedding for the two steps a purchase waits on: the seatlib occupy call (redis) and the outbox append of
+ * the ticket event (publish). Each step has its own AdaptiveConcurrencyLimiter; a request over the limit gets 503
+ * with Retry-After right away instead of queueing behind Redis or the disk until the client has given up.
+ * The redis step wraps the FCALL only, inside SeatOccupiedRedisFacade after the sold-out cache and the mirror,
+ * so requests those reject locally neither take a slot nor feed the latency.
+ * Business outcomes (seat taken, zone full) count as normal round trips. Only timeouts and connection failures count
+ * as drops; other errors (a script error, a bad argument) say nothing about saturation.
+ */
+@Component
+public class PurchaseLoadShedder {
+	public static final String STEP_REDIS = "redis";
+	public static final String STEP_PUBLISH = "publish";
+
+	private final boolean enabled;
+	private final AdaptiveConcurrencyLimiter redis;
+	private final AdaptiveConcurrencyLimiter publish;
+
+	public PurchaseLoadShedder(MeterRegistry meterRegistry,
+			@Value("${tickets.load-shedding.enabled:true}") boolean enabled,
+			@Value("${tickets.load-shedding.initial-limit:64}") int initialLimit,
+			@Value("${tickets.load-shedding.min-limit:8}") int minLimit,
+			@Value("${tickets.load-shedding.max-limit:2048}") int maxLimit,
+			@Value("${tickets.load-shedding.tolerance:2.0}") double tolerance,
+			@Value("${tickets.load-shedding.backoff:0.9}") double backoff,
+			@Value("${tickets.load-shedding.max-retry-after-s:30}") long maxRetryAfterSeconds) {
+		this.enabled = enabled;
+		this.redis = new AdaptiveConcurrencyLimiter(STEP_REDIS, meterRegistry, initialLimit, minLimit, maxLimit,
+				tolerance, backoff, maxRetryAfterSeconds);
+		this.publish = new AdaptiveConcurrencyLimiter(STEP_PUBLISH, meterRegistry, initialLimit, minLimit, maxLimit,
+				tolerance, backoff, maxRetryAfterSeconds);
+	}
+
+	public <T> T redis(Supplier<T> work) {
+		return call(redis, work);
+	}
+
+	public void redis(Runnable work) {
+		call(redis, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	public void publish(Runnable work) {
+		call(publish, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	public AdaptiveConcurrencyLimiter getRedis() {
+		return redis;
+	}
+
+	public AdaptiveConcurrencyLimiter getPublish() {
+		return publish;
+	}
+
+	private <T> T call(AdaptiveConcurrencyLimiter limiter, Supplier<T> work) {
+		if (!enabled) {
+			return work.get();
+		}
+		long start = limiter.acquire();
+		boolean dropped = false;
+		try {
+			return work.get();
+		} catch (RuntimeException e) {
+			dropped = isSaturation(e);
+			throw e;
+		} finally {
+			limiter.release(start, dropped);
+		}
+	}
+
+	static boolean isSaturation(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof QueryTimeoutException || t instanceof RedisConnectionFailureException
+					|| t instanceof RedisCommandTimeoutException) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
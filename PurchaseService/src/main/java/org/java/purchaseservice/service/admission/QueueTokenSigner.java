@@ -0,0 +1,107 @@
+package org.java.purchaseservice.service.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.exception.InvalidQueueTokenException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Waiting room queue tokens: "payload.signature", both base64url, payload = eventId \n position \n issuedAtMs,
+ * signature = HMAC-SHA256 with tickets.waiting-room.secret. Verifying needs no Redis call.
+ * Every node must share the secret: with store=redis an enabled waiting room refuses to start without one, since
+ * tokens would only verify on the node that issued them. Otherwise (disabled, or store=local on a single node) a
+ * random per-node key is used.
+ */
+@Slf4j
+@Component
+public class QueueTokenSigner {
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private final SecretKeySpec key;
+	private final long ttlMs;
+	private final ThreadLocal<Mac> macs;
+
+	public QueueTokenSigner(@Value("${tickets.waiting-room.secret:}") String secret,
+			@Value("${tickets.waiting-room.enabled:false}") boolean enabled,
+			@Value("${tickets.waiting-room.store:redis}") String store,
+			@Value("${tickets.waiting-room.token-ttl-ms:7200000}") long ttlMs) {
+		byte[] keyBytes;
+		if (secret == null || secret.isBlank()) {
+			if (enabled && WaitingRoomService.STORE_REDIS.equals(store)) {
+				throw new IllegalArgumentException("tickets.waiting-room.secret must be set when the waiting room is "
+						+ "enabled with store=redis, queue tokens are verified by every node");
+			}
+			keyBytes = new byte[32];
+			new SecureRandom().nextBytes(keyBytes);
+			log.warn("[QueueTokenSigner] tickets.waiting-room.secret not set, queue tokens are only valid on this node");
+		} else {
+			keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+		}
+		this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+		this.ttlMs = ttlMs;
+		this.macs = ThreadLocal.withInitial(this::newMac);
+	}
+
+	public String issue(String eventId, long position, long issuedAtMs) {
+		byte[] payload = (eventId + "\n" + position + "\n" + issuedAtMs).getBytes(StandardCharsets.UTF_8);
+		return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+	}
+
+	/**
+	 * @throws InvalidQueueTokenException if the token is malformed, forged or older than token-ttl-ms
+	 */
+	public QueueToken verify(String token, long nowMs) {
+		int dot = token.indexOf('.');
+		if (dot <= 0) {
+			throw new InvalidQueueTokenException("Malformed queue token.");
+		}
+		byte[] payload;
+		byte[] signature;
+		try {
+			payload = DECODER.decode(token.substring(0, dot));
+			signature = DECODER.decode(token.substring(dot + 1));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidQueueTokenException("Malformed queue token.");
+		}
+		if (!MessageDigest.isEqual(sign(payload), signature)) {
+			throw new InvalidQueueTokenException("Queue token signature mismatch.");
+		}
+
+		String[] fields = new String(payload, StandardCharsets.UTF_8).split("\n");
+		if (fields.length != 3) {
+			throw new InvalidQueueTokenException("Malformed queue token.");
+		}
+		QueueToken queueToken = new QueueToken(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+		if (nowMs - queueToken.issuedAtMs() > ttlMs) {
+			throw new InvalidQueueTokenException("Queue token expired, join the waiting room again.");
+		}
+		return queueToken;
+	}
+
+	private byte[] sign(byte[] payload) {
+		return macs.get().doFinal(payload);
+	}
+
+	private Mac newMac() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 not available", e);
+		}
+	}
+
+	public record QueueToken(String eventId, long position, long issuedAtMs) {
+	}
+}
@@ -0,0 +1,217 @@
+package org.java.purchaseservice.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.dto.WaitingRoomRespondDTO;
+import org.java.purchaseservice.exception.InvalidQueueTokenException;
+import org.java.purchaseservice.exception.NotAdmittedException;
+import org.java.purchaseservice.service.redis.RedisKeyUtil;
+import org.java.purchaseservice.service.redis.SeatFunctionLibrary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Virtual waiting room per event, in front of every seat-taking endpoint.
+ * Joining hands out a signed, ordered queue token; positions are admitted in order by a token bucket
+ * (rate-per-second, burst) kept in Redis by seatlib, or in memory with store=local for a single node.
+ * Purchase requests are checked before any seat work: the signature is verified locally and the admitted
+ * position is cached per event, so holders that are still waiting are turned away without Redis, and the
+ * bucket is consulted at most once per check-interval-ms and event on each node.
+ */
+@Slf4j
+@Service
+public class WaitingRoomService {
+	public static final String HEADER = "Queue-Token";
+	public static final String STORE_REDIS = "redis";
+	public static final String STORE_LOCAL = "local";
+
+	private final SeatFunctionLibrary seatFunctionLibrary;
+	private final QueueTokenSigner queueTokenSigner;
+	private final boolean enabled;
+	private final Set<String> events;
+	private final boolean local;
+	private final double ratePerSecond;
+	private final long burst;
+	private final long checkIntervalNanos;
+	private final long roomTtlMs;
+
+	private final Map<String, AdmittedView> views = new ConcurrentHashMap<>();
+	private final Map<String, LocalRoom> localRooms = new ConcurrentHashMap<>();
+
+	private final Counter joined;
+	private final Counter rejected;
+
+	public WaitingRoomService(SeatFunctionLibrary seatFunctionLibrary, QueueTokenSigner queueTokenSigner,
+			MeterRegistry meterRegistry,
+			@Value("${tickets.waiting-room.enabled:false}") boolean enabled,
+			@Value("${tickets.waiting-room.events:}") String events,
+			@Value("${tickets.waiting-room.store:redis}") String store,
+			@Value("${tickets.waiting-room.rate-per-second:50}") double ratePerSecond,
+			@Value("${tickets.waiting-room.burst:100}") long burst,
+			@Value("${tickets.waiting-room.check-interval-ms:100}") long checkIntervalMs,
+			@Value("${tickets.waiting-room.token-ttl-ms:7200000}") long roomTtlMs) {
+		if (!STORE_REDIS.equals(store) && !STORE_LOCAL.equals(store)) {
+			throw new IllegalArgumentException("tickets.waiting-room.store must be " + STORE_REDIS + " or " + STORE_LOCAL);
+		}
+		if (ratePerSecond <= 0 || burst <= 0 || checkIntervalMs < 0 || roomTtlMs <= 0) {
+			throw new IllegalArgumentException("tickets.waiting-room rate, burst and token ttl must be positive");
+		}
+		this.seatFunctionLibrary = seatFunctionLibrary;
+		this.queueTokenSigner = queueTokenSigner;
+		this.enabled = enabled;
+		this.events = Arrays.stream(events.split(",")).map(String::trim).filter(e -> !e.isEmpty())
+				.collect(Collectors.toUnmodifiableSet());
+		this.local = STORE_LOCAL.equals(store);
+		this.ratePerSecond = ratePerSecond;
+		this.burst = burst;
+		this.checkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMs);
+		this.roomTtlMs = roomTtlMs;
+
+		this.joined = Counter.builder("tickets.waiting.room.joined")
+				.description("Queue tokens handed out")
+				.register(meterRegistry);
+		this.rejected = Counter.builder("tickets.waiting.room.rejected")
+				.description("Purchase requests turned away for a missing, invalid or not yet admitted queue token")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * True when purchases of the event need an admitted queue token (all events if tickets.waiting-room.events
+	 * is empty).
+	 */
+	public boolean appliesTo(String eventId) {
+		return enabled && (events.isEmpty() || events.contains(eventId));
+	}
+
+	public WaitingRoomRespondDTO join(String eventId) {
+		if (!appliesTo(eventId)) {
+			throw new IllegalArgumentException("Event " + eventId + " has no waiting room.");
+		}
+		long position = local
+				? localRooms.computeIfAbsent(eventId, k -> new LocalRoom()).join()
+				: seatFunctionLibrary.fcall(SeatFunctionLibrary.FN_WAITING_ROOM_JOIN,
+						List.of(RedisKeyUtil.getWaitingRoomKey(eventId)), String.valueOf(roomTtlMs));
+		joined.increment();
+		String token = queueTokenSigner.issue(eventId, position, System.currentTimeMillis());
+		long admittedThrough = admittedThrough(eventId, position, true);
+		log.debug("[WaitingRoomService] joined event={}, position={}, admittedThrough={}", eventId, position,
+				admittedThrough);
+		return new WaitingRoomRespondDTO(eventId, token, position, admittedThrough, position <= admittedThrough);
+	}
+
+	public WaitingRoomRespondDTO status(String eventId, String token) {
+		QueueTokenSigner.QueueToken queueToken = verify(eventId, token);
+		long admittedThrough = admittedThrough(eventId, queueToken.position(), false);
+		return new WaitingRoomRespondDTO(eventId, token, queueToken.position(), admittedThrough,
+				queueToken.position() <= admittedThrough);
+	}
+
+	/**
+	 * Gate of the purchase endpoints, no-op for events without a waiting room.
+	 *
+	 * @throws InvalidQueueTokenException if the token is missing, forged, expired or for another event
+	 * @throws NotAdmittedException       if the token's position has not been admitted yet
+	 */
+	public void checkAdmitted(String eventId, String token) {
+		if (!appliesTo(eventId)) {
+			return;
+		}
+		QueueTokenSigner.QueueToken queueToken;
+		try {
+			queueToken = verify(eventId, token);
+		} catch (InvalidQueueTokenException e) {
+			rejected.increment();
+			throw e;
+		}
+		long position = queueToken.position();
+		long admittedThrough = admittedThrough(eventId, position, false);
+		if (position > admittedThrough) {
+			rejected.increment();
+			long retryAfter = Math.max(1, (long) Math.ceil((position - admittedThrough) / ratePerSecond));
+			throw new NotAdmittedException("Position " + position + " of event " + eventId
+					+ " not admitted yet, admitted through " + admittedThrough + ".", position, admittedThrough,
+					retryAfter);
+		}
+	}
+
+	private QueueTokenSigner.QueueToken verify(String eventId, String token) {
+		if (token == null || token.isBlank()) {
+			throw new InvalidQueueTokenException("Join the waiting room of event " + eventId + " first.");
+		}
+		QueueTokenSigner.QueueToken queueToken = queueTokenSigner.verify(token, System.currentTimeMillis());
+		if (!queueToken.eventId().equals(eventId)) {
+			throw new InvalidQueueTokenException("Queue token belongs to another event.");
+		}
+		return queueToken;
+	}
+
+	// highest admitted position; asks the bucket only if position is beyond what this node already knows
+	private long admittedThrough(String eventId, long position, boolean force) {
+		AdmittedView view = views.computeIfAbsent(eventId, k -> new AdmittedView());
+		long known = view.admittedThrough.get();
+		if (position <= known) {
+			return known;
+		}
+		long now = System.nanoTime();
+		if (!force && now - view.nextCheckAt < 0) {
+			return known;
+		}
+		view.nextCheckAt = now + checkIntervalNanos;
+
+		long admitted;
+		long nowMs = System.currentTimeMillis();
+		if (local) {
+			admitted = localRooms.computeIfAbsent(eventId, k -> new LocalRoom()).admit(nowMs, ratePerSecond, burst);
+		} else {
+			List<Object> res = seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_WAITING_ROOM_ADMIT,
+					List.of(RedisKeyUtil.getWaitingRoomKey(eventId)), String.valueOf(nowMs),
+					String.valueOf(ratePerSecond), String.valueOf(burst), String.valueOf(position));
+			admitted = ((Number) res.get(0)).longValue();
+		}
+		return view.admittedThrough.accumulateAndGet(admitted, Math::max);
+	}
+
+	private static final class AdmittedView {
+		final AtomicLong admittedThrough = new AtomicLong();
+		volatile long nextCheckAt = System.nanoTime();
+	}
+
+	// single-node stand-in for the Redis room, same bucket as waiting_room_admit
+	static final class LocalRoom {
+		private long issued;
+		private long admitted;
+		private double tokens = -1;
+		private long ts;
+
+		synchronized long join() {
+			return ++issued;
+		}
+
+		synchronized long admit(long nowMs, double ratePerSecond, long burst) {
+			if (tokens < 0) {
+				tokens = burst;
+				ts = nowMs;
+			}
+			if (issued > admitted) {
+				if (nowMs > ts) {
+					tokens = Math.min(burst, tokens + (nowMs - ts) * ratePerSecond / 1000);
+					ts = nowMs;
+				}
+				long advance = Math.min(issued - admitted, (long) Math.floor(tokens));
+				admitted += advance;
+				tokens -= advance;
+			}
+			return admitted;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package org.java.purchaseservice.service.cancel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.dto.TicketCancelRespondDTO;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.event.TicketCancelledEvent;
+import org.java.purchaseservice.exception.CancelTicketException;
+import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Cancel → refund of a sold seat.
+ * seat_cancel checks that the seat still belongs to the ticket and releases it with all its counters in one FCALL,
+ * so the seat is on sale again as soon as this returns. The TicketCancelledEvent then moves the projected
+ * ticket to CANCELLED.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketCancellationService {
+	private final SeatOccupiedRedisFacade seatOccupiedRedisFacade;
+	private final ApplicationEventPublisher eventPublisher;
+
+	public TicketCancelRespondDTO cancelTicket(String ticketId, TicketPurchaseRequestDTO dto) {
+		log.info("[TicketCancellationService] cancelTicket start: ticketId={}, eventId={}, seat={}-{}", ticketId,
+				dto.getEventId(), dto.getRow(), dto.getColumn());
+
+		seatOccupiedRedisFacade.cancelSeat(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), dto.getRow(),
+				dto.getColumn(), ticketId);
+		Instant now = Instant.now();
+
+		try {
+			TicketCancelledEvent event = TicketCancelledEvent.builder().ticketId(ticketId).venueId(dto.getVenueId())
+					.eventId(dto.getEventId()).zoneId(dto.getZoneId()).row(dto.getRow()).column(dto.getColumn())
+					.cancelledOn(now).build();
+			eventPublisher.publishEvent(event);
+			log.info("[TicketCancellationService] TicketCancelledEvent published: ticketId={}", ticketId);
+
+			return new TicketCancelRespondDTO(ticketId, dto.getZoneId(), dto.getRow(), dto.getColumn(), now);
+		} catch (Exception ex) {
+			// the cancellation is not recorded, give the seat back to the ticket
+			safeReoccupySeat(ticketId, dto, ex);
+			throw new CancelTicketException("Failed to cancel ticket", ex);
+		}
+	}
+
+	private void safeReoccupySeat(String ticketId, TicketPurchaseRequestDTO dto, Exception original) {
+		try {
+			seatOccupiedRedisFacade.restoreSeat(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), dto.getRow(),
+					dto.getColumn(), ticketId);
+			log.info("[TicketCancellationService] seat restored after failure, ticketId={}", ticketId);
+		} catch (Exception re) {
+			log.error("[TicketCancellationService] seat restore FAILED, ticketId={}, cause={}, restoreErr={}",
+					ticketId, original.getMessage(), re.getMessage(), re);
+		}
+	}
+}
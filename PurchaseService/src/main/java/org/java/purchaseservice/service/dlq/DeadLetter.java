@@ -0,0 +1,35 @@
+package org.java.purchaseservice.service.dlq;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * One dead letter as stored in the journal.
+ * Journal payload layout: [long failedAtMillis][short reasonLength][reason][original payload],
+ * the partition key is the journal record key.
+ */
+public record DeadLetter(String partitionKey, byte[] payload, String errorReason, Instant failedAt) {
+	private static final int MAX_REASON_BYTES = 1024;
+
+	byte[] encode() {
+		byte[] reason = errorReason == null ? new byte[0] : errorReason.getBytes(StandardCharsets.UTF_8);
+		int reasonLength = Math.min(reason.length, MAX_REASON_BYTES);
+		return ByteBuffer.allocate(8 + 2 + reasonLength + payload.length)
+				.putLong(failedAt.toEpochMilli())
+				.putShort((short) reasonLength)
+				.put(reason, 0, reasonLength)
+				.put(payload)
+				.array();
+	}
+
+	static DeadLetter decode(String partitionKey, byte[] record) {
+		ByteBuffer buf = ByteBuffer.wrap(record);
+		Instant failedAt = Instant.ofEpochMilli(buf.getLong());
+		byte[] reason = new byte[buf.getShort()];
+		buf.get(reason);
+		byte[] payload = new byte[buf.remaining()];
+		buf.get(payload);
+		return new DeadLetter(partitionKey, payload, new String(reason, StandardCharsets.UTF_8), failedAt);
+	}
+}
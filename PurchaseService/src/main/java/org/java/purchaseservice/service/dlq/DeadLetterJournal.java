@@ -0,0 +1,106 @@
+package org.java.purchaseservice.service.dlq;
+
+import jakarta.annotation.PreDestroy;
+import org.java.purchaseservice.service.journal.SegmentLog;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local dead-letter journal: CRC-checked records in rotating segment files under a fixed disk budget
+ * (segment-bytes x max-segments). When the budget is exhausted the oldest segment is dropped.
+ * Letters Kafka rejects for good on replay are parked in a second log under parked/ with the same budget; they stay
+ * there until an operator purges them via /actuator/dlq.
+ */
+@Component
+public class DeadLetterJournal implements InitializingBean {
+	private final SegmentLog segmentLog;
+	private final SegmentLog parkedLog;
+	private final long budgetBytes;
+	private final AtomicLong appended = new AtomicLong();
+
+	public DeadLetterJournal(@Value("${tickets.dlq.dir:./data/dlq}") String dir,
+			@Value("${tickets.dlq.segment-bytes:16777216}") int segmentBytes,
+			@Value("${tickets.dlq.max-segments:64}") int maxSegments,
+			@Value("${tickets.dlq.fsync:true}") boolean fsync) {
+		this.segmentLog = new SegmentLog(Path.of(dir), segmentBytes, fsync, maxSegments);
+		this.parkedLog = new SegmentLog(Path.of(dir).resolve("parked"), segmentBytes, fsync, maxSegments);
+		this.budgetBytes = (long) segmentBytes * maxSegments;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		segmentLog.open();
+		parkedLog.open();
+	}
+
+	@PreDestroy
+	public void close() {
+		segmentLog.close();
+		parkedLog.close();
+	}
+
+	public void append(DeadLetter deadLetter) {
+		segmentLog.append(deadLetter.partitionKey() == null ? "" : deadLetter.partitionKey(), deadLetter.encode());
+		appended.incrementAndGet();
+	}
+
+	public void park(DeadLetter deadLetter) {
+		parkedLog.append(deadLetter.partitionKey() == null ? "" : deadLetter.partitionKey(), deadLetter.encode());
+	}
+
+	/**
+	 * Oldest parked letters, at most max.
+	 */
+	public List<DeadLetter> getParked(int max) {
+		List<DeadLetter> letters = new ArrayList<>();
+		for (SegmentLog.Entry entry : parkedLog.read(parkedLog.loadCommitted(), max)) {
+			letters.add(DeadLetter.decode(entry.key(), entry.payload()));
+		}
+		return letters;
+	}
+
+	public long getParkedBytes() {
+		return parkedLog.backlogBytes(parkedLog.loadCommitted());
+	}
+
+	/**
+	 * Deletes the parked letters present now, letters parked meanwhile are kept.
+	 *
+	 * @return letters deleted
+	 */
+	public long purgeParked() {
+		SegmentLog.Position from = parkedLog.loadCommitted();
+		long purged = 0;
+		List<SegmentLog.Entry> batch;
+		while (!(batch = parkedLog.read(from, 1000)).isEmpty()) {
+			purged += batch.size();
+			from = batch.get(batch.size() - 1).next();
+		}
+		if (purged > 0) {
+			parkedLog.commit(from);
+		}
+		return purged;
+	}
+
+	public long getAppended() {
+		return appended.get();
+	}
+
+	public long getBudgetBytes() {
+		return budgetBytes;
+	}
+
+	SegmentLog getSegmentLog() {
+		return segmentLog;
+	}
+
+	SegmentLog getParkedLog() {
+		return parkedLog;
+	}
+}
@@ -0,0 +1,60 @@
+package org.java.purchaseservice.service.dlq;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint (/actuator/dlq) reporting the dead-letter backlog on this node, how fast it drains and the
+ * oldest letters Kafka rejected for good on replay (parked).
+ * DELETE /actuator/dlq purges the parked letters once they have been dealt with.
+ */
+@Component
+@Endpoint(id = "dlq")
+@RequiredArgsConstructor
+public class DeadLetterQueueEndpoint {
+	private static final int PARKED_SHOWN = 100;
+
+	private final DeadLetterJournal deadLetterJournal;
+	private final DeadLetterReplayWorker deadLetterReplayWorker;
+
+	@ReadOperation
+	public Map<String, Object> dlq() {
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("backlogBytes", deadLetterReplayWorker.getBacklogBytes());
+		info.put("diskBytes", deadLetterJournal.getSegmentLog().diskBytes());
+		info.put("diskBudgetBytes", deadLetterJournal.getBudgetBytes());
+		info.put("journaledSinceStart", deadLetterJournal.getAppended());
+		info.put("droppedByBudget", deadLetterJournal.getSegmentLog().getDroppedRecords());
+		info.put("quarantinedCorrupt", deadLetterJournal.getSegmentLog().getQuarantinedRecords());
+		info.put("replayedTotal", deadLetterReplayWorker.getReplayedTotal());
+		info.put("parkedTotal", deadLetterReplayWorker.getParkedTotal());
+		info.put("parkedBytes", deadLetterJournal.getParkedBytes());
+		List<Map<String, Object>> parked = new ArrayList<>();
+		for (DeadLetter letter : deadLetterJournal.getParked(PARKED_SHOWN)) {
+			Map<String, Object> item = new LinkedHashMap<>();
+			item.put("partitionKey", letter.partitionKey());
+			item.put("failedAt", letter.failedAt());
+			item.put("reason", letter.errorReason());
+			item.put("payloadBytes", letter.payload().length);
+			parked.add(item);
+		}
+		info.put("parked", parked);
+		info.put("replayRatePerSec", deadLetterReplayWorker.getReplayRatePerSec());
+		info.put("nextAttemptAt", deadLetterReplayWorker.getNextAttemptAt());
+		info.put("lastError", deadLetterReplayWorker.getLastError());
+		return info;
+	}
+
+	@DeleteOperation
+	public Map<String, Object> purgeParked() {
+		return Map.of("purged", deadLetterJournal.purgeParked());
+	}
+}
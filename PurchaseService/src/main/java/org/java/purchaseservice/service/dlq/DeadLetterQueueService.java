@@ -4,7 +4,7 @@ package org.java.purchaseservice.service.dlq;
  * Dead Letter Queue Service Interface
  */
 public interface DeadLetterQueueService {
-	void sendToDeadLetterQueue(String payload, String partitionKey, String errorReason);
+	void sendToDeadLetterQueue(byte[] payload, String partitionKey, String errorReason);
 
 }
 
@@ -0,0 +1,173 @@
+package org.java.purchaseservice.service.dlq;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.publisher.MessagePublisher;
+import org.java.purchaseservice.publisher.PublishFailures;
+import org.java.purchaseservice.service.journal.SegmentLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes journaled dead letters to Kafka again, oldest first.
+ * After a failed attempt the worker waits with exponential backoff (initial-backoff-ms doubling up to
+ * max-backoff-ms); the first successful batch resets it. Letters the broker rejects for good are parked in the
+ * journal, where /actuator/dlq shows them until they are purged.
+ */
+@Slf4j
+@Component
+public class DeadLetterReplayWorker {
+	private static final double RATE_SMOOTHING = 0.3;
+
+	private final DeadLetterJournal deadLetterJournal;
+	private final SegmentLog segmentLog;
+	private final MessagePublisher messagePublisher;
+	private final int batchSize;
+	private final long initialBackoffMs;
+	private final long maxBackoffMs;
+	// held while waiting for broker acks, a monitor would pin the carrier of a virtual thread
+	private final ReentrantLock replayLock = new ReentrantLock();
+
+	private final Counter replayedCounter;
+	private final Counter parkedCounter;
+
+	private volatile SegmentLog.Position committed;
+	private long backoffMs;
+	private volatile long nextAttemptAtMs;
+	private volatile long lastRunAtMs;
+	private volatile double replayRatePerSec;
+	private volatile String lastError;
+
+	public DeadLetterReplayWorker(DeadLetterJournal deadLetterJournal, MessagePublisher messagePublisher,
+			MeterRegistry meterRegistry,
+			@Value("${tickets.dlq.replay-batch-size:200}") int batchSize,
+			@Value("${tickets.dlq.initial-backoff-ms:1000}") long initialBackoffMs,
+			@Value("${tickets.dlq.max-backoff-ms:60000}") long maxBackoffMs) {
+		this.deadLetterJournal = deadLetterJournal;
+		this.segmentLog = deadLetterJournal.getSegmentLog();
+		this.messagePublisher = messagePublisher;
+		this.batchSize = batchSize;
+		this.initialBackoffMs = initialBackoffMs;
+		this.maxBackoffMs = maxBackoffMs;
+		this.replayedCounter = Counter.builder("tickets.dlq.replayed").register(meterRegistry);
+		this.parkedCounter = Counter.builder("tickets.dlq.parked").register(meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${tickets.dlq.replay-interval-ms:1000}")
+	public void replay() {
+		replayLock.lock();
+		try {
+			replayLocked();
+		} finally {
+			replayLock.unlock();
+		}
+	}
+
+	private void replayLocked() {
+		long now = System.currentTimeMillis();
+		if (now < nextAttemptAtMs) {
+			return;
+		}
+		if (committed == null) {
+			committed = segmentLog.loadCommitted();
+		}
+
+		long replayed = 0;
+		boolean failed = false;
+		List<SegmentLog.Entry> batch;
+		while (!failed && !(batch = segmentLog.read(committed, batchSize)).isEmpty()) {
+			List<DeadLetter> letters = new ArrayList<>(batch.size());
+			List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+			for (SegmentLog.Entry entry : batch) {
+				DeadLetter letter = DeadLetter.decode(entry.key(), entry.payload());
+				letters.add(letter);
+				sends.add(messagePublisher.kafkaPublish(letter.payload(), letter.partitionKey()));
+			}
+
+			SegmentLog.Position done = committed;
+			for (int i = 0; i < batch.size(); i++) {
+				Throwable failure = PublishFailures.await(sends.get(i));
+				if (failure != null && PublishFailures.isRetriable(failure)) {
+					lastError = failure.toString();
+					failed = true;
+					break;
+				}
+				if (failure != null) {
+					// parked before the commit below, a failing park leaves the letter in the journal
+					DeadLetter letter = letters.get(i);
+					deadLetterJournal.park(new DeadLetter(letter.partitionKey(), letter.payload(),
+							"Kafka rejected on replay: " + failure, Instant.now()));
+					parkedCounter.increment();
+					log.error("【DLQ】Dead letter rejected again by Kafka, parked: partitionKey={}, error={}",
+							batch.get(i).key(), failure.toString());
+				} else {
+					replayed++;
+					replayedCounter.increment();
+				}
+				done = batch.get(i).next();
+			}
+			if (done != committed) {
+				segmentLog.commit(done);
+				committed = done;
+			}
+		}
+
+		updateRate(replayed, now);
+		if (failed) {
+			backoffMs = backoffMs == 0 ? initialBackoffMs : Math.min(backoffMs * 2, maxBackoffMs);
+			nextAttemptAtMs = System.currentTimeMillis() + backoffMs;
+			log.warn("【DLQ】Replay paused for {}ms after {} letters: {}", backoffMs, replayed, lastError);
+		} else {
+			backoffMs = 0;
+			nextAttemptAtMs = 0;
+			if (replayed > 0) {
+				log.info("【DLQ】Replayed {} dead letters", replayed);
+			}
+		}
+	}
+
+	public long getBacklogBytes() {
+		SegmentLog.Position from = committed != null ? committed : segmentLog.loadCommitted();
+		return segmentLog.backlogBytes(from);
+	}
+
+	public double getReplayRatePerSec() {
+		return replayRatePerSec;
+	}
+
+	public long getReplayedTotal() {
+		return (long) replayedCounter.count();
+	}
+
+	public long getParkedTotal() {
+		return (long) parkedCounter.count();
+	}
+
+	public Instant getNextAttemptAt() {
+		long next = nextAttemptAtMs;
+		return next == 0 ? null : Instant.ofEpochMilli(next);
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	// exponentially smoothed letters per second over the runs
+	private void updateRate(long replayed, long now) {
+		long last = lastRunAtMs;
+		lastRunAtMs = now;
+		if (last == 0) {
+			return;
+		}
+		double elapsedSec = Math.max(now - last, 1) / 1000.0;
+		replayRatePerSec = RATE_SMOOTHING * (replayed / elapsedSec) + (1 - RATE_SMOOTHING) * replayRatePerSec;
+	}
+}
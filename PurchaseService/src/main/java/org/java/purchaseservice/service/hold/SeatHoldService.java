@@ -0,0 +1,85 @@
+package org.java.purchaseservice.service.hold;
+
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.dto.TicketHoldConfirmDTO;
+import org.java.purchaseservice.dto.TicketHoldRespondDTO;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.dto.TicketRespondDTO;
+import org.java.purchaseservice.event.TicketCreatedEvent;
+import org.java.purchaseservice.exception.CreateTicketException;
+import org.java.purchaseservice.model.TicketStatus;
+import org.java.purchaseservice.service.id.TicketIdGenerator;
+import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Hold → confirm → (or) expire lifecycle on top of the zone bitmaps.
+ * A hold occupies the seat right away; only a confirmed hold produces a ticket event.
+ * Holds that are not confirmed in time are released by SeatHoldSweeper.
+ */
+@Slf4j
+@Service
+public class SeatHoldService {
+	private final SeatOccupiedRedisFacade seatOccupiedRedisFacade;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TicketIdGenerator ticketIdGenerator;
+	private final long holdTtlMs;
+
+	public SeatHoldService(SeatOccupiedRedisFacade seatOccupiedRedisFacade, ApplicationEventPublisher eventPublisher,
+			TicketIdGenerator ticketIdGenerator, @Value("${tickets.holds.ttl-seconds:300}") long holdTtlSeconds) {
+		this.seatOccupiedRedisFacade = seatOccupiedRedisFacade;
+		this.eventPublisher = eventPublisher;
+		this.ticketIdGenerator = ticketIdGenerator;
+		this.holdTtlMs = holdTtlSeconds * 1000;
+	}
+
+	public TicketHoldRespondDTO holdSeat(TicketPurchaseRequestDTO dto) {
+		String holdId = UUID.randomUUID().toString();
+		long expiresAtMs = System.currentTimeMillis() + holdTtlMs;
+
+		seatOccupiedRedisFacade.holdSeat(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), dto.getRow(),
+				dto.getColumn(), holdId, expiresAtMs);
+		log.debug("[SeatHoldService] seat held: eventId={}, seat={}-{}, holdId={}", dto.getEventId(), dto.getRow(),
+				dto.getColumn(), holdId);
+
+		return new TicketHoldRespondDTO(holdId, dto.getZoneId(), dto.getRow(), dto.getColumn(),
+				Instant.ofEpochMilli(expiresAtMs));
+	}
+
+	public TicketRespondDTO confirmHold(TicketHoldConfirmDTO dto) {
+		Instant now = Instant.now();
+		String ticketId = ticketIdGenerator.nextId();
+		seatOccupiedRedisFacade.confirmHold(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), dto.getRow(),
+				dto.getColumn(), dto.getHoldId(), now.toEpochMilli(), ticketId);
+
+		try {
+			TicketCreatedEvent event = TicketCreatedEvent.builder().ticketId(ticketId).venueId(dto.getVenueId())
+					.eventId(dto.getEventId()).zoneId(dto.getZoneId()).row(dto.getRow()).column(dto.getColumn())
+					.status(TicketStatus.PAID).createdOn(now).build();
+			eventPublisher.publishEvent(event);
+			log.info("[SeatHoldService] hold confirmed, TicketCreatedEvent published: ticketId={}, holdId={}",
+					ticketId, dto.getHoldId());
+
+			return new TicketRespondDTO(ticketId, dto.getZoneId(), dto.getRow(), dto.getColumn(), now);
+		} catch (Exception ex) {
+			// hold is already consumed, give the seat back like a failed purchase
+			safeReleaseSeat(dto, ex);
+			throw new CreateTicketException("Failed to create ticket", ex);
+		}
+	}
+
+	private void safeReleaseSeat(TicketHoldConfirmDTO dto, Exception original) {
+		try {
+			seatOccupiedRedisFacade.releaseSeat(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), dto.getRow(),
+					dto.getColumn());
+		} catch (Exception re) {
+			log.error("[SeatHoldService] seat release FAILED, holdId={}, cause={}, releaseErr={}", dto.getHoldId(),
+					original.getMessage(), re.getMessage(), re);
+		}
+	}
+}
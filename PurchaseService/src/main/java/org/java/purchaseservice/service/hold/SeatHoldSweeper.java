@@ -0,0 +1,88 @@
+package org.java.purchaseservice.service.hold;
+
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.service.redis.RedisKeyUtil;
+import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Releases expired seat holds in batches.
+ * Only events listed in holds:events are visited and only members with score <= now are read,
+ * so each tick costs O(events with holds + expiring holds), never a scan over all seats.
+ * Several nodes may sweep at once; seat_holds_expire re-checks every member atomically.
+ */
+@Slf4j
+@Component
+public class SeatHoldSweeper {
+	private final StringRedisTemplate stringRedisTemplate;
+	private final SeatOccupiedRedisFacade seatOccupiedRedisFacade;
+	private final int batchSize;
+	private final int maxBatchesPerEvent;
+
+	public SeatHoldSweeper(StringRedisTemplate stringRedisTemplate, SeatOccupiedRedisFacade seatOccupiedRedisFacade,
+			@Value("${tickets.holds.sweep-batch-size:500}") int batchSize,
+			@Value("${tickets.holds.sweep-max-batches:10}") int maxBatchesPerEvent) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.seatOccupiedRedisFacade = seatOccupiedRedisFacade;
+		this.batchSize = batchSize;
+		this.maxBatchesPerEvent = maxBatchesPerEvent;
+	}
+
+	@Scheduled(fixedDelayString = "${tickets.holds.sweep-interval-ms:1000}")
+	public void sweepExpiredHolds() {
+		try {
+			Set<String> eventIds = stringRedisTemplate.opsForSet().members(RedisKeyUtil.getHoldEventsKey());
+			if (CollectionUtils.isEmpty(eventIds)) {
+				return;
+			}
+
+			long now = System.currentTimeMillis();
+			long released = 0;
+			for (String eventId : eventIds) {
+				released += sweepEvent(eventId, now);
+			}
+			if (released > 0) {
+				log.info("[SeatHoldSweeper] Released {} expired holds across {} events", released, eventIds.size());
+			}
+		} catch (Exception e) {
+			log.warn("[SeatHoldSweeper] Sweep failed: {}", e.getMessage());
+		}
+	}
+
+	long sweepEvent(String eventId, long now) {
+		String holdsKey = RedisKeyUtil.getEventHoldsKey(eventId);
+		long released = 0;
+
+		for (int batch = 0; batch < maxBatchesPerEvent; batch++) {
+			Set<String> expired = stringRedisTemplate.opsForZSet().rangeByScore(holdsKey, 0, now, 0, batchSize);
+			if (CollectionUtils.isEmpty(expired)) {
+				break;
+			}
+
+			// one FCALL per zone, keys of a call must share the zone bitmap
+			Map<Integer, List<String>> byZone = new HashMap<>();
+			for (String member : expired) {
+				int zoneId = SeatOccupiedRedisFacade.holdMemberZoneId(member);
+				byZone.computeIfAbsent(zoneId, z -> new ArrayList<>()).add(member);
+			}
+			for (Map.Entry<Integer, List<String>> entry : byZone.entrySet()) {
+				released += seatOccupiedRedisFacade.expireHolds(eventId, entry.getKey(), entry.getValue(), now);
+			}
+
+			if (expired.size() < batchSize) {
+				break;
+			}
+		}
+		return released;
+	}
+}
@@ -0,0 +1,79 @@
+package org.java.purchaseservice.service.id;
+
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered ticket ids in UUIDv7 layout, so they still fit the 16-byte UUID slot of the wire codec.
+ * Ids sort by creation time, which keeps inserts into the ticket primary key at the right edge of the index.
+ * <pre>
+ * msb: unix ms (48) | version 7 (4) | sequence (12)
+ * lsb: variant 10 (2) | random (62)
+ * </pre>
+ * The millisecond and sequence advance together with one CAS, so a node never repeats or reorders ids,
+ * also when the wall clock steps back; a full sequence carries into the next millisecond.
+ * A ticket id is all a caller needs to cancel the seat it names, so the 62 random bits come from a
+ * SecureRandom and cannot be guessed from ids issued before it.
+ */
+@Component
+public class TicketIdGenerator {
+	static final int SEQUENCE_BITS = 12;
+	static final int RANDOM_BITS = 62;
+
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	private static final long RANDOM_MASK = (1L << RANDOM_BITS) - 1;
+
+	// shared like the one behind UUID.randomUUID; SecureRandom is thread safe
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	// last issued (ms << SEQUENCE_BITS | sequence)
+	private final AtomicLong lastStamp = new AtomicLong();
+
+	public String nextId() {
+		return next().toString();
+	}
+
+	public UUID next() {
+		long stamp = nextStamp();
+		long ms = stamp >>> SEQUENCE_BITS;
+		long sequence = stamp & SEQUENCE_MASK;
+
+		long msb = (ms << 16) | (0x7L << 12) | sequence;
+		long lsb = (0b10L << 62) | (randomLong() & RANDOM_MASK);
+		return new UUID(msb, lsb);
+	}
+
+	public static long timestampOf(UUID id) {
+		return id.getMostSignificantBits() >>> 16;
+	}
+
+	public static long randomOf(UUID id) {
+		return id.getLeastSignificantBits() & RANDOM_MASK;
+	}
+
+	// same millisecond: sequence + 1, a full sequence carries into the next millisecond
+	private long nextStamp() {
+		long now = System.currentTimeMillis() << SEQUENCE_BITS;
+		while (true) {
+			long last = lastStamp.get();
+			long next = Math.max(now, last + 1);
+			if (lastStamp.compareAndSet(last, next)) {
+				return next;
+			}
+		}
+	}
+
+	// one nextBytes call; SecureRandom.nextLong draws and allocates twice
+	private static long randomLong() {
+		byte[] bytes = new byte[Long.BYTES];
+		RANDOM.nextBytes(bytes);
+		return (long) LONG_VIEW.get(bytes, 0);
+	}
+}
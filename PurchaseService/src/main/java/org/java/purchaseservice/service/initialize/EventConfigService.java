@@ -9,12 +9,16 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.java.purchaseservice.config.EventConfig;
 
 /**
  * Initializes event configurations during application startup.
- * Runs after VenueConfigService (@Order(2))
+ * Runs after VenueConfigService (@Order(2)); up to events.init-parallelism events at a time.
  */
 @Slf4j
 @Component
@@ -47,38 +51,61 @@ public class EventConfigService implements ApplicationRunner {
 		}
 
 		// counters and event size count
-		int initializedCount = 0;
+		AtomicInteger initializedCount = new AtomicInteger();
 		int totalEvents = events.size();
 
-		// Initiate all setting in the events list.
+		// only initiate enable = true
+		List<EventConfig.Event> enabledEvents = new ArrayList<>(totalEvents);
 		for (EventConfig.Event event : events) {
-			// only initiate enable = true
 			if (event.isEnabled()) {
-				try {
-					// Log Initilization data, count and total events and venue
-					log.info("[EventConfigService] Initializing event: {} for venue: {} ({}/{})",
-							event.getEventId(), event.getVenueId(), initializedCount + 1, totalEvents);
-
-					// Initiate Redis Zones, bitmap, counters, metadata
-					seatService.initializeAllZonesForEvent(event.getEventId(), event.getVenueId());
-
-					// counter ++
-					initializedCount++;
-
-					log.info("[EventConfigService] Successfully initialized event: {}", event.getEventId());
-				} catch (Exception e) {
-					// Error handling
-					log.error("[EventConfigService] Failed to initialize event: {}, error: {}",
-							event.getEventId(), e.getMessage(), e);
-				}
+				enabledEvents.add(event);
 			} else {
 				// Skip disabled event
 				log.info("[EventConfigService] Skipping disabled event: {}", event.getEventId());
 			}
 		}
 
+		// events are independent, initialize several at once; each one is a single pipeline
+		long start = System.nanoTime();
+		int parallelism = Math.max(1, Math.min(eventConfig.getInitParallelism(), enabledEvents.size()));
+		if (parallelism == 1) {
+			for (int i = 0; i < enabledEvents.size(); i++) {
+				initializeEvent(enabledEvents.get(i), i + 1, totalEvents, initializedCount);
+			}
+		} else {
+			// close() waits for every submitted event
+			try (ExecutorService pool = Executors.newFixedThreadPool(parallelism)) {
+				for (int i = 0; i < enabledEvents.size(); i++) {
+					EventConfig.Event event = enabledEvents.get(i);
+					int position = i + 1;
+					pool.execute(() -> initializeEvent(event, position, totalEvents, initializedCount));
+				}
+			}
+		}
+
 		// show initialization comparison initialized vs total
-		log.info("[EventConfigService] Event initialization completed. Successfully initialized {}/{} events",
-				initializedCount, totalEvents);
+		log.info("[EventConfigService] Event initialization completed. Successfully initialized {}/{} events in {}ms",
+				initializedCount.get(), totalEvents, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void initializeEvent(EventConfig.Event event, int position, int totalEvents,
+			AtomicInteger initializedCount) {
+		try {
+			// Log Initilization data, count and total events and venue
+			log.info("[EventConfigService] Initializing event: {} for venue: {} ({}/{})",
+					event.getEventId(), event.getVenueId(), position, totalEvents);
+
+			// Initiate Redis Zones, bitmap, counters, metadata
+			seatService.initializeAllZonesForEvent(event.getEventId(), event.getVenueId());
+
+			// counter ++
+			initializedCount.incrementAndGet();
+
+			log.info("[EventConfigService] Successfully initialized event: {}", event.getEventId());
+		} catch (Exception e) {
+			// Error handling
+			log.error("[EventConfigService] Failed to initialize event: {}, error: {}",
+					event.getEventId(), e.getMessage(), e);
+		}
 	}
 }
@@ -7,15 +7,22 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Initializes venue configurations in Redis during startup.
  * Implements InitializingBean for automatic execution after bean creation.
+ * Keeps an in-process copy of the venue geometry so purchases read it without Redis I/O;
+ * the copy is reloaded when the shared geometry version in Redis changes.
  */
 @Slf4j
 @Service
@@ -24,6 +31,10 @@ public class VenueConfigService implements InitializingBean {
 	private final RedisTemplate<String, Object> redisTemplate;
 	private final VenueConfig venueConfig;
 
+	// venueId -> zone geometry, replaced as a whole (copy-on-write), never mutated
+	private volatile Map<String, VenueGeometry> geometryTable = Map.of();
+	private volatile long geometryVersion = -1;
+
 	@Autowired
 	public VenueConfigService(RedisTemplate<String, Object> redisTemplate, VenueConfig venueConfig) {
 		this.redisTemplate = redisTemplate;
@@ -39,6 +50,7 @@ public class VenueConfigService implements InitializingBean {
 		log.info("[VenueConfigService] Starting venue initialization");
 
 		// Read venue mapping from configuration
+		Map<String, VenueGeometry> loaded = new HashMap<>();
 		Map<String, VenueConfig.Venue> venueMap = venueConfig.getMap();
 		if (!CollectionUtils.isEmpty(venueMap)) {
 			int venueCount = 0;
@@ -48,7 +60,7 @@ public class VenueConfigService implements InitializingBean {
 				VenueConfig.Venue venue = entry.getValue();
 				try {
 					// Initialize individual venue's zone
-					initializeVenue(venueId, venue);
+					loaded.put(venueId, initializeVenue(venueId, venue));
 					venueCount++;
 					log.debug("[VenueConfigService] Successfully initialized venue: {}", venueId);
 				} catch (Exception e) {
@@ -63,19 +75,21 @@ public class VenueConfigService implements InitializingBean {
 
 		try {
 			// Backward compatibility default venue
-			initializeBackwardCompatibilityVenue();
+			loaded.put("Venue1", initializeBackwardCompatibilityVenue());
 			log.info("[VenueConfigService] Backward compatibility venue initialized");
 		} catch (Exception e) {
 			log.error("[VenueConfigService] Failed to initialize backward compatibility venue: {}", e.getMessage(), e);
 		}
 
+		publishGeometry(loaded);
+
 		log.info("[VenueConfigService] Venue initialization completed");
 	}
 
 	/**
 	 * Initializes single venue's zone structure
 	 */
-	private void initializeVenue(String venueId, VenueConfig.Venue venue) {
+	private VenueGeometry initializeVenue(String venueId, VenueConfig.Venue venue) {
 		// Get venue zone configuration parameters
 		var zones = venue.getZones();
 
@@ -90,6 +104,7 @@ public class VenueConfigService implements InitializingBean {
 		for (int zoneId = 1; zoneId <= zoneCount; zoneId++) {
 			initializeVenueZone(venueId, zoneId, rowCount, colCount);
 		}
+		return VenueGeometry.uniform(zoneCount, rowCount, colCount);
 	}
 
 	/**
@@ -97,7 +112,7 @@ public class VenueConfigService implements InitializingBean {
 	 * Flow: Business Venue1 → Overridden by Technical Standard → Final Venue1
 	 * Result: Venue1 = 100 zones × 26 rows × 30 cols = 78,000 seats (standardized)
 	 */
-	private void initializeBackwardCompatibilityVenue() {
+	private VenueGeometry initializeBackwardCompatibilityVenue() {
 		// Use default-config to create standard Venue1
 		// This OVERRIDES any previous Venue1 configuration from venues.map
 		var defaultConfig = venueConfig.getDefaultConfig().getZones();
@@ -112,6 +127,7 @@ public class VenueConfigService implements InitializingBean {
 		for (int zoneId = 1; zoneId <= zoneCount; zoneId++) {
 			initializeVenueZone(venueId, zoneId, rowCount, colCount);
 		}
+		return VenueGeometry.uniform(zoneCount, rowCount, colCount);
 	}
 
 	/**
@@ -144,24 +160,149 @@ public class VenueConfigService implements InitializingBean {
 	}
 
 	public int getRowCount(String venueId, int zoneId) {
+		VenueGeometry geometry = geometryTable.get(venueId);
+		if (geometry != null && geometry.hasZone(zoneId)) {
+			return geometry.getRowCount(zoneId);
+		}
 		String rowCountKey = RedisKeyUtil.getRowCountKey(venueId, zoneId);
 		return getIntValue(rowCountKey);
 	}
 
 	// to get the zone and find the seat in the row
 	public int getSeatPerRow(String venueId, int zoneId) {
+		VenueGeometry geometry = geometryTable.get(venueId);
+		if (geometry != null && geometry.hasZone(zoneId)) {
+			return geometry.getSeatPerRow(zoneId);
+		}
 		String seatKey = RedisKeyUtil.getSeatPerRowKey(venueId, zoneId);
 		return getIntValue(seatKey);
 	}
 
 	// get zone configuration
 	public int getZoneCapacity(String venueId, int zoneId) {
+		VenueGeometry geometry = geometryTable.get(venueId);
+		if (geometry != null && geometry.hasZone(zoneId)) {
+			return geometry.getZoneCapacity(zoneId);
+		}
 		String zoneKey = RedisKeyUtil.getZoneCapacityKey(venueId, zoneId);
 		return getIntValue(zoneKey);
 	}
 
-	private int getIntValue(String key) {
+	public long getGeometryVersion() {
+		return geometryVersion;
+	}
+
+	/**
+	 * Installs the geometry written by this node. The shared version is bumped only when a venue's geometry
+	 * differs from the one Redis held before, so restarting a node does not make every other node reload.
+	 */
+	private void publishGeometry(Map<String, VenueGeometry> loaded) {
+		geometryTable = Map.copyOf(loaded);
+		try {
+			// registered before the bump, a node that sees the new version also sees the venue
+			if (!loaded.isEmpty()) {
+				redisTemplate.opsForSet().add(RedisKeyUtil.getVenueGeometryVenuesKey(), loaded.keySet().toArray());
+			}
+			boolean changed = false;
+			for (Map.Entry<String, VenueGeometry> entry : loaded.entrySet()) {
+				String fingerprint = entry.getValue().fingerprint();
+				Object previous = redisTemplate.opsForValue()
+						.getAndSet(RedisKeyUtil.getVenueGeometryFingerprintKey(entry.getKey()), fingerprint);
+				changed |= previous == null || !fingerprint.equals(previous.toString());
+			}
+
+			String versionKey = RedisKeyUtil.getVenueGeometryVersionKey();
+			if (changed) {
+				Long version = redisTemplate.opsForValue().increment(versionKey);
+				geometryVersion = version != null ? version : geometryVersion;
+			} else {
+				geometryVersion = getLongValue(versionKey);
+			}
+			log.info("[VenueConfigService] Local venue geometry installed: venues={}, version={}, changed={}",
+					loaded.size(), geometryVersion, changed);
+		} catch (Exception e) {
+			log.warn("[VenueConfigService] Failed to publish venue geometry: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Polls the shared geometry version and reloads the local table from Redis when it changed.
+	 * One GET per tick; the reload reads the venue list, then one multiGet per venue.
+	 */
+	@Scheduled(fixedDelayString = "${tickets.venue-geometry.refresh-interval-ms:5000}")
+	public void refreshGeometryIfChanged() {
+		try {
+			long remote = getLongValue(RedisKeyUtil.getVenueGeometryVersionKey());
+			if (remote == geometryVersion) {
+				return;
+			}
+
+			// venues written by any node, plus the local ones in case the list was lost
+			Set<String> venueIds = new HashSet<>(geometryTable.keySet());
+			Set<Object> registered = redisTemplate.opsForSet().members(RedisKeyUtil.getVenueGeometryVenuesKey());
+			if (registered != null) {
+				registered.forEach(v -> venueIds.add(v.toString()));
+			}
+
+			Map<String, VenueGeometry> reloaded = new HashMap<>();
+			for (String venueId : venueIds) {
+				VenueGeometry geometry = loadGeometryFromRedis(venueId);
+				if (geometry != null) {
+					reloaded.put(venueId, geometry);
+				}
+			}
+			geometryTable = Map.copyOf(reloaded);
+			log.info("[VenueConfigService] Venue geometry reloaded: version {} -> {}, venues={}",
+					geometryVersion, remote, reloaded.size());
+			geometryVersion = remote;
+		} catch (Exception e) {
+			// keep serving the previous table, it is still consistent with itself
+			log.warn("[VenueConfigService] Venue geometry refresh failed: {}", e.getMessage());
+		}
+	}
+
+	private VenueGeometry loadGeometryFromRedis(String venueId) {
+		Set<Object> zones = getVenueZones(venueId);
+		if (CollectionUtils.isEmpty(zones)) {
+			return null;
+		}
+
+		List<Integer> zoneIds = new ArrayList<>(zones.size());
+		List<String> keys = new ArrayList<>(zones.size() * 3);
+		for (Object z : zones) {
+			int zoneId = Integer.parseInt(z.toString());
+			zoneIds.add(zoneId);
+			keys.add(RedisKeyUtil.getRowCountKey(venueId, zoneId));
+			keys.add(RedisKeyUtil.getSeatPerRowKey(venueId, zoneId));
+			keys.add(RedisKeyUtil.getZoneCapacityKey(venueId, zoneId));
+		}
+
+		List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+		if (values == null) {
+			return null;
+		}
+
+		VenueGeometry.Builder builder = new VenueGeometry.Builder(zoneIds.size());
+		for (int i = 0; i < zoneIds.size(); i++) {
+			builder.zone(zoneIds.get(i), toInt(values.get(i * 3)), toInt(values.get(i * 3 + 1)),
+					toInt(values.get(i * 3 + 2)));
+		}
+		return builder.build();
+	}
+
+	private long getLongValue(String key) {
 		Object value = redisTemplate.opsForValue().get(key);
+		if (value != null) {
+			try {
+				return Long.parseLong(value.toString());
+			} catch (NumberFormatException e) {
+				return 0;
+			}
+		}
+		return 0;
+	}
+
+	private int toInt(Object value) {
 		if (value != null) {
 			try {
 				return Integer.parseInt(value.toString());
@@ -171,4 +312,8 @@ public class VenueConfigService implements InitializingBean {
 		}
 		return 0;
 	}
+
+	private int getIntValue(String key) {
+		return toInt(redisTemplate.opsForValue().get(key));
+	}
 }
@@ -0,0 +1,96 @@
+package org.java.purchaseservice.service.initialize;
+
+import java.util.Arrays;
+
+/**
+ * Immutable zone geometry of one venue, backed by primitive arrays indexed by zoneId.
+ * Lookups on the purchase hot path do not allocate or touch Redis.
+ */
+public final class VenueGeometry {
+	private final int[] rowCount;
+	private final int[] seatPerRow;
+	private final int[] capacity;
+
+	private VenueGeometry(int[] rowCount, int[] seatPerRow, int[] capacity) {
+		this.rowCount = rowCount;
+		this.seatPerRow = seatPerRow;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Every zone 1..zoneCount shares the same rows and columns, as configured in venues.yml
+	 */
+	public static VenueGeometry uniform(int zoneCount, int rowCount, int colCount) {
+		Builder builder = new Builder(zoneCount);
+		for (int zoneId = 1; zoneId <= zoneCount; zoneId++) {
+			builder.zone(zoneId, rowCount, colCount, rowCount * colCount);
+		}
+		return builder.build();
+	}
+
+	public boolean hasZone(int zoneId) {
+		return zoneId > 0 && zoneId < seatPerRow.length && seatPerRow[zoneId] > 0;
+	}
+
+	public int getRowCount(int zoneId) {
+		return hasZone(zoneId) ? rowCount[zoneId] : 0;
+	}
+
+	public int getSeatPerRow(int zoneId) {
+		return hasZone(zoneId) ? seatPerRow[zoneId] : 0;
+	}
+
+	public int getZoneCapacity(int zoneId) {
+		return hasZone(zoneId) ? capacity[zoneId] : 0;
+	}
+
+	/**
+	 * Canonical text of the zones, equal for equal geometry; used to tell a changed rewrite from a restart
+	 */
+	public String fingerprint() {
+		StringBuilder sb = new StringBuilder(seatPerRow.length * 12);
+		for (int zoneId = 1; zoneId < seatPerRow.length; zoneId++) {
+			if (hasZone(zoneId)) {
+				sb.append(zoneId).append(':').append(rowCount[zoneId]).append('x').append(seatPerRow[zoneId])
+						.append('=').append(capacity[zoneId]).append(';');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Collects zones one by one (e.g. when reloading from Redis), arrays are sized by the largest zoneId
+	 */
+	public static final class Builder {
+		private int[] rowCount;
+		private int[] seatPerRow;
+		private int[] capacity;
+
+		public Builder(int expectedMaxZoneId) {
+			int size = Math.max(expectedMaxZoneId, 0) + 1;
+			this.rowCount = new int[size];
+			this.seatPerRow = new int[size];
+			this.capacity = new int[size];
+		}
+
+		public Builder zone(int zoneId, int rows, int seats, int zoneCapacity) {
+			if (zoneId <= 0) {
+				throw new IllegalArgumentException("zoneId must be positive: " + zoneId);
+			}
+			if (zoneId >= seatPerRow.length) {
+				int size = zoneId + 1;
+				rowCount = Arrays.copyOf(rowCount, size);
+				seatPerRow = Arrays.copyOf(seatPerRow, size);
+				capacity = Arrays.copyOf(capacity, size);
+			}
+			rowCount[zoneId] = rows;
+			seatPerRow[zoneId] = seats;
+			capacity[zoneId] = zoneCapacity;
+			return this;
+		}
+
+		public VenueGeometry build() {
+			return new VenueGeometry(rowCount.clone(), seatPerRow.clone(), capacity.clone());
+		}
+	}
+}
@@ -0,0 +1,586 @@
+package org.java.purchaseservice.service.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of fixed-size memory-mapped segment files.
+ * Record layout: [int bodyLength][int crc32(body)][short keyLength][key][payload].
+ * A zero length marks the end of the written part of a segment (new files are zero-filled).
+ * Records appended together are preceded by a group header (key length -1, record count) and kept in one segment.
+ * One writer appends under a lock and only copies bytes; with fsync the appenders then share the flush (group
+ * commit): one of them forces everything written so far while the others wait until the flushed position passes
+ * their records. The reader only reads up to the published tail, which with fsync is the flushed position, so it
+ * never sees a half written record. Locks and conditions rather than monitors, waiting for the fsync would pin the
+ * carrier of a virtual thread. On open, the tail of the last segment is recovered by scanning until the first empty
+ * or corrupt (torn) record or incomplete group, and everything from there is zeroed.
+ * A record that fails its checksum below the tail (disk corruption) is copied to a .corrupt file next to the
+ * segments and skipped, so the reader is not stuck on it.
+ * The reader's position is kept in a separate offset file, segments before it are deleted.
+ * With a segment limit (disk budget) the oldest segment is dropped when a new one would exceed it,
+ * unread records included; without one the log grows until the reader catches up.
+ */
+@Slf4j
+public class SegmentLog implements AutoCloseable {
+	static final int HEADER_BYTES = 8;
+	private static final short GROUP_MARKER = -1;
+	// group header body: marker and record count
+	private static final int GROUP_BODY_BYTES = 2 + 4;
+	private static final String SEGMENT_SUFFIX = ".seg";
+	private static final String OFFSET_FILE = "relay.offset";
+
+	private final Path dir;
+	private final int segmentBytes;
+	private final boolean fsync;
+	private final int maxSegments;
+
+	private final AtomicLong droppedRecords = new AtomicLong();
+	private final AtomicLong quarantinedRecords = new AtomicLong();
+	private final Set<Position> quarantined = ConcurrentHashMap.newKeySet();
+	private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+	private final CRC32 writeCrc = new CRC32();
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final Condition flushed = flushLock.newCondition();
+	private boolean flushing;
+	private MappedByteBuffer writeBuffer;
+	// end of the appended bytes, guarded by writeLock
+	private Position written;
+	// end of what the reader may see; with fsync also the end of what is on disk
+	private volatile Position tail;
+
+	public SegmentLog(Path dir, int segmentBytes, boolean fsync) {
+		this(dir, segmentBytes, fsync, 0);
+	}
+
+	/**
+	 * @param maxSegments segment files kept on disk at most, 0 for no limit
+	 */
+	public SegmentLog(Path dir, int segmentBytes, boolean fsync, int maxSegments) {
+		if (segmentBytes < 1024) {
+			throw new IllegalArgumentException("segmentBytes must be at least 1024");
+		}
+		if (maxSegments == 1 || maxSegments < 0) {
+			throw new IllegalArgumentException("maxSegments must be 0 (unlimited) or at least 2");
+		}
+		this.dir = dir;
+		this.segmentBytes = segmentBytes;
+		this.fsync = fsync;
+		this.maxSegments = maxSegments;
+	}
+
+	/**
+	 * Position of a record: segment number and byte offset inside the segment.
+	 */
+	public record Position(long segment, int offset) implements Comparable<Position> {
+		@Override
+		public int compareTo(Position o) {
+			int c = Long.compare(segment, o.segment);
+			return c != 0 ? c : Integer.compare(offset, o.offset);
+		}
+	}
+
+	/**
+	 * A stored record and the position right after it.
+	 */
+	public record Entry(String key, byte[] payload, Position next) {
+	}
+
+	public void open() {
+		writeLock.lock();
+		try {
+			Files.createDirectories(dir);
+			List<Long> existing;
+			try (Stream<Path> files = Files.list(dir)) {
+				existing = files.map(p -> p.getFileName().toString())
+						.filter(n -> n.endsWith(SEGMENT_SUFFIX))
+						.map(n -> Long.parseLong(n.substring(0, n.length() - SEGMENT_SUFFIX.length())))
+						.sorted()
+						.toList();
+			}
+			for (Long segment : existing) {
+				segments.put(segment, map(segment));
+			}
+			if (segments.isEmpty()) {
+				segments.put(0L, map(0L));
+			}
+
+			long last = segments.lastKey();
+			writeBuffer = segments.get(last);
+			enforceBudget();
+			int end = recoverEnd(writeBuffer);
+			written = new Position(last, end);
+			tail = written;
+			log.info("[SegmentLog] Opened {}: segments={}, tail={}", dir, segments.size(), tail);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot open outbox at " + dir, e);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Appends one record. Returns once the bytes are in the mapped segment (and flushed to disk when fsync is on).
+	 */
+	public Position append(String key, byte[] payload) {
+		return appendAll(List.of(key), List.of(payload));
+	}
+
+	/**
+	 * Appends several records as one unit: the reader sees all of them or none, also after a crash halfway through
+	 * the write, and they share one flush. The group has to fit into one segment.
+	 */
+	public Position appendAll(List<String> keys, List<byte[]> payloads) {
+		if (keys.size() != payloads.size()) {
+			throw new IllegalArgumentException("keys and payloads differ in size");
+		}
+		Position end;
+		writeLock.lock();
+		try {
+			end = appendLocked(keys, payloads);
+		} finally {
+			writeLock.unlock();
+		}
+		if (fsync) {
+			awaitFlushed(end);
+		}
+		return end;
+	}
+
+	private Position appendLocked(List<String> keys, List<byte[]> payloads) {
+		boolean group = keys.size() > 1;
+		byte[][] keyBytes = new byte[keys.size()][];
+		int groupLength = group ? HEADER_BYTES + GROUP_BODY_BYTES : 0;
+		for (int i = 0; i < keys.size(); i++) {
+			keyBytes[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+			groupLength += HEADER_BYTES + 2 + keyBytes[i].length + payloads.get(i).length;
+		}
+		// keep room for the zero length terminator
+		if (groupLength + 4 > segmentBytes) {
+			throw new IllegalArgumentException((group ? "Outbox group of " : "Outbox record of ") + groupLength
+					+ " bytes exceeds segment size");
+		}
+
+		Position pos = written;
+		if (pos.offset() + groupLength + 4 > segmentBytes) {
+			pos = roll(pos);
+		}
+		if (group) {
+			writeGroupHeader(pos.offset(), keys.size());
+			pos = new Position(pos.segment(), pos.offset() + HEADER_BYTES + GROUP_BODY_BYTES);
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			write(pos.offset(), keyBytes[i], payloads.get(i));
+			pos = new Position(pos.segment(), pos.offset() + HEADER_BYTES + 2 + keyBytes[i].length
+					+ payloads.get(i).length);
+		}
+
+		written = pos;
+		if (!fsync) {
+			tail = pos;
+		}
+		return pos;
+	}
+
+	/**
+	 * Returns once end is on disk. The first appender to arrive flushes everything written so far, appenders that
+	 * come in meanwhile wait for that flush and only start another one if it did not cover them.
+	 */
+	private void awaitFlushed(Position end) {
+		flushLock.lock();
+		try {
+			while (tail.compareTo(end) < 0) {
+				if (flushing) {
+					flushed.awaitUninterruptibly();
+					continue;
+				}
+				flushing = true;
+				Position done = null;
+				flushLock.unlock();
+				try {
+					done = flushWritten();
+				} finally {
+					flushLock.lock();
+					flushing = false;
+					if (done != null && done.compareTo(tail) > 0) {
+						tail = done;
+					}
+					flushed.signalAll();
+				}
+			}
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	private Position flushWritten() {
+		Position target;
+		MappedByteBuffer buffer;
+		writeLock.lock();
+		try {
+			target = written;
+			buffer = writeBuffer;
+		} finally {
+			writeLock.unlock();
+		}
+		// segments before target's were forced completely when they were rolled
+		Position from = tail;
+		int flushFrom = from.segment() == target.segment() ? from.offset() : 0;
+		buffer.force(flushFrom, target.offset() - flushFrom);
+		return target;
+	}
+
+	/**
+	 * Reads up to max records starting at from, never past the published tail.
+	 */
+	public List<Entry> read(Position from, int max) {
+		Position end = tail;
+		List<Entry> entries = new ArrayList<>(Math.min(max, 256));
+		Position pos = from;
+		while (entries.size() < max && pos.compareTo(end) < 0) {
+			MappedByteBuffer segment = segments.get(pos.segment());
+			if (segment == null) {
+				// segment deleted or never existed, continue with the next one
+				Long higher = segments.higherKey(pos.segment());
+				if (higher == null) {
+					break;
+				}
+				pos = new Position(higher, 0);
+				continue;
+			}
+			ByteBuffer buf = segment.duplicate();
+			int length = pos.offset() + 4 <= segmentBytes ? buf.getInt(pos.offset()) : 0;
+			if (length == 0) {
+				if (pos.segment() == end.segment()) {
+					break;
+				}
+				pos = new Position(pos.segment() + 1, 0);
+				continue;
+			}
+
+			int bodyStart = pos.offset() + HEADER_BYTES;
+			int readable = pos.segment() == end.segment() ? end.offset() : segmentBytes;
+			if (length < 0 || bodyStart + length > readable || !crcMatches(segment, pos.offset(), length)) {
+				// a corrupt length cannot be trusted, the rest of the segment goes with it
+				Position next = length > 0 && bodyStart + length <= readable
+						? new Position(pos.segment(), bodyStart + length)
+						: pos.segment() == end.segment() ? end : new Position(pos.segment() + 1, 0);
+				quarantine(segment, pos, next);
+				pos = next;
+				continue;
+			}
+
+			buf.position(bodyStart);
+			short keyLength = buf.getShort();
+			if (keyLength == GROUP_MARKER) {
+				pos = new Position(pos.segment(), bodyStart + length);
+				continue;
+			}
+			byte[] keyBytes = new byte[keyLength];
+			buf.get(keyBytes);
+			byte[] payload = new byte[length - 2 - keyBytes.length];
+			buf.get(payload);
+
+			pos = new Position(pos.segment(), bodyStart + length);
+			entries.add(new Entry(new String(keyBytes, StandardCharsets.UTF_8), payload, pos));
+		}
+		return entries;
+	}
+
+	public Position getTail() {
+		return tail;
+	}
+
+	/**
+	 * Bytes between from and the tail. Segments in between are counted as full.
+	 */
+	public long backlogBytes(Position from) {
+		Position end = tail;
+		if (from.compareTo(end) >= 0) {
+			return 0;
+		}
+		if (from.segment() == end.segment()) {
+			return end.offset() - from.offset();
+		}
+		long first = segments.containsKey(from.segment()) ? segmentBytes - from.offset() : 0;
+		long middle = (long) segments.subMap(from.segment(), false, end.segment(), false).size() * segmentBytes;
+		return first + middle + end.offset();
+	}
+
+	public long diskBytes() {
+		return (long) segments.size() * segmentBytes;
+	}
+
+	/**
+	 * Records in segments the disk budget forced out before the reader committed past them.
+	 */
+	public long getDroppedRecords() {
+		return droppedRecords.get();
+	}
+
+	/**
+	 * Records skipped by the reader because their checksum did not match, each copied to a .corrupt file.
+	 */
+	public long getQuarantinedRecords() {
+		return quarantinedRecords.get();
+	}
+
+	/**
+	 * Reader position stored by commit, or the start of the oldest segment.
+	 */
+	public Position loadCommitted() {
+		Path file = dir.resolve(OFFSET_FILE);
+		try {
+			if (Files.exists(file)) {
+				ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+				if (buf.remaining() == 12) {
+					return new Position(buf.getLong(), buf.getInt());
+				}
+				log.warn("[SegmentLog] Ignoring malformed {}", file);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot read " + file, e);
+		}
+		return new Position(segments.firstKey(), 0);
+	}
+
+	/**
+	 * Persists the reader position and deletes segments that are fully read.
+	 */
+	public void commit(Position position) {
+		Path file = dir.resolve(OFFSET_FILE);
+		Path tmp = dir.resolve(OFFSET_FILE + ".tmp");
+		ByteBuffer buf = ByteBuffer.allocate(12).putLong(position.segment()).putInt(position.offset()).flip();
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(buf);
+			channel.force(true);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot write " + tmp, e);
+		}
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot replace " + file, e);
+		}
+
+		for (Long segment : segments.headMap(Math.min(position.segment(), tail.segment())).keySet()) {
+			segments.remove(segment);
+			try {
+				Files.deleteIfExists(segmentPath(segment));
+				log.debug("[SegmentLog] Deleted drained segment {}", segment);
+			} catch (IOException e) {
+				log.warn("[SegmentLog] Cannot delete segment {}: {}", segment, e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		writeLock.lock();
+		try {
+			if (writeBuffer != null) {
+				writeBuffer.force();
+			}
+			segments.clear();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private void write(int offset, byte[] keyBytes, byte[] payload) {
+		int bodyLength = 2 + keyBytes.length + payload.length;
+		ByteBuffer buf = writeBuffer.duplicate();
+		buf.position(offset + HEADER_BYTES);
+		buf.putShort((short) keyBytes.length);
+		buf.put(keyBytes);
+		buf.put(payload);
+
+		writeCrc.reset();
+		int bodyStart = offset + HEADER_BYTES;
+		writeCrc.update(writeBuffer.duplicate().position(bodyStart).limit(bodyStart + bodyLength));
+		buf.position(offset);
+		buf.putInt(bodyLength);
+		buf.putInt((int) writeCrc.getValue());
+	}
+
+	private void writeGroupHeader(int offset, int records) {
+		ByteBuffer buf = writeBuffer.duplicate();
+		buf.position(offset + HEADER_BYTES);
+		buf.putShort(GROUP_MARKER);
+		buf.putInt(records);
+
+		writeCrc.reset();
+		int bodyStart = offset + HEADER_BYTES;
+		writeCrc.update(writeBuffer.duplicate().position(bodyStart).limit(bodyStart + GROUP_BODY_BYTES));
+		buf.position(offset);
+		buf.putInt(GROUP_BODY_BYTES);
+		buf.putInt((int) writeCrc.getValue());
+	}
+
+	private Position roll(Position current) {
+		long segment = current.segment() + 1;
+		try {
+			// explicit terminator, the area after a truncated torn record may not be zero
+			writeBuffer.putInt(current.offset(), 0);
+			if (fsync) {
+				writeBuffer.force();
+			}
+			writeBuffer = map(segment);
+			segments.put(segment, writeBuffer);
+			enforceBudget();
+			log.info("[SegmentLog] Rolled to segment {}", segment);
+			return new Position(segment, 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot create outbox segment " + segment, e);
+		}
+	}
+
+	private void enforceBudget() {
+		while (maxSegments > 0 && segments.size() > maxSegments) {
+			Long oldest = segments.firstKey();
+			int records = countRecords(segments.remove(oldest));
+			droppedRecords.addAndGet(records);
+			log.error("[SegmentLog] Disk budget of {} segments reached in {}, dropped segment {} ({} records)",
+					maxSegments, dir, oldest, records);
+			try {
+				Files.deleteIfExists(segmentPath(oldest));
+			} catch (IOException e) {
+				log.warn("[SegmentLog] Cannot delete segment {}: {}", oldest, e.getMessage());
+			}
+		}
+	}
+
+	private int countRecords(MappedByteBuffer segment) {
+		int count = 0;
+		int pos = 0;
+		while (pos + HEADER_BYTES <= segmentBytes) {
+			int length = segment.getInt(pos);
+			if (length <= 0) {
+				break;
+			}
+			if (!isGroupHeader(segment, pos, length)) {
+				count++;
+			}
+			pos += HEADER_BYTES + length;
+		}
+		return count;
+	}
+
+	private MappedByteBuffer map(long segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segmentPath(segment),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			// the mapping stays valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+		}
+	}
+
+	private Path segmentPath(long segment) {
+		return dir.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+	}
+
+	private int recoverEnd(MappedByteBuffer segment) {
+		int pos = 0;
+		while (true) {
+			int next = validRecordEnd(segment, pos);
+			if (next < 0) {
+				if (pos + 4 <= segmentBytes && segment.getInt(pos) != 0) {
+					log.warn("[SegmentLog] Torn record at offset {}, truncating", pos);
+					truncate(segment, pos);
+				}
+				return pos;
+			}
+			if (isGroupHeader(segment, pos, next - pos - HEADER_BYTES)) {
+				int records = segment.getInt(pos + HEADER_BYTES + 2);
+				int groupEnd = next;
+				for (int i = 0; i < records && groupEnd >= 0; i++) {
+					groupEnd = validRecordEnd(segment, groupEnd);
+				}
+				if (groupEnd < 0) {
+					log.warn("[SegmentLog] Incomplete group of {} records at offset {}, truncating", records, pos);
+					truncate(segment, pos);
+					return pos;
+				}
+				next = groupEnd;
+			}
+			pos = next;
+		}
+	}
+
+	/**
+	 * End of the record at pos, or -1 when there is none or it is torn.
+	 */
+	private int validRecordEnd(MappedByteBuffer segment, int pos) {
+		if (pos + HEADER_BYTES > segmentBytes) {
+			return -1;
+		}
+		int length = segment.getInt(pos);
+		if (length <= 0 || pos + HEADER_BYTES + length > segmentBytes || !crcMatches(segment, pos, length)) {
+			return -1;
+		}
+		return pos + HEADER_BYTES + length;
+	}
+
+	private boolean crcMatches(MappedByteBuffer segment, int pos, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(segment.duplicate().position(pos + HEADER_BYTES).limit(pos + HEADER_BYTES + length));
+		return (int) crc.getValue() == segment.getInt(pos + 4);
+	}
+
+	private boolean isGroupHeader(MappedByteBuffer segment, int pos, int length) {
+		return length == GROUP_BODY_BYTES && segment.getShort(pos + HEADER_BYTES) == GROUP_MARKER;
+	}
+
+	/**
+	 * Zeroes the segment from pos on, records of a torn group behind it must not come back once pos is reused.
+	 */
+	private void truncate(MappedByteBuffer segment, int pos) {
+		ByteBuffer buf = segment.duplicate().position(pos);
+		byte[] zeros = new byte[Math.min(8192, segmentBytes - pos)];
+		while (buf.hasRemaining()) {
+			buf.put(zeros, 0, Math.min(zeros.length, buf.remaining()));
+		}
+		if (fsync) {
+			segment.force();
+		}
+	}
+
+	private void quarantine(MappedByteBuffer segment, Position from, Position next) {
+		if (!quarantined.add(from)) {
+			return;
+		}
+		quarantinedRecords.incrementAndGet();
+		int to = next.segment() == from.segment() ? next.offset() : segmentBytes;
+		byte[] bytes = new byte[to - from.offset()];
+		segment.duplicate().position(from.offset()).get(bytes);
+		Path file = dir.resolve(String.format("%020d-%010d.corrupt", from.segment(), from.offset()));
+		try {
+			Files.write(file, bytes);
+			log.error("[SegmentLog] Corrupt record at {} in {}, skipped {} bytes, copy in {}", from, dir, bytes.length,
+					file.getFileName());
+		} catch (IOException e) {
+			log.error("[SegmentLog] Corrupt record at {} in {}, skipped {} bytes, cannot write {}: {}", from, dir,
+					bytes.length, file.getFileName(), e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package org.java.purchaseservice.service.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.service.journal.SegmentLog;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Durable local outbox of ticket events on this PurchaseService node.
+ * A purchase is acknowledged once its event is in the outbox; TicketOutboxRelay ships it to Kafka later.
+ */
+@Slf4j
+@Component
+public class TicketOutbox implements InitializingBean {
+	private final SegmentLog segmentLog;
+
+	public TicketOutbox(@Value("${tickets.outbox.dir:./data/outbox}") String dir,
+			@Value("${tickets.outbox.segment-bytes:67108864}") int segmentBytes,
+			@Value("${tickets.outbox.fsync:true}") boolean fsync) {
+		this.segmentLog = new SegmentLog(Path.of(dir), segmentBytes, fsync);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		segmentLog.open();
+	}
+
+	@PreDestroy
+	public void close() {
+		segmentLog.close();
+	}
+
+	public void append(String partitionKey, byte[] payload) {
+		segmentLog.append(partitionKey, payload);
+	}
+
+	/**
+	 * Appends a group of events atomically, a group purchase is never half in the outbox.
+	 */
+	public void appendAll(List<String> partitionKeys, List<byte[]> payloads) {
+		segmentLog.appendAll(partitionKeys, payloads);
+	}
+
+	SegmentLog getSegmentLog() {
+		return segmentLog;
+	}
+}
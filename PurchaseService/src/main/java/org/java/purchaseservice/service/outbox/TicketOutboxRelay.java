@@ -0,0 +1,150 @@
+package org.java.purchaseservice.service.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.publisher.MessagePublisher;
+import org.java.purchaseservice.publisher.PublishFailures;
+import org.java.purchaseservice.service.dlq.DeadLetterQueueService;
+import org.java.purchaseservice.service.journal.SegmentLog;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the ticket outbox to Kafka, in order per partition key.
+ * A batch goes out in waves: records are handed to the asynchronous publisher until a partition key repeats,
+ * then the acks of the wave are collected in order before the next wave is sent. So a record is never sent
+ * while an earlier record of its key is unacknowledged, and a failed or timed-out record has nothing of its key
+ * behind it on the broker. The committed position only moves past records the broker accepted, so a retriable
+ * failure is resent on the next run and nothing behind it is committed first. A record the broker rejects for
+ * good (non-retriable Kafka error) goes to the dead letter queue instead of blocking the outbox.
+ * Delivery is at-least-once: records of other keys acked after a failure, and a batch interrupted by a crash
+ * between send and commit, are sent again, so consumers can see a record twice but never after a later record
+ * of its key. The projection absorbs the repeats because ticket inserts are idempotent on ticket_id.
+ * The relay runs on its own thread: a drain waits for broker acks, up to the publisher's ack timeout, and must not
+ * hold up the shared @Scheduled tasks (hold sweeper, geometry refresh, DLQ replay) meanwhile.
+ */
+@Slf4j
+@Component
+public class TicketOutboxRelay implements InitializingBean {
+	private final SegmentLog segmentLog;
+	private final MessagePublisher messagePublisher;
+	private final DeadLetterQueueService deadLetterQueueService;
+	private final int batchSize;
+	private final long intervalMs;
+	private final ScheduledExecutorService relayThread = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "outbox-relay");
+		t.setDaemon(true);
+		return t;
+	});
+	// one drain at a time; a lock, not a monitor, since it is held while waiting for broker acks
+	private final ReentrantLock drainLock = new ReentrantLock();
+
+	private SegmentLog.Position committed;
+
+	public TicketOutboxRelay(TicketOutbox ticketOutbox, MessagePublisher messagePublisher,
+			DeadLetterQueueService deadLetterQueueService,
+			@Value("${tickets.outbox.relay-batch-size:1000}") int batchSize,
+			@Value("${tickets.outbox.relay-interval-ms:20}") long intervalMs) {
+		this.segmentLog = ticketOutbox.getSegmentLog();
+		this.messagePublisher = messagePublisher;
+		this.deadLetterQueueService = deadLetterQueueService;
+		this.batchSize = batchSize;
+		this.intervalMs = intervalMs;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		relayThread.scheduleWithFixedDelay(this::drainQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		relayThread.shutdown();
+	}
+
+	private void drainQuietly() {
+		// an exception would cancel the fixed-delay task for good
+		try {
+			drain();
+		} catch (RuntimeException e) {
+			log.error("[TicketOutboxRelay] Drain failed, retrying next run", e);
+		}
+	}
+
+	public void drain() {
+		drainLock.lock();
+		try {
+			drainLocked();
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	private void drainLocked() {
+		if (committed == null) {
+			committed = segmentLog.loadCommitted();
+		}
+
+		while (true) {
+			List<SegmentLog.Entry> batch = segmentLog.read(committed, batchSize);
+			if (batch.isEmpty()) {
+				return;
+			}
+
+			List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+			Set<String> inFlight = new HashSet<>();
+			SegmentLog.Position sentUpTo = committed;
+			int done = 0;
+			boolean failed = false;
+			while (done < batch.size() && !failed) {
+				// one wave: send until a key repeats, the repeated record waits for the acks of this wave
+				inFlight.clear();
+				int end = done;
+				while (end < batch.size() && inFlight.add(batch.get(end).key())) {
+					SegmentLog.Entry entry = batch.get(end);
+					sends.add(messagePublisher.kafkaPublish(entry.payload(), entry.key()));
+					end++;
+				}
+
+				for (int i = done; i < end; i++) {
+					SegmentLog.Entry entry = batch.get(i);
+					Throwable failure = PublishFailures.await(sends.get(i));
+					if (failure != null) {
+						if (PublishFailures.isRetriable(failure)) {
+							failed = true;
+							break;
+						}
+						log.error("[TicketOutboxRelay] Kafka rejected record at {} permanently, moving it to DLQ",
+								sentUpTo, failure);
+						deadLetterQueueService.sendToDeadLetterQueue(entry.payload(), entry.key(),
+								"Kafka rejected: " + failure);
+					}
+					sentUpTo = entry.next();
+					done++;
+				}
+			}
+
+			if (done > 0) {
+				segmentLog.commit(sentUpTo);
+				committed = sentUpTo;
+			}
+			if (done < batch.size()) {
+				log.warn("[TicketOutboxRelay] Send failed at {}, {} of {} done, retrying next run",
+						sentUpTo, done, batch.size());
+				return;
+			}
+			log.debug("[TicketOutboxRelay] Relayed {} records up to {}", done, sentUpTo);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package org.java.purchaseservice.service.purchase;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.dto.TicketRespondDTO;
+import org.java.purchaseservice.exception.IdempotencyKeyReuseException;
+import org.java.purchaseservice.service.redis.RedisKeyUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records of single-seat purchases made with an Idempotency-Key header.
+ * The record (request fields + response) is written by seatlib together with the seat, see
+ * SeatOccupiedRedisFacade; this class encodes it, replays it, and removes it when the purchase is rolled back.
+ * A key reused for a different seat is rejected instead of replayed.
+ */
+@Slf4j
+@Component
+public class PurchaseIdempotencyStore {
+	public static final String HEADER = "Idempotency-Key";
+	static final int MAX_KEY_LENGTH = 255;
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final ObjectMapper objectMapper;
+	private final long ttlMs;
+	private final Counter replayed;
+
+	public PurchaseIdempotencyStore(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+			MeterRegistry meterRegistry, @Value("${tickets.idempotency.ttl-ms:86400000}") long ttlMs) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.objectMapper = objectMapper;
+		this.ttlMs = ttlMs;
+		this.replayed = Counter.builder("tickets.idempotency.replayed")
+				.description("Purchases answered from an earlier request with the same Idempotency-Key")
+				.register(meterRegistry);
+	}
+
+	public long getTtlMs() {
+		return ttlMs;
+	}
+
+	public static void validateKey(String key) {
+		if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+			throw new IllegalArgumentException(HEADER + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+		}
+	}
+
+	public String encode(TicketPurchaseRequestDTO dto, TicketRespondDTO ticket) {
+		try {
+			return objectMapper.writeValueAsString(new StoredPurchase(requestOf(dto), ticket));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot encode idempotency record", e);
+		}
+	}
+
+	/**
+	 * Response of the earlier request, if it asked for the same seat.
+	 */
+	public TicketRespondDTO replay(String key, String record, TicketPurchaseRequestDTO dto) {
+		StoredPurchase stored;
+		try {
+			stored = objectMapper.readValue(record, StoredPurchase.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot decode idempotency record of key " + key, e);
+		}
+		if (!stored.request().equals(requestOf(dto))) {
+			log.warn("[PurchaseIdempotencyStore] key={} reused: stored={}, request={}", key, stored.request(),
+					requestOf(dto));
+			throw new IdempotencyKeyReuseException("key was used for a different purchase");
+		}
+		replayed.increment();
+		log.info("[PurchaseIdempotencyStore] replayed key={}, ticketId={}", key, stored.ticket().getTicketId());
+		return stored.ticket();
+	}
+
+	// the seat was given back, a retry has to buy it again
+	public void forget(String key) {
+		try {
+			stringRedisTemplate.delete(RedisKeyUtil.getPurchaseIdempotencyKey(key));
+		} catch (Exception e) {
+			log.error("[PurchaseIdempotencyStore] could not remove key={}: {}", key, e.toString());
+		}
+	}
+
+	static String requestOf(TicketPurchaseRequestDTO dto) {
+		return dto.getVenueId() + "|" + dto.getEventId() + "|" + dto.getZoneId() + "|" + dto.getRow() + "|"
+				+ dto.getColumn();
+	}
+
+	record StoredPurchase(String request, TicketRespondDTO ticket) {
+	}
+}
@@ -2,23 +2,29 @@ package org.java.purchaseservice.service.purchase;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.java.purchaseservice.dto.TicketCreationDTO;
+import org.java.purchaseservice.dto.SeatPositionDTO;
+import org.java.purchaseservice.dto.TicketBestAvailableRequestDTO;
+import org.java.purchaseservice.dto.TicketGroupPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketRespondDTO;
 import org.java.purchaseservice.event.TicketCreatedEvent;
+import org.java.purchaseservice.event.TicketGroupCreatedEvent;
 import org.java.purchaseservice.exception.CreateTicketException;
+import org.java.purchaseservice.exception.OverloadedException;
 import org.java.purchaseservice.exception.SeatOccupiedException;
 import org.java.purchaseservice.mapper.TicketMapper;
-import org.java.purchaseservice.model.TicketInfo;
 import org.java.purchaseservice.model.TicketStatus;
 import org.java.purchaseservice.service.TicketPurchaseServiceInterface;
+import org.java.purchaseservice.service.admission.PurchaseLoadShedder;
+import org.java.purchaseservice.service.id.TicketIdGenerator;
 import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 
 // Service: Generate ticketId/timestamp → Redis seat lock → Publish event to Kafka (event-sourced CQRS)
 @Service
@@ -29,60 +35,165 @@ public class TicketPurchaseService implements TicketPurchaseServiceInterface {
 	private final TicketMapper ticketMapper;
 	private final SeatOccupiedRedisFacade seatOccupiedRedisFacade;
 	private final ApplicationEventPublisher eventPublisher;
+	private final TicketIdGenerator ticketIdGenerator;
+	private final PurchaseIdempotencyStore idempotencyStore;
+	private final PurchaseLoadShedder loadShedder;
+
+	@Override
+	public TicketRespondDTO purchaseTicket(TicketPurchaseRequestDTO dto) {
+		return purchaseTicket(dto, null);
+	}
 
 	// Persistent through Kafka by spring event
 	@Override
 	@Transactional
-	public TicketRespondDTO purchaseTicket(TicketPurchaseRequestDTO dto) {
-		log.info("[TicketPurchaseService] purchaseTicket start: eventId={}, zone={}, row={}, col={}", dto.getEventId(),
-				dto.getZoneId(), dto.getRow(), dto.getColumn());
+	public TicketRespondDTO purchaseTicket(TicketPurchaseRequestDTO dto, String idempotencyKey) {
+		// guarded: the argument array and the boxed zone would be built on every purchase even with logging off
+		if (log.isDebugEnabled()) {
+			log.debug("[TicketPurchaseService] purchaseTicket start: eventId={}, zone={}, row={}, col={}",
+					dto.getEventId(), dto.getZoneId(), dto.getRow(), dto.getColumn());
+		}
+		if (idempotencyKey != null) {
+			PurchaseIdempotencyStore.validateKey(idempotencyKey);
+		}
+
+		// -- Part 1 Generation time-ordered id and time, before Redis so the seat owner and an idempotency record
+		// can carry them--
+		String ticketId = ticketIdGenerator.nextId();
+		Instant now = Instant.now();
 
-		// Part 1: Redis - Set Redis seat occupancy to a True - Lua script
+		// Part 2: Redis - Set Redis seat occupancy to a True - Lua script, the facade sheds when Redis is saturated
 		try {
-			seatOccupiedRedisFacade.tryOccupySeat(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), dto.getRow(),
-					dto.getColumn());
-			log.debug("[TicketPurchaseService] seat occupied OK for eventId={}, seat={}-{}", dto.getEventId(),
-					dto.getRow(), dto.getColumn());
+			if (idempotencyKey == null) {
+				seatOccupiedRedisFacade.tryOccupySeat(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), dto.getRow(),
+						dto.getColumn(), ticketId);
+			} else {
+				String encoded = idempotencyStore.encode(dto, new TicketRespondDTO(ticketId, dto.getZoneId(),
+						dto.getRow(), dto.getColumn(), now));
+				String record = seatOccupiedRedisFacade.tryOccupySeat(dto.getEventId(), dto.getVenueId(),
+						dto.getZoneId(), dto.getRow(), dto.getColumn(), ticketId, idempotencyKey, encoded,
+						idempotencyStore.getTtlMs());
+				if (record != null) {
+					return idempotencyStore.replay(idempotencyKey, record, dto);
+				}
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("[TicketPurchaseService] seat occupied OK for eventId={}, seat={}-{}", dto.getEventId(),
+						dto.getRow(), dto.getColumn());
+			}
 		} catch (SeatOccupiedException e) {
 			log.warn("[TicketPurchaseService] seat already occupied: eventId={}, seat={}-{}", dto.getEventId(),
 					dto.getRow(), dto.getColumn());
 			throw e;
 		}
 
-		// -- Part 2 Generation UUID and time--
-		String ticketId = UUID.randomUUID().toString();
-		Instant now = Instant.now();
-
 		try {
-			// -- Part 3: Construct ticket data model (not persisted in write service)
-			TicketCreationDTO creation = TicketCreationDTO.builder().ticketId(ticketId).venueId(dto.getVenueId())
+			// -- Part 3: The event is the ticket (CQRS: event is the source of truth, nothing persisted here);
+			// the response is mapped from it before publishing, so a mapping failure still releases the seat
+			TicketCreatedEvent event = TicketCreatedEvent.builder().ticketId(ticketId).venueId(dto.getVenueId())
 					.eventId(dto.getEventId()).zoneId(dto.getZoneId()).row(dto.getRow()).column(dto.getColumn())
 					.status(TicketStatus.PAID).createdOn(now).build();
-
-			// Build entity for event publishing (CQRS: event is the source of truth)
-			TicketInfo entity = ticketMapper.toEntity(creation);
-			entity.setTicketId(ticketId);
-			entity.setStatus(creation.getStatus());
-			entity.setCreatedOn(now);
+			TicketRespondDTO response = ticketMapper.toRespondDto(event);
 
 			// -- Part 4: Publish Spring Event to Kafka (event-sourced architecture)
-			TicketCreatedEvent event = TicketCreatedEvent.builder().ticketId(ticketId).venueId(dto.getVenueId())
-					.eventId(dto.getEventId()).zoneId(dto.getZoneId()).row(dto.getRow()).column(dto.getColumn())
-					.status(creation.getStatus()).createdOn(now).build();
-
-			eventPublisher.publishEvent(event);
-			log.info("[TicketPurchaseService] TicketCreatedEvent published: ticketId={}", ticketId);
+			loadShedder.publish(() -> eventPublisher.publishEvent(event));
+			log.debug("[TicketPurchaseService] TicketCreatedEvent published: ticketId={}", ticketId);
 
-			// direct return
-			return ticketMapper.toRespondDto(entity);
+			return response;
 
 		} catch (Exception ex) {
-			// any error, release seat
+			// any error, release seat; the key is free again for the client's retry
 			safeReleaseSeat(dto, ticketId, ex);
+			if (idempotencyKey != null) {
+				idempotencyStore.forget(idempotencyKey);
+			}
+			// shed before the outbox: 503 with Retry-After instead of a failed purchase
+			if (ex instanceof OverloadedException overloaded) {
+				throw overloaded;
+			}
 			throw new CreateTicketException("Failed to create ticket", ex);
 		}
 	}
 
+	// Group purchase: one Lua call for all seats, one Spring event for all tickets
+	@Override
+	public List<TicketRespondDTO> purchaseTickets(TicketGroupPurchaseRequestDTO dto) {
+		List<SeatPositionDTO> seats = dto.getSeats();
+		log.info("[TicketPurchaseService] purchaseTickets start: eventId={}, zone={}, size={}", dto.getEventId(),
+				dto.getZoneId(), seats.size());
+
+		// Part 1: Redis - occupy every seat or none of them, each owned by its ticket
+		List<String> ticketIds = nextIds(dto.getEventId(), seats.size());
+		seatOccupiedRedisFacade.tryOccupySeats(dto.getEventId(), dto.getVenueId(), dto.getZoneId(), seats, ticketIds);
+
+		return publishGroup(dto.getVenueId(), dto.getEventId(), dto.getZoneId(), seats, ticketIds);
+	}
+
+	// Best available: Redis picks and occupies the seats, no client-side collisions
+	@Override
+	public List<TicketRespondDTO> purchaseBestAvailable(TicketBestAvailableRequestDTO dto) {
+		log.info("[TicketPurchaseService] purchaseBestAvailable start: eventId={}, zone={}, quantity={}",
+				dto.getEventId(), dto.getZoneId(), dto.getQuantity());
+
+		List<String> ticketIds = nextIds(dto.getEventId(), dto.getQuantity());
+		List<SeatPositionDTO> seats = seatOccupiedRedisFacade.occupyBestAvailable(dto.getEventId(), dto.getVenueId(),
+				dto.getZoneId(), dto.getQuantity(), ticketIds);
+
+		return publishGroup(dto.getVenueId(), dto.getEventId(), dto.getZoneId(), seats, ticketIds);
+	}
+
+	private List<String> nextIds(String eventId, int count) {
+		List<String> ticketIds = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ticketIds.add(ticketIdGenerator.nextId());
+		}
+		return ticketIds;
+	}
+
+	// seats are already occupied by ticketIds: build one ticket per seat and publish them as one event
+	private List<TicketRespondDTO> publishGroup(String venueId, String eventId, int zoneId,
+			List<SeatPositionDTO> seats, List<String> ticketIds) {
+		Instant now = Instant.now();
+		try {
+			// one ticket per seat, sharing the same timestamp
+			List<TicketCreatedEvent> tickets = new ArrayList<>(seats.size());
+			List<TicketRespondDTO> responses = new ArrayList<>(seats.size());
+			for (int i = 0; i < seats.size(); i++) {
+				SeatPositionDTO seat = seats.get(i);
+				String ticketId = ticketIds.get(i);
+				tickets.add(TicketCreatedEvent.builder().ticketId(ticketId).venueId(venueId)
+						.eventId(eventId).zoneId(zoneId).row(seat.getRow())
+						.column(seat.getColumn()).status(TicketStatus.PAID).createdOn(now).build());
+				responses.add(new TicketRespondDTO(ticketId, zoneId, seat.getRow(), seat.getColumn(), now));
+			}
+
+			// publish the whole group as one event
+			loadShedder.publish(() -> eventPublisher.publishEvent(new TicketGroupCreatedEvent(tickets)));
+			log.info("[TicketPurchaseService] TicketGroupCreatedEvent published: eventId={}, size={}",
+					eventId, tickets.size());
+
+			return responses;
+
+		} catch (Exception ex) {
+			safeReleaseSeats(venueId, eventId, zoneId, seats, ex);
+			if (ex instanceof OverloadedException overloaded) {
+				throw overloaded;
+			}
+			throw new CreateTicketException("Failed to create tickets", ex);
+		}
+	}
+
+	private void safeReleaseSeats(String venueId, String eventId, int zoneId, List<SeatPositionDTO> seats,
+			Exception original) {
+		try {
+			seatOccupiedRedisFacade.releaseSeats(eventId, venueId, zoneId, seats);
+			log.info("[TicketPurchaseService] group seats released after failure, eventId={}", eventId);
+		} catch (Exception re) {
+			log.error("[TicketPurchaseService] group seat release FAILED, eventId={}, cause={}, releaseErr={}",
+					eventId, original.getMessage(), re.getMessage(), re);
+		}
+	}
+
 	// Release seat from Redis
 	private void safeReleaseSeat(TicketPurchaseRequestDTO dto, String ticketId, Exception original) {
 		try {
@@ -1,43 +1,106 @@
 package org.java.purchaseservice.service.redis;
 
 public class RedisKeyUtil {
+	// plain concatenation, no String.format: the event and zone keys are built on every purchase
+	private static final String EVENT = "event:";
+	private static final String VENUE = "venue:";
+	private static final String ZONE = ":zone:";
 
 	// zone, row, seat count related key
 	public static String getRowCountKey(String venueId, int zoneId) {
-		return String.format("venue:%s:zone:%s:rowCount", venueId, zoneId);
+		return VENUE + venueId + ZONE + zoneId + ":rowCount";
 	}
 
 	public static String getSeatPerRowKey(String venueId, int zoneId) {
-		return String.format("venue:%s:zone:%s:seatPerRow", venueId, zoneId);
+		return VENUE + venueId + ZONE + zoneId + ":seatPerRow";
 	}
 
 	public static String getZoneCapacityKey(String venueId, int zoneId) {
-		return String.format("venue:%s:zone:%s:capacity", venueId, zoneId);
+		return VENUE + venueId + ZONE + zoneId + ":capacity";
 	}
 
 	public static String getZoneSetKey(String venueId) {
-		return String.format("venue:%s", venueId);
+		return VENUE + venueId;
+	}
+
+	// bumped whenever a node writes venue geometry that differs from what Redis held, nodes reload on change
+	public static String getVenueGeometryVersionKey() {
+		return "venue:geometry:version";
+	}
+
+	// ids of all venues any node has written, so a reload also picks up venues added elsewhere
+	public static String getVenueGeometryVenuesKey() {
+		return "venue:geometry:venues";
+	}
+
+	// fingerprint of the geometry last written for a venue, a rewrite with the same one does not bump the version
+	public static String getVenueGeometryFingerprintKey(String venueId) {
+		return VENUE + venueId + ":geometryFingerprint";
 	}
 
 	// Bitmap related Key
 	public static String getZoneBitMapKey(String eventId, int zoneId) {
-		return String.format("event:%s:zone:%s:occupied", eventId, zoneId);
+		return EVENT + eventId + ZONE + zoneId + ":occupied";
 	}
 
 	public static String getZoneRemainedSeats(String eventId, int zoneId) {
-		return String.format("event:%s:zone:%s:remainingZoneSeats", eventId, zoneId);
+		return EVENT + eventId + ZONE + zoneId + ":remainingZoneSeats";
+	}
+
+	// remaining seats of every row of a zone, one big-endian u16 per row index (BITFIELD u16 #rowIndex)
+	public static String getRowRemainedSeats(String eventId, int zoneId) {
+		return EVENT + eventId + ZONE + zoneId + ":rowRemaining";
+	}
+
+	// ticket holding each sold seat of a zone, hash bitPos -> ticketId; cancels check it
+	public static String getSeatOwnersKey(String eventId, int zoneId) {
+		return EVENT + eventId + ZONE + zoneId + ":seatTickets";
+	}
+
+	// capped stream of seat-map changes of a zone, its last entry id is the seat-map version
+	public static String getZoneChangesKey(String eventId, int zoneId) {
+		return EVENT + eventId + ZONE + zoneId + ":changes";
 	}
 
-	public static String getRowRemainedSeats(String eventId, int zoneId, int rowIndex) {
-		return String.format("event:%s:zone:%s:row:%d:remainingSeats", eventId, zoneId, rowIndex);
+	// pre-BITFIELD layout, one counter key per row; only deleted on reinitialization
+	public static String getLegacyRowRemainedSeats(String eventId, int zoneId, int rowIndex) {
+		return EVENT + eventId + ZONE + zoneId + ":row:" + rowIndex + ":remainingSeats";
 	}
 
 	// Event-level tracking keys
 	public static String getEventUsedSeatsKey(String eventId) {
-		return String.format("event:%s:usedSeats", eventId);
+		return EVENT + eventId + ":usedSeats";
 	}
 
 	public static String getEventTotalCapacityKey(String eventId) {
-		return String.format("event:%s:totalCapacity", eventId);
+		return EVENT + eventId + ":totalCapacity";
+	}
+
+	// geometry fingerprint of the last initialization, see SeatOccupiedService
+	public static String getEventInitFingerprintKey(String eventId) {
+		return EVENT + eventId + ":initFingerprint";
+	}
+
+	// client Idempotency-Key of a single-seat purchase, value is the recorded response
+	public static String getPurchaseIdempotencyKey(String idempotencyKey) {
+		return "idempotency:purchase:" + idempotencyKey;
+	}
+
+	// waiting room of an event: issued and admitted queue positions plus the admission token bucket
+	public static String getWaitingRoomKey(String eventId) {
+		return EVENT + eventId + ":waitingRoom";
+	}
+
+	// Seat hold tracking keys
+	public static String getEventHoldsKey(String eventId) {
+		return EVENT + eventId + ":holds";
+	}
+
+	public static String getEventHoldTokensKey(String eventId) {
+		return EVENT + eventId + ":holdTokens";
+	}
+
+	public static String getHoldEventsKey() {
+		return "holds:events";
 	}
 }
@@ -0,0 +1,234 @@
+package org.java.purchaseservice.service.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional in-JVM mirror of the zone occupancy bitmaps (event:{id}:zone:{z}:occupied), one long[] per zone.
+ * Bit b of the Redis string is bit (63 - b % 64) of word b / 64, so a GET maps straight onto the words.
+ * <p>
+ * A zone is mirrored once this node got a seatlib answer for it. Keyspace notifications (SETBIT on the
+ * bitmap, from any node) mark the zone dirty and the refresher re-reads dirty zones in one MGET; zones are
+ * also re-read before their copy gets older than staleness-ms. This node's own results are applied
+ * right away as hints. A seat marked occupied in a copy younger than staleness-ms is rejected locally,
+ * everything else goes to Redis, which stays the only authority: the worst case is a seat freed less
+ * than staleness-ms ago being reported as taken.
+ */
+@Slf4j
+@Component
+public class SeatBitmapMirror implements MessageListener, InitializingBean {
+	public static final String KEYSPACE_PATTERN = "__keyspace@*__:event:*:zone:*:occupied";
+
+	private final RedisTemplate<String, byte[]> bitmapRedisTemplate;
+	private final boolean enabled;
+	private final boolean configureNotifications;
+	private final long stalenessNanos;
+	private final long idleNanos;
+	private final int maxZones;
+	private final Counter rejected;
+
+	private final Map<String, ZoneMirror> zones = new ConcurrentHashMap<>();
+
+	public SeatBitmapMirror(RedisTemplate<String, byte[]> bitmapRedisTemplate, MeterRegistry meterRegistry,
+			@Value("${tickets.bitmap-mirror.enabled:false}") boolean enabled,
+			@Value("${tickets.bitmap-mirror.configure-notifications:true}") boolean configureNotifications,
+			@Value("${tickets.bitmap-mirror.staleness-ms:500}") long stalenessMs,
+			@Value("${tickets.bitmap-mirror.idle-ms:60000}") long idleMs,
+			@Value("${tickets.bitmap-mirror.max-zones:1024}") int maxZones) {
+		this.bitmapRedisTemplate = bitmapRedisTemplate;
+		this.enabled = enabled;
+		this.configureNotifications = configureNotifications;
+		this.stalenessNanos = TimeUnit.MILLISECONDS.toNanos(stalenessMs);
+		this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMs);
+		this.maxZones = maxZones;
+		this.rejected = Counter.builder("tickets.bitmap.mirror.rejected")
+				.description("Requests rejected because the mirror shows the seat occupied")
+				.register(meterRegistry);
+		Gauge.builder("tickets.bitmap.mirror.zones", zones, Map::size).register(meterRegistry);
+	}
+
+	// Redis only publishes SETBIT keyspace events when notify-keyspace-events contains K and $ (or A)
+	@Override
+	public void afterPropertiesSet() {
+		if (!enabled || !configureNotifications) {
+			return;
+		}
+		try {
+			bitmapRedisTemplate.execute((RedisCallback<Void>) connection -> {
+				Properties current = connection.serverCommands().getConfig("notify-keyspace-events");
+				String flags = current != null ? current.getProperty("notify-keyspace-events", "") : "";
+				String merged = flags;
+				if (!merged.contains("K")) {
+					merged += "K";
+				}
+				if (!merged.contains("$") && !merged.contains("A")) {
+					merged += "$";
+				}
+				if (!merged.equals(flags)) {
+					connection.serverCommands().setConfig("notify-keyspace-events", merged);
+					log.info("[SeatBitmapMirror] notify-keyspace-events changed from '{}' to '{}'", flags, merged);
+				}
+				return null;
+			});
+		} catch (Exception e) {
+			// still correct without notifications, copies are only refreshed by age
+			log.warn("[SeatBitmapMirror] Could not enable keyspace notifications: {}", e.toString());
+		}
+	}
+
+	/**
+	 * True only if a fresh copy of the zone shows the seat occupied.
+	 */
+	public boolean isOccupied(String bitmapKey, int bitPos) {
+		if (!enabled) {
+			return false;
+		}
+		ZoneMirror mirror = zones.get(bitmapKey);
+		if (mirror == null) {
+			return false;
+		}
+		long now = System.nanoTime();
+		mirror.lastUsedNanos = now;
+		long[] words = mirror.words;
+		if (words == null || now - mirror.loadedAtNanos > stalenessNanos) {
+			return false;
+		}
+		int index = bitPos >>> 6;
+		if (index >= words.length || (words[index] & mask(bitPos)) == 0) {
+			return false;
+		}
+		rejected.increment();
+		return true;
+	}
+
+	/**
+	 * Applies a seatlib answer of this node. The first answer for a zone starts mirroring it.
+	 */
+	public void update(String bitmapKey, int bitPos, boolean occupied) {
+		if (!enabled) {
+			return;
+		}
+		ZoneMirror mirror = zones.get(bitmapKey);
+		if (mirror == null) {
+			if (zones.size() < maxZones) {
+				zones.putIfAbsent(bitmapKey, new ZoneMirror(System.nanoTime()));
+			}
+			return;
+		}
+		synchronized (mirror) {
+			long[] words = mirror.words;
+			int index = bitPos >>> 6;
+			if (words != null && index < words.length) {
+				words[index] = occupied ? words[index] | mask(bitPos) : words[index] & ~mask(bitPos);
+			}
+		}
+	}
+
+	/**
+	 * Keyspace notification: channel is __keyspace@db__:key, body is the command (setbit, del, set, ...).
+	 */
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+		int keyStart = channel.indexOf("__:");
+		if (keyStart < 0) {
+			return;
+		}
+		ZoneMirror mirror = zones.get(channel.substring(keyStart + 3));
+		if (mirror != null) {
+			mirror.dirty = true;
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${tickets.bitmap-mirror.refresh-interval-ms:50}")
+	public void refresh() {
+		if (!enabled || zones.isEmpty()) {
+			return;
+		}
+		long now = System.nanoTime();
+		List<String> keys = new ArrayList<>();
+		List<ZoneMirror> due = new ArrayList<>();
+		for (Map.Entry<String, ZoneMirror> entry : zones.entrySet()) {
+			ZoneMirror mirror = entry.getValue();
+			if (now - mirror.lastUsedNanos > idleNanos) {
+				zones.remove(entry.getKey(), mirror);
+				continue;
+			}
+			if (mirror.dirty || mirror.words == null || now - mirror.loadedAtNanos > stalenessNanos / 2) {
+				mirror.dirty = false;
+				keys.add(entry.getKey());
+				due.add(mirror);
+			}
+		}
+		if (keys.isEmpty()) {
+			return;
+		}
+
+		List<byte[]> bitmaps;
+		try {
+			bitmaps = bitmapRedisTemplate.opsForValue().multiGet(keys);
+		} catch (Exception e) {
+			// copies age out and stop rejecting, nothing else to do
+			due.forEach(mirror -> mirror.dirty = true);
+			log.warn("[SeatBitmapMirror] Refresh of {} zones failed: {}", keys.size(), e.toString());
+			return;
+		}
+		for (int i = 0; i < due.size(); i++) {
+			ZoneMirror mirror = due.get(i);
+			long[] words = toWords(bitmaps != null ? bitmaps.get(i) : null);
+			synchronized (mirror) {
+				mirror.words = words;
+				mirror.loadedAtNanos = now;
+			}
+		}
+		log.trace("[SeatBitmapMirror] Refreshed {} zones", keys.size());
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	static long[] toWords(byte[] bitmap) {
+		if (bitmap == null || bitmap.length == 0) {
+			return new long[0];
+		}
+		long[] words = new long[(bitmap.length + 7) / 8];
+		ByteBuffer.wrap(Arrays.copyOf(bitmap, words.length * 8)).asLongBuffer().get(words);
+		return words;
+	}
+
+	static long mask(int bitPos) {
+		return 1L << (63 - (bitPos & 63));
+	}
+
+	private static final class ZoneMirror {
+		volatile long[] words; // null until the first refresh
+		volatile long loadedAtNanos; // taken before the MGET, so the age is never understated
+		volatile long lastUsedNanos;
+		volatile boolean dirty = true;
+
+		ZoneMirror(long now) {
+			this.lastUsedNanos = now;
+		}
+	}
+}
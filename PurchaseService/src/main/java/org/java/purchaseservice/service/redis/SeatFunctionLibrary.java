@@ -0,0 +1,259 @@
+package org.java.purchaseservice.service.redis;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat occupancy functions packaged as the Redis Functions library "seatlib".
+ * The library is registered once at startup (FUNCTION LOAD) and only reloaded when
+ * the checksum reported by seatlib_version differs from the local build.
+ * Calls go through FCALL, so no script text or SHA is shipped per request.
+ */
+@Slf4j
+@Component
+public class SeatFunctionLibrary implements InitializingBean {
+	public static final String LIBRARY = "seatlib";
+	public static final String FN_OCCUPY = "seat_occupy";
+	public static final String FN_OCCUPY_IDEMPOTENT = "seat_occupy_idempotent";
+	public static final String FN_RELEASE = "seat_release";
+	public static final String FN_CANCEL = "seat_cancel";
+	public static final String FN_RESTORE = "seat_restore";
+	public static final String FN_GROUP_OCCUPY = "seats_occupy";
+	public static final String FN_GROUP_RELEASE = "seats_release";
+	public static final String FN_OCCUPY_EACH = "seats_occupy_each";
+	public static final String FN_BEST_AVAILABLE = "seats_best_available";
+	public static final String FN_HOLD = "seat_hold";
+	public static final String FN_HOLD_CONFIRM = "seat_hold_confirm";
+	public static final String FN_HOLDS_EXPIRE = "seat_holds_expire";
+	public static final String FN_ZONE_SNAPSHOT = "zone_snapshot";
+	public static final String FN_ZONE_CHANGES = "zone_changes";
+	public static final String FN_WAITING_ROOM_JOIN = "waiting_room_join";
+	public static final String FN_WAITING_ROOM_ADMIT = "waiting_room_admit";
+	private static final String FN_VERSION = "seatlib_version";
+	private static final String SOURCE = "lua/seatlib.lua";
+	private static final byte[][] NO_KEYS = new byte[0][];
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final String variant;
+	private final long timeoutMs;
+	private final int changeLogLength;
+
+	private String code;
+	private String version;
+	private volatile Instant loadedAt;
+
+	public SeatFunctionLibrary(StringRedisTemplate stringRedisTemplate,
+			@Value("${tickets.redis-functions.variant:lean}") String variant,
+			@Value("${tickets.redis-functions.timeout-ms:5000}") long timeoutMs,
+			@Value("${tickets.seat-map.change-log-length:4096}") int changeLogLength) {
+		if (changeLogLength <= 0) {
+			throw new IllegalArgumentException("tickets.seat-map.change-log-length must be positive");
+		}
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.variant = variant;
+		this.timeoutMs = timeoutMs;
+		this.changeLogLength = changeLogLength;
+	}
+
+	/**
+	 * Renders the library for the configured variant and makes sure Redis runs exactly this build.
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		String template;
+		try {
+			template = new ClassPathResource(SOURCE).getContentAsString(StandardCharsets.UTF_8);
+		} catch (Exception e) {
+			log.error("Failed to load {} from classpath", SOURCE, e);
+			throw new IllegalStateException("Cannot load Redis function library", e);
+		}
+
+		boolean debug = "debug".equalsIgnoreCase(variant);
+		String checksum = DigestUtils.md5DigestAsHex(
+				(template + "|" + variant + "|" + changeLogLength).getBytes(StandardCharsets.UTF_8));
+		this.version = variant + "-" + checksum;
+		this.code = template.replace("__VERSION__", version).replace("__DEBUG__", String.valueOf(debug))
+				.replace("__CHANGE_LOG_LENGTH__", String.valueOf(changeLogLength));
+
+		try {
+			ensureLoaded();
+		} catch (Exception e) {
+			// Redis may not be reachable yet, the first FCALL retries the load
+			log.warn("[SeatFunctionLibrary] Library not registered at startup: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Calls a seatlib function that returns an integer reply.
+	 * If Redis lost the library (restart without persistence, FUNCTION FLUSH) it is loaded again once.
+	 */
+	public Long fcall(String function, List<String> keys, String... args) {
+		return call(function, ScriptOutputType.INTEGER, toBytes(keys), args);
+	}
+
+	/**
+	 * Calls a seatlib function that returns an array reply (elements are Long or byte[]).
+	 */
+	public List<Object> fcallList(String function, List<String> keys, String... args) {
+		return call(function, ScriptOutputType.MULTI, toBytes(keys), args);
+	}
+
+	/**
+	 * fcall with keys encoded once by the caller, for key lists used on every purchase.
+	 */
+	public Long fcall(String function, Keys keys, String... args) {
+		return call(function, ScriptOutputType.INTEGER, keys.encoded, args);
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getVariant() {
+		return variant;
+	}
+
+	public Instant getLoadedAt() {
+		return loadedAt;
+	}
+
+	/**
+	 * Version string currently registered in Redis, null when the library is absent.
+	 */
+	public String getRemoteVersion() {
+		try {
+			byte[] remote = stringRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+					await(nativeCommands(connection.getNativeConnection())
+							.fcallReadOnly(FN_VERSION, ScriptOutputType.VALUE, NO_KEYS)));
+			return remote != null ? new String(remote, StandardCharsets.UTF_8) : null;
+		} catch (Exception e) {
+			if (isFunctionMissing(e)) {
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	private void ensureLoaded() {
+		String remote = getRemoteVersion();
+		if (version.equals(remote)) {
+			loadedAt = Instant.now();
+			log.info("[SeatFunctionLibrary] Library {} already registered, version={}", LIBRARY, version);
+			return;
+		}
+		log.info("[SeatFunctionLibrary] Registering library {}: remote={}, local={}", LIBRARY, remote, version);
+		load();
+	}
+
+	private void load() {
+		stringRedisTemplate.execute((RedisCallback<String>) connection ->
+				await(nativeCommands(connection.getNativeConnection()).functionLoad(code, true)));
+		loadedAt = Instant.now();
+		log.info("[SeatFunctionLibrary] Library {} loaded, version={}", LIBRARY, version);
+	}
+
+	private <T> T call(String function, ScriptOutputType type, byte[][] keyBytes, String... args) {
+		byte[][] argBytes = toBytes(args);
+		try {
+			return execute(function, type, keyBytes, argBytes);
+		} catch (Exception e) {
+			if (!isFunctionMissing(e)) {
+				throw e;
+			}
+			log.warn("[SeatFunctionLibrary] {} missing in Redis, reloading library", function);
+			load();
+			return execute(function, type, keyBytes, argBytes);
+		}
+	}
+
+	private <T> T execute(String function, ScriptOutputType type, byte[][] keys, byte[][] args) {
+		return stringRedisTemplate.execute((RedisCallback<T>) connection ->
+				await(nativeCommands(connection.getNativeConnection()).<T>fcall(function, type, keys, args)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private RedisClusterAsyncCommands<byte[], byte[]> nativeCommands(Object nativeConnection) {
+		if (nativeConnection instanceof RedisClusterAsyncCommands<?, ?> commands) {
+			return (RedisClusterAsyncCommands<byte[], byte[]>) commands;
+		}
+		throw new IllegalStateException("Redis Functions require a Lettuce connection, got "
+				+ (nativeConnection == null ? "null" : nativeConnection.getClass().getName()));
+	}
+
+	private <T> T await(RedisFuture<T> future) {
+		try {
+			return LettuceFutures.awaitOrCancel(future, timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DataAccessResourceFailureException("Redis function call failed", e);
+		}
+	}
+
+	private static boolean isFunctionMissing(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			String msg = t.getMessage();
+			if (msg != null && msg.contains("Function not found")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static byte[][] toBytes(List<String> values) {
+		byte[][] bytes = new byte[values.size()][];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+		}
+		return bytes;
+	}
+
+	private static byte[][] toBytes(String[] values) {
+		byte[][] bytes = new byte[values.length][];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Keys of a function call, UTF-8 encoded once.
+	 */
+	public static final class Keys {
+		private final List<String> names;
+		private final byte[][] encoded;
+
+		private Keys(List<String> names) {
+			this.names = names;
+			this.encoded = toBytes(names);
+		}
+
+		public static Keys of(String... names) {
+			return new Keys(List.of(names));
+		}
+
+		public String get(int index) {
+			return names.get(index);
+		}
+
+		public List<String> names() {
+			return names;
+		}
+	}
+}
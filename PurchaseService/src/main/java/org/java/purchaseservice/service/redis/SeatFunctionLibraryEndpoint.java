@@ -0,0 +1,38 @@
+package org.java.purchaseservice.service.redis;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint (/actuator/seatlib) reporting which seatlib build this node expects
+ * and which one Redis is actually running.
+ */
+@Component
+@Endpoint(id = "seatlib")
+@RequiredArgsConstructor
+public class SeatFunctionLibraryEndpoint {
+	private final SeatFunctionLibrary seatFunctionLibrary;
+
+	@ReadOperation
+	public Map<String, Object> seatlib() {
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("library", SeatFunctionLibrary.LIBRARY);
+		info.put("variant", seatFunctionLibrary.getVariant());
+		info.put("localVersion", seatFunctionLibrary.getVersion());
+		info.put("loadedAt", seatFunctionLibrary.getLoadedAt());
+		try {
+			String remote = seatFunctionLibrary.getRemoteVersion();
+			info.put("remoteVersion", remote);
+			info.put("inSync", seatFunctionLibrary.getVersion().equals(remote));
+		} catch (Exception e) {
+			info.put("remoteVersion", null);
+			info.put("error", e.getMessage());
+		}
+		return info;
+	}
+}
@@ -1,133 +1,691 @@
 package org.java.purchaseservice.service.redis;
 
 import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.config.EventConfig;
+import org.java.purchaseservice.dto.SeatPositionDTO;
+import org.java.purchaseservice.exception.EventFullException;
+import org.java.purchaseservice.exception.HoldExpiredException;
+import org.java.purchaseservice.exception.NoAdjacentSeatsException;
 import org.java.purchaseservice.exception.RowFullException;
 import org.java.purchaseservice.exception.SeatOccupiedException;
+import org.java.purchaseservice.exception.TicketNotFoundException;
 import org.java.purchaseservice.exception.ZoneFullException;
+import org.java.purchaseservice.service.admission.PurchaseLoadShedder;
 import org.java.purchaseservice.service.initialize.VenueConfigService;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.java.purchaseservice.service.seatmap.SeatAvailabilityFeed;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
 public class SeatOccupiedRedisFacade {
 	private final VenueConfigService venueConfigService;
-	private final DefaultRedisScript<Long> tryOccupySeatScript; // load lua script method
-	private final DefaultRedisScript<Long> tryReleaseSeatScript; // load lua script method
-	private final StringRedisTemplate stringRedisTemplate;
-
-	public SeatOccupiedRedisFacade(
-			VenueConfigService venueConfigService,
-			StringRedisTemplate stringRedisTemplate,
-			@Qualifier("tryOccupySeatScript") DefaultRedisScript<Long> tryOccupySeatScript,
-			@Qualifier("tryReleaseSeatScript") DefaultRedisScript<Long> tryReleaseSeatScript) {
+	private final SeatFunctionLibrary seatFunctionLibrary; // seatlib functions, invoked with FCALL
+	private final SeatOccupyCoalescer seatOccupyCoalescer; // optional micro-batching of single-seat occupies
+	private final SoldOutCache soldOutCache; // rejects known sold-out events/zones/rows without Redis
+	private final SeatBitmapMirror seatBitmapMirror; // optional local copy of zone bitmaps, rejects taken seats
+	private final SeatAvailabilityFeed seatAvailabilityFeed; // pushes every seat flip to seat stream subscribers
+	private final PurchaseLoadShedder loadShedder; // adaptive limit around the occupy FCALLs, after the local checks
+	// only events from events.yml are cached, so made-up event ids cannot grow it
+	private final Map<String, Map<Integer, SeatFunctionLibrary.Keys>> occupyKeys = new ConcurrentHashMap<>();
+
+	public SeatOccupiedRedisFacade(VenueConfigService venueConfigService, SeatFunctionLibrary seatFunctionLibrary,
+			SeatOccupyCoalescer seatOccupyCoalescer, SoldOutCache soldOutCache, SeatBitmapMirror seatBitmapMirror,
+			SeatAvailabilityFeed seatAvailabilityFeed, PurchaseLoadShedder loadShedder, EventConfig eventConfig) {
 		this.venueConfigService = venueConfigService;
-		this.stringRedisTemplate = stringRedisTemplate;
-		this.tryOccupySeatScript = tryOccupySeatScript;
-		this.tryReleaseSeatScript = tryReleaseSeatScript;
+		this.seatFunctionLibrary = seatFunctionLibrary;
+		this.seatOccupyCoalescer = seatOccupyCoalescer;
+		this.soldOutCache = soldOutCache;
+		this.seatBitmapMirror = seatBitmapMirror;
+		this.seatAvailabilityFeed = seatAvailabilityFeed;
+		this.loadShedder = loadShedder;
+		if (eventConfig.getList() != null) {
+			eventConfig.getList().stream().filter(EventConfig.Event::isEnabled)
+					.forEach(event -> occupyKeys.put(event.getEventId(), new ConcurrentHashMap<>()));
+		}
 	}
 
 	/**
 	 * Check row && zone full
 	 * check if a seat taken
 	 * update 'bit' occupancy and update counter
+	 * record ticketId as the seat's owner
 	 */
 
-	public void tryOccupySeat(String eventId, String venueId, int zoneId, String row, String col) {
-		log.debug("[SeatOccupiedRedisFacade] tryOccupySeat start: event={}, venue={}, zone={}, row={}, col={}",
-				eventId, venueId, zoneId, row, col);
+	public void tryOccupySeat(String eventId, String venueId, int zoneId, String row, String col, String ticketId) {
+		if (log.isDebugEnabled()) {
+			log.debug("[SeatOccupiedRedisFacade] tryOccupySeat start: event={}, venue={}, zone={}, row={}, col={}",
+					eventId, venueId, zoneId, row, col);
+		}
 
-		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
 		int rowIndex = convertRowToIndex(row);
-		int bitPos = calcBitPosition(row, col, seatPerRow);
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		int bitPos = calcBitPosition(rowIndex, col, seatPerRow, venueConfigService.getRowCount(venueId, zoneId));
+		soldOutCache.checkSeat(eventId, zoneId, rowIndex);
 
-		String bitmapKey = RedisKeyUtil.getZoneBitMapKey(eventId, zoneId);
-		String zoneRemainKey = RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId);
-		String rowRemainKey = RedisKeyUtil.getRowRemainedSeats(eventId, zoneId, rowIndex);
-		String eventUsedKey = RedisKeyUtil.getEventUsedSeatsKey(eventId);
-		String eventTotalKey = RedisKeyUtil.getEventTotalCapacityKey(eventId);
-		log.trace(
-				"[SeatOccupiedRedisFacade] Lua keys: bitmap={}, zoneRem={}, rowRem={}, eventUsed={}, eventTotal={}, bitPos={}",
-				bitmapKey, zoneRemainKey, rowRemainKey, eventUsedKey, eventTotalKey, bitPos);
+		SeatFunctionLibrary.Keys keys = occupyKeys(eventId, zoneId);
+		String bitmapKey = keys.get(0);
+		if (log.isTraceEnabled()) {
+			log.trace("[SeatOccupiedRedisFacade] Lua keys: {}, bitPos={}", keys.names(), bitPos);
+		}
+		rejectIfMirroredOccupied(bitmapKey, bitPos, eventId, zoneId, row, col);
 
 		Long res;
 		try {
-			res = stringRedisTemplate.execute(
-					tryOccupySeatScript,
-					List.of(bitmapKey, zoneRemainKey, rowRemainKey, eventUsedKey, eventTotalKey),
-					String.valueOf(bitPos));
-			log.debug("[SeatOccupiedRedisFacade] Lua script execution returned: {}", res);
+			if (seatOccupyCoalescer.isEnabled()) {
+				res = loadShedder.redis(() -> seatOccupyCoalescer.occupy(eventId, zoneId, seatPerRow, bitPos, ticketId));
+			} else {
+				res = loadShedder.redis(() -> seatFunctionLibrary.fcall(SeatFunctionLibrary.FN_OCCUPY, keys,
+						String.valueOf(bitPos), String.valueOf(seatPerRow), ticketId));
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("[SeatOccupiedRedisFacade] seat_occupy returned: {}", res);
+			}
 
 		} catch (Exception ex) {
 			log.error("""
-					[SeatOccupiedRedisFacade] !!! Lua script execution FAILED !!!
-					  KEYS = [{}, {}, {}, {}, {}]
-					  ARGV = [{}]
+					[SeatOccupiedRedisFacade] !!! seat_occupy FCALL FAILED !!!
+					  KEYS = {}
+					  ARGV = [{}, {}, {}]
 					  Exception: {}""",
-					bitmapKey, zoneRemainKey, rowRemainKey, eventUsedKey, eventTotalKey, bitPos, ex.toString(), ex);
+					keys.names(), bitPos, seatPerRow, ticketId, ex.toString(), ex);
 			throw ex;
 		}
 
-		// Lua will either throw exception or return a number
+		mirrorOccupyResult(res, bitmapKey, bitPos);
+		handleOccupyResult(res, eventId, venueId, zoneId, row, col);
+		seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, true);
+	}
+
+	// seat_occupy keys of a zone, built and encoded once per configured event and zone instead of on every purchase;
+	// zones are bounded by the venue since unknown zones fail the seat check before this
+	private SeatFunctionLibrary.Keys occupyKeys(String eventId, int zoneId) {
+		Map<Integer, SeatFunctionLibrary.Keys> zones = occupyKeys.get(eventId);
+		if (zones == null) {
+			return newOccupyKeys(eventId, zoneId);
+		}
+		SeatFunctionLibrary.Keys keys = zones.get(zoneId);
+		if (keys == null) {
+			keys = newOccupyKeys(eventId, zoneId);
+			zones.putIfAbsent(zoneId, keys);
+		}
+		return keys;
+	}
+
+	private static SeatFunctionLibrary.Keys newOccupyKeys(String eventId, int zoneId) {
+		return SeatFunctionLibrary.Keys.of(RedisKeyUtil.getZoneBitMapKey(eventId, zoneId),
+				RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getEventUsedSeatsKey(eventId),
+				RedisKeyUtil.getEventTotalCapacityKey(eventId),
+				RedisKeyUtil.getSeatOwnersKey(eventId, zoneId),
+				RedisKeyUtil.getZoneChangesKey(eventId, zoneId));
+	}
+
+	/**
+	 * tryOccupySeat for a request carrying a client idempotency key: the record is stored with the
+	 * seat in one FCALL and only if the seat was taken by this call. Bypasses the coalescer, the sold-out cache and
+	 * the mirror: a retry of a purchase that went through must reach seatlib's key check even though its seat, row or
+	 * zone now looks taken locally.
+	 *
+	 * @return the record stored by an earlier request with the same key, null if this call took the seat
+	 */
+	public String tryOccupySeat(String eventId, String venueId, int zoneId, String row, String col, String ticketId,
+			String idempotencyKey, String record, long ttlMs) {
+		log.debug(
+				"[SeatOccupiedRedisFacade] tryOccupySeat start: event={}, venue={}, zone={}, row={}, col={}, key={}",
+				eventId, venueId, zoneId, row, col, idempotencyKey);
+
+		int rowIndex = convertRowToIndex(row);
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		int bitPos = calcBitPosition(rowIndex, col, seatPerRow, venueConfigService.getRowCount(venueId, zoneId));
+		String bitmapKey = RedisKeyUtil.getZoneBitMapKey(eventId, zoneId);
+
+		List<Object> res = loadShedder.redis(() -> seatFunctionLibrary.fcallList(
+				SeatFunctionLibrary.FN_OCCUPY_IDEMPOTENT,
+				List.of(bitmapKey,
+						RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+						RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+						RedisKeyUtil.getEventUsedSeatsKey(eventId),
+						RedisKeyUtil.getEventTotalCapacityKey(eventId),
+						RedisKeyUtil.getSeatOwnersKey(eventId, zoneId),
+						RedisKeyUtil.getPurchaseIdempotencyKey(idempotencyKey),
+						RedisKeyUtil.getZoneChangesKey(eventId, zoneId)),
+				String.valueOf(bitPos), String.valueOf(seatPerRow), ticketId, record, String.valueOf(ttlMs)));
+		log.debug("[SeatOccupiedRedisFacade] seat_occupy_idempotent returned: {}", res.get(0));
+
+		Long code = (Long) res.get(0);
+		if (code == 8) {
+			log.debug("[SeatOccupiedRedisFacade] Idempotency key already used: event={}, key={}", eventId,
+					idempotencyKey);
+			return new String((byte[]) res.get(1), StandardCharsets.UTF_8);
+		}
+		mirrorOccupyResult(code, bitmapKey, bitPos);
+		handleOccupyResult(code, eventId, venueId, zoneId, row, col);
+		seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, true);
+		return null;
+	}
+
+	public void releaseSeat(String eventId, String venueId, int zoneId, String row, String col) {
+		log.debug("[SeatOccupiedRedisFacade] releaseSeat start: event={}, venue={}, zone={}, row={}, col={}",
+				eventId, venueId, zoneId, row, col);
+
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		int bitPos = calcBitPosition(row, col, seatPerRow, venueConfigService.getRowCount(venueId, zoneId));
+
+		String bitmapKey = RedisKeyUtil.getZoneBitMapKey(eventId, zoneId);
+		String zoneRemainKey = RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId);
+
+		int rowIndex = convertRowToIndex(row);
+		String rowRemainKey = RedisKeyUtil.getRowRemainedSeats(eventId, zoneId);
+
+		Long released = seatFunctionLibrary.fcall(
+				SeatFunctionLibrary.FN_RELEASE,
+				List.of(bitmapKey, zoneRemainKey, rowRemainKey, RedisKeyUtil.getEventUsedSeatsKey(eventId),
+						RedisKeyUtil.getSeatOwnersKey(eventId, zoneId), RedisKeyUtil.getZoneChangesKey(eventId, zoneId)),
+				String.valueOf(bitPos), String.valueOf(seatPerRow));
+		if (released != null && released > 0) {
+			seatBitmapMirror.update(bitmapKey, bitPos, false);
+			soldOutCache.released(eventId, zoneId, rowIndex);
+			seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, false);
+		}
+
+		log.trace("[SeatOccupiedRedisFacade] Seat released: event={}, venue={}, zone={}, row={}, col={}",
+				eventId, venueId, zoneId, row, col);
+	}
+
+	/**
+	 * Cancel: releases the seat and gives its zone, row and event counters back in one FCALL,
+	 * but only if the seat is still owned by ticketId.
+	 */
+	public void cancelSeat(String eventId, String venueId, int zoneId, String row, String col, String ticketId) {
+		log.debug("[SeatOccupiedRedisFacade] cancelSeat start: event={}, zone={}, row={}, col={}, ticket={}",
+				eventId, zoneId, row, col, ticketId);
+
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		int rowIndex = convertRowToIndex(row);
+		int bitPos = calcBitPosition(row, col, seatPerRow, venueConfigService.getRowCount(venueId, zoneId));
+		String bitmapKey = RedisKeyUtil.getZoneBitMapKey(eventId, zoneId);
+
+		Long res = seatFunctionLibrary.fcall(
+				SeatFunctionLibrary.FN_CANCEL,
+				List.of(bitmapKey,
+						RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+						RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+						RedisKeyUtil.getEventUsedSeatsKey(eventId),
+						RedisKeyUtil.getSeatOwnersKey(eventId, zoneId),
+						RedisKeyUtil.getZoneChangesKey(eventId, zoneId)),
+				String.valueOf(bitPos), String.valueOf(seatPerRow), ticketId);
+		log.debug("[SeatOccupiedRedisFacade] seat_cancel returned: {}", res);
+
+		switch (res.intValue()) {
+			case 0:
+				seatBitmapMirror.update(bitmapKey, bitPos, false);
+				soldOutCache.released(eventId, zoneId, rowIndex);
+				seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, false);
+				log.trace("[SeatOccupiedRedisFacade] Seat cancelled: event={}, zone={}, row={}, col={}, ticket={}",
+						eventId, zoneId, row, col, ticketId);
+				return;
+			case 9:
+				log.warn("[SeatOccupiedRedisFacade] Seat not held by ticket: event={}, zone={}, row={}, col={}, ticket={}",
+						eventId, zoneId, row, col, ticketId);
+				throw new TicketNotFoundException("Ticket " + ticketId + " does not hold this seat.");
+			default:
+				log.error("[SeatOccupiedRedisFacade] Unknown result from seat_cancel: {}", res);
+				throw new RuntimeException("Unknown seatlib return code: " + res);
+		}
+	}
+
+	/**
+	 * Gives a cancelled seat back to its ticket when the cancellation could not be recorded.
+	 * seat_restore sets the bit, counters and owner in one FCALL without the sold-out cache, the mirror, the
+	 * coalescer or the load shedder: the seat was freed by this ticket's cancel, so none of their answers apply.
+	 * Calling it again for a seat the ticket already holds is a no-op.
+	 *
+	 * @throws SeatOccupiedException if another ticket bought the seat after the cancel
+	 */
+	public void restoreSeat(String eventId, String venueId, int zoneId, String row, String col, String ticketId) {
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		int bitPos = calcBitPosition(row, col, seatPerRow, venueConfigService.getRowCount(venueId, zoneId));
+		SeatFunctionLibrary.Keys keys = occupyKeys(eventId, zoneId);
+
+		Long res = seatFunctionLibrary.fcall(SeatFunctionLibrary.FN_RESTORE, keys,
+				String.valueOf(bitPos), String.valueOf(seatPerRow), ticketId);
+		log.debug("[SeatOccupiedRedisFacade] seat_restore returned: {}", res);
+
 		switch (res.intValue()) {
 			case 0:
-				log.trace(
-						"[SeatOccupiedRedisFacade] Seat occupied successfully: event={}, venue={}, zone={}, row={}, col={}",
-						eventId, venueId, zoneId, row, col);
+				seatBitmapMirror.update(keys.get(0), bitPos, true);
+				seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, true);
 				return;
 			case 1:
-				log.warn("[SeatOccupiedRedisFacade] Seat already occupied: event={}, zone={}, row={}, col={}",
-						eventId, zoneId, row, col);
+				throw new SeatOccupiedException("Seat already occupied.");
+			default:
+				log.error("[SeatOccupiedRedisFacade] Unknown result from seat_restore: {}", res);
+				throw new RuntimeException("Unknown seatlib return code: " + res);
+		}
+	}
+
+	/**
+	 * Group purchase: occupy all seats of one zone in a single FCALL.
+	 * Either every bit is set and counters updated once, or nothing changes.
+	 * ticketIds.get(i) becomes the owner of seats.get(i).
+	 */
+	public void tryOccupySeats(String eventId, String venueId, int zoneId, List<SeatPositionDTO> seats,
+			List<String> ticketIds) {
+		log.debug("[SeatOccupiedRedisFacade] tryOccupySeats start: event={}, venue={}, zone={}, size={}",
+				eventId, venueId, zoneId, seats.size());
+
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		String[] args = groupArgs(seats, seatPerRow, venueConfigService.getRowCount(venueId, zoneId), ticketIds);
+		for (SeatPositionDTO seat : seats) {
+			soldOutCache.checkSeat(eventId, zoneId, convertRowToIndex(seat.getRow()));
+		}
+
+		// KEYS = bitmap, zoneRem, eventUsed, eventTotal, rowCounters, seatOwners, changes;
+		// ARGV = seatPerRow, bitPos per seat, ticketId per seat
+		List<String> keys = List.of(
+				RedisKeyUtil.getZoneBitMapKey(eventId, zoneId),
+				RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getEventUsedSeatsKey(eventId),
+				RedisKeyUtil.getEventTotalCapacityKey(eventId),
+				RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getSeatOwnersKey(eventId, zoneId),
+				RedisKeyUtil.getZoneChangesKey(eventId, zoneId));
+		for (int i = 1; i <= seats.size(); i++) {
+			if (seatBitmapMirror.isOccupied(keys.get(0), Integer.parseInt(args[i]))) {
+				log.debug("[SeatOccupiedRedisFacade] Group contains seat occupied in mirror: event={}, zone={}",
+						eventId, zoneId);
+				throw new SeatOccupiedException("Seat already occupied.");
+			}
+		}
+
+		Long res;
+		try {
+			res = loadShedder.redis(() -> seatFunctionLibrary.fcall(SeatFunctionLibrary.FN_GROUP_OCCUPY, keys, args));
+			log.debug("[SeatOccupiedRedisFacade] seats_occupy returned: {}", res);
+		} catch (Exception ex) {
+			log.error("[SeatOccupiedRedisFacade] !!! seats_occupy FCALL FAILED !!! KEYS={}, ARGV={}",
+					keys, args, ex);
+			throw ex;
+		}
+
+		switch (res.intValue()) {
+			case 0:
+				log.trace("[SeatOccupiedRedisFacade] Seats occupied successfully: event={}, zone={}, size={}",
+						eventId, zoneId, seats.size());
+				for (int i = 1; i <= seats.size(); i++) {
+					seatBitmapMirror.update(keys.get(0), Integer.parseInt(args[i]), true);
+					seatAvailabilityFeed.seatChanged(eventId, zoneId, Integer.parseInt(args[i]), true);
+				}
+				return;
+			case 1:
+				log.warn("[SeatOccupiedRedisFacade] Group contains occupied seat: event={}, zone={}", eventId, zoneId);
 				throw new SeatOccupiedException("Seat already occupied.");
 			case 2:
-				log.warn("[SeatOccupiedRedisFacade] Zone full: event={}, zone={}", eventId, zoneId);
+				log.warn("[SeatOccupiedRedisFacade] Zone cannot fit group: event={}, zone={}", eventId, zoneId);
 				throw new ZoneFullException("Zone already Full.");
 			case 3:
-				log.warn("[SeatOccupiedRedisFacade] Row full: event={}, zone={}, row={}", eventId, zoneId, row);
+				log.warn("[SeatOccupiedRedisFacade] Row cannot fit group: event={}, zone={}", eventId, zoneId);
 				throw new RowFullException("Row already Full.");
+			case 4:
+				log.warn("[SeatOccupiedRedisFacade] Event cannot fit group: event={}, zone={}", eventId, zoneId);
+				throw new EventFullException("Event already Full.");
 			default:
-				log.error("[SeatOccupiedRedisFacade] Unknown result from Lua script: {}", res);
-				throw new RuntimeException("Unknown Lua script return code: " + res);
+				log.error("[SeatOccupiedRedisFacade] Unknown result from seats_occupy: {}", res);
+				throw new RuntimeException("Unknown seatlib return code: " + res);
 		}
 	}
 
-	public void releaseSeat(String eventId, String venueId, int zoneId, String row, String col) {
-		log.debug("[SeatOccupiedRedisFacade] releaseSeat start: event={}, venue={}, zone={}, row={}, col={}",
-				eventId, venueId, zoneId, row, col);
+	public void releaseSeats(String eventId, String venueId, int zoneId, List<SeatPositionDTO> seats) {
+		log.debug("[SeatOccupiedRedisFacade] releaseSeats start: event={}, venue={}, zone={}, size={}",
+				eventId, venueId, zoneId, seats.size());
 
 		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
-		int bitPos = calcBitPosition(row, col, seatPerRow);
 
-		String bitmapKey = RedisKeyUtil.getZoneBitMapKey(eventId, zoneId);
-		String zoneRemainKey = RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId);
+		List<String> keys = List.of(
+				RedisKeyUtil.getZoneBitMapKey(eventId, zoneId),
+				RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getEventUsedSeatsKey(eventId),
+				RedisKeyUtil.getSeatOwnersKey(eventId, zoneId),
+				RedisKeyUtil.getZoneChangesKey(eventId, zoneId));
+		String[] args = groupArgs(seats, seatPerRow, venueConfigService.getRowCount(venueId, zoneId), null);
+
+		// bit positions of the seats that were actually taken
+		List<Object> released = seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_GROUP_RELEASE, keys, args);
+		for (Object pos : released) {
+			int bitPos = ((Number) pos).intValue();
+			seatBitmapMirror.update(keys.get(0), bitPos, false);
+			seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, false);
+		}
+		if (!released.isEmpty()) {
+			soldOutCache.released(eventId, zoneId, SoldOutCache.WHOLE_ZONE);
+		}
+
+		log.trace("[SeatOccupiedRedisFacade] Seats released: event={}, zone={}, released={}/{}",
+				eventId, zoneId, released.size(), seats.size());
+	}
+
+	/**
+	 * Best available: Redis scans the zone bitmap row by row (BITPOS) and occupies the first
+	 * block of `quantity` adjacent free seats in the same atomic call.
+	 * Returns the allocated seats, so callers never collide on an exact seat pick;
+	 * ticketIds.get(i) becomes the owner of the i-th seat of the block.
+	 */
+	public List<SeatPositionDTO> occupyBestAvailable(String eventId, String venueId, int zoneId, int quantity,
+			List<String> ticketIds) {
+		log.debug("[SeatOccupiedRedisFacade] occupyBestAvailable start: event={}, venue={}, zone={}, quantity={}",
+				eventId, venueId, zoneId, quantity);
+
+		soldOutCache.checkZone(eventId, zoneId);
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		int rowCount = venueConfigService.getRowCount(venueId, zoneId);
+		if (seatPerRow <= 0 || rowCount <= 0) {
+			throw new IllegalArgumentException("Unknown zone " + zoneId + " for venue " + venueId);
+		}
+		if (quantity > seatPerRow) {
+			throw new NoAdjacentSeatsException("Zone rows only have " + seatPerRow + " seats.");
+		}
+		if (ticketIds.size() != quantity) {
+			throw new IllegalArgumentException("Need one ticket id per seat, got " + ticketIds.size());
+		}
+
+		// KEYS = bitmap, zoneRem, eventUsed, eventTotal, rowCounters, seatOwners, changes;
+		// ARGV = seatPerRow, rowCount, quantity, ticketId per seat
+		List<String> keys = List.of(
+				RedisKeyUtil.getZoneBitMapKey(eventId, zoneId),
+				RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getEventUsedSeatsKey(eventId),
+				RedisKeyUtil.getEventTotalCapacityKey(eventId),
+				RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getSeatOwnersKey(eventId, zoneId),
+				RedisKeyUtil.getZoneChangesKey(eventId, zoneId));
+		String[] args = new String[quantity + 3];
+		args[0] = String.valueOf(seatPerRow);
+		args[1] = String.valueOf(rowCount);
+		args[2] = String.valueOf(quantity);
+		for (int i = 0; i < quantity; i++) {
+			args[i + 3] = ticketIds.get(i);
+		}
+
+		List<Object> res = loadShedder.redis(
+				() -> seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_BEST_AVAILABLE, keys, args));
+		log.debug("[SeatOccupiedRedisFacade] seats_best_available returned: {}", res);
+
+		int code = ((Number) res.get(0)).intValue();
+		switch (code) {
+			case 0:
+				int firstBitPos = ((Number) res.get(1)).intValue();
+				int rowIndex = firstBitPos / seatPerRow;
+				int firstCol = firstBitPos % seatPerRow;
+				String row = convertIndexToRow(rowIndex);
+				List<SeatPositionDTO> seats = new ArrayList<>(quantity);
+				for (int i = 0; i < quantity; i++) {
+					seats.add(new SeatPositionDTO(row, String.valueOf(firstCol + i + 1)));
+					seatBitmapMirror.update(keys.get(0), firstBitPos + i, true);
+					seatAvailabilityFeed.seatChanged(eventId, zoneId, firstBitPos + i, true);
+				}
+				log.trace("[SeatOccupiedRedisFacade] Best available allocated: event={}, zone={}, seats={}",
+						eventId, zoneId, seats);
+				return seats;
+			case 2:
+				log.warn("[SeatOccupiedRedisFacade] Zone full: event={}, zone={}", eventId, zoneId);
+				throw new ZoneFullException("Zone already Full.");
+			case 4:
+				log.warn("[SeatOccupiedRedisFacade] Event cannot fit {} seats: event={}", quantity, eventId);
+				throw new EventFullException("Event already Full.");
+			case 5:
+				log.warn("[SeatOccupiedRedisFacade] No {} adjacent seats: event={}, zone={}", quantity, eventId,
+						zoneId);
+				throw new NoAdjacentSeatsException("No " + quantity + " adjacent seats available.");
+			default:
+				log.error("[SeatOccupiedRedisFacade] Unknown result from seats_best_available: {}", res);
+				throw new RuntimeException("Unknown seatlib return code: " + code);
+		}
+	}
+
+	/**
+	 * Hold: occupy the seat like tryOccupySeat and register it in the event's hold set
+	 * with its expiry, in one FCALL. Expired holds are released by SeatHoldSweeper.
+	 */
+	public void holdSeat(String eventId, String venueId, int zoneId, String row, String col, String holdId,
+			long expiresAtMs) {
+		log.debug("[SeatOccupiedRedisFacade] holdSeat start: event={}, zone={}, row={}, col={}, holdId={}",
+				eventId, zoneId, row, col, holdId);
 
 		int rowIndex = convertRowToIndex(row);
-		String rowRemainKey = RedisKeyUtil.getRowRemainedSeats(eventId, zoneId, rowIndex);
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		int bitPos = calcBitPosition(rowIndex, col, seatPerRow, venueConfigService.getRowCount(venueId, zoneId));
+		soldOutCache.checkSeat(eventId, zoneId, rowIndex);
+		String bitmapKey = RedisKeyUtil.getZoneBitMapKey(eventId, zoneId);
+		rejectIfMirroredOccupied(bitmapKey, bitPos, eventId, zoneId, row, col);
 
-		stringRedisTemplate.execute(
-				tryReleaseSeatScript,
-				List.of(bitmapKey, zoneRemainKey, rowRemainKey),
-				String.valueOf(bitPos));
+		Long res = seatFunctionLibrary.fcall(
+				SeatFunctionLibrary.FN_HOLD,
+				List.of(bitmapKey,
+						RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+						RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+						RedisKeyUtil.getEventUsedSeatsKey(eventId),
+						RedisKeyUtil.getEventTotalCapacityKey(eventId),
+						RedisKeyUtil.getEventHoldsKey(eventId),
+						RedisKeyUtil.getEventHoldTokensKey(eventId),
+						RedisKeyUtil.getHoldEventsKey(),
+						RedisKeyUtil.getZoneChangesKey(eventId, zoneId)),
+				String.valueOf(bitPos), String.valueOf(seatPerRow), holdMember(zoneId, rowIndex, bitPos),
+				String.valueOf(expiresAtMs), holdId, eventId);
+		log.debug("[SeatOccupiedRedisFacade] seat_hold returned: {}", res);
 
-		log.trace("[SeatOccupiedRedisFacade] Seat released: event={}, venue={}, zone={}, row={}, col={}",
-				eventId, venueId, zoneId, row, col);
+		mirrorOccupyResult(res, bitmapKey, bitPos);
+		handleOccupyResult(res, eventId, venueId, zoneId, row, col);
+		seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, true);
 	}
 
-	private int calcBitPosition(String row, String col, int seatPerRow) {
+	/**
+	 * Confirm: turns an unexpired hold into a sale owned by ticketId, the seat bit stays set.
+	 */
+	public void confirmHold(String eventId, String venueId, int zoneId, String row, String col, String holdId,
+			long nowMs, String ticketId) {
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
 		int rowIndex = convertRowToIndex(row);
+		int bitPos = calcBitPosition(row, col, seatPerRow, venueConfigService.getRowCount(venueId, zoneId));
+
+		Long res = seatFunctionLibrary.fcall(
+				SeatFunctionLibrary.FN_HOLD_CONFIRM,
+				List.of(RedisKeyUtil.getEventHoldsKey(eventId), RedisKeyUtil.getEventHoldTokensKey(eventId),
+						RedisKeyUtil.getSeatOwnersKey(eventId, zoneId)),
+				holdMember(zoneId, rowIndex, bitPos), holdId, String.valueOf(nowMs), ticketId);
+
+		switch (res.intValue()) {
+			case 0:
+				log.trace("[SeatOccupiedRedisFacade] Hold confirmed: event={}, holdId={}", eventId, holdId);
+				return;
+			case 6:
+				log.warn("[SeatOccupiedRedisFacade] Hold expired or unknown: event={}, holdId={}", eventId, holdId);
+				throw new HoldExpiredException("Hold expired or not found.");
+			case 7:
+				log.warn("[SeatOccupiedRedisFacade] Hold id mismatch: event={}, holdId={}", eventId, holdId);
+				throw new IllegalArgumentException("Hold id does not match the seat.");
+			default:
+				log.error("[SeatOccupiedRedisFacade] Unknown result from seat_hold_confirm: {}", res);
+				throw new RuntimeException("Unknown seatlib return code: " + res);
+		}
+	}
+
+	/**
+	 * Releases expired holds of one zone. Members must come from the event's hold set
+	 * ("zoneId:rowIndex:bitPos"); holds confirmed in the meantime are skipped by Redis.
+	 */
+	public long expireHolds(String eventId, int zoneId, List<String> members, long nowMs) {
+		List<String> keys = List.of(
+				RedisKeyUtil.getEventHoldsKey(eventId),
+				RedisKeyUtil.getEventHoldTokensKey(eventId),
+				RedisKeyUtil.getHoldEventsKey(),
+				RedisKeyUtil.getZoneBitMapKey(eventId, zoneId),
+				RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getRowRemainedSeats(eventId, zoneId),
+				RedisKeyUtil.getEventUsedSeatsKey(eventId),
+				RedisKeyUtil.getZoneChangesKey(eventId, zoneId));
+
+		String[] args = new String[members.size() + 2];
+		args[0] = String.valueOf(nowMs);
+		args[1] = eventId;
+		for (int i = 0; i < members.size(); i++) {
+			args[i + 2] = members.get(i);
+		}
+
+		// bit positions of the seats that were released, holds confirmed in the meantime are left out
+		List<Object> released = seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_HOLDS_EXPIRE, keys, args);
+		log.debug("[SeatOccupiedRedisFacade] Expired holds released: event={}, zone={}, released={}/{}",
+				eventId, zoneId, released.size(), members.size());
+		String bitmapKey = keys.get(3);
+		for (Object pos : released) {
+			int bitPos = ((Number) pos).intValue();
+			seatBitmapMirror.update(bitmapKey, bitPos, false);
+			seatAvailabilityFeed.seatChanged(eventId, zoneId, bitPos, false);
+		}
+		if (!released.isEmpty()) {
+			soldOutCache.released(eventId, zoneId, SoldOutCache.WHOLE_ZONE);
+		}
+		return released.size();
+	}
+
+	// hold set member, carries everything seat_holds_expire needs to release the seat
+	static String holdMember(int zoneId, int rowIndex, int bitPos) {
+		return zoneId + ":" + rowIndex + ":" + bitPos;
+	}
+
+	public static int holdMemberZoneId(String member) {
+		return Integer.parseInt(member.substring(0, member.indexOf(':')));
+	}
+
+	// ARGV of the group functions: seatPerRow, the bit position of every seat, then their ticket ids if given
+	private String[] groupArgs(List<SeatPositionDTO> seats, int seatPerRow, int rowCount, List<String> ticketIds) {
+		if (ticketIds != null && ticketIds.size() != seats.size()) {
+			throw new IllegalArgumentException("Need one ticket id per seat, got " + ticketIds.size());
+		}
+		String[] args = new String[ticketIds != null ? 2 * seats.size() + 1 : seats.size() + 1];
+		args[0] = String.valueOf(seatPerRow);
+		Set<Integer> seen = new HashSet<>();
+		for (int i = 0; i < seats.size(); i++) {
+			SeatPositionDTO seat = seats.get(i);
+			int bitPos = calcBitPosition(seat.getRow(), seat.getColumn(), seatPerRow, rowCount);
+			if (!seen.add(bitPos)) {
+				throw new IllegalArgumentException(
+						"Duplicate seat in group request: " + seat.getRow() + "-" + seat.getColumn());
+			}
+			args[i + 1] = String.valueOf(bitPos);
+			if (ticketIds != null) {
+				args[seats.size() + i + 1] = ticketIds.get(i);
+			}
+		}
+		return args;
+	}
+
+	private int calcBitPosition(String row, String col, int seatPerRow, int rowCount) {
+		return calcBitPosition(convertRowToIndex(row), col, seatPerRow, rowCount);
+	}
+
+	// seatlib answers a bit offset it cannot address with error(), checked here so the client gets a 400;
+	// a row past the zone would read an empty row counter and come back as "row full"
+	private int calcBitPosition(int rowIndex, String col, int seatPerRow, int rowCount) {
+		if (seatPerRow <= 0 || rowCount <= 0) {
+			throw new IllegalArgumentException("Unknown venue or zone.");
+		}
+		if (rowIndex >= rowCount) {
+			throw new IllegalArgumentException("Invalid seat: row " + convertIndexToRow(rowIndex) + " of " + rowCount);
+		}
 		int colIndex = Integer.parseInt(col) - 1;
+		if (colIndex < 0 || colIndex >= seatPerRow || rowIndex > (Integer.MAX_VALUE - colIndex) / seatPerRow) {
+			throw new IllegalArgumentException("Invalid seat: column " + col + " of " + seatPerRow);
+		}
 		return rowIndex * seatPerRow + colIndex;
 	}
 
-	// turn the row name from A - zz as numbers
+	private void rejectIfMirroredOccupied(String bitmapKey, int bitPos, String eventId, int zoneId, String row,
+			String col) {
+		if (seatBitmapMirror.isOccupied(bitmapKey, bitPos)) {
+			log.debug("[SeatOccupiedRedisFacade] Seat occupied in mirror: event={}, zone={}, row={}, col={}",
+					eventId, zoneId, row, col);
+			throw new SeatOccupiedException("Seat already occupied.");
+		}
+	}
+
+	// 0 (taken now) and 1 (taken before) both mean the bit is set in Redis
+	private void mirrorOccupyResult(Long res, String bitmapKey, int bitPos) {
+		if (res != null && (res == 0 || res == 1)) {
+			seatBitmapMirror.update(bitmapKey, bitPos, true);
+		}
+	}
+
+	// seatlib will either throw exception or return a number; full codes are remembered by the sold-out cache
+	private void handleOccupyResult(Long res, String eventId, String venueId, int zoneId, String row, String col) {
+		switch (res.intValue()) {
+			case 0:
+				if (log.isTraceEnabled()) {
+					log.trace(
+							"[SeatOccupiedRedisFacade] Seat occupied successfully: event={}, venue={}, zone={}, row={}, col={}",
+							eventId, venueId, zoneId, row, col);
+				}
+				return;
+			case 1:
+				log.warn("[SeatOccupiedRedisFacade] Seat already occupied: event={}, zone={}, row={}, col={}",
+						eventId, zoneId, row, col);
+				throw new SeatOccupiedException("Seat already occupied.");
+			case 2:
+				log.warn("[SeatOccupiedRedisFacade] Zone full: event={}, zone={}", eventId, zoneId);
+				soldOutCache.recordFull(2, eventId, zoneId, convertRowToIndex(row));
+				throw new ZoneFullException("Zone already Full.");
+			case 3:
+				log.warn("[SeatOccupiedRedisFacade] Row full: event={}, zone={}, row={}", eventId, zoneId, row);
+				soldOutCache.recordFull(3, eventId, zoneId, convertRowToIndex(row));
+				throw new RowFullException("Row already Full.");
+			case 4:
+				log.warn("[SeatOccupiedRedisFacade] Event full: event={}", eventId);
+				soldOutCache.recordFull(4, eventId, zoneId, convertRowToIndex(row));
+				throw new EventFullException("Event already Full.");
+			case 10:
+				// seats_occupy_each rejects a bad seat on its own instead of failing the whole batch
+				throw new IllegalArgumentException("Invalid seat position.");
+			default:
+				log.error("[SeatOccupiedRedisFacade] Unknown result from seatlib: {}", res);
+				throw new RuntimeException("Unknown seatlib return code: " + res);
+		}
+	}
+
+	// inverse of convertRowToIndex: 0 -> A, 25 -> Z, 26 -> AA
+	static String convertIndexToRow(int rowIndex) {
+		StringBuilder sb = new StringBuilder(2);
+		int n = rowIndex + 1;
+		while (n > 0) {
+			int rem = (n - 1) % 26;
+			sb.append((char) ('A' + rem));
+			n = (n - 1) / 26;
+		}
+		return sb.reverse().toString();
+	}
+
+	// turn the row name from A - zz as numbers, reads the chars in place instead of an upper-cased copy
 	private int convertRowToIndex(String row) {
-		row = row.toUpperCase();
 		int idx = 0;
-		for (char c : row.toCharArray()) {
+		if (row.isEmpty() || row.length() > 4) {
+			throw new IllegalArgumentException("Invalid seat: row " + row);
+		}
+		for (int i = 0; i < row.length(); i++) {
+			char c = row.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				c -= 'a' - 'A';
+			}
+			if (c < 'A' || c > 'Z') {
+				throw new IllegalArgumentException("Invalid seat: row " + row);
+			}
 			idx = idx * 26 + (c - 'A' + 1);
 		}
 		return idx - 1;
@@ -1,55 +1,135 @@
 package org.java.purchaseservice.service.redis;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.java.purchaseservice.service.initialize.VenueConfigService;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Writes the seat state of an event to Redis: per zone an empty bitmap, a remaining-seat counter and
+ * one packed string of u16 per-row remaining-seat counters, no seat owners, and a seat-map change log that
+ * starts with a reset entry; the event's used-seat counter and holds are cleared.
+ * All keys of an event go out in one pipeline, the geometry fingerprint last. An event whose stored
+ * fingerprint still matches its venue geometry is skipped, so its sales survive a restart.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SeatOccupiedService {
-	private final RedisTemplate<String, byte[]> bitmapRedisTemplate;
+	// bump when the set of keys written per event changes
+	private static final int LAYOUT_VERSION = 2;
+	// row counters are BITFIELD u16 slots
+	static final int MAX_SEATS_PER_ROW = 0xFFFF;
+
 	private final StringRedisTemplate stringRedisTemplate;
 	private final VenueConfigService venueConfigService;
+	private final boolean forceReinitialize;
+
+	public SeatOccupiedService(StringRedisTemplate stringRedisTemplate, VenueConfigService venueConfigService,
+			@Value("${tickets.event-init.force:false}") boolean forceReinitialize) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.venueConfigService = venueConfigService;
+		this.forceReinitialize = forceReinitialize;
+	}
 
 	public void initializeAllZonesForEvent(String eventId, String venueId) {
-		//
-		Set<Object> zoneIds = venueConfigService.getVenueZones(venueId);
-		if (zoneIds == null || zoneIds.isEmpty()) {
+		Set<Object> zones = venueConfigService.getVenueZones(venueId);
+		if (zones == null || zones.isEmpty()) {
 			throw new IllegalStateException("Venue " + venueId + " has no configured zones.");
 		}
 
-		for (Object z : zoneIds) {
+		List<ZoneLayout> layouts = new ArrayList<>(zones.size());
+		for (Object z : zones) {
 			int zoneId = Integer.parseInt(z.toString());
-			initializeEventSeat(eventId, venueId, zoneId);
+			int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+			if (seatPerRow > MAX_SEATS_PER_ROW) {
+				throw new IllegalStateException("Venue " + venueId + " zone " + zoneId + " has " + seatPerRow
+						+ " seats per row, row counters hold at most " + MAX_SEATS_PER_ROW);
+			}
+			layouts.add(new ZoneLayout(zoneId, venueConfigService.getRowCount(venueId, zoneId), seatPerRow,
+					venueConfigService.getZoneCapacity(venueId, zoneId)));
 		}
-	}
+		layouts.sort(Comparator.comparingInt(ZoneLayout::zoneId));
 
-	public void initializeEventSeat(String eventId, String venueId, int zoneId) {
-		String bitmapKey = RedisKeyUtil.getZoneBitMapKey(eventId, zoneId);
-		String zoneRemKey = RedisKeyUtil.getZoneRemainedSeats(eventId, zoneId);
-		stringRedisTemplate.delete(bitmapKey);
-		stringRedisTemplate.delete(zoneRemKey);
-
-		int rowCount = venueConfigService.getRowCount(venueId, zoneId);
-		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
-		int totalSeats = venueConfigService.getZoneCapacity(venueId, zoneId);
-		log.trace("[SeatOccupied][Init] zone={} config at: rowCount={}, seatPerRow={}, totalSeats={}",
-				zoneId, rowCount, seatPerRow, totalSeats);
+		String fingerprintKey = RedisKeyUtil.getEventInitFingerprintKey(eventId);
+		String fingerprint = fingerprint(venueId, layouts);
+		if (!forceReinitialize && fingerprint.equals(stringRedisTemplate.opsForValue().get(fingerprintKey))) {
+			log.info("[SeatOccupied][Init] event={} unchanged since last initialization, skipped", eventId);
+			return;
+		}
 
-		byte[] initialBitmap = new byte[(totalSeats + 7) / 8];
-		bitmapRedisTemplate.opsForValue().set(bitmapKey, initialBitmap);
+		long start = System.nanoTime();
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection redis = (StringRedisConnection) connection;
+			redis.del(RedisKeyUtil.getEventUsedSeatsKey(eventId), RedisKeyUtil.getEventHoldsKey(eventId),
+					RedisKeyUtil.getEventHoldTokensKey(eventId));
+			for (ZoneLayout zone : layouts) {
+				log.trace("[SeatOccupied][Init] zone={} config at: rowCount={}, seatPerRow={}, totalSeats={}",
+						zone.zoneId(), zone.rowCount(), zone.seatPerRow(), zone.totalSeats());
+				connection.stringCommands().set(
+						RedisKeyUtil.getZoneBitMapKey(eventId, zone.zoneId()).getBytes(StandardCharsets.UTF_8),
+						new byte[(zone.totalSeats() + 7) / 8]);
+				redis.set(RedisKeyUtil.getZoneRemainedSeats(eventId, zone.zoneId()),
+						String.valueOf(zone.totalSeats()));
+				redis.del(RedisKeyUtil.getSeatOwnersKey(eventId, zone.zoneId()),
+						RedisKeyUtil.getZoneChangesKey(eventId, zone.zoneId()));
+				// seat-map readers holding an older version must start over from a snapshot
+				redis.xAdd(RedisKeyUtil.getZoneChangesKey(eventId, zone.zoneId()), Map.of("s", "r", "p", ""));
+				connection.stringCommands().set(
+						RedisKeyUtil.getRowRemainedSeats(eventId, zone.zoneId()).getBytes(StandardCharsets.UTF_8),
+						rowCounters(zone.rowCount(), zone.seatPerRow()));
+				if (zone.rowCount() > 0) {
+					String[] legacyRowKeys = new String[zone.rowCount()];
+					for (int rowIndex = 0; rowIndex < zone.rowCount(); rowIndex++) {
+						legacyRowKeys[rowIndex] = RedisKeyUtil.getLegacyRowRemainedSeats(eventId, zone.zoneId(),
+								rowIndex);
+					}
+					redis.del(legacyRowKeys);
+				}
+			}
+			redis.set(fingerprintKey, fingerprint);
+			return null;
+		});
+		log.info("[SeatOccupied][Init] event={} initialized: {} zones in {}ms", eventId, layouts.size(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
 
-		stringRedisTemplate.opsForValue().set(zoneRemKey, String.valueOf(totalSeats));
+	// BITFIELD u16 #rowIndex reads the big-endian pair at byte 2 * rowIndex
+	static byte[] rowCounters(int rowCount, int seatPerRow) {
+		byte[] counters = new byte[rowCount * 2];
 		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
-			String rowKey = RedisKeyUtil.getRowRemainedSeats(eventId, zoneId, rowIndex);
-			stringRedisTemplate.delete(rowKey);
-			stringRedisTemplate.opsForValue().set(rowKey, String.valueOf(seatPerRow));
+			counters[2 * rowIndex] = (byte) (seatPerRow >>> 8);
+			counters[2 * rowIndex + 1] = (byte) seatPerRow;
 		}
+		return counters;
+	}
+
+	static String fingerprint(String venueId, List<ZoneLayout> layouts) {
+		StringBuilder sb = new StringBuilder().append(LAYOUT_VERSION).append('|').append(venueId);
+		for (ZoneLayout zone : layouts) {
+			sb.append('|').append(zone.zoneId()).append(':').append(zone.rowCount()).append(':')
+					.append(zone.seatPerRow()).append(':').append(zone.totalSeats());
+		}
+		try {
+			MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(sha256.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	record ZoneLayout(int zoneId, int rowCount, int seatPerRow, int totalSeats) {
 	}
 }
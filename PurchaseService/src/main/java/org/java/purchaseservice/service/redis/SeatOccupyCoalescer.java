@@ -0,0 +1,207 @@
+package org.java.purchaseservice.service.redis;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional micro-batching stage in front of seat_occupy.
+ * Single-seat purchases for the same event/zone that arrive within one window are sent
+ * to Redis as one seats_occupy_each call; every caller gets back its own result code.
+ * A batch is flushed when the window elapses or when it reaches max-batch-size,
+ * whichever comes first. Disabled by default (tickets.coalescer.enabled).
+ */
+@Slf4j
+@Component
+public class SeatOccupyCoalescer {
+	private final SeatFunctionLibrary seatFunctionLibrary;
+	private final boolean enabled;
+	private final long windowMicros;
+	private final int maxBatchSize;
+	private final long timeoutMs;
+
+	private final Map<String, ZoneBatch> batches = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService flusher;
+
+	private final DistributionSummary fillRatio;
+	private final DistributionSummary batchSize;
+	private final Timer queueDelay;
+
+	public SeatOccupyCoalescer(SeatFunctionLibrary seatFunctionLibrary, MeterRegistry meterRegistry,
+			@Value("${tickets.coalescer.enabled:false}") boolean enabled,
+			@Value("${tickets.coalescer.window-micros:500}") long windowMicros,
+			@Value("${tickets.coalescer.max-batch-size:32}") int maxBatchSize,
+			@Value("${tickets.coalescer.flush-threads:2}") int flushThreads,
+			@Value("${tickets.coalescer.timeout-ms:5000}") long timeoutMs) {
+		if (windowMicros <= 0 || maxBatchSize <= 0 || flushThreads <= 0) {
+			throw new IllegalArgumentException("tickets.coalescer window, batch size and threads must be positive");
+		}
+		this.seatFunctionLibrary = seatFunctionLibrary;
+		this.enabled = enabled;
+		this.windowMicros = windowMicros;
+		this.maxBatchSize = maxBatchSize;
+		this.timeoutMs = timeoutMs;
+		this.flusher = enabled ? Executors.newScheduledThreadPool(flushThreads, r -> {
+			Thread t = new Thread(r, "seat-coalescer");
+			t.setDaemon(true);
+			return t;
+		}) : null;
+
+		this.fillRatio = DistributionSummary.builder("tickets.coalescer.batch.fill.ratio")
+				.description("Seats per flushed batch divided by max-batch-size")
+				.register(meterRegistry);
+		this.batchSize = DistributionSummary.builder("tickets.coalescer.batch.size")
+				.description("Seats per flushed batch")
+				.register(meterRegistry);
+		this.queueDelay = Timer.builder("tickets.coalescer.queue.delay")
+				.description("Time a seat request waited in the coalescer before its batch was sent")
+				.register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Queues one seat and blocks until its batch has been executed.
+	 *
+	 * @return the seat_occupy code for this seat
+	 */
+	public Long occupy(String eventId, int zoneId, int seatPerRow, int bitPos, String ticketId) {
+		// a bad seat must fail alone, not the batch it would have joined
+		if (seatPerRow <= 0 || bitPos < 0) {
+			throw new IllegalArgumentException("Invalid seat position: bitPos=" + bitPos + ", seatPerRow=" + seatPerRow);
+		}
+		// seatPerRow is part of the key: it comes with the request's venue and goes to seatlib once per batch
+		ZoneBatch batch = batches.computeIfAbsent(eventId + ":" + zoneId + ":" + seatPerRow,
+				k -> new ZoneBatch(eventId, zoneId, seatPerRow));
+		PendingSeat seat = new PendingSeat(bitPos, ticketId, System.nanoTime(), new CompletableFuture<>());
+
+		List<PendingSeat> full = null;
+		synchronized (batch) {
+			batch.pending.add(seat);
+			if (batch.pending.size() >= maxBatchSize) {
+				full = batch.drain();
+			} else if (!batch.scheduled) {
+				batch.scheduled = true;
+				flusher.schedule(() -> flushOnTimer(batch), windowMicros, TimeUnit.MICROSECONDS);
+			}
+		}
+		if (full != null) {
+			// The caller that filled the batch would wait for it anyway, so it runs the call itself
+			send(batch, full);
+		}
+
+		try {
+			return seat.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new QueryTimeoutException("Coalesced seat_occupy timed out after " + timeoutMs + "ms", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for seat_occupy batch", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IllegalStateException("Coalesced seat_occupy failed", e.getCause());
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (flusher != null) {
+			flusher.shutdown();
+		}
+	}
+
+	private void flushOnTimer(ZoneBatch batch) {
+		List<PendingSeat> seats;
+		synchronized (batch) {
+			batch.scheduled = false;
+			seats = batch.drain();
+		}
+		if (!seats.isEmpty()) {
+			send(batch, seats);
+		}
+	}
+
+	private void send(ZoneBatch batch, List<PendingSeat> seats) {
+		long now = System.nanoTime();
+		for (PendingSeat seat : seats) {
+			queueDelay.record(now - seat.enqueuedNanos(), TimeUnit.NANOSECONDS);
+		}
+		fillRatio.record((double) seats.size() / maxBatchSize);
+		batchSize.record(seats.size());
+
+		// KEYS = bitmap, zoneRem, eventUsed, eventTotal, rowCounters, seatOwners, changes;
+		// ARGV = seatPerRow, bitPos per seat, ticketId per seat
+		List<String> keys = List.of(
+				RedisKeyUtil.getZoneBitMapKey(batch.eventId, batch.zoneId),
+				RedisKeyUtil.getZoneRemainedSeats(batch.eventId, batch.zoneId),
+				RedisKeyUtil.getEventUsedSeatsKey(batch.eventId),
+				RedisKeyUtil.getEventTotalCapacityKey(batch.eventId),
+				RedisKeyUtil.getRowRemainedSeats(batch.eventId, batch.zoneId),
+				RedisKeyUtil.getSeatOwnersKey(batch.eventId, batch.zoneId),
+				RedisKeyUtil.getZoneChangesKey(batch.eventId, batch.zoneId));
+		String[] args = new String[2 * seats.size() + 1];
+		args[0] = String.valueOf(batch.seatPerRow);
+		for (int i = 0; i < seats.size(); i++) {
+			args[i + 1] = String.valueOf(seats.get(i).bitPos());
+			args[seats.size() + i + 1] = seats.get(i).ticketId();
+		}
+
+		try {
+			List<Object> codes = seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_OCCUPY_EACH, keys, args);
+			log.debug("[SeatOccupyCoalescer] seats_occupy_each event={}, zone={}, size={}",
+					batch.eventId, batch.zoneId, seats.size());
+			for (int i = 0; i < seats.size(); i++) {
+				seats.get(i).result().complete((Long) codes.get(i));
+			}
+		} catch (Exception ex) {
+			log.error("[SeatOccupyCoalescer] seats_occupy_each FCALL FAILED: event={}, zone={}, size={}",
+					batch.eventId, batch.zoneId, seats.size(), ex);
+			for (PendingSeat seat : seats) {
+				seat.result().completeExceptionally(ex);
+			}
+		}
+	}
+
+	private record PendingSeat(int bitPos, String ticketId, long enqueuedNanos, CompletableFuture<Long> result) {
+	}
+
+	private static final class ZoneBatch {
+		private final String eventId;
+		private final int zoneId;
+		private final int seatPerRow;
+		private List<PendingSeat> pending = new ArrayList<>();
+		private boolean scheduled;
+
+		private ZoneBatch(String eventId, int zoneId, int seatPerRow) {
+			this.eventId = eventId;
+			this.zoneId = zoneId;
+			this.seatPerRow = seatPerRow;
+		}
+
+		private List<PendingSeat> drain() {
+			List<PendingSeat> drained = pending;
+			pending = new ArrayList<>();
+			return drained;
+		}
+	}
+}
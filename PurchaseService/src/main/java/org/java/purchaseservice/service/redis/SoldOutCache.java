@@ -0,0 +1,203 @@
+package org.java.purchaseservice.service.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.config.EventConfig;
+import org.java.purchaseservice.exception.EventFullException;
+import org.java.purchaseservice.exception.RowFullException;
+import org.java.purchaseservice.exception.ZoneFullException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-node memory of sold-out events, zones and rows, filled from seatlib result codes.
+ * While an entry is live, matching requests are rejected without any Redis call.
+ * A release clears the entries on this node and, through a Redis channel, on every other node.
+ * Entries also expire after ttl-ms, which bounds how long a lost notification can hide a freed seat.
+ * Only events enabled in events.yml are recorded; zones and rows are validated against the venue before a seatlib
+ * call, and expired rows are dropped, so client input cannot grow the cache.
+ */
+@Slf4j
+@Component
+public class SoldOutCache implements MessageListener {
+	public static final String RELEASE_CHANNEL = "tickets:seat-released";
+	public static final int WHOLE_ZONE = -1;
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final boolean enabled;
+	private final long ttlNanos;
+	private final Counter rejected;
+	private final Set<String> knownEvents;
+
+	private final ConcurrentHashMap<String, EventEntry> events = new ConcurrentHashMap<>();
+
+	public SoldOutCache(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry, EventConfig eventConfig,
+			@Value("${tickets.sold-out-cache.enabled:true}") boolean enabled,
+			@Value("${tickets.sold-out-cache.ttl-ms:2000}") long ttlMs) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.knownEvents = eventConfig.getList() == null ? Set.of() : eventConfig.getList().stream()
+				.filter(EventConfig.Event::isEnabled).map(EventConfig.Event::getEventId)
+				.collect(Collectors.toUnmodifiableSet());
+		this.enabled = enabled;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+		this.rejected = Counter.builder("tickets.soldout.cache.rejected")
+				.description("Requests rejected from the local sold-out cache")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Single seat: rejects if the event, the zone or the seat's row is known to be full.
+	 */
+	public void checkSeat(String eventId, int zoneId, int rowIndex) {
+		ZoneEntry zone = zoneOrReject(eventId, zoneId);
+		if (zone == null) {
+			return;
+		}
+		Long rowFullUntil = zone.rows.get(rowIndex);
+		if (rowFullUntil == null) {
+			return;
+		}
+		if (live(rowFullUntil)) {
+			rejected.increment();
+			throw new RowFullException("Row already Full.");
+		}
+		zone.rows.remove(rowIndex, rowFullUntil);
+	}
+
+	/**
+	 * Whole zone: rejects if the event or the zone is known to be full.
+	 */
+	public void checkZone(String eventId, int zoneId) {
+		zoneOrReject(eventId, zoneId);
+	}
+
+	// null when nothing is cached for the zone
+	private ZoneEntry zoneOrReject(String eventId, int zoneId) {
+		if (!enabled || events.isEmpty()) {
+			return null;
+		}
+		EventEntry event = events.get(eventId);
+		if (event == null) {
+			return null;
+		}
+		if (live(event.fullUntil)) {
+			rejected.increment();
+			throw new EventFullException("Event already Full.");
+		}
+		ZoneEntry zone = event.zones.get(zoneId);
+		if (zone != null && live(zone.fullUntil)) {
+			rejected.increment();
+			throw new ZoneFullException("Zone already Full.");
+		}
+		return zone;
+	}
+
+	/**
+	 * Records a single-seat seatlib result: 2 zone full, 3 row full, 4 event full.
+	 * Group codes mean "not enough for n seats" and must not be recorded, nor are events missing from events.yml.
+	 */
+	public void recordFull(int code, String eventId, int zoneId, int rowIndex) {
+		if (!enabled || !knownEvents.contains(eventId)) {
+			return;
+		}
+		long until = System.nanoTime() + ttlNanos;
+		EventEntry event = events.computeIfAbsent(eventId, k -> new EventEntry());
+		switch (code) {
+			case 2 -> event.zone(zoneId).fullUntil = until;
+			case 3 -> {
+				ZoneEntry zone = event.zone(zoneId);
+				zone.rows.values().removeIf(rowFullUntil -> !live(rowFullUntil));
+				zone.rows.put(rowIndex, until);
+			}
+			case 4 -> event.fullUntil = until;
+			default -> {
+			}
+		}
+	}
+
+	/**
+	 * A seat of the zone was released (rowIndex WHOLE_ZONE when several rows are affected):
+	 * clears the entries locally and tells the other nodes.
+	 */
+	public void released(String eventId, int zoneId, int rowIndex) {
+		if (!enabled) {
+			return;
+		}
+		invalidate(eventId, zoneId, rowIndex);
+		try {
+			stringRedisTemplate.convertAndSend(RELEASE_CHANNEL, eventId + ":" + zoneId + ":" + rowIndex);
+		} catch (Exception e) {
+			// other nodes fall back to the ttl
+			log.warn("[SoldOutCache] Failed to publish release of event={}, zone={}: {}", eventId, zoneId,
+					e.toString());
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String body = new String(message.getBody(), StandardCharsets.UTF_8);
+		int rowSep = body.lastIndexOf(':');
+		int zoneSep = body.lastIndexOf(':', rowSep - 1);
+		if (zoneSep <= 0) {
+			log.warn("[SoldOutCache] Ignoring malformed release notification: {}", body);
+			return;
+		}
+		invalidate(body.substring(0, zoneSep), Integer.parseInt(body.substring(zoneSep + 1, rowSep)),
+				Integer.parseInt(body.substring(rowSep + 1)));
+	}
+
+	void invalidate(String eventId, int zoneId, int rowIndex) {
+		EventEntry event = events.get(eventId);
+		if (event == null) {
+			return;
+		}
+		event.fullUntil = 0;
+		ZoneEntry zone = event.zones.get(zoneId);
+		if (zone != null) {
+			zone.fullUntil = 0;
+			if (rowIndex == WHOLE_ZONE) {
+				zone.rows.clear();
+			} else {
+				zone.rows.remove(rowIndex);
+			}
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// rows recorded as full, live or not yet dropped
+	int rowEntries() {
+		return events.values().stream().flatMap(event -> event.zones.values().stream())
+				.mapToInt(zone -> zone.rows.size()).sum();
+	}
+
+	private static boolean live(long fullUntil) {
+		return fullUntil != 0 && fullUntil - System.nanoTime() > 0;
+	}
+
+	private static final class EventEntry {
+		volatile long fullUntil;
+		final ConcurrentHashMap<Integer, ZoneEntry> zones = new ConcurrentHashMap<>();
+
+		ZoneEntry zone(int zoneId) {
+			return zones.computeIfAbsent(zoneId, k -> new ZoneEntry());
+		}
+	}
+
+	private static final class ZoneEntry {
+		volatile long fullUntil;
+		final ConcurrentHashMap<Integer, Long> rows = new ConcurrentHashMap<>();
+	}
+}
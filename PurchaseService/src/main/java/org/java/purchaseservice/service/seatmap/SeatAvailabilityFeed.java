@@ -0,0 +1,312 @@
+package org.java.purchaseservice.service.seatmap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.exception.SeatStreamLimitException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live seat availability pushed to SSE subscribers of an event.
+ * SeatOccupiedRedisFacade reports every seat it took or released; changes are collected per zone and, once per
+ * tick, turned into one frame per changed zone ({"zoneId":2,"occupied":[..],"released":[..]}, last state wins).
+ * The frame is serialized once, handed to every local subscriber of the event and published on a Redis channel
+ * for the subscribers of the other nodes.
+ * Each subscriber owns a bounded frame queue drained by its own virtual thread; a subscriber whose queue is full
+ * is dropped and has to reconnect and fetch a new seat-map snapshot.
+ */
+@Slf4j
+@Component
+public class SeatAvailabilityFeed implements MessageListener {
+	public static final String CHANNEL = "tickets:seat-availability";
+	static final String HEARTBEAT = ""; // sent as an SSE comment, frames are never empty
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final boolean enabled;
+	private final int maxSubscribers;
+	private final int subscriberBuffer;
+	private final long timeoutMs;
+	private final long heartbeatNanos;
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private final Map<String, PendingZone> pending = new ConcurrentHashMap<>();
+	private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final AtomicInteger subscriberCount = new AtomicInteger();
+	private final ScheduledExecutorService ticker;
+	private final ExecutorService writers;
+	private long lastHeartbeat = System.nanoTime();
+
+	private final Counter frames;
+	private final Counter dropped;
+
+	public SeatAvailabilityFeed(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry,
+			@Value("${tickets.seat-stream.enabled:true}") boolean enabled,
+			@Value("${tickets.seat-stream.tick-ms:250}") long tickMs,
+			@Value("${tickets.seat-stream.max-subscribers:50000}") int maxSubscribers,
+			@Value("${tickets.seat-stream.subscriber-buffer:16}") int subscriberBuffer,
+			@Value("${tickets.seat-stream.timeout-ms:1800000}") long timeoutMs,
+			@Value("${tickets.seat-stream.heartbeat-ms:15000}") long heartbeatMs) {
+		if (tickMs <= 0 || maxSubscribers <= 0 || subscriberBuffer <= 0 || heartbeatMs <= 0) {
+			throw new IllegalArgumentException("tickets.seat-stream tick, subscribers, buffer and heartbeat must be positive");
+		}
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.enabled = enabled;
+		this.maxSubscribers = maxSubscribers;
+		this.subscriberBuffer = subscriberBuffer;
+		this.timeoutMs = timeoutMs;
+		this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMs);
+		this.writers = enabled ? Executors.newVirtualThreadPerTaskExecutor() : null;
+		this.ticker = enabled ? Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "seat-stream-tick");
+			t.setDaemon(true);
+			return t;
+		}) : null;
+		if (enabled) {
+			ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+		}
+
+		this.frames = Counter.builder("tickets.seat.stream.frames")
+				.description("Zone frames built from local seat changes")
+				.register(meterRegistry);
+		this.dropped = Counter.builder("tickets.seat.stream.dropped")
+				.description("Subscribers dropped because their frame queue was full")
+				.register(meterRegistry);
+		Gauge.builder("tickets.seat.stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Called by the facade after Redis confirmed the seat flip; cheap, the frame is built on the next tick.
+	 */
+	public void seatChanged(String eventId, int zoneId, int bitPos, boolean taken) {
+		if (!enabled) {
+			return;
+		}
+		String key = eventId + ":" + zoneId;
+		while (true) {
+			PendingZone zone = pending.computeIfAbsent(key, k -> new PendingZone(eventId, zoneId));
+			synchronized (zone) {
+				// the tick may have just retired an idle zone, retry on the new entry
+				if (!zone.retired) {
+					zone.seats.put(bitPos, taken);
+					return;
+				}
+			}
+		}
+	}
+
+	public SseEmitter subscribe(String eventId) {
+		if (!enabled) {
+			throw new SeatStreamLimitException("Seat availability stream is disabled.");
+		}
+		return register(eventId, new SseEmitter(timeoutMs));
+	}
+
+	SseEmitter register(String eventId, SseEmitter emitter) {
+		if (subscriberCount.incrementAndGet() > maxSubscribers) {
+			subscriberCount.decrementAndGet();
+			throw new SeatStreamLimitException("Too many seat stream subscribers on this node.");
+		}
+		Subscriber subscriber = new Subscriber(eventId, emitter, subscriberBuffer);
+		subscribers.computeIfAbsent(eventId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(e -> remove(subscriber));
+		log.debug("[SeatAvailabilityFeed] Subscribed to event={}, subscribers={}", eventId, subscriberCount.get());
+		return emitter;
+	}
+
+	// frames of the other nodes: "nodeId|eventId|frame"
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String body = new String(message.getBody(), StandardCharsets.UTF_8);
+		int nodeSep = body.indexOf('|');
+		int frameSep = body.lastIndexOf('|');
+		if (nodeSep <= 0 || frameSep <= nodeSep) {
+			log.warn("[SeatAvailabilityFeed] Ignoring malformed frame: {}", body);
+			return;
+		}
+		if (body.startsWith(nodeId) && nodeSep == nodeId.length()) {
+			return;
+		}
+		deliver(body.substring(nodeSep + 1, frameSep), body.substring(frameSep + 1));
+	}
+
+	void tick() {
+		try {
+			for (PendingZone zone : pending.values()) {
+				Map<Integer, Boolean> seats;
+				synchronized (zone) {
+					if (zone.seats.isEmpty()) {
+						zone.retired = true;
+						pending.remove(zone.key(), zone);
+						continue;
+					}
+					seats = zone.seats;
+					zone.seats = new HashMap<>();
+				}
+				String frame = frame(zone.zoneId, seats);
+				frames.increment();
+				deliver(zone.eventId, frame);
+				publish(zone.eventId, frame);
+			}
+			long now = System.nanoTime();
+			if (now - lastHeartbeat >= heartbeatNanos) {
+				lastHeartbeat = now;
+				subscribers.keySet().forEach(eventId -> deliver(eventId, HEARTBEAT));
+			}
+		} catch (Exception e) {
+			// keep ticking, a lost frame is repaired by the next snapshot of the client
+			log.error("[SeatAvailabilityFeed] Tick failed: {}", e.toString(), e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (ticker != null) {
+			ticker.shutdown();
+			writers.shutdown();
+		}
+		subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+	}
+
+	int subscriberCount() {
+		return subscriberCount.get();
+	}
+
+	// seats in bitPos order, one array per state
+	static String frame(int zoneId, Map<Integer, Boolean> seats) {
+		StringBuilder occupied = new StringBuilder();
+		StringBuilder released = new StringBuilder();
+		new TreeMap<>(seats).forEach((pos, taken) -> {
+			StringBuilder target = taken ? occupied : released;
+			if (!target.isEmpty()) {
+				target.append(',');
+			}
+			target.append(pos);
+		});
+		return "{\"zoneId\":" + zoneId + ",\"occupied\":[" + occupied + "],\"released\":[" + released + "]}";
+	}
+
+	private void publish(String eventId, String frame) {
+		try {
+			stringRedisTemplate.convertAndSend(CHANNEL, nodeId + "|" + eventId + "|" + frame);
+		} catch (Exception e) {
+			// subscribers on other nodes miss this frame, they catch up with a snapshot on reconnect
+			log.warn("[SeatAvailabilityFeed] Failed to publish frame of event={}: {}", eventId, e.toString());
+		}
+	}
+
+	private void deliver(String eventId, String frame) {
+		Set<Subscriber> watchers = subscribers.get(eventId);
+		if (watchers == null) {
+			return;
+		}
+		for (Subscriber subscriber : watchers) {
+			if (!subscriber.frames.offer(frame)) {
+				log.debug("[SeatAvailabilityFeed] Dropping slow subscriber of event={}", eventId);
+				dropped.increment();
+				remove(subscriber);
+				subscriber.emitter.complete();
+				continue;
+			}
+			if (subscriber.draining.compareAndSet(false, true)) {
+				writers.execute(() -> drain(subscriber));
+			}
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		try {
+			String frame;
+			while (!subscriber.closed && (frame = subscriber.frames.poll()) != null) {
+				if (frame.isEmpty()) {
+					subscriber.emitter.send(SseEmitter.event().comment(""));
+				} else {
+					subscriber.emitter.send(SseEmitter.event().name("seats").data(frame, MediaType.APPLICATION_JSON));
+				}
+			}
+		} catch (Exception e) {
+			log.debug("[SeatAvailabilityFeed] Subscriber of event={} gone: {}", subscriber.eventId, e.toString());
+			remove(subscriber);
+			return;
+		} finally {
+			subscriber.draining.set(false);
+		}
+		// a frame offered after the last poll but before draining was cleared
+		if (!subscriber.closed && !subscriber.frames.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+			writers.execute(() -> drain(subscriber));
+		}
+	}
+
+	private void remove(Subscriber subscriber) {
+		if (subscriber.closed) {
+			return;
+		}
+		subscriber.closed = true;
+		Set<Subscriber> watchers = subscribers.get(subscriber.eventId);
+		if (watchers != null && watchers.remove(subscriber)) {
+			subscriberCount.decrementAndGet();
+			if (watchers.isEmpty()) {
+				subscribers.remove(subscriber.eventId, watchers);
+			}
+		}
+		subscriber.frames.clear();
+	}
+
+	private static final class PendingZone {
+		final String eventId;
+		final int zoneId;
+		Map<Integer, Boolean> seats = new HashMap<>();
+		boolean retired;
+
+		PendingZone(String eventId, int zoneId) {
+			this.eventId = eventId;
+			this.zoneId = zoneId;
+		}
+
+		String key() {
+			return eventId + ":" + zoneId;
+		}
+	}
+
+	private static final class Subscriber {
+		final String eventId;
+		final SseEmitter emitter;
+		final ArrayBlockingQueue<String> frames;
+		final AtomicBoolean draining = new AtomicBoolean();
+		volatile boolean closed;
+
+		Subscriber(String eventId, SseEmitter emitter, int buffer) {
+			this.eventId = eventId;
+			this.emitter = emitter;
+			this.frames = new ArrayBlockingQueue<>(buffer);
+		}
+	}
+}
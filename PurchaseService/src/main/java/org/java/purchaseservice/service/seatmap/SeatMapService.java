@@ -0,0 +1,145 @@
+package org.java.purchaseservice.service.seatmap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.java.purchaseservice.dto.SeatMapDeltaDTO;
+import org.java.purchaseservice.exception.SeatMapVersionGoneException;
+import org.java.purchaseservice.service.initialize.VenueConfigService;
+import org.java.purchaseservice.service.redis.RedisKeyUtil;
+import org.java.purchaseservice.service.redis.SeatFunctionLibrary;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Read side of the zone seat maps.
+ * A snapshot is the zone bitmap as stored in Redis (bit i = seat at bitPos i, most significant bit first),
+ * optionally run-length encoded. Its version is the id of the last entry in the zone's change log, which
+ * seatlib appends to on every seat flip; a delta replays that log from the caller's version.
+ */
+@Slf4j
+@Service
+public class SeatMapService {
+	public static final String RAW = "raw";
+	public static final String RLE = "rle";
+	private static final Pattern VERSION = Pattern.compile("\\d{1,20}-\\d{1,20}");
+
+	private final SeatFunctionLibrary seatFunctionLibrary;
+	private final VenueConfigService venueConfigService;
+
+	public SeatMapService(SeatFunctionLibrary seatFunctionLibrary, VenueConfigService venueConfigService) {
+		this.seatFunctionLibrary = seatFunctionLibrary;
+		this.venueConfigService = venueConfigService;
+	}
+
+	/**
+	 * @param knownVersion version the caller already has, null for none
+	 * @return the snapshot; data is null when knownVersion is still current
+	 */
+	public SeatMapSnapshot snapshot(String eventId, String venueId, int zoneId, String knownVersion,
+			String encoding) {
+		if (!RAW.equals(encoding) && !RLE.equals(encoding)) {
+			throw new IllegalArgumentException("encoding must be " + RAW + " or " + RLE);
+		}
+		int rowCount = venueConfigService.getRowCount(venueId, zoneId);
+		int seatPerRow = venueConfigService.getSeatPerRow(venueId, zoneId);
+		if (rowCount <= 0 || seatPerRow <= 0) {
+			throw new IllegalArgumentException("Unknown zone " + zoneId + " for venue " + venueId);
+		}
+
+		List<Object> res = seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_ZONE_SNAPSHOT,
+				List.of(RedisKeyUtil.getZoneBitMapKey(eventId, zoneId), RedisKeyUtil.getZoneChangesKey(eventId, zoneId)),
+				knownVersion != null ? knownVersion : "");
+		String version = text(res.get(0));
+		if (res.size() == 1) {
+			return new SeatMapSnapshot(version, rowCount, seatPerRow, encoding, null);
+		}
+
+		int seats = rowCount * seatPerRow;
+		// SETBIT only grows the string up to the highest bit written, pad to the zone size
+		byte[] bitmap = Arrays.copyOf((byte[]) res.get(1), (seats + 7) / 8);
+		byte[] data = RLE.equals(encoding) ? runLengths(bitmap, seats) : bitmap;
+		log.debug("[SeatMapService] snapshot event={}, zone={}, version={}, encoding={}, bytes={}", eventId, zoneId,
+				version, encoding, data.length);
+		return new SeatMapSnapshot(version, rowCount, seatPerRow, encoding, data);
+	}
+
+	/**
+	 * Final state of every seat that changed after since.
+	 *
+	 * @throws SeatMapVersionGoneException if the change log no longer reaches back to since
+	 */
+	public SeatMapDeltaDTO changesSince(String eventId, int zoneId, String since) {
+		if (!VERSION.matcher(since).matches()) {
+			throw new IllegalArgumentException("since must be a seat-map version like 1700000000000-0");
+		}
+		List<Object> res = seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_ZONE_CHANGES,
+				List.of(RedisKeyUtil.getZoneChangesKey(eventId, zoneId)), since);
+		String version = text(res.get(1));
+		if (((Number) res.get(0)).intValue() == 1) {
+			log.debug("[SeatMapService] change log does not cover event={}, zone={}, since={}, version={}", eventId,
+					zoneId, since, version);
+			throw new SeatMapVersionGoneException("Version " + since + " is no longer available, current is "
+					+ version + ", fetch a snapshot.");
+		}
+
+		// later entries win, a seat taken and released again ends up released
+		Map<Integer, Boolean> states = new TreeMap<>();
+		for (int i = 2; i + 1 < res.size(); i += 2) {
+			boolean taken = "1".equals(text(res.get(i)));
+			for (String pos : text(res.get(i + 1)).split(",")) {
+				states.put(Integer.parseInt(pos), taken);
+			}
+		}
+		List<Integer> occupied = new ArrayList<>();
+		List<Integer> released = new ArrayList<>();
+		states.forEach((pos, taken) -> (taken ? occupied : released).add(pos));
+		return new SeatMapDeltaDTO(since, version, occupied, released);
+	}
+
+	public static boolean isVersion(String value) {
+		return value != null && VERSION.matcher(value).matches();
+	}
+
+	/**
+	 * Unsigned LEB128 run lengths over the first seats bits, alternating free and taken and starting with free
+	 * (a zone whose first seat is taken starts with a 0 run).
+	 */
+	static byte[] runLengths(byte[] bitmap, int seats) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		boolean taken = false;
+		int run = 0;
+		for (int pos = 0; pos < seats; pos++) {
+			boolean bit = (bitmap[pos >>> 3] & (0x80 >>> (pos & 7))) != 0;
+			if (bit != taken) {
+				writeVarint(out, run);
+				taken = bit;
+				run = 0;
+			}
+			run++;
+		}
+		writeVarint(out, run);
+		return out.toByteArray();
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static String text(Object reply) {
+		return reply instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(reply);
+	}
+
+	public record SeatMapSnapshot(String version, int rowCount, int seatPerRow, String encoding, byte[] data) {
+	}
+}
@@ -0,0 +1,597 @@
+#!lua name=seatlib
+-- src/main/resources/lua/seatlib.lua
+-- Seat occupancy as a Redis Functions library: registered once with FUNCTION LOAD, invoked with FCALL.
+-- __VERSION__, __DEBUG__ and __CHANGE_LOG_LENGTH__ are substituted by SeatFunctionLibrary before loading.
+-- Lean variant (DEBUG=false) never builds log strings on the call path.
+
+local VERSION = '__VERSION__'
+local DEBUG = __DEBUG__
+local CHANGE_LOG_LENGTH = __CHANGE_LOG_LENGTH__
+
+-- Row counters: one string per zone, a big-endian u16 slot per row index (BITFIELD u16 #row).
+-- Row of a seat is bitPos / seatPerRow, the same layout the bitmap uses.
+local function seat_per_row(arg)
+  local n = tonumber(arg)
+  if not n or n < 1 then error("Invalid seatPerRow: " .. tostring(arg)) end
+  return n
+end
+
+local function row_of(pos, seatPerRow)
+  return math.floor(pos / seatPerRow)
+end
+
+-- largest offset SETBIT and BITFIELD accept; a seat is only valid if both its bit and its row slot fit
+local MAX_OFFSET = 4294967295
+local function valid_pos(pos, seatPerRow)
+  return pos ~= nil and pos >= 0 and pos % 1 == 0 and pos <= MAX_OFFSET
+      and row_of(pos, seatPerRow) * 16 + 15 <= MAX_OFFSET
+end
+
+local function row_get(rowKey, row)
+  return redis.call("BITFIELD_RO", rowKey, "GET", "u16", "#" .. row)[1]
+end
+
+local function row_add(rowKey, row, delta)
+  redis.call("BITFIELD", rowKey, "INCRBY", "u16", "#" .. row, delta)
+end
+
+-- all row counters of a zone from one GET, for functions that look at many rows
+local function row_slot(counters, row)
+  local hi, lo = string.byte(counters, 2 * row + 1, 2 * row + 2)
+  return (hi or 0) * 256 + (lo or 0)
+end
+
+-- Seat owners: one hash per zone, bitPos -> ticketId, written in the same call that sells the seat,
+-- so a cancel can prove which ticket holds it. Every release drops the owner again.
+local function set_owner(ownersKey, pos, ticketId)
+  if not ticketId or ticketId == "" then error("need ticketId for seat " .. tostring(pos)) end
+  redis.call("HSET", ownersKey, pos, ticketId)
+end
+
+-- Seat-map change log: one capped stream per zone, one entry per call that flipped seats,
+-- s = new state (1 taken, 0 free, r reset by initialization), p = comma separated bitPos.
+-- The id of the last entry is the zone's seat-map version, see zone_snapshot / zone_changes.
+local function log_change(changesKey, state, positions)
+  if #positions == 0 then return end
+  redis.call("XADD", changesKey, "MAXLEN", "~", CHANGE_LOG_LENGTH, "*", "s", state, "p", table.concat(positions, ","))
+end
+
+-- Occupy one seat without recording an owner (holds, and the core of seat_occupy).
+-- KEYS[1]=bitmapKey
+-- KEYS[2]=zoneRemainKey
+-- KEYS[3]=rowCountersKey
+-- KEYS[4]=eventUsedKey
+-- KEYS[5]=eventTotalKey
+-- ARGV[1]=bitPos  ARGV[2]=seatPerRow
+-- returns 0 ok, 1 seat occupied, 2 zone full, 3 row full, 4 event full
+local function occupy(keys, args)
+  if #keys < 5 then error("need 5 KEYS") end
+  local pos = tonumber(args[1])
+  if not pos or pos < 0 then
+    error("Invalid bit offset: " .. tostring(args[1]))
+  end
+  local row = row_of(pos, seat_per_row(args[2]))
+
+  if redis.call("GETBIT", keys[1], pos) == 1 then
+    return 1
+  end
+
+  local zoneRem = tonumber(redis.call("GET", keys[2])) or 0
+  local rowRem = row_get(keys[3], row)
+  local eventUsed = tonumber(redis.call("GET", keys[4])) or 0
+  local eventTotal = tonumber(redis.call("GET", keys[5])) or 0
+  if DEBUG then
+    redis.log(redis.LOG_DEBUG, string.format("[seatlib] occupy pos=%d zoneRem=%d rowRem=%d eventUsed=%d eventTotal=%d",
+        pos, zoneRem, rowRem, eventUsed, eventTotal))
+  end
+
+  if zoneRem <= 0 then return 2 end
+  if rowRem <= 0 then return 3 end
+  if eventTotal > 0 and eventUsed >= eventTotal then return 4 end
+
+  redis.call("SETBIT", keys[1], pos, 1)
+  redis.call("DECR", keys[2])
+  row_add(keys[3], row, -1)
+  redis.call("INCR", keys[4])
+  return 0
+end
+
+-- occupy and record the seat's ticket, KEYS[6]=seatOwnersKey  ARGV[3]=ticketId
+local function purchase(keys, args)
+  local res = occupy(keys, args)
+  if res == 0 then set_owner(keys[6], args[1], args[3]) end
+  return res
+end
+
+-- Purchase one seat: occupy and record its ticket.
+-- KEYS[1..5] as occupy  KEYS[6]=seatOwnersKey  KEYS[7]=changesKey
+-- ARGV[1]=bitPos  ARGV[2]=seatPerRow  ARGV[3]=ticketId
+-- returns the occupy code
+local function seat_occupy(keys, args)
+  if #keys < 7 then error("need 7 KEYS") end
+  local res = purchase(keys, args)
+  if res == 0 then log_change(keys[7], 1, {args[1]}) end
+  return res
+end
+
+-- Idempotent purchase: seat_occupy plus the client's idempotency record, written in the same call.
+-- KEYS[1..6] as seat_occupy  KEYS[7]=idempotencyKey  KEYS[8]=changesKey
+-- ARGV[1..3] as seat_occupy  ARGV[4]=record  ARGV[5]=ttlMs
+-- returns {seat_occupy code}, the record is only stored on 0; {8, record} if the key was used before
+local function seat_occupy_idempotent(keys, args)
+  if #keys < 8 then error("need 8 KEYS") end
+  local existing = redis.call("GET", keys[7])
+  if existing then return {8, existing} end
+  local res = purchase(keys, args)
+  if res == 0 then
+    redis.call("SET", keys[7], args[4], "PX", args[5])
+    log_change(keys[8], 1, {args[1]})
+  end
+  return {res}
+end
+
+-- release one seat with its counters and owner, returns 1 released, 0 seat was free
+local function release(keys, args)
+  local pos = tonumber(args[1])
+  if not pos or pos < 0 then error("Invalid bit offset: " .. tostring(args[1])) end
+  local seatPerRow = seat_per_row(args[2])
+
+  if redis.call("GETBIT", keys[1], pos) == 1 then
+    redis.call("SETBIT", keys[1], pos, 0)
+    redis.call("INCR", keys[2])
+    row_add(keys[3], row_of(pos, seatPerRow), 1)
+    redis.call("DECR", keys[4])
+    redis.call("HDEL", keys[5], pos)
+    if DEBUG then
+      redis.log(redis.LOG_DEBUG, "[seatlib] released pos=" .. pos)
+    end
+    return 1
+  end
+  return 0
+end
+
+-- KEYS[1]=bitmapKey  KEYS[2]=zoneRemainKey  KEYS[3]=rowCountersKey  KEYS[4]=eventUsedKey  KEYS[5]=seatOwnersKey
+-- KEYS[6]=changesKey
+-- ARGV[1]=bitPos  ARGV[2]=seatPerRow
+-- returns 1 released, 0 seat was free
+local function seat_release(keys, args)
+  if #keys < 6 then error("need 6 KEYS") end
+  local released = release(keys, args)
+  if released == 1 then log_change(keys[6], 0, {args[1]}) end
+  return released
+end
+
+-- Cancel: release the seat only if it is owned by the given ticket (seat_release semantics).
+-- KEYS as seat_release
+-- ARGV[1]=bitPos  ARGV[2]=seatPerRow  ARGV[3]=ticketId
+-- returns 0 cancelled, 9 seat is not held by this ticket
+local function seat_cancel(keys, args)
+  if #keys < 6 then error("need 6 KEYS") end
+  if redis.call("HGET", keys[5], args[1]) ~= args[3] then return 9 end
+  release(keys, args)
+  log_change(keys[6], 0, {args[1]})
+  return 0
+end
+
+-- Restore: undo a seat_cancel whose cancellation could not be recorded. Gives the seat back to the ticket with
+-- its counters and owner, without the sold-out checks of occupy: the cancel freed exactly this seat.
+-- KEYS as seat_occupy
+-- ARGV[1]=bitPos  ARGV[2]=seatPerRow  ARGV[3]=ticketId
+-- returns 0 restored (or already held by this ticket), 1 seat was sold to another ticket meanwhile
+local function seat_restore(keys, args)
+  if #keys < 7 then error("need 7 KEYS") end
+  local pos = tonumber(args[1])
+  local seatPerRow = seat_per_row(args[2])
+  if not valid_pos(pos, seatPerRow) then error("Invalid bit offset: " .. tostring(args[1])) end
+
+  if redis.call("GETBIT", keys[1], pos) == 1 then
+    if redis.call("HGET", keys[6], args[1]) == args[3] then return 0 end
+    return 1
+  end
+  redis.call("SETBIT", keys[1], pos, 1)
+  redis.call("DECR", keys[2])
+  row_add(keys[3], row_of(pos, seatPerRow), -1)
+  redis.call("INCR", keys[4])
+  set_owner(keys[6], args[1], args[3])
+  log_change(keys[7], 1, {args[1]})
+  return 0
+end
+
+-- Group purchase: occupy every seat in ARGV or none of them.
+-- Functions are not rolled back on error(), so every bitPos and ticketId is checked before the first write.
+-- KEYS[1]=bitmapKey  KEYS[2]=zoneRemainKey  KEYS[3]=eventUsedKey  KEYS[4]=eventTotalKey  KEYS[5]=rowCountersKey
+-- KEYS[6]=seatOwnersKey  KEYS[7]=changesKey
+-- ARGV[1]=seatPerRow  ARGV[1+i]=bitPos of seat i  ARGV[1+n+i]=ticketId of seat i
+local function seats_occupy(keys, args)
+  local n = (#args - 1) / 2
+  if n < 1 or n % 1 ~= 0 then error("need one ticketId per bitPos") end
+  if #keys ~= 7 then error("need 7 KEYS") end
+  local seatPerRow = seat_per_row(args[1])
+
+  local positions = {}
+  local seen = {}
+  for i = 1, n do
+    local pos = tonumber(args[1 + i])
+    if not valid_pos(pos, seatPerRow) then error("Invalid bit offset: " .. tostring(args[1 + i])) end
+    if seen[pos] then error("Duplicate bit offset: " .. pos) end
+    local ticketId = args[1 + n + i]
+    if not ticketId or ticketId == "" then error("need ticketId for seat " .. pos) end
+    seen[pos] = true
+    if redis.call("GETBIT", keys[1], pos) == 1 then
+      return 1
+    end
+    positions[i] = pos
+  end
+
+  local zoneRem = tonumber(redis.call("GET", keys[2])) or 0
+  if zoneRem < n then return 2 end
+
+  -- aggregate demand per row, several seats can share one row
+  local rowNeed = {}
+  for i = 1, n do
+    local row = row_of(positions[i], seatPerRow)
+    rowNeed[row] = (rowNeed[row] or 0) + 1
+  end
+  local counters = redis.call("GET", keys[5]) or ""
+  for row, need in pairs(rowNeed) do
+    if row_slot(counters, row) < need then return 3 end
+  end
+
+  local eventUsed = tonumber(redis.call("GET", keys[3])) or 0
+  local eventTotal = tonumber(redis.call("GET", keys[4])) or 0
+  if eventTotal > 0 and eventUsed + n > eventTotal then return 4 end
+
+  for i = 1, n do
+    redis.call("SETBIT", keys[1], positions[i], 1)
+    set_owner(keys[6], positions[i], args[1 + n + i])
+  end
+  redis.call("DECRBY", keys[2], n)
+  for row, need in pairs(rowNeed) do
+    row_add(keys[5], row, -need)
+  end
+  redis.call("INCRBY", keys[3], n)
+  log_change(keys[7], 1, positions)
+  if DEBUG then
+    redis.log(redis.LOG_DEBUG, "[seatlib] group occupied size=" .. n)
+  end
+  return 0
+end
+
+-- KEYS[1]=bitmapKey  KEYS[2]=zoneRemainKey  KEYS[3]=rowCountersKey  KEYS[4]=eventUsedKey  KEYS[5]=seatOwnersKey
+-- KEYS[6]=changesKey
+-- ARGV[1]=seatPerRow  ARGV[1+i]=bitPos of seat i
+-- returns the bitPos of every seat released (seats already free are left out)
+local function seats_release(keys, args)
+  local n = #args - 1
+  if #keys ~= 6 then error("need 6 KEYS") end
+  local seatPerRow = seat_per_row(args[1])
+
+  -- checked before the first write, an error() would leave earlier seats released without their counters
+  for i = 1, n do
+    if not valid_pos(tonumber(args[1 + i]), seatPerRow) then error("Invalid bit offset: " .. tostring(args[1 + i])) end
+  end
+
+  local released = 0
+  local positions = {}
+  for i = 1, n do
+    local pos = tonumber(args[1 + i])
+    if redis.call("GETBIT", keys[1], pos) == 1 then
+      redis.call("SETBIT", keys[1], pos, 0)
+      row_add(keys[3], row_of(pos, seatPerRow), 1)
+      redis.call("HDEL", keys[5], pos)
+      released = released + 1
+      positions[released] = pos
+    end
+  end
+  if released > 0 then
+    redis.call("INCRBY", keys[2], released)
+    redis.call("DECRBY", keys[4], released)
+    log_change(keys[6], 0, positions)
+  end
+  return positions
+end
+
+-- Coalesced single-seat purchases of one zone: each seat succeeds or fails on its own,
+-- in arrival order, exactly as if seat_occupy had been called once per seat.
+-- Functions are not rolled back on error(), so no seat may raise one after an earlier seat was written:
+-- everything is checked before the first write and a bad seat gets code 10 instead.
+-- KEYS[1]=bitmapKey  KEYS[2]=zoneRemainKey  KEYS[3]=eventUsedKey  KEYS[4]=eventTotalKey  KEYS[5]=rowCountersKey
+-- KEYS[6]=seatOwnersKey  KEYS[7]=changesKey
+-- ARGV[1]=seatPerRow  ARGV[1+i]=bitPos of seat i  ARGV[1+n+i]=ticketId of seat i
+-- returns array of seat_occupy codes, one per seat, 10 = invalid bitPos or missing ticketId
+local function seats_occupy_each(keys, args)
+  local n = (#args - 1) / 2
+  if n % 1 ~= 0 then error("need one ticketId per bitPos") end
+  if #keys ~= 7 then error("need 7 KEYS") end
+  local seatPerRow = seat_per_row(args[1])
+
+  local results = {}
+  for i = 1, n do
+    local ticketId = args[1 + n + i]
+    if not valid_pos(tonumber(args[1 + i]), seatPerRow) or not ticketId or ticketId == "" then
+      results[i] = 10
+    end
+  end
+
+  local occupyKeys = {keys[1], keys[2], keys[5], keys[3], keys[4], keys[6]}
+  local taken = {}
+  for i = 1, n do
+    if not results[i] then
+      results[i] = purchase(occupyKeys, {args[1 + i], args[1], args[1 + n + i]})
+      if results[i] == 0 then taken[#taken + 1] = args[1 + i] end
+    end
+  end
+  log_change(keys[7], 1, taken)
+  return results
+end
+
+-- Best available: the server picks the first block of n adjacent free seats in one row.
+-- Rows are scanned in order with BITPOS over each row's bit range, so the cost is
+-- proportional to the number of free/occupied runs visited, not to the zone size.
+-- KEYS[1]=bitmapKey  KEYS[2]=zoneRemainKey  KEYS[3]=eventUsedKey  KEYS[4]=eventTotalKey  KEYS[5]=rowCountersKey
+-- KEYS[6]=seatOwnersKey  KEYS[7]=changesKey
+-- ARGV[1]=seatPerRow  ARGV[2]=rowCount  ARGV[3]=n  ARGV[3+i]=ticketId of the i-th seat of the block
+-- returns {0, firstBitPos} ok, {2} zone full, {4} event full, {5} no n adjacent free seats
+local function seats_best_available(keys, args)
+  local seatPerRow = tonumber(args[1])
+  local rowCount = tonumber(args[2])
+  local n = tonumber(args[3])
+  if not seatPerRow or seatPerRow < 1 then error("Invalid seatPerRow: " .. tostring(args[1])) end
+  if not rowCount or rowCount < 1 then error("Invalid rowCount: " .. tostring(args[2])) end
+  if not n or n < 1 or n > seatPerRow then error("Invalid quantity: " .. tostring(args[3])) end
+  if #keys ~= 7 then error("need 7 KEYS") end
+  if #args ~= 3 + n then error("need one ticketId per seat") end
+  for i = 1, n do
+    if args[3 + i] == "" then error("need ticketId for seat " .. i) end
+  end
+
+  local zoneRem = tonumber(redis.call("GET", keys[2])) or 0
+  if zoneRem < n then return {2} end
+
+  local eventUsed = tonumber(redis.call("GET", keys[3])) or 0
+  local eventTotal = tonumber(redis.call("GET", keys[4])) or 0
+  if eventTotal > 0 and eventUsed + n > eventTotal then return {4} end
+
+  local counters = redis.call("GET", keys[5]) or ""
+  for row = 0, rowCount - 1 do
+    -- skip rows whose counter already says the block cannot fit
+    if row_slot(counters, row) >= n then
+      local rowStart = row * seatPerRow
+      local rowEnd = rowStart + seatPerRow - 1
+      local from = rowStart
+      while from <= rowEnd do
+        local free = redis.call("BITPOS", keys[1], 0, from, rowEnd, "BIT")
+        if free == -1 or free > rowEnd then break end
+        local taken = redis.call("BITPOS", keys[1], 1, free, rowEnd, "BIT")
+        local runEnd = rowEnd
+        if taken ~= -1 then runEnd = taken - 1 end
+
+        if runEnd - free + 1 >= n then
+          local positions = {}
+          for pos = free, free + n - 1 do
+            redis.call("SETBIT", keys[1], pos, 1)
+            set_owner(keys[6], pos, args[4 + pos - free])
+            positions[#positions + 1] = pos
+          end
+          redis.call("DECRBY", keys[2], n)
+          row_add(keys[5], row, -n)
+          redis.call("INCRBY", keys[3], n)
+          log_change(keys[7], 1, positions)
+          if DEBUG then
+            redis.log(redis.LOG_DEBUG, string.format("[seatlib] best available row=%d pos=%d n=%d", row, free, n))
+          end
+          return {0, free}
+        end
+
+        if taken == -1 then break end
+        from = taken + 1
+      end
+    end
+  end
+  return {5}
+end
+
+-- Hold: occupy exactly like seat_occupy, then remember the hold and its expiry; the owner is set on confirm.
+-- KEYS[1..5] as occupy
+-- KEYS[6]=holdsKey (zset member -> expiresAtMs)  KEYS[7]=holdTokensKey (hash member -> holdId)
+-- KEYS[8]=holdEventsKey (set of eventIds that have holds)  KEYS[9]=changesKey
+-- ARGV[1]=bitPos  ARGV[2]=seatPerRow  ARGV[3]=member "zoneId:rowIndex:bitPos"  ARGV[4]=expiresAtMs
+-- ARGV[5]=holdId  ARGV[6]=eventId
+local function seat_hold(keys, args)
+  if #keys < 9 then error("need 9 KEYS") end
+  local res = occupy(keys, args)
+  if res ~= 0 then return res end
+  redis.call("ZADD", keys[6], args[4], args[3])
+  redis.call("HSET", keys[7], args[3], args[5])
+  redis.call("SADD", keys[8], args[6])
+  log_change(keys[9], 1, {args[1]})
+  return 0
+end
+
+-- Confirm: the hold becomes a sale, the seat stays occupied and gets its ticket.
+-- KEYS[1]=holdsKey  KEYS[2]=holdTokensKey  KEYS[3]=seatOwnersKey
+-- ARGV[1]=member  ARGV[2]=holdId  ARGV[3]=nowMs  ARGV[4]=ticketId
+-- returns 0 confirmed, 6 hold expired or unknown, 7 hold belongs to another holdId
+local function seat_hold_confirm(keys, args)
+  if #keys < 3 then error("need 3 KEYS") end
+  local pos = string.match(args[1], ":(%d+)$")
+  if not pos then error("Invalid hold member: " .. tostring(args[1])) end
+  if not args[4] or args[4] == "" then error("need ticketId for seat " .. pos) end
+  local owner = redis.call("HGET", keys[2], args[1])
+  if not owner then return 6 end
+  if owner ~= args[2] then return 7 end
+  local expiresAt = tonumber(redis.call("ZSCORE", keys[1], args[1]))
+  if not expiresAt or expiresAt <= tonumber(args[3]) then return 6 end
+  redis.call("ZREM", keys[1], args[1])
+  redis.call("HDEL", keys[2], args[1])
+  set_owner(keys[3], pos, args[4])
+  return 0
+end
+
+-- Expire: release the given holds of one zone if they are still expired (release_seat semantics).
+-- Members come from ZRANGEBYSCORE, so work is proportional to the number of expiring holds.
+-- KEYS[1]=holdsKey  KEYS[2]=holdTokensKey  KEYS[3]=holdEventsKey  KEYS[4]=bitmapKey  KEYS[5]=zoneRemainKey
+-- KEYS[6]=rowCountersKey  KEYS[7]=eventUsedKey  KEYS[8]=changesKey
+-- ARGV[1]=nowMs  ARGV[2]=eventId  ARGV[2+i]=member i
+-- returns the bitPos of every seat released
+local function seat_holds_expire(keys, args)
+  local now = tonumber(args[1])
+  local n = #args - 2
+  if #keys ~= 8 then error("need 8 KEYS") end
+
+  local released = 0
+  local positions = {}
+  for i = 1, n do
+    local member = args[2 + i]
+    local expiresAt = tonumber(redis.call("ZSCORE", keys[1], member))
+    -- skip holds confirmed or already swept by another node in the meantime
+    if expiresAt and expiresAt <= now then
+      redis.call("ZREM", keys[1], member)
+      redis.call("HDEL", keys[2], member)
+      local row, pos = string.match(member, "^%d+:(%d+):(%d+)$")
+      pos = tonumber(pos)
+      if pos and redis.call("GETBIT", keys[4], pos) == 1 then
+        redis.call("SETBIT", keys[4], pos, 0)
+        row_add(keys[6], tonumber(row), 1)
+        released = released + 1
+        positions[released] = pos
+      end
+    end
+  end
+  if released > 0 then
+    redis.call("INCRBY", keys[5], released)
+    redis.call("DECRBY", keys[7], released)
+    log_change(keys[8], 0, positions)
+  end
+  if redis.call("ZCARD", keys[1]) == 0 then
+    redis.call("SREM", keys[3], args[2])
+  end
+  return positions
+end
+
+-- "ms-seq" stream id as comparable numbers
+local function parse_version(id)
+  local ms, seq = string.match(id, "^(%d+)-(%d+)$")
+  if not ms then error("Invalid seat-map version: " .. tostring(id)) end
+  return tonumber(ms), tonumber(seq)
+end
+
+local function version_less(a, b)
+  local ams, aseq = parse_version(a)
+  local bms, bseq = parse_version(b)
+  return ams < bms or (ams == bms and aseq < bseq)
+end
+
+-- current version of a zone and the newest entry trimmed from its change log
+local function change_log_state(changesKey)
+  if redis.call("EXISTS", changesKey) == 0 then return "0-0", "0-0" end
+  local info = redis.call("XINFO", "STREAM", changesKey)
+  local last, trimmed = "0-0", "0-0"
+  for i = 1, #info, 2 do
+    if info[i] == "last-generated-id" then
+      last = info[i + 1]
+    elseif info[i] == "max-deleted-entry-id" then
+      trimmed = info[i + 1]
+    end
+  end
+  return last, trimmed
+end
+
+-- Seat map of one zone: the raw bitmap and its version, read together.
+-- KEYS[1]=bitmapKey  KEYS[2]=changesKey
+-- ARGV[1]=version the caller already has ("" for none)
+-- returns {version} if unchanged, else {version, bitmap}
+local function zone_snapshot(keys, args)
+  local version = change_log_state(keys[2])
+  if args[1] == version then return {version} end
+  return {version, redis.call("GET", keys[1]) or ""}
+end
+
+-- Changes of one zone since a version.
+-- KEYS[1]=changesKey
+-- ARGV[1]=version the caller has
+-- returns {0, version, state_1, positions_1, ...} in log order,
+-- {1, version} if the log no longer covers the caller's version (trimmed, reset or unknown): take a snapshot
+local function zone_changes(keys, args)
+  local since = args[1]
+  local version, trimmed = change_log_state(keys[1])
+  if since == version then return {0, version} end
+  if version_less(since, trimmed) or version_less(version, since) then return {1, version} end
+
+  local reply = {0, version}
+  for _, entry in ipairs(redis.call("XRANGE", keys[1], "(" .. since, version)) do
+    local fields = entry[2]
+    local state, positions
+    for i = 1, #fields, 2 do
+      if fields[i] == "s" then state = fields[i + 1] elseif fields[i] == "p" then positions = fields[i + 1] end
+    end
+    if state == "r" then return {1, version} end
+    reply[#reply + 1] = state
+    reply[#reply + 1] = positions
+  end
+  return reply
+end
+
+-- Waiting room of an event: one hash per event, issued = last queue position handed out,
+-- admitted = highest position let through, tokens/ts = token bucket that paces admitted.
+-- KEYS[1]=roomKey  ARGV[1]=ttlMs
+-- returns the new queue position
+local function waiting_room_join(keys, args)
+  local position = redis.call("HINCRBY", keys[1], "issued", 1)
+  redis.call("PEXPIRE", keys[1], args[1])
+  return position
+end
+
+-- Refills the bucket by rate per second up to burst and admits queued positions in order, one token each.
+-- The bucket is only touched while position is still waiting, admitted holders cost one HMGET.
+-- KEYS[1]=roomKey  ARGV[1]=nowMs  ARGV[2]=ratePerSecond  ARGV[3]=burst  ARGV[4]=position
+-- returns {admitted, issued}
+local function waiting_room_admit(keys, args)
+  local now = tonumber(args[1])
+  local rate = tonumber(args[2])
+  local burst = tonumber(args[3])
+  local position = tonumber(args[4])
+  if not now or not rate or not burst or not position then error("Invalid waiting room arguments") end
+
+  local room = redis.call("HMGET", keys[1], "issued", "admitted", "tokens", "ts")
+  local issued = tonumber(room[1]) or 0
+  local admitted = tonumber(room[2]) or 0
+  if position > admitted and issued > admitted then
+    local tokens = tonumber(room[3]) or burst
+    local ts = tonumber(room[4]) or now
+    -- nodes send their own clock, never go back in time
+    if now > ts then
+      tokens = math.min(burst, tokens + (now - ts) * rate / 1000)
+      ts = now
+    end
+    local advance = math.min(issued - admitted, math.floor(tokens))
+    if advance > 0 then
+      admitted = admitted + advance
+      tokens = tokens - advance
+    end
+    redis.call("HSET", keys[1], "admitted", admitted, "tokens", tostring(tokens), "ts", ts)
+  end
+  return {admitted, issued}
+end
+
+local function seatlib_version()
+  return VERSION
+end
+
+redis.register_function('seat_occupy', seat_occupy)
+redis.register_function('seat_occupy_idempotent', seat_occupy_idempotent)
+redis.register_function('seat_release', seat_release)
+redis.register_function('seat_cancel', seat_cancel)
+redis.register_function('seat_restore', seat_restore)
+redis.register_function('seats_occupy', seats_occupy)
+redis.register_function('seats_release', seats_release)
+redis.register_function('seats_occupy_each', seats_occupy_each)
+redis.register_function('seats_best_available', seats_best_available)
+redis.register_function('seat_hold', seat_hold)
+redis.register_function('seat_hold_confirm', seat_hold_confirm)
+redis.register_function('seat_holds_expire', seat_holds_expire)
+redis.register_function('waiting_room_join', waiting_room_join)
+redis.register_function('waiting_room_admit', waiting_room_admit)
+redis.register_function{function_name = 'zone_snapshot', callback = zone_snapshot, flags = {'no-writes'}}
+redis.register_function{function_name = 'zone_changes', callback = zone_changes, flags = {'no-writes'}}
+redis.register_function{function_name = 'seatlib_version', callback = seatlib_version, flags = {'no-writes'}}
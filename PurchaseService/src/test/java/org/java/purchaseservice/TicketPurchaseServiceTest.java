@@ -1,19 +1,28 @@
 package org.java.purchaseservice;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.dto.SeatPositionDTO;
+import org.java.purchaseservice.dto.TicketBestAvailableRequestDTO;
+import org.java.purchaseservice.dto.TicketGroupPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
 import org.java.purchaseservice.dto.TicketRespondDTO;
 import org.java.purchaseservice.event.TicketCreatedEvent;
+import org.java.purchaseservice.event.TicketGroupCreatedEvent;
 import org.java.purchaseservice.exception.CreateTicketException;
 import org.java.purchaseservice.exception.SeatOccupiedException;
 import org.java.purchaseservice.mapper.TicketMapper;
-import org.java.purchaseservice.model.TicketInfo;
 import org.java.purchaseservice.model.TicketStatus;
+import org.java.purchaseservice.service.admission.PurchaseLoadShedder;
+import org.java.purchaseservice.service.id.TicketIdGenerator;
+import org.java.purchaseservice.service.purchase.PurchaseIdempotencyStore;
 import org.java.purchaseservice.service.purchase.TicketPurchaseService;
 import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
@@ -21,39 +30,36 @@ import static org.mockito.Mockito.*;
 
 class TicketPurchaseServiceTest {
 
+	private static PurchaseLoadShedder loadShedder() {
+		return new PurchaseLoadShedder(new SimpleMeterRegistry(), true, 64, 8, 2048, 2.0, 0.9, 30);
+	}
+
 	@Test
 	void purchaseTicket_success_publishesEventAndReturnsDTO() {
 		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
 		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 		TicketMapper ticketMapper = mock(TicketMapper.class);
 
-		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher);
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
 
 		var req = new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7");
 
-		when(ticketMapper.toEntity(any())).thenAnswer(inv -> {
-			var creation = inv.getArgument(0, org.java.purchaseservice.dto.TicketCreationDTO.class);
-			var e = new TicketInfo();
-			e.setVenueId(creation.getVenueId());
-			e.setEventId(creation.getEventId());
-			e.setZoneId(creation.getZoneId());
-			e.setRow(creation.getRow());
-			e.setColumn(creation.getColumn());
-			return e;
-		});
-		when(ticketMapper.toRespondDto(any(TicketInfo.class))).thenAnswer(inv -> {
-			TicketInfo t = inv.getArgument(0);
-			return new TicketRespondDTO(t.getTicketId(), t.getZoneId(), t.getRow(), t.getColumn(), t.getCreatedOn());
+		when(ticketMapper.toRespondDto(any(TicketCreatedEvent.class))).thenAnswer(inv -> {
+			TicketCreatedEvent e = inv.getArgument(0);
+			return new TicketRespondDTO(e.getTicketId(), e.getZoneId(), e.getRow(), e.getColumn(), e.getCreatedOn());
 		});
 
 		TicketRespondDTO resp = svc.purchaseTicket(req);
 
-		verify(seat).tryOccupySeat("E1", "V1", 1, "A", "7");
+		ArgumentCaptor<String> ownerCaptor = ArgumentCaptor.forClass(String.class);
+		verify(seat).tryOccupySeat(eq("E1"), eq("V1"), eq(1), eq("A"), eq("7"), ownerCaptor.capture());
 
 		ArgumentCaptor<TicketCreatedEvent> eventCaptor = ArgumentCaptor.forClass(TicketCreatedEvent.class);
 		verify(eventPublisher).publishEvent(eventCaptor.capture());
 
 		TicketCreatedEvent publishedEvent = eventCaptor.getValue();
+		assertThat(publishedEvent.getTicketId()).isEqualTo(ownerCaptor.getValue());
 		assertThat(publishedEvent.getVenueId()).isEqualTo("V1");
 		assertThat(publishedEvent.getEventId()).isEqualTo("E1");
 		assertThat(publishedEvent.getZoneId()).isEqualTo(1);
@@ -79,13 +85,14 @@ class TicketPurchaseServiceTest {
 		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 		TicketMapper ticketMapper = mock(TicketMapper.class);
 
-		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher);
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
 
 		var req = new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7");
 
 		// Mock Seat taken
 		doThrow(new SeatOccupiedException("occupied"))
-				.when(seat).tryOccupySeat("E1", "V1", 1, "A", "7");
+				.when(seat).tryOccupySeat(eq("E1"), eq("V1"), eq(1), eq("A"), eq("7"), anyString());
 
 		// Act & Assert
 		assertThatThrownBy(() -> svc.purchaseTicket(req))
@@ -102,12 +109,14 @@ class TicketPurchaseServiceTest {
 		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 		TicketMapper ticketMapper = mock(TicketMapper.class);
 
-		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher);
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
 
 		var req = new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7");
 
 		// Mock Mapper
-		when(ticketMapper.toEntity(any())).thenThrow(new RuntimeException("mapper failed"));
+		when(ticketMapper.toRespondDto(any(TicketCreatedEvent.class)))
+				.thenThrow(new RuntimeException("mapper failed"));
 
 		// Act & Assert
 		assertThatThrownBy(() -> svc.purchaseTicket(req))
@@ -126,10 +135,11 @@ class TicketPurchaseServiceTest {
 		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 		TicketMapper ticketMapper = mock(TicketMapper.class);
 
-		when(ticketMapper.toEntity(any())).thenReturn(new TicketInfo());
-		when(ticketMapper.toRespondDto(any())).thenReturn(new TicketRespondDTO("test", 1, "A", "7", null));
+		when(ticketMapper.toRespondDto(any(TicketCreatedEvent.class)))
+				.thenReturn(new TicketRespondDTO("test", 1, "A", "7", null));
 
-		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher);
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
 
 		var req = new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7");
 
@@ -153,10 +163,11 @@ class TicketPurchaseServiceTest {
 		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 		TicketMapper ticketMapper = mock(TicketMapper.class);
 
-		when(ticketMapper.toEntity(any())).thenReturn(new TicketInfo());
-		when(ticketMapper.toRespondDto(any())).thenReturn(new TicketRespondDTO("test", 2, "B", "10", null));
+		when(ticketMapper.toRespondDto(any(TicketCreatedEvent.class)))
+				.thenReturn(new TicketRespondDTO("test", 2, "B", "10", null));
 
-		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher);
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
 
 		var req = new TicketPurchaseRequestDTO("V2", "E2", 2, "B", "10");
 
@@ -177,6 +188,203 @@ class TicketPurchaseServiceTest {
 		assertThat(event.getStatus()).isEqualTo(TicketStatus.PAID);
 		assertThat(event.getCreatedOn()).isNotNull();
 
-		assertThat(event.getPartitionKey()).isEqualTo("V2");
+		assertThat(event.getPartitionKey()).isEqualTo("E2:2");
+	}
+
+	@Test
+	void purchaseTickets_success_occupiesOnceAndPublishesSingleGroupEvent() {
+		// Arrange
+		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		TicketMapper ticketMapper = mock(TicketMapper.class);
+
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
+
+		List<SeatPositionDTO> seats = List.of(new SeatPositionDTO("A", "1"), new SeatPositionDTO("A", "2"),
+				new SeatPositionDTO("B", "1"));
+		var req = new TicketGroupPurchaseRequestDTO("V1", "E1", 3, seats);
+
+		// Act
+		List<TicketRespondDTO> resp = svc.purchaseTickets(req);
+
+		// Assert: one Redis call, one Spring event
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<String>> owners = ArgumentCaptor.forClass(List.class);
+		verify(seat, times(1)).tryOccupySeats(eq("E1"), eq("V1"), eq(3), eq(seats), owners.capture());
+		verify(seat, never()).tryOccupySeat(anyString(), anyString(), anyInt(), anyString(), anyString(),
+				anyString());
+
+		ArgumentCaptor<TicketGroupCreatedEvent> captor = ArgumentCaptor.forClass(TicketGroupCreatedEvent.class);
+		verify(eventPublisher, times(1)).publishEvent(captor.capture());
+
+		List<TicketCreatedEvent> tickets = captor.getValue().getTickets();
+		assertThat(tickets).hasSize(3);
+		assertThat(tickets).extracting(TicketCreatedEvent::getRow).containsExactly("A", "A", "B");
+		assertThat(tickets).extracting(TicketCreatedEvent::getColumn).containsExactly("1", "2", "1");
+		assertThat(tickets).allSatisfy(t -> {
+			assertThat(t.getTicketId()).isNotBlank();
+			assertThat(t.getEventId()).isEqualTo("E1");
+			assertThat(t.getZoneId()).isEqualTo(3);
+			assertThat(t.getStatus()).isEqualTo(TicketStatus.PAID);
+		});
+		assertThat(tickets).extracting(TicketCreatedEvent::getTicketId).doesNotHaveDuplicates();
+		assertThat(tickets).extracting(TicketCreatedEvent::getTicketId).containsExactlyElementsOf(owners.getValue());
+
+		assertThat(resp).hasSize(3);
+		assertThat(resp).extracting(TicketRespondDTO::getTicketId)
+				.containsExactlyElementsOf(tickets.stream().map(TicketCreatedEvent::getTicketId).toList());
+	}
+
+	@Test
+	void purchaseTickets_whenAnySeatOccupied_throws_andNoEventPublished() {
+		// Arrange
+		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		TicketMapper ticketMapper = mock(TicketMapper.class);
+
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
+
+		List<SeatPositionDTO> seats = List.of(new SeatPositionDTO("A", "1"), new SeatPositionDTO("A", "2"));
+		var req = new TicketGroupPurchaseRequestDTO("V1", "E1", 1, seats);
+
+		doThrow(new SeatOccupiedException("occupied")).when(seat).tryOccupySeats(eq("E1"), eq("V1"), eq(1), eq(seats),
+				anyList());
+
+		// Act & Assert
+		assertThatThrownBy(() -> svc.purchaseTickets(req)).isInstanceOf(SeatOccupiedException.class);
+
+		verify(eventPublisher, never()).publishEvent(any());
+		verify(seat, never()).releaseSeats(anyString(), anyString(), anyInt(), any());
+	}
+
+	@Test
+	void purchaseTickets_whenEventPublisherFails_releasesWholeGroup() {
+		// Arrange
+		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		TicketMapper ticketMapper = mock(TicketMapper.class);
+
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
+
+		List<SeatPositionDTO> seats = List.of(new SeatPositionDTO("C", "5"), new SeatPositionDTO("C", "6"));
+		var req = new TicketGroupPurchaseRequestDTO("V1", "E1", 2, seats);
+
+		doThrow(new RuntimeException("event publisher down"))
+				.when(eventPublisher).publishEvent(any(TicketGroupCreatedEvent.class));
+
+		// Act & Assert
+		assertThatThrownBy(() -> svc.purchaseTickets(req))
+				.isInstanceOf(CreateTicketException.class)
+				.hasMessageContaining("Failed to create tickets");
+
+		verify(seat).releaseSeats("E1", "V1", 2, seats);
+	}
+
+	@Test
+	void purchaseBestAvailable_success_ticketsForServerPickedSeats() {
+		// Arrange
+		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		TicketMapper ticketMapper = mock(TicketMapper.class);
+
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), mock(PurchaseIdempotencyStore.class), loadShedder());
+
+		// Redis picked D-7 and D-8
+		when(seat.occupyBestAvailable(eq("E1"), eq("V1"), eq(4), eq(2), anyList()))
+				.thenReturn(List.of(new SeatPositionDTO("D", "7"), new SeatPositionDTO("D", "8")));
+
+		// Act
+		List<TicketRespondDTO> resp = svc.purchaseBestAvailable(new TicketBestAvailableRequestDTO("V1", "E1", 4, 2));
+
+		// Assert
+		assertThat(resp).extracting(TicketRespondDTO::getRow).containsExactly("D", "D");
+		assertThat(resp).extracting(TicketRespondDTO::getColumn).containsExactly("7", "8");
+
+		ArgumentCaptor<TicketGroupCreatedEvent> captor = ArgumentCaptor.forClass(TicketGroupCreatedEvent.class);
+		verify(eventPublisher).publishEvent(captor.capture());
+		assertThat(captor.getValue().getTickets()).hasSize(2);
+		verify(seat, never()).releaseSeats(anyString(), anyString(), anyInt(), any());
+	}
+
+	@Test
+	void purchaseTicket_withIdempotencyKey_recordsResponseWithSeat() {
+		// Arrange
+		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		TicketMapper ticketMapper = mock(TicketMapper.class);
+		PurchaseIdempotencyStore idempotency = mock(PurchaseIdempotencyStore.class);
+
+		when(ticketMapper.toRespondDto(any(TicketCreatedEvent.class)))
+				.thenReturn(new TicketRespondDTO("test", 1, "A", "7", null));
+		when(idempotency.encode(any(), any())).thenReturn("record");
+		when(idempotency.getTtlMs()).thenReturn(1000L);
+
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), idempotency, loadShedder());
+
+		var req = new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7");
+
+		// Act
+		svc.purchaseTicket(req, "key-1");
+
+		// Assert: the record rides on the seat call, the encoded ticket is the one published
+		verify(seat).tryOccupySeat(eq("E1"), eq("V1"), eq(1), eq("A"), eq("7"), anyString(), eq("key-1"),
+				eq("record"), eq(1000L));
+		ArgumentCaptor<TicketRespondDTO> recorded = ArgumentCaptor.forClass(TicketRespondDTO.class);
+		verify(idempotency).encode(eq(req), recorded.capture());
+		ArgumentCaptor<TicketCreatedEvent> published = ArgumentCaptor.forClass(TicketCreatedEvent.class);
+		verify(eventPublisher).publishEvent(published.capture());
+		assertThat(recorded.getValue().getTicketId()).isEqualTo(published.getValue().getTicketId());
+	}
+
+	@Test
+	void purchaseTicket_withUsedIdempotencyKey_returnsFirstResponse_andNoEventPublished() {
+		// Arrange
+		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		PurchaseIdempotencyStore idempotency = mock(PurchaseIdempotencyStore.class);
+		var req = new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7");
+		var first = new TicketRespondDTO("first", 1, "A", "7", null);
+
+		when(seat.tryOccupySeat(eq("E1"), eq("V1"), eq(1), eq("A"), eq("7"), anyString(), eq("key-1"), any(),
+				anyLong()))
+				.thenReturn("stored");
+		when(idempotency.replay("key-1", "stored", req)).thenReturn(first);
+
+		TicketPurchaseService svc = new TicketPurchaseService(mock(TicketMapper.class), seat, eventPublisher,
+				new TicketIdGenerator(), idempotency, loadShedder());
+
+		// Act
+		TicketRespondDTO resp = svc.purchaseTicket(req, "key-1");
+
+		// Assert
+		assertThat(resp).isSameAs(first);
+		verify(eventPublisher, never()).publishEvent(any());
+	}
+
+	@Test
+	void purchaseTicket_withIdempotencyKey_whenPublisherFails_releasesSeatAndKey() {
+		// Arrange
+		SeatOccupiedRedisFacade seat = mock(SeatOccupiedRedisFacade.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		TicketMapper ticketMapper = mock(TicketMapper.class);
+		PurchaseIdempotencyStore idempotency = mock(PurchaseIdempotencyStore.class);
+
+		doThrow(new RuntimeException("event publisher down"))
+				.when(eventPublisher).publishEvent(any(TicketCreatedEvent.class));
+
+		TicketPurchaseService svc = new TicketPurchaseService(ticketMapper, seat, eventPublisher,
+				new TicketIdGenerator(), idempotency, loadShedder());
+
+		// Act & Assert
+		assertThatThrownBy(() -> svc.purchaseTicket(new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7"), "key-1"))
+				.isInstanceOf(CreateTicketException.class);
+
+		verify(seat).releaseSeat("E1", "V1", 1, "A", "7");
+		verify(idempotency).forget("key-1");
 	}
 }
@@ -0,0 +1,99 @@
+package org.java.purchaseservice.publisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for KafkaStreamPublisher.
+ * Verifies that broker acks and failures complete the right future and that the in-flight window is bounded.
+ */
+@ExtendWith(MockitoExtension.class)
+class KafkaStreamPublisherTest {
+
+    @Mock
+    private StreamBridge streamBridge;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private KafkaStreamPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new KafkaStreamPublisher(streamBridge, meterRegistry, "ticket-out-0", 2, 10, 60_000);
+    }
+
+    @Test
+    void kafkaPublish_ack_completesFutureAndFreesSlot() {
+        // Given
+        when(streamBridge.send(eq("ticket-out-0"), any(Message.class))).thenReturn(true);
+
+        // When
+        CompletableFuture<Void> result = publisher.kafkaPublish(new byte[]{1}, "Venue1");
+
+        // Then: Pending until the broker acks
+        assertFalse(result.isDone());
+        assertEquals(1.0, meterRegistry.get("tickets.kafka.publish.inflight").gauge().value());
+
+        publisher.onAck(sentMessage());
+
+        assertTrue(result.isDone());
+        assertFalse(result.isCompletedExceptionally());
+        assertEquals(0.0, meterRegistry.get("tickets.kafka.publish.inflight").gauge().value());
+        assertEquals(1, meterRegistry.get("tickets.kafka.publish.latency").timer().count());
+    }
+
+    @Test
+    void kafkaPublish_brokerFailure_completesExceptionally() {
+        // Given
+        when(streamBridge.send(eq("ticket-out-0"), any(Message.class))).thenReturn(true);
+        CompletableFuture<Void> result = publisher.kafkaPublish(new byte[]{1}, "Venue1");
+        IllegalStateException cause = new IllegalStateException("broker down");
+
+        // When
+        publisher.onError(new ErrorMessage(new MessagingException(sentMessage(), "send failed", cause)));
+
+        // Then
+        ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+        assertSame(cause, ex.getCause());
+    }
+
+    @Test
+    void kafkaPublish_windowFull_rejectedWithoutSending() {
+        // Given: Window of two, both taken
+        when(streamBridge.send(eq("ticket-out-0"), any(Message.class))).thenReturn(true);
+        publisher.kafkaPublish(new byte[]{1}, "Venue1");
+        publisher.kafkaPublish(new byte[]{2}, "Venue1");
+
+        // When
+        CompletableFuture<Void> third = publisher.kafkaPublish(new byte[]{3}, "Venue1");
+
+        // Then
+        ExecutionException ex = assertThrows(ExecutionException.class, third::get);
+        assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+        verify(streamBridge, times(2)).send(anyString(), any(Message.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<byte[]> sentMessage() {
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, atLeastOnce()).send(eq("ticket-out-0"), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,132 @@
+package org.java.purchaseservice.service.admission;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.exception.OverloadedException;
+import org.java.purchaseservice.exception.SeatOccupiedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for AdaptiveConcurrencyLimiter and PurchaseLoadShedder.
+ * Verifies that calls beyond the limit are rejected with a Retry-After, that the limit grows while latency is
+ * flat, shrinks when it climbs and backs off on timeouts, and that business rejections are not counted as drops.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter("redis", meterRegistry, initial, 2, 1000, 2.0, 0.5, 30);
+    }
+
+    // one call of the given latency with the step fully used
+    private void sample(AdaptiveConcurrencyLimiter limiter, long rttMillis) {
+        int slots = (int) limiter.getLimit();
+        long[] starts = new long[slots];
+        for (int i = 0; i < slots; i++) {
+            starts[i] = limiter.acquire() - TimeUnit.MILLISECONDS.toNanos(rttMillis);
+        }
+        for (long start : starts) {
+            limiter.release(start, false);
+        }
+    }
+
+    @Test
+    void acquire_atLimit_rejectedWithRetryAfter() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        limiter.acquire();
+        limiter.acquire();
+
+        // When
+        OverloadedException ex = assertThrows(OverloadedException.class, limiter::acquire);
+
+        // Then
+        assertTrue(ex.getRetryAfterSeconds() >= 1);
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1.0, meterRegistry.get("tickets.load.shed.rejected").tag("step", "redis").counter().count());
+    }
+
+    @Test
+    void release_flatLatency_limitGrows() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            sample(limiter, 2);
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+        assertEquals(limiter.getLimit(),
+                meterRegistry.get("tickets.load.shed.limit").tag("step", "redis").gauge().value());
+    }
+
+    @Test
+    void release_latencyClimbs_limitShrinks() {
+        // Given: a baseline of 2ms
+        AdaptiveConcurrencyLimiter limiter = limiter(50);
+        for (int i = 0; i < 5; i++) {
+            sample(limiter, 2);
+        }
+        double before = limiter.getLimit();
+
+        // When: Redis slows down twentyfold for one round of calls, before the long average catches up
+        sample(limiter, 40);
+
+        // Then
+        assertTrue(limiter.getLimit() < before, before + " -> " + limiter.getLimit());
+    }
+
+    @Test
+    void release_dropped_limitBacksOffToMinimum() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(16);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.release(limiter.acquire(), true);
+        }
+
+        // Then
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void call_timeoutIsDropButSeatTakenIsNot() {
+        // Given
+        PurchaseLoadShedder shedder = new PurchaseLoadShedder(meterRegistry, true, 16, 2, 1000, 2.0, 0.5, 30);
+
+        // When
+        assertThrows(SeatOccupiedException.class, () -> shedder.redis(() -> {
+            throw new SeatOccupiedException("Seat already occupied.");
+        }));
+        double afterBusinessError = shedder.getRedis().getLimit();
+        assertThrows(QueryTimeoutException.class, () -> shedder.redis(() -> {
+            throw new QueryTimeoutException("seat_occupy timed out");
+        }));
+
+        // Then
+        assertEquals(16, afterBusinessError);
+        assertEquals(8, shedder.getRedis().getLimit());
+        assertEquals(0, shedder.getRedis().getInFlight());
+    }
+
+    @Test
+    void call_onlyTimeoutsAndConnectionFailuresAreDrops() {
+        assertTrue(PurchaseLoadShedder.isSaturation(new QueryTimeoutException("timed out")));
+        assertTrue(PurchaseLoadShedder.isSaturation(new RedisConnectionFailureException("refused")));
+        assertTrue(PurchaseLoadShedder.isSaturation(
+                new RedisSystemException("wrapped", new RedisCommandTimeoutException("timed out"))));
+        assertFalse(PurchaseLoadShedder.isSaturation(new RedisSystemException("ERR seatlib", new RuntimeException())));
+        assertFalse(PurchaseLoadShedder.isSaturation(new IllegalArgumentException("Invalid seat")));
+    }
+}
@@ -0,0 +1,155 @@
+package org.java.purchaseservice.service.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.config.EventConfig;
+import org.java.purchaseservice.exception.BulkheadFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for EventBulkheads.
+ * Verifies that a full event is rejected at once without touching the slots of other events, that queued
+ * purchases take freed slots, that limits changed at runtime apply to waiting purchases, and that unknown
+ * event ids share one bulkhead instead of creating their own.
+ */
+class EventBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch finish = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        finish.countDown();
+        executor.shutdownNow();
+    }
+
+    private static EventConfig events(String... eventIds) {
+        EventConfig config = new EventConfig();
+        config.setList(Arrays.stream(eventIds).map(eventId -> {
+            EventConfig.Event event = new EventConfig.Event();
+            event.setEventId(eventId);
+            event.setEnabled(true);
+            return event;
+        }).toList());
+        return config;
+    }
+
+    // occupies one slot of the event until the test ends
+    private void hold(EventBulkheads bulkheads, String eventId) throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        executor.submit(() -> bulkheads.call(eventId, () -> {
+            entered.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void call_eventFull_rejectedWithoutAffectingOtherEvents() throws Exception {
+        // Given: one slot, no queue
+        EventBulkheads bulkheads = new EventBulkheads(meterRegistry, events("Hot", "Small"), true, 1, 0, 100, "");
+        hold(bulkheads, "Hot");
+
+        // When / Then
+        assertThrows(BulkheadFullException.class, () -> bulkheads.call("Hot", () -> "ticket"));
+        assertEquals("ticket", bulkheads.call("Small", () -> "ticket"));
+        assertEquals(1.0, meterRegistry.get("tickets.bulkhead.rejected").tag("event", "Hot").counter().count());
+        assertEquals(1.0, meterRegistry.get("tickets.bulkhead.active").tag("event", "Hot").gauge().value());
+    }
+
+    @Test
+    void call_queuedPurchase_waitsUntilWaitBudgetRunsOut() throws Exception {
+        // Given
+        EventBulkheads bulkheads = new EventBulkheads(meterRegistry, events("Hot", "Small"), true, 1, 1, 50, "");
+        hold(bulkheads, "Hot");
+
+        // When
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, () -> bulkheads.call("Hot", () -> "ticket"));
+
+        // Then
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, bulkheads.getBulkheads().get("Hot").getQueued());
+    }
+
+    @Test
+    void update_raisedLimit_admitsWaitingPurchase() throws Exception {
+        // Given: one slot taken, one purchase waiting
+        EventBulkheads bulkheads = new EventBulkheads(meterRegistry, events("Hot", "Small"), true, 1, 1, 5_000, "");
+        hold(bulkheads, "Hot");
+        Future<String> waiting = executor.submit(() -> bulkheads.call("Hot", () -> "ticket"));
+        while (bulkheads.getBulkheads().get("Hot").getQueued() == 0) {
+            Thread.sleep(1);
+        }
+
+        // When
+        bulkheads.update("Hot", 2, 1);
+
+        // Then
+        assertEquals("ticket", waiting.get(1, TimeUnit.SECONDS));
+        assertEquals(2, bulkheads.getBulkheads().get("Hot").getLimits().concurrency());
+    }
+
+    @Test
+    void constructor_perEventOverrides_applied() {
+        // Given
+        EventBulkheads bulkheads = new EventBulkheads(meterRegistry, events("Hot", "Small"), true, 8, 16, 100, "Hot=64:128, Small=2:0");
+
+        // When
+        bulkheads.call("Hot", () -> null);
+        bulkheads.call("Small", () -> null);
+        bulkheads.call("Other", () -> null);
+
+        // Then
+        assertEquals(new EventBulkheads.Limits(64, 128), bulkheads.getBulkheads().get("Hot").getLimits());
+        assertEquals(new EventBulkheads.Limits(2, 0), bulkheads.getBulkheads().get("Small").getLimits());
+        assertEquals(bulkheads.getDefaults(), bulkheads.getOther().getLimits());
+        assertThrows(IllegalArgumentException.class,
+                () -> new EventBulkheads(meterRegistry, events("Hot", "Small"), true, 8, 16, 100, "Hot=64"));
+    }
+
+    @Test
+    void call_unknownEvents_shareOneBulkheadWithoutOwnMeters() throws Exception {
+        // Given: one slot for events that are neither enabled nor overridden
+        EventBulkheads bulkheads = new EventBulkheads(meterRegistry, events("Hot"), true, 1, 0, 100, "Small=4:0");
+        hold(bulkheads, "random-1");
+
+        // When / Then: another made-up id is rejected by the same bulkhead, known events are unaffected
+        assertThrows(BulkheadFullException.class, () -> bulkheads.call("random-2", () -> "ticket"));
+        assertEquals("ticket", bulkheads.call("Hot", () -> "ticket"));
+        assertEquals("ticket", bulkheads.call("Small", () -> "ticket"));
+        assertEquals(2, bulkheads.getBulkheads().size());
+        assertNull(meterRegistry.find("tickets.bulkhead.active").tag("event", "random-1").gauge());
+        assertEquals(1.0, meterRegistry.get("tickets.bulkhead.rejected")
+                .tag("event", EventBulkheads.OTHER_EVENTS).counter().count());
+        assertThrows(IllegalArgumentException.class, () -> bulkheads.update("random-1", 8, 8));
+    }
+
+    @Test
+    void reset_restoresDefaults() {
+        // Given
+        EventBulkheads bulkheads = new EventBulkheads(meterRegistry, events("Hot", "Small"), true, 8, 16, 100, "");
+        bulkheads.update("Hot", 64, 128);
+
+        // When
+        bulkheads.reset("Hot");
+
+        // Then
+        assertEquals(bulkheads.getDefaults(), bulkheads.getBulkheads().get("Hot").getLimits());
+    }
+}
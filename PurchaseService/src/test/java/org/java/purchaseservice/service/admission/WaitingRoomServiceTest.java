@@ -0,0 +1,159 @@
+package org.java.purchaseservice.service.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.dto.WaitingRoomRespondDTO;
+import org.java.purchaseservice.exception.InvalidQueueTokenException;
+import org.java.purchaseservice.exception.NotAdmittedException;
+import org.java.purchaseservice.service.redis.SeatFunctionLibrary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for WaitingRoomService.
+ * Verifies that queue positions are admitted in order at the bucket rate, that forged, foreign or missing
+ * tokens are rejected, that waiting holders are turned away from the local view without Redis, and that a shared
+ * Redis waiting room does not start without a token secret.
+ */
+@ExtendWith(MockitoExtension.class)
+class WaitingRoomServiceTest {
+
+    @Mock
+    private SeatFunctionLibrary seatFunctionLibrary;
+
+    private final QueueTokenSigner signer = new QueueTokenSigner("test-secret", true, WaitingRoomService.STORE_REDIS, 7_200_000);
+
+    private WaitingRoomService service(String events, String store, long checkIntervalMs) {
+        // one admission per second, two at once
+        return new WaitingRoomService(seatFunctionLibrary, signer, new SimpleMeterRegistry(), true, events, store,
+                1, 2, checkIntervalMs, 7_200_000);
+    }
+
+    @Test
+    void join_localStore_admitsBurstThenPacesByRate() {
+        // Given
+        WaitingRoomService service = service("", WaitingRoomService.STORE_LOCAL, 0);
+
+        // When
+        WaitingRoomRespondDTO first = service.join("E1");
+        WaitingRoomRespondDTO second = service.join("E1");
+        WaitingRoomRespondDTO third = service.join("E1");
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), List.of(first.getPosition(), second.getPosition(), third.getPosition()));
+        assertTrue(first.isAdmitted());
+        assertTrue(second.isAdmitted());
+        assertFalse(third.isAdmitted());
+        assertEquals(2, third.getAdmittedThrough());
+    }
+
+    @Test
+    void checkAdmitted_waitingPosition_rejectedWithRetryAfter() {
+        // Given
+        WaitingRoomService service = service("", WaitingRoomService.STORE_LOCAL, 0);
+        service.join("E1");
+        service.join("E1");
+        String waiting = service.join("E1").getToken();
+
+        // When
+        NotAdmittedException ex = assertThrows(NotAdmittedException.class,
+                () -> service.checkAdmitted("E1", waiting));
+
+        // Then
+        assertEquals(3, ex.getPosition());
+        assertEquals(2, ex.getAdmittedThrough());
+        assertEquals(1, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void checkAdmitted_forgedOrForeignOrMissingToken_rejected() {
+        // Given
+        WaitingRoomService service = service("", WaitingRoomService.STORE_LOCAL, 0);
+        String token = service.join("E1").getToken();
+        String forged = signer.issue("E1", 1, System.currentTimeMillis()).split("\\.")[0] + "."
+                + new QueueTokenSigner("other-secret", true, WaitingRoomService.STORE_REDIS, 7_200_000).issue("E1", 1, 0).split("\\.")[1];
+
+        // When / Then
+        assertDoesNotThrow(() -> service.checkAdmitted("E1", token));
+        assertThrows(InvalidQueueTokenException.class, () -> service.checkAdmitted("E1", forged));
+        assertThrows(InvalidQueueTokenException.class, () -> service.checkAdmitted("E2", token));
+        assertThrows(InvalidQueueTokenException.class, () -> service.checkAdmitted("E1", null));
+    }
+
+    @Test
+    void checkAdmitted_expiredToken_rejected() {
+        // Given
+        WaitingRoomService service = service("", WaitingRoomService.STORE_LOCAL, 0);
+        String old = signer.issue("E1", 1, System.currentTimeMillis() - 7_200_001);
+
+        // When / Then
+        assertThrows(InvalidQueueTokenException.class, () -> service.checkAdmitted("E1", old));
+    }
+
+    @Test
+    void signer_noSecretWithRedisStore_refusesToStart() {
+        // When / Then: tokens of a per-node key would fail on every other node
+        assertThrows(IllegalArgumentException.class,
+                () -> new QueueTokenSigner("", true, WaitingRoomService.STORE_REDIS, 7_200_000));
+        assertDoesNotThrow(() -> new QueueTokenSigner("", true, WaitingRoomService.STORE_LOCAL, 7_200_000));
+        assertDoesNotThrow(() -> new QueueTokenSigner("", false, WaitingRoomService.STORE_REDIS, 7_200_000));
+    }
+
+    @Test
+    void checkAdmitted_eventWithoutWaitingRoom_passes() {
+        // Given
+        WaitingRoomService service = service("E1", WaitingRoomService.STORE_LOCAL, 0);
+
+        // When / Then
+        assertDoesNotThrow(() -> service.checkAdmitted("E2", null));
+        assertThrows(IllegalArgumentException.class, () -> service.join("E2"));
+    }
+
+    @Test
+    void checkAdmitted_redisStore_waitingHoldersAnsweredLocallyWithinCheckInterval() {
+        // Given: position 5 issued, bucket admitted through 3
+        WaitingRoomService service = service("", WaitingRoomService.STORE_REDIS, 60_000);
+        when(seatFunctionLibrary.fcall(eq(SeatFunctionLibrary.FN_WAITING_ROOM_JOIN), anyList(), anyString()))
+                .thenReturn(5L);
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_WAITING_ROOM_ADMIT), anyList(), anyString(),
+                anyString(), anyString(), anyString())).thenReturn(List.of(3L, 5L));
+        String token = service.join("E1").getToken();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertThrows(NotAdmittedException.class, () -> service.checkAdmitted("E1", token));
+        }
+
+        // Then: only the join asked the bucket
+        verify(seatFunctionLibrary, times(1)).fcallList(eq(SeatFunctionLibrary.FN_WAITING_ROOM_ADMIT), anyList(),
+                anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void checkAdmitted_redisStore_admittedHolderNeedsNoRedis() {
+        // Given
+        WaitingRoomService service = service("", WaitingRoomService.STORE_REDIS, 0);
+        when(seatFunctionLibrary.fcall(eq(SeatFunctionLibrary.FN_WAITING_ROOM_JOIN), anyList(), anyString()))
+                .thenReturn(1L);
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_WAITING_ROOM_ADMIT), anyList(), anyString(),
+                anyString(), anyString(), anyString())).thenReturn(List.of(1L, 1L));
+        String token = service.join("E1").getToken();
+
+        // When
+        service.checkAdmitted("E1", token);
+        service.checkAdmitted("E1", token);
+
+        // Then
+        verify(seatFunctionLibrary, times(1)).fcallList(eq(SeatFunctionLibrary.FN_WAITING_ROOM_ADMIT), anyList(),
+                anyString(), anyString(), anyString(), anyString());
+    }
+}
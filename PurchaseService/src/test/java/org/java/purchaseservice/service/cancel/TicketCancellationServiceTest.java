@@ -0,0 +1,82 @@
+package org.java.purchaseservice.service.cancel;
+
+import org.java.purchaseservice.dto.TicketCancelRespondDTO;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.event.TicketCancelledEvent;
+import org.java.purchaseservice.exception.CancelTicketException;
+import org.java.purchaseservice.exception.TicketNotFoundException;
+import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for TicketCancellationService.
+ * Verifies that a cancelled seat is released before the cancellation is published, that a seat held by another
+ * ticket is left alone, and that the seat goes back to the ticket when the cancellation cannot be recorded.
+ */
+@ExtendWith(MockitoExtension.class)
+class TicketCancellationServiceTest {
+
+    @Mock
+    private SeatOccupiedRedisFacade seatOccupiedRedisFacade;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private TicketCancellationService service;
+
+    private final TicketPurchaseRequestDTO seat = new TicketPurchaseRequestDTO("V1", "E1", 2, "B", "4");
+
+    @BeforeEach
+    void setUp() {
+        service = new TicketCancellationService(seatOccupiedRedisFacade, eventPublisher);
+    }
+
+    @Test
+    void cancelTicket_ownedSeat_releasedAndCancellationPublished() {
+        // When
+        TicketCancelRespondDTO resp = service.cancelTicket("T1", seat);
+
+        // Then
+        var order = inOrder(seatOccupiedRedisFacade, eventPublisher);
+        order.verify(seatOccupiedRedisFacade).cancelSeat("E1", "V1", 2, "B", "4", "T1");
+        ArgumentCaptor<TicketCancelledEvent> published = ArgumentCaptor.forClass(TicketCancelledEvent.class);
+        order.verify(eventPublisher).publishEvent(published.capture());
+        assertEquals("T1", published.getValue().getTicketId());
+        assertEquals("E1:2", published.getValue().getPartitionKey());
+        assertEquals(published.getValue().getCancelledOn(), resp.getCancelledOn());
+        assertEquals("T1", resp.getTicketId());
+    }
+
+    @Test
+    void cancelTicket_seatOfAnotherTicket_notFoundAndNothingPublished() {
+        // Given
+        doThrow(new TicketNotFoundException("not held"))
+                .when(seatOccupiedRedisFacade).cancelSeat("E1", "V1", 2, "B", "4", "T9");
+
+        // When / Then
+        assertThrows(TicketNotFoundException.class, () -> service.cancelTicket("T9", seat));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void cancelTicket_publishFails_seatOccupiedAgainForTicket() {
+        // Given
+        doThrow(new RuntimeException("outbox down")).when(eventPublisher).publishEvent(any(TicketCancelledEvent.class));
+
+        // When / Then
+        assertThrows(CancelTicketException.class, () -> service.cancelTicket("T1", seat));
+        verify(seatOccupiedRedisFacade).restoreSeat("E1", "V1", 2, "B", "4", "T1");
+        verify(seatOccupiedRedisFacade, never()).tryOccupySeat(anyString(), anyString(), anyInt(), anyString(),
+                anyString(), anyString());
+    }
+}
@@ -0,0 +1,119 @@
+package org.java.purchaseservice.service.dlq;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.java.purchaseservice.publisher.MessagePublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for DeadLetterReplayWorker.
+ * Verifies that journaled letters are republished, that failures back off exponentially
+ * and that permanently rejected letters are parked until purged.
+ */
+@ExtendWith(MockitoExtension.class)
+class DeadLetterReplayWorkerTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private MessagePublisher messagePublisher;
+
+    private DeadLetterJournal journal;
+    private KafkaDeadLetterQueueService dlqService;
+    private DeadLetterReplayWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        journal = new DeadLetterJournal(dir.toString(), 4096, 4, false);
+        journal.afterPropertiesSet();
+        dlqService = new KafkaDeadLetterQueueService(journal);
+        worker = new DeadLetterReplayWorker(journal, messagePublisher, new SimpleMeterRegistry(), 10, 60_000, 120_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void replay_kafkaHealthy_republishesOriginalPayloadAndClearsBacklog() {
+        // Given
+        dlqService.sendToDeadLetterQueue(bytes("t1"), "Venue1", "RecordTooLarge");
+        when(messagePublisher.kafkaPublish(bytes("t1"), "Venue1")).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        worker.replay();
+
+        // Then
+        verify(messagePublisher).kafkaPublish(bytes("t1"), "Venue1");
+        assertEquals(1, worker.getReplayedTotal());
+        assertEquals(0, worker.getBacklogBytes());
+        assertNull(worker.getNextAttemptAt());
+    }
+
+    @Test
+    void replay_kafkaDown_backsOffAndKeepsLetter() {
+        // Given
+        dlqService.sendToDeadLetterQueue(bytes("t1"), "Venue1", "down");
+        when(messagePublisher.kafkaPublish(any(byte[].class), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker")));
+
+        // When: Two runs back to back, the second falls inside the backoff
+        worker.replay();
+        worker.replay();
+
+        // Then
+        verify(messagePublisher, times(1)).kafkaPublish(any(byte[].class), anyString());
+        assertNotNull(worker.getNextAttemptAt());
+        assertTrue(worker.getBacklogBytes() > 0);
+        assertEquals(0, worker.getReplayedTotal());
+    }
+
+    @Test
+    void replay_permanentRejection_parksLetterUntilPurged() {
+        // Given
+        dlqService.sendToDeadLetterQueue(bytes("t1"), "Venue1", "too big");
+        when(messagePublisher.kafkaPublish(any(byte[].class), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too big")));
+
+        // When
+        worker.replay();
+
+        // Then: Out of the replay backlog, but kept with its payload and the rejection
+        assertEquals(1, worker.getParkedTotal());
+        assertEquals(0, worker.getBacklogBytes());
+        DeadLetter parked = journal.getParked(10).get(0);
+        assertArrayEquals(bytes("t1"), parked.payload());
+        assertEquals("Venue1", parked.partitionKey());
+        assertTrue(parked.errorReason().contains("too big"));
+
+        // When: Replayed again, then purged
+        worker.replay();
+        long purged = journal.purgeParked();
+
+        // Then: Not sent again, gone after the purge
+        verify(messagePublisher, times(1)).kafkaPublish(any(byte[].class), anyString());
+        assertEquals(1, purged);
+        assertTrue(journal.getParked(10).isEmpty());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
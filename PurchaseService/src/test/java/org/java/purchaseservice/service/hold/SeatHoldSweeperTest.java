@@ -0,0 +1,96 @@
+package org.java.purchaseservice.service.hold;
+
+import org.java.purchaseservice.service.redis.SeatOccupiedRedisFacade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SeatHoldSweeper.
+ * Verifies that only expiring holds are read and that they are released per zone in batches.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatHoldSweeperTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private SeatOccupiedRedisFacade seatOccupiedRedisFacade;
+
+    private SeatHoldSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new SeatHoldSweeper(stringRedisTemplate, seatOccupiedRedisFacade, 3, 10);
+    }
+
+    @Test
+    void sweepExpiredHolds_noEventsWithHolds_doesNothing() {
+        // Given: No event has holds
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("holds:events")).thenReturn(Set.of());
+
+        // When
+        sweeper.sweepExpiredHolds();
+
+        // Then: Hold sets are never read
+        verify(stringRedisTemplate, never()).opsForZSet();
+        verifyNoInteractions(seatOccupiedRedisFacade);
+    }
+
+    @Test
+    void sweepEvent_groupsExpiredHoldsByZone() {
+        // Given: Two expired holds in zone 1, one in zone 2 (less than a full batch of 4)
+        sweeper = new SeatHoldSweeper(stringRedisTemplate, seatOccupiedRedisFacade, 4, 10);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        Set<String> expired = new LinkedHashSet<>(List.of("1:0:3", "2:4:125", "1:1:31"));
+        when(zSetOperations.rangeByScore("event:E1:holds", 0, 1000L, 0, 4)).thenReturn(expired);
+        when(seatOccupiedRedisFacade.expireHolds(eq("E1"), anyInt(), anyList(), eq(1000L)))
+                .thenAnswer(inv -> (long) inv.getArgument(2, List.class).size());
+
+        // When
+        long released = sweeper.sweepEvent("E1", 1000L);
+
+        // Then: One release call per zone; a full batch would trigger another read
+        assertEquals(3, released);
+        verify(seatOccupiedRedisFacade).expireHolds("E1", 1, List.of("1:0:3", "1:1:31"), 1000L);
+        verify(seatOccupiedRedisFacade).expireHolds("E1", 2, List.of("2:4:125"), 1000L);
+        verify(zSetOperations, times(1)).rangeByScore("event:E1:holds", 0, 1000L, 0, 4);
+    }
+
+    @Test
+    void sweepEvent_fullBatch_readsNextBatch() {
+        // Given: First batch is full, second is empty
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        Set<String> first = new LinkedHashSet<>(List.of("1:0:0", "1:0:1", "1:0:2"));
+        when(zSetOperations.rangeByScore("event:E1:holds", 0, 1000L, 0, 3)).thenReturn(first).thenReturn(Set.of());
+        when(seatOccupiedRedisFacade.expireHolds(eq("E1"), eq(1), anyList(), eq(1000L))).thenReturn(3L);
+
+        // When
+        long released = sweeper.sweepEvent("E1", 1000L);
+
+        // Then
+        assertEquals(3, released);
+        verify(zSetOperations, times(2)).rangeByScore("event:E1:holds", 0, 1000L, 0, 3);
+    }
+}
@@ -0,0 +1,100 @@
+package org.java.purchaseservice.service.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for TicketIdGenerator.
+ * Verifies that ids sort in issue order as strings, carry version and time,
+ * fill the 62 low bits at random, and stay unique across threads.
+ */
+class TicketIdGeneratorTest {
+
+    @Test
+    void nextId_sequentialCalls_sortInIssueOrder() {
+        // Given
+        TicketIdGenerator generator = new TicketIdGenerator();
+        List<String> ids = new ArrayList<>();
+
+        // When: Far more ids than one millisecond usually sees
+        for (int i = 0; i < 50_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Then
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(ids, sorted);
+    }
+
+    @Test
+    void next_encodesVersionAndTime() {
+        // Given
+        TicketIdGenerator generator = new TicketIdGenerator();
+        long before = System.currentTimeMillis();
+
+        // When
+        UUID id = generator.next();
+
+        // Then
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(TicketIdGenerator.timestampOf(id) >= before);
+        assertTrue(TicketIdGenerator.timestampOf(id) <= System.currentTimeMillis());
+    }
+
+    @Test
+    void next_consecutiveIds_distinctRandomBits() {
+        // Given
+        TicketIdGenerator generator = new TicketIdGenerator();
+        Set<Long> random = new HashSet<>();
+        long highBits = 0;
+
+        // When: Consecutive ids, most of them in the same millisecond
+        for (int i = 0; i < 1_000; i++) {
+            long bits = TicketIdGenerator.randomOf(generator.next());
+            random.add(bits);
+            highBits |= bits >>> 40;
+        }
+
+        // Then: No repeats, and the top of the 62-bit field is used too
+        assertEquals(1_000, random.size());
+        assertEquals((1L << 22) - 1, highBits);
+    }
+
+    @Test
+    void nextId_concurrentThreads_noDuplicates() throws Exception {
+        // Given
+        TicketIdGenerator generator = new TicketIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tasks.add(pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        pool.shutdown();
+
+        // Then
+        assertEquals(8 * 20_000, ids.size());
+    }
+}
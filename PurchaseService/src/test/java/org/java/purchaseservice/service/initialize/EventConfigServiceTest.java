@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.ApplicationArguments;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -217,6 +218,26 @@ class EventConfigServiceTest {
     /**
      * Helper method to create EventConfig.Event instances for testing
      */
+    @Test
+    void run_parallelismAboveOne_initializesEveryEnabledEventOnce() {
+        // Given: Eight events, four at a time
+        when(eventConfig.isAutoInitialize()).thenReturn(true);
+        when(eventConfig.getInitParallelism()).thenReturn(4);
+        List<EventConfig.Event> events = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            events.add(createEvent("EVENT00" + i, "Concert " + i, "Venue1", true));
+        }
+        when(eventConfig.getList()).thenReturn(events);
+
+        // When
+        eventConfigService.run(applicationArguments);
+
+        // Then: run() returns only after all of them are done
+        for (int i = 1; i <= 8; i++) {
+            verify(seatOccupiedService).initializeAllZonesForEvent("EVENT00" + i, "Venue1");
+        }
+    }
+
     private EventConfig.Event createEvent(String eventId, String name, String venueId, boolean enabled) {
         EventConfig.Event event = new EventConfig.Event();
         event.setEventId(eventId);
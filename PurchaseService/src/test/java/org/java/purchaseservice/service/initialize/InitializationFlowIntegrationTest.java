@@ -72,11 +72,11 @@ class InitializationFlowIntegrationTest {
         eventConfigService.run(applicationArguments);
 
         // Then: Verify execution order and interactions
-        InOrder inOrder = inOrder(redisTemplate, seatOccupiedService);
+        InOrder inOrder = inOrder(valueOperations, seatOccupiedService);
 
-        // First: Venue initialization should set up Redis structure
-        inOrder.verify(redisTemplate, atLeastOnce()).opsForValue();
-        inOrder.verify(redisTemplate, atLeastOnce()).opsForSet();
+        // First: Venue initialization should set up Redis structure and publish the geometry
+        inOrder.verify(valueOperations, atLeastOnce()).set(anyString(), anyInt());
+        inOrder.verify(valueOperations).increment("venue:geometry:version");
 
         // Second: Event initialization should call seat service
         inOrder.verify(seatOccupiedService).initializeAllZonesForEvent("EVENT001", "Venue1");
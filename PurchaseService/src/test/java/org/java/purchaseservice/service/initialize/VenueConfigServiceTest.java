@@ -13,6 +13,7 @@ import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -318,4 +319,107 @@ class VenueConfigServiceTest {
         verify(valueOperations, times(150))
                 .set(argThat(key -> key.contains("Venue1:zone:") && key.contains(":capacity")), anyInt());
     }
+
+    @Test
+    void getSeatPerRow_afterInitialization_servedFromLocalGeometryWithoutRedis() {
+        // Given: Only the default venue is configured
+        when(venueConfig.getMap()).thenReturn(new HashMap<>());
+        when(venueConfig.getDefaultConfig()).thenReturn(defaultSettings);
+        when(defaultSettings.getZones()).thenReturn(defaultZoneSettings);
+        when(defaultZoneSettings.getZoneCount()).thenReturn(100);
+        when(defaultZoneSettings.getRowCount()).thenReturn(26);
+        when(defaultZoneSettings.getColCount()).thenReturn(30);
+        when(valueOperations.increment("venue:geometry:version")).thenReturn(1L);
+
+        // When: Initialize venues and read geometry
+        venueConfigService.afterPropertiesSet();
+
+        // Then: Geometry comes from the local table, no Redis reads
+        assertEquals(30, venueConfigService.getSeatPerRow("Venue1", 42));
+        assertEquals(26, venueConfigService.getRowCount("Venue1", 42));
+        assertEquals(780, venueConfigService.getZoneCapacity("Venue1", 42));
+        assertEquals(1L, venueConfigService.getGeometryVersion());
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void refreshGeometryIfChanged_versionBumped_reloadsFromRedis() {
+        // Given: Local table installed at version 1
+        when(venueConfig.getMap()).thenReturn(new HashMap<>());
+        when(venueConfig.getDefaultConfig()).thenReturn(defaultSettings);
+        when(defaultSettings.getZones()).thenReturn(defaultZoneSettings);
+        when(defaultZoneSettings.getZoneCount()).thenReturn(1);
+        when(defaultZoneSettings.getRowCount()).thenReturn(26);
+        when(defaultZoneSettings.getColCount()).thenReturn(30);
+        when(valueOperations.increment("venue:geometry:version")).thenReturn(1L);
+        venueConfigService.afterPropertiesSet();
+
+        // Another node rewrote Venue1 zone 1 with 40 seats per row
+        when(valueOperations.get("venue:geometry:version")).thenReturn(2L);
+        when(setOperations.members("venue:geometry:venues")).thenReturn(Set.of("Venue1"));
+        when(setOperations.members("venue:Venue1")).thenReturn(Set.of(1));
+        when(valueOperations.multiGet(List.of("venue:Venue1:zone:1:rowCount", "venue:Venue1:zone:1:seatPerRow",
+                "venue:Venue1:zone:1:capacity"))).thenReturn(List.of(26, 40, 1040));
+
+        // When: Refresh tick runs
+        venueConfigService.refreshGeometryIfChanged();
+
+        // Then: New geometry is served locally
+        assertEquals(40, venueConfigService.getSeatPerRow("Venue1", 1));
+        assertEquals(1040, venueConfigService.getZoneCapacity("Venue1", 1));
+        assertEquals(2L, venueConfigService.getGeometryVersion());
+    }
+
+    @Test
+    void afterPropertiesSet_geometryUnchanged_keepsSharedVersion() {
+        // Given: Redis already holds the same geometry for Venue1, e.g. this node restarted
+        when(venueConfig.getMap()).thenReturn(new HashMap<>());
+        when(venueConfig.getDefaultConfig()).thenReturn(defaultSettings);
+        when(defaultSettings.getZones()).thenReturn(defaultZoneSettings);
+        when(defaultZoneSettings.getZoneCount()).thenReturn(1);
+        when(defaultZoneSettings.getRowCount()).thenReturn(26);
+        when(defaultZoneSettings.getColCount()).thenReturn(30);
+        when(valueOperations.getAndSet(eq("venue:Venue1:geometryFingerprint"), any()))
+                .thenReturn(VenueGeometry.uniform(1, 26, 30).fingerprint());
+        when(valueOperations.get("venue:geometry:version")).thenReturn(7L);
+
+        // When
+        venueConfigService.afterPropertiesSet();
+
+        // Then: Other nodes are not made to reload
+        verify(valueOperations, never()).increment(anyString());
+        verify(setOperations).add("venue:geometry:venues", "Venue1");
+        assertEquals(7L, venueConfigService.getGeometryVersion());
+    }
+
+    @Test
+    void refreshGeometryIfChanged_venueAddedOnOtherNode_loaded() {
+        // Given: Local table has only Venue1 at version 1
+        when(venueConfig.getMap()).thenReturn(new HashMap<>());
+        when(venueConfig.getDefaultConfig()).thenReturn(defaultSettings);
+        when(defaultSettings.getZones()).thenReturn(defaultZoneSettings);
+        when(defaultZoneSettings.getZoneCount()).thenReturn(1);
+        when(defaultZoneSettings.getRowCount()).thenReturn(26);
+        when(defaultZoneSettings.getColCount()).thenReturn(30);
+        when(valueOperations.increment("venue:geometry:version")).thenReturn(1L);
+        venueConfigService.afterPropertiesSet();
+
+        // Another node registered Venue9 and bumped the version
+        when(valueOperations.get("venue:geometry:version")).thenReturn(2L);
+        when(setOperations.members("venue:geometry:venues")).thenReturn(Set.of("Venue1", "Venue9"));
+        when(setOperations.members("venue:Venue1")).thenReturn(Set.of(1));
+        when(setOperations.members("venue:Venue9")).thenReturn(Set.of(1));
+        when(valueOperations.multiGet(List.of("venue:Venue1:zone:1:rowCount", "venue:Venue1:zone:1:seatPerRow",
+                "venue:Venue1:zone:1:capacity"))).thenReturn(List.of(26, 30, 780));
+        when(valueOperations.multiGet(List.of("venue:Venue9:zone:1:rowCount", "venue:Venue9:zone:1:seatPerRow",
+                "venue:Venue9:zone:1:capacity"))).thenReturn(List.of(10, 20, 200));
+
+        // When
+        venueConfigService.refreshGeometryIfChanged();
+
+        // Then: The new venue is served locally
+        assertEquals(20, venueConfigService.getSeatPerRow("Venue9", 1));
+        assertEquals(30, venueConfigService.getSeatPerRow("Venue1", 1));
+        assertEquals(2L, venueConfigService.getGeometryVersion());
+    }
 }
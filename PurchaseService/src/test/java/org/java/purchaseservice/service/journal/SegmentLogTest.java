@@ -0,0 +1,211 @@
+package org.java.purchaseservice.service.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for SegmentLog.
+ * Verifies ordering across segment rolls, recovery after reopen, cleanup of drained segments,
+ * the disk budget, concurrent flushed appends, torn groups and quarantine of corrupt records.
+ */
+class SegmentLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void append_thenRead_returnsRecordsInOrderAcrossSegments() {
+        // Given: Small segments so that 100 records need several of them
+        SegmentLog log = new SegmentLog(dir, 1024, false);
+        log.open();
+        for (int i = 0; i < 100; i++) {
+            log.append("Venue1", ("ticket-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // When
+        List<SegmentLog.Entry> entries = readAll(log, log.loadCommitted());
+
+        // Then
+        assertEquals(100, entries.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Venue1", entries.get(i).key());
+            assertEquals("ticket-" + i, new String(entries.get(i).payload(), StandardCharsets.UTF_8));
+        }
+        assertTrue(log.getTail().segment() > 0);
+    }
+
+    @Test
+    void open_afterRestart_resumesFromCommittedPosition() {
+        // Given: Three records, first one relayed and committed
+        SegmentLog log = new SegmentLog(dir, 4096, true);
+        log.open();
+        log.appendAll(List.of("V", "V", "V"), List.of(bytes("a"), bytes("b"), bytes("c")));
+        SegmentLog.Position first = log.read(log.loadCommitted(), 1).get(0).next();
+        log.commit(first);
+        log.close();
+
+        // When: Reopened, one more record appended
+        SegmentLog reopened = new SegmentLog(dir, 4096, true);
+        reopened.open();
+        reopened.append("V", bytes("d"));
+        List<SegmentLog.Entry> entries = readAll(reopened, reopened.loadCommitted());
+
+        // Then: Only unsent records, old tail was recovered
+        assertEquals(List.of("b", "c", "d"),
+                entries.stream().map(e -> new String(e.payload(), StandardCharsets.UTF_8)).toList());
+    }
+
+    @Test
+    void commit_pastSegment_deletesDrainedSegmentFiles() throws IOException {
+        // Given
+        SegmentLog log = new SegmentLog(dir, 1024, false);
+        log.open();
+        for (int i = 0; i < 100; i++) {
+            log.append("V", bytes("ticket-" + i));
+        }
+        long before = countSegments();
+
+        // When: Everything relayed
+        List<SegmentLog.Entry> entries = readAll(log, log.loadCommitted());
+        log.commit(entries.get(entries.size() - 1).next());
+
+        // Then: Only the segment being written remains
+        assertTrue(before > 1);
+        assertEquals(1, countSegments());
+        assertTrue(log.read(log.loadCommitted(), 10).isEmpty());
+    }
+
+    @Test
+    void append_overDiskBudget_dropsOldestSegment() throws IOException {
+        // Given: Budget of two segments
+        SegmentLog log = new SegmentLog(dir, 1024, false, 2);
+        log.open();
+
+        // When: Enough records for several segments, none read
+        for (int i = 0; i < 200; i++) {
+            log.append("V", bytes("ticket-" + i));
+        }
+
+        // Then: Only the newest records survive, the loss is counted
+        List<SegmentLog.Entry> entries = readAll(log, log.loadCommitted());
+        assertEquals(2, countSegments());
+        assertEquals(200, entries.size() + log.getDroppedRecords());
+        assertEquals("ticket-199", new String(entries.get(entries.size() - 1).payload(), StandardCharsets.UTF_8));
+        assertTrue(log.backlogBytes(log.loadCommitted()) > 0);
+    }
+
+    @Test
+    void append_recordLargerThanSegment_rejected() {
+        SegmentLog log = new SegmentLog(dir, 1024, false);
+        log.open();
+
+        assertThrows(IllegalArgumentException.class, () -> log.append("V", new byte[2000]));
+    }
+
+    @Test
+    void append_concurrentWithFsync_allRecordsReadable() throws Exception {
+        // Given
+        SegmentLog log = new SegmentLog(dir, 4096, true);
+        log.open();
+
+        // When: Eight writers share the flushes
+        List<Future<SegmentLog.Position>> appends = new ArrayList<>();
+        try (ExecutorService writers = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 400; i++) {
+                String payload = "ticket-" + i;
+                appends.add(writers.submit(() -> log.append("V", bytes(payload))));
+            }
+        }
+
+        // Then: Every append returned a position the reader already sees
+        for (Future<SegmentLog.Position> append : appends) {
+            assertTrue(append.get().compareTo(log.getTail()) <= 0);
+        }
+        assertEquals(400, readAll(log, log.loadCommitted()).size());
+    }
+
+    @Test
+    void open_groupTornByCrash_dropsWholeGroup() throws IOException {
+        // Given: A single record (12 bytes) and a group of three (14 byte header, 12 bytes each)
+        SegmentLog log = new SegmentLog(dir, 4096, true);
+        log.open();
+        log.append("V", bytes("a"));
+        log.appendAll(List.of("V", "V", "V"), List.of(bytes("b"), bytes("c"), bytes("d")));
+        log.close();
+
+        // When: The second record of the group never reached the disk
+        corrupt(38 + 10);
+        SegmentLog reopened = new SegmentLog(dir, 4096, true);
+        reopened.open();
+        reopened.append("V", bytes("e"));
+
+        // Then: Neither b nor d comes back
+        assertEquals(List.of("a", "e"), payloads(readAll(reopened, reopened.loadCommitted())));
+    }
+
+    @Test
+    void read_corruptRecord_quarantinedAndSkipped() throws IOException {
+        // Given: Three records of 12 bytes, the payload of the second one flipped on disk
+        SegmentLog log = new SegmentLog(dir, 4096, false);
+        log.open();
+        log.append("V", bytes("a"));
+        log.append("V", bytes("b"));
+        log.append("V", bytes("c"));
+        corrupt(12 + 10);
+
+        // When: Read twice, as by two drains
+        List<SegmentLog.Entry> first = readAll(log, log.loadCommitted());
+        List<SegmentLog.Entry> second = readAll(log, log.loadCommitted());
+
+        // Then: The reader gets past it, the bytes are kept once
+        assertEquals(List.of("a", "c"), payloads(first));
+        assertEquals(List.of("a", "c"), payloads(second));
+        assertEquals(1, log.getQuarantinedRecords());
+        assertTrue(Files.exists(dir.resolve(String.format("%020d-%010d.corrupt", 0, 12))));
+    }
+
+    private void corrupt(long offset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve(String.format("%020d.seg", 0)).toFile(), "rw")) {
+            file.seek(offset);
+            file.write(file.read() ^ 0xFF);
+        }
+    }
+
+    private static List<String> payloads(List<SegmentLog.Entry> entries) {
+        return entries.stream().map(e -> new String(e.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private List<SegmentLog.Entry> readAll(SegmentLog log, SegmentLog.Position from) {
+        List<SegmentLog.Entry> all = new ArrayList<>();
+        List<SegmentLog.Entry> batch;
+        while (!(batch = log.read(from, 7)).isEmpty()) {
+            all.addAll(batch);
+            from = batch.get(batch.size() - 1).next();
+        }
+        return all;
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
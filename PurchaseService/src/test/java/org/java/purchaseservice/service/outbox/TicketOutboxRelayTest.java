@@ -0,0 +1,189 @@
+package org.java.purchaseservice.service.outbox;
+
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.java.purchaseservice.publisher.MessagePublisher;
+import org.java.purchaseservice.service.dlq.DeadLetterQueueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for TicketOutboxRelay.
+ * Verifies ordered relay to Kafka, that a retriable failure is resent before anything behind it and that no later
+ * record of its key was sent meanwhile, that a permanently rejected record goes to the DLQ, and that the relay
+ * drains on its own thread.
+ */
+@ExtendWith(MockitoExtension.class)
+class TicketOutboxRelayTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private MessagePublisher messagePublisher;
+
+    @Mock
+    private DeadLetterQueueService deadLetterQueueService;
+
+    private TicketOutbox outbox;
+    private TicketOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new TicketOutbox(dir.toString(), 4096, false);
+        outbox.afterPropertiesSet();
+        relay = new TicketOutboxRelay(outbox, messagePublisher, deadLetterQueueService, 2, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+        outbox.close();
+    }
+
+    @Test
+    void drain_sendsAllRecordsInOrder() {
+        // Given
+        outbox.append("Venue1", bytes("t1"));
+        outbox.append("Venue1", bytes("t2"));
+        outbox.append("Venue2", bytes("t3"));
+        when(messagePublisher.kafkaPublish(any(byte[].class), anyString())).thenReturn(acked());
+
+        // When
+        relay.drain();
+
+        // Then
+        InOrder inOrder = inOrder(messagePublisher);
+        inOrder.verify(messagePublisher).kafkaPublish(bytes("t1"), "Venue1");
+        inOrder.verify(messagePublisher).kafkaPublish(bytes("t2"), "Venue1");
+        inOrder.verify(messagePublisher).kafkaPublish(bytes("t3"), "Venue2");
+        assertEquals(outbox.getSegmentLog().getTail(), outbox.getSegmentLog().loadCommitted());
+    }
+
+    @Test
+    void drain_kafkaRejects_retriesSameRecordNextRun() {
+        // Given: Second record fails once with a retriable error, batch size 2
+        outbox.append("Venue1", bytes("t1"));
+        outbox.append("Venue1", bytes("t2"));
+        outbox.append("Venue1", bytes("t3"));
+        when(messagePublisher.kafkaPublish(bytes("t1"), "Venue1")).thenReturn(acked());
+        when(messagePublisher.kafkaPublish(bytes("t2"), "Venue1"))
+                .thenReturn(failed(new TimeoutException("broker"))).thenReturn(acked());
+        when(messagePublisher.kafkaPublish(bytes("t3"), "Venue1")).thenReturn(acked());
+
+        // When: First run stops at t2
+        relay.drain();
+
+        // Then: t3 was not part of the failed batch
+        verify(messagePublisher, never()).kafkaPublish(bytes("t3"), "Venue1");
+        verifyNoInteractions(deadLetterQueueService);
+
+        // When: Next run
+        relay.drain();
+
+        // Then: t1 is not resent, t2 then t3
+        verify(messagePublisher, times(1)).kafkaPublish(bytes("t1"), "Venue1");
+        verify(messagePublisher, times(2)).kafkaPublish(bytes("t2"), "Venue1");
+        verify(messagePublisher, times(1)).kafkaPublish(bytes("t3"), "Venue1");
+    }
+
+    @Test
+    void drain_retriableFailure_nothingOfItsKeySentBehindIt() {
+        // Given: t1 and t2 go out together, t3 shares t1's key and must wait for t1's ack, which fails
+        TicketOutboxRelay wide = new TicketOutboxRelay(outbox, messagePublisher, deadLetterQueueService, 10, 20);
+        outbox.append("Venue1", bytes("t1"));
+        outbox.append("Venue2", bytes("t2"));
+        outbox.append("Venue1", bytes("t3"));
+        when(messagePublisher.kafkaPublish(bytes("t1"), "Venue1"))
+                .thenReturn(failed(new TimeoutException("broker"))).thenReturn(acked());
+        when(messagePublisher.kafkaPublish(bytes("t2"), "Venue2")).thenReturn(acked());
+        when(messagePublisher.kafkaPublish(bytes("t3"), "Venue1")).thenReturn(acked());
+
+        // When
+        wide.drain();
+
+        // Then: t3 never reached the broker ahead of t1, nothing was committed
+        verify(messagePublisher, never()).kafkaPublish(bytes("t3"), "Venue1");
+        verify(messagePublisher).kafkaPublish(bytes("t2"), "Venue2");
+        assertNotEquals(outbox.getSegmentLog().getTail(), outbox.getSegmentLog().loadCommitted());
+
+        // When: Next run
+        wide.drain();
+
+        // Then: t1 before t3, t2 sent again (at-least-once)
+        InOrder inOrder = inOrder(messagePublisher);
+        inOrder.verify(messagePublisher, times(2)).kafkaPublish(bytes("t1"), "Venue1");
+        inOrder.verify(messagePublisher).kafkaPublish(bytes("t3"), "Venue1");
+        verify(messagePublisher, times(2)).kafkaPublish(bytes("t2"), "Venue2");
+        assertEquals(outbox.getSegmentLog().getTail(), outbox.getSegmentLog().loadCommitted());
+        wide.shutdown();
+    }
+
+    @Test
+    void drain_permanentRejection_movesRecordToDlqAndContinues() {
+        // Given
+        outbox.append("Venue1", bytes("t1"));
+        outbox.append("Venue1", bytes("t2"));
+        when(messagePublisher.kafkaPublish(bytes("t1"), "Venue1"))
+                .thenReturn(failed(new RecordTooLargeException("too big")));
+        when(messagePublisher.kafkaPublish(bytes("t2"), "Venue1")).thenReturn(acked());
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(deadLetterQueueService).sendToDeadLetterQueue(eq(bytes("t1")), eq("Venue1"), anyString());
+        assertEquals(outbox.getSegmentLog().getTail(), outbox.getSegmentLog().loadCommitted());
+    }
+
+    @Test
+    void drain_emptyOutbox_sendsNothing() {
+        relay.drain();
+
+        verifyNoInteractions(messagePublisher);
+    }
+
+    @Test
+    void afterPropertiesSet_drainsOnOwnThread() throws Exception {
+        // Given
+        CompletableFuture<String> sender = new CompletableFuture<>();
+        when(messagePublisher.kafkaPublish(any(byte[].class), anyString())).thenAnswer(inv -> {
+            sender.complete(Thread.currentThread().getName());
+            return acked();
+        });
+
+        // When
+        relay.afterPropertiesSet();
+        outbox.append("Venue1", bytes("t1"));
+
+        // Then
+        assertEquals("outbox-relay", sender.get(5, TimeUnit.SECONDS));
+    }
+
+    private static CompletableFuture<Void> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static CompletableFuture<Void> failed(Throwable t) {
+        return CompletableFuture.failedFuture(t);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package org.java.purchaseservice.service.purchase;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.dto.TicketPurchaseRequestDTO;
+import org.java.purchaseservice.dto.TicketRespondDTO;
+import org.java.purchaseservice.exception.IdempotencyKeyReuseException;
+import org.java.purchaseservice.service.redis.RedisKeyUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for PurchaseIdempotencyStore.
+ * Verifies that a recorded purchase replays for the same seat only, and that forget removes the purchase key.
+ */
+@ExtendWith(MockitoExtension.class)
+class PurchaseIdempotencyStoreTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TicketPurchaseRequestDTO request = new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "7");
+
+    @Test
+    void replay_sameSeat_returnsRecordedTicket() {
+        // Given
+        PurchaseIdempotencyStore store = store();
+        Instant createdOn = Instant.parse("2026-01-01T10:00:00Z");
+        String record = store.encode(request, new TicketRespondDTO("T1", 1, "A", "7", createdOn));
+
+        // When
+        TicketRespondDTO replayed = store.replay("key-1", record, request);
+
+        // Then
+        assertEquals("T1", replayed.getTicketId());
+        assertEquals("7", replayed.getColumn());
+        assertEquals(createdOn, replayed.getCreatedOn());
+        assertEquals(1.0, meterRegistry.get("tickets.idempotency.replayed").counter().count());
+    }
+
+    @Test
+    void replay_differentSeat_rejected() {
+        // Given
+        PurchaseIdempotencyStore store = store();
+        String record = store.encode(request, new TicketRespondDTO("T1", 1, "A", "7", Instant.now()));
+
+        // When / Then
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> store.replay("key-1", record, new TicketPurchaseRequestDTO("V1", "E1", 1, "A", "8")));
+    }
+
+    @Test
+    void forget_deletesPurchaseKey() {
+        // When
+        store().forget("key-1");
+
+        // Then
+        verify(stringRedisTemplate).delete(RedisKeyUtil.getPurchaseIdempotencyKey("key-1"));
+    }
+
+    @Test
+    void validateKey_blankOrTooLong_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> PurchaseIdempotencyStore.validateKey(" "));
+        assertThrows(IllegalArgumentException.class,
+                () -> PurchaseIdempotencyStore.validateKey("k".repeat(PurchaseIdempotencyStore.MAX_KEY_LENGTH + 1)));
+        assertDoesNotThrow(() -> PurchaseIdempotencyStore.validateKey("4f1c2b9e-retry"));
+    }
+
+    private PurchaseIdempotencyStore store() {
+        return new PurchaseIdempotencyStore(stringRedisTemplate, new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, 60_000);
+    }
+}
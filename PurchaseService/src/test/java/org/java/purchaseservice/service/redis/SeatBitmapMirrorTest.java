@@ -0,0 +1,118 @@
+package org.java.purchaseservice.service.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SeatBitmapMirror.
+ * Verifies the Redis bit order of the word copy, that only fresh copies reject,
+ * and that keyspace notifications trigger a refresh.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatBitmapMirrorTest {
+
+    private static final String KEY = "event:E1:zone:1:occupied";
+
+    @Mock
+    private RedisTemplate<String, byte[]> bitmapRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    @Test
+    void toWords_followsRedisBitOrder() {
+        // Given: Redis bit 0 is the high bit of byte 0, bit 70 lives in byte 8
+        byte[] bitmap = new byte[9];
+        bitmap[0] = (byte) 0x80;
+        bitmap[8] = (byte) 0x02;
+
+        // When
+        long[] words = SeatBitmapMirror.toWords(bitmap);
+
+        // Then
+        assertEquals(2, words.length);
+        assertNotEquals(0, words[0] & SeatBitmapMirror.mask(0));
+        assertEquals(0, words[0] & SeatBitmapMirror.mask(1));
+        assertNotEquals(0, words[1] & SeatBitmapMirror.mask(70));
+    }
+
+    @Test
+    void isOccupied_freshCopy_rejectsTakenSeatsOnly() {
+        // Given
+        SeatBitmapMirror mirror = mirror(60_000);
+        mirrorZone(mirror, new byte[]{(byte) 0x40});
+
+        // When / Then
+        assertTrue(mirror.isOccupied(KEY, 1));
+        assertFalse(mirror.isOccupied(KEY, 0));
+        assertFalse(mirror.isOccupied("event:E1:zone:2:occupied", 1));
+    }
+
+    @Test
+    void isOccupied_copyOlderThanStaleness_passesThrough() throws InterruptedException {
+        // Given
+        SeatBitmapMirror mirror = mirror(1);
+        mirrorZone(mirror, new byte[]{(byte) 0xFF});
+
+        // When
+        Thread.sleep(5);
+
+        // Then
+        assertFalse(mirror.isOccupied(KEY, 0));
+    }
+
+    @Test
+    void onMessage_keyspaceEvent_refreshesZone() {
+        // Given: Seat 0 taken, then released on another node
+        SeatBitmapMirror mirror = mirror(60_000);
+        mirrorZone(mirror, new byte[]{(byte) 0x80});
+        when(valueOperations.multiGet(anyList())).thenReturn(Collections.singletonList(new byte[]{0}));
+
+        // When
+        mirror.onMessage(new DefaultMessage(("__keyspace@0__:" + KEY).getBytes(StandardCharsets.UTF_8),
+                "setbit".getBytes(StandardCharsets.UTF_8)), null);
+        mirror.refresh();
+
+        // Then
+        assertFalse(mirror.isOccupied(KEY, 0));
+    }
+
+    @Test
+    void update_localRelease_clearsBitBeforeRefresh() {
+        // Given
+        SeatBitmapMirror mirror = mirror(60_000);
+        mirrorZone(mirror, new byte[]{(byte) 0x80});
+
+        // When
+        mirror.update(KEY, 0, false);
+
+        // Then
+        assertFalse(mirror.isOccupied(KEY, 0));
+    }
+
+    private SeatBitmapMirror mirror(long stalenessMs) {
+        return new SeatBitmapMirror(bitmapRedisTemplate, new SimpleMeterRegistry(), true, false, stalenessMs,
+                60_000, 16);
+    }
+
+    // first seatlib answer starts mirroring, the refresher loads the copy
+    private void mirrorZone(SeatBitmapMirror mirror, byte[] bitmap) {
+        when(bitmapRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Collections.singletonList(bitmap));
+        mirror.update(KEY, 0, true);
+        mirror.refresh();
+    }
+}
@@ -0,0 +1,222 @@
+package org.java.purchaseservice.service.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.config.EventConfig;
+import org.java.purchaseservice.dto.SeatPositionDTO;
+import org.java.purchaseservice.exception.RowFullException;
+import org.java.purchaseservice.exception.SeatOccupiedException;
+import org.java.purchaseservice.service.admission.PurchaseLoadShedder;
+import org.java.purchaseservice.service.initialize.VenueConfigService;
+import org.java.purchaseservice.service.seatmap.SeatAvailabilityFeed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SeatOccupiedRedisFacade.
+ * Verifies that invalid seats, including rows past the zone, are rejected before they reach the local caches, seatlib
+ * or a coalesced batch, that a keyed retry reaches seatlib past the local caches, that local rejections do not need a
+ * load shedding slot, that occupy keys are cached only for configured events, that a restored seat skips the local
+ * caches, and that seats freed in Redis are also freed in the local mirror, the sold-out cache and the seat feed.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatOccupiedRedisFacadeTest {
+
+    @Mock
+    private VenueConfigService venueConfigService;
+
+    @Mock
+    private SeatFunctionLibrary seatFunctionLibrary;
+
+    @Mock
+    private SeatOccupyCoalescer seatOccupyCoalescer;
+
+    @Mock
+    private SoldOutCache soldOutCache;
+
+    @Mock
+    private SeatBitmapMirror seatBitmapMirror;
+
+    @Mock
+    private SeatAvailabilityFeed seatAvailabilityFeed;
+
+    private PurchaseLoadShedder loadShedder;
+    private SeatOccupiedRedisFacade facade;
+
+    @BeforeEach
+    void setUp() {
+        loadShedder = new PurchaseLoadShedder(new SimpleMeterRegistry(), true, 8, 8, 2048, 2.0, 0.9, 30);
+        EventConfig.Event event = new EventConfig.Event();
+        event.setEventId("E1");
+        event.setEnabled(true);
+        EventConfig eventConfig = new EventConfig();
+        eventConfig.setList(List.of(event));
+        facade = new SeatOccupiedRedisFacade(venueConfigService, seatFunctionLibrary, seatOccupyCoalescer,
+                soldOutCache, seatBitmapMirror, seatAvailabilityFeed, loadShedder, eventConfig);
+    }
+
+    @Test
+    void expireHolds_releasedSeats_freedInMirror() {
+        // Given: Two of three expired holds are released, one was confirmed meanwhile
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_HOLDS_EXPIRE), anyList(), any(String[].class)))
+                .thenReturn(List.of(3L, 125L));
+
+        // When
+        long released = facade.expireHolds("E1", 1, List.of("1:0:3", "1:4:125", "1:1:31"), 1000L);
+
+        // Then
+        assertEquals(2, released);
+        verify(seatBitmapMirror).update("event:E1:zone:1:occupied", 3, false);
+        verify(seatBitmapMirror).update("event:E1:zone:1:occupied", 125, false);
+        verifyNoMoreInteractions(seatBitmapMirror);
+        verify(seatAvailabilityFeed).seatChanged("E1", 1, 125, false);
+        verify(soldOutCache).released("E1", 1, SoldOutCache.WHOLE_ZONE);
+    }
+
+    @Test
+    void tryOccupySeat_invalidRowOrColumn_rejectedBeforeRedis() {
+        // Given
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(26);
+
+        // When / Then: digit row, column 0, column past the row
+        assertThrows(IllegalArgumentException.class, () -> facade.tryOccupySeat("E1", "V1", 1, "1", "3", "T1"));
+        assertThrows(IllegalArgumentException.class, () -> facade.tryOccupySeat("E1", "V1", 1, "A", "0", "T1"));
+        assertThrows(IllegalArgumentException.class, () -> facade.tryOccupySeat("E1", "V1", 1, "A", "11", "T1"));
+        verifyNoInteractions(seatFunctionLibrary, seatOccupyCoalescer);
+    }
+
+    @Test
+    void rowPastZone_rejectedBeforeCacheOrRedis() {
+        // Given: Rows A-C
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(3);
+
+        // When / Then: single seat, group and hold
+        assertThrows(IllegalArgumentException.class, () -> facade.tryOccupySeat("E1", "V1", 1, "D", "3", "T1"));
+        assertThrows(IllegalArgumentException.class, () -> facade.tryOccupySeat("E1", "V1", 1, "ZZ", "3", "T1",
+                "key-1", "record", 1000L));
+        assertThrows(IllegalArgumentException.class, () -> facade.tryOccupySeats("E1", "V1", 1,
+                List.of(new SeatPositionDTO("A", "1"), new SeatPositionDTO("D", "1")), List.of("T1", "T2")));
+        assertThrows(IllegalArgumentException.class, () -> facade.holdSeat("E1", "V1", 1, "D", "3", "H1", 1000L));
+        verifyNoInteractions(soldOutCache, seatBitmapMirror, seatFunctionLibrary, seatOccupyCoalescer);
+    }
+
+    @Test
+    void tryOccupySeat_coalescedBatchReportsBadSeat_rejectedAsInvalid() {
+        // Given
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(26);
+        when(seatOccupyCoalescer.isEnabled()).thenReturn(true);
+        when(seatOccupyCoalescer.occupy("E1", 1, 10, 2, "T1")).thenReturn(10L);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> facade.tryOccupySeat("E1", "V1", 1, "A", "3", "T1"));
+        verify(seatBitmapMirror, never()).update(anyString(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void tryOccupySeat_keyedRetryAfterRowSoldOut_replaysStoredRecord() {
+        // Given: The first attempt bought the last seat of row A, the local caches now see the row full
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(26);
+        lenient().doThrow(new RowFullException("Row already Full.")).when(soldOutCache).checkSeat("E1", 1, 0);
+        lenient().when(seatBitmapMirror.isOccupied(anyString(), anyInt())).thenReturn(true);
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_OCCUPY_IDEMPOTENT), anyList(),
+                any(String[].class))).thenReturn(List.of(8L, "stored".getBytes(StandardCharsets.UTF_8)));
+
+        // When: The client retries with the same key after a timeout
+        String record = facade.tryOccupySeat("E1", "V1", 1, "A", "3", "T2", "key-1", "record", 1000L);
+
+        // Then: seatlib answered with the first attempt's record
+        assertEquals("stored", record);
+        verify(soldOutCache, never()).checkSeat(anyString(), anyInt(), anyInt());
+        verify(seatBitmapMirror, never()).isOccupied(anyString(), anyInt());
+    }
+
+    @Test
+    void tryOccupySeat_unconfiguredEvent_keysBuiltPerCallNotCached() {
+        // Given: E1 is in events.yml, E9 is not
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(26);
+        when(seatFunctionLibrary.fcall(eq(SeatFunctionLibrary.FN_OCCUPY), any(SeatFunctionLibrary.Keys.class),
+                any(String[].class))).thenReturn(0L);
+
+        // When
+        facade.tryOccupySeat("E1", "V1", 1, "A", "3", "T1");
+        facade.tryOccupySeat("E1", "V1", 1, "A", "4", "T2");
+        facade.tryOccupySeat("E9", "V1", 1, "A", "3", "T3");
+        facade.tryOccupySeat("E9", "V1", 1, "A", "4", "T4");
+
+        // Then: Both events reach seatlib with their own keys, only E1's keys are reused
+        ArgumentCaptor<SeatFunctionLibrary.Keys> keys = ArgumentCaptor.forClass(SeatFunctionLibrary.Keys.class);
+        verify(seatFunctionLibrary, times(4)).fcall(eq(SeatFunctionLibrary.FN_OCCUPY), keys.capture(),
+                any(String[].class));
+        assertSame(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertNotSame(keys.getAllValues().get(2), keys.getAllValues().get(3));
+        assertEquals(keys.getAllValues().get(2).names(), keys.getAllValues().get(3).names());
+        assertTrue(keys.getAllValues().get(2).get(0).contains("E9"));
+    }
+
+    @Test
+    void restoreSeat_rowKnownFull_restoredInRedisWithoutLocalChecks() {
+        // Given: The local caches still see the row full and the seat taken, Redis is at its limit
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(26);
+        lenient().doThrow(new RowFullException("Row already Full.")).when(soldOutCache).checkSeat("E1", 1, 0);
+        lenient().when(seatBitmapMirror.isOccupied(anyString(), anyInt())).thenReturn(true);
+        for (int i = 0; i < 8; i++) {
+            loadShedder.getRedis().acquire();
+        }
+        when(seatFunctionLibrary.fcall(eq(SeatFunctionLibrary.FN_RESTORE), any(SeatFunctionLibrary.Keys.class),
+                eq("2"), eq("10"), eq("T1"))).thenReturn(0L);
+
+        // When
+        facade.restoreSeat("E1", "V1", 1, "A", "3", "T1");
+
+        // Then
+        verify(soldOutCache, never()).checkSeat(anyString(), anyInt(), anyInt());
+        verify(seatBitmapMirror, never()).isOccupied(anyString(), anyInt());
+        verifyNoInteractions(seatOccupyCoalescer);
+        verify(seatBitmapMirror).update("event:E1:zone:1:occupied", 2, true);
+        verify(seatAvailabilityFeed).seatChanged("E1", 1, 2, true);
+    }
+
+    @Test
+    void restoreSeat_soldToAnotherTicket_rejected() {
+        // Given
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(26);
+        when(seatFunctionLibrary.fcall(eq(SeatFunctionLibrary.FN_RESTORE), any(SeatFunctionLibrary.Keys.class),
+                any(String[].class))).thenReturn(1L);
+
+        // When / Then
+        assertThrows(SeatOccupiedException.class, () -> facade.restoreSeat("E1", "V1", 1, "A", "3", "T1"));
+        verify(seatBitmapMirror, never()).update(anyString(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void tryOccupySeat_rowKnownFullWhileRedisAtLimit_rejectedLocally() {
+        // Given: Every redis slot is taken, the sold-out cache knows row A is full
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(26);
+        for (int i = 0; i < 8; i++) {
+            loadShedder.getRedis().acquire();
+        }
+        doThrow(new RowFullException("Row already Full.")).when(soldOutCache).checkSeat("E1", 1, 0);
+
+        // When / Then: The client learns the row is full, not that Redis is overloaded
+        assertThrows(RowFullException.class, () -> facade.tryOccupySeat("E1", "V1", 1, "A", "3", "T1"));
+        verifyNoInteractions(seatFunctionLibrary);
+    }
+}
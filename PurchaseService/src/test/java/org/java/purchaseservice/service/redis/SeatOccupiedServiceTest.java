@@ -0,0 +1,126 @@
+package org.java.purchaseservice.service.redis;
+
+import org.java.purchaseservice.service.initialize.VenueConfigService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SeatOccupiedService.
+ * Verifies that an event is written in one pipeline with packed row counters and skipped while its geometry
+ * fingerprint is unchanged.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatOccupiedServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private VenueConfigService venueConfigService;
+
+    private void venueWithTwoZones() {
+        when(venueConfigService.getVenueZones("Venue1")).thenReturn(Set.of(1, 2));
+        when(venueConfigService.getRowCount(eq("Venue1"), anyInt())).thenReturn(3);
+        when(venueConfigService.getSeatPerRow(eq("Venue1"), anyInt())).thenReturn(10);
+        when(venueConfigService.getZoneCapacity(eq("Venue1"), anyInt())).thenReturn(30);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void initializeAllZonesForEvent_newEvent_writesAllKeysInOnePipeline() {
+        // Given
+        venueWithTwoZones();
+        SeatOccupiedService service = new SeatOccupiedService(stringRedisTemplate, venueConfigService, false);
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+
+        // When
+        service.initializeAllZonesForEvent("E1", "Venue1");
+
+        // Then
+        ArgumentCaptor<RedisCallback<Object>> pipeline = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(stringRedisTemplate, times(1)).executePipelined(pipeline.capture());
+        pipeline.getValue().doInRedis(connection);
+        verify(connection).del(RedisKeyUtil.getEventUsedSeatsKey("E1"), RedisKeyUtil.getEventHoldsKey("E1"),
+                RedisKeyUtil.getEventHoldTokensKey("E1"));
+        verify(connection).set(RedisKeyUtil.getZoneRemainedSeats("E1", 2), "30");
+        verify(connection).del(RedisKeyUtil.getSeatOwnersKey("E1", 2), RedisKeyUtil.getZoneChangesKey("E1", 2));
+        verify(connection).xAdd(RedisKeyUtil.getZoneChangesKey("E1", 2), Map.of("s", "r", "p", ""));
+        verify(stringCommands).set(RedisKeyUtil.getRowRemainedSeats("E1", 1).getBytes(StandardCharsets.UTF_8),
+                SeatOccupiedService.rowCounters(3, 10));
+        verify(connection).del(RedisKeyUtil.getLegacyRowRemainedSeats("E1", 1, 0),
+                RedisKeyUtil.getLegacyRowRemainedSeats("E1", 1, 1), RedisKeyUtil.getLegacyRowRemainedSeats("E1", 1, 2));
+        verify(connection).set(eq(RedisKeyUtil.getEventInitFingerprintKey("E1")), anyString());
+    }
+
+    @Test
+    void initializeAllZonesForEvent_fingerprintUnchanged_skipsEvent() {
+        // Given
+        venueWithTwoZones();
+        String fingerprint = SeatOccupiedService.fingerprint("Venue1", List.of(
+                new SeatOccupiedService.ZoneLayout(1, 3, 10, 30), new SeatOccupiedService.ZoneLayout(2, 3, 10, 30)));
+        when(valueOperations.get(RedisKeyUtil.getEventInitFingerprintKey("E1"))).thenReturn(fingerprint);
+        SeatOccupiedService service = new SeatOccupiedService(stringRedisTemplate, venueConfigService, false);
+
+        // When
+        service.initializeAllZonesForEvent("E1", "Venue1");
+
+        // Then
+        verify(stringRedisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void rowCounters_oneBigEndianU16PerRow() {
+        // When
+        byte[] counters = SeatOccupiedService.rowCounters(3, 300);
+
+        // Then: BITFIELD GET u16 #1 reads bytes 2 and 3
+        assertArrayEquals(new byte[]{1, 44, 1, 44, 1, 44}, counters);
+    }
+
+    @Test
+    void initializeAllZonesForEvent_rowWiderThanU16_rejected() {
+        // Given
+        when(venueConfigService.getVenueZones("Venue1")).thenReturn(Set.of(1));
+        when(venueConfigService.getSeatPerRow("Venue1", 1)).thenReturn(SeatOccupiedService.MAX_SEATS_PER_ROW + 1);
+        SeatOccupiedService service = new SeatOccupiedService(stringRedisTemplate, venueConfigService, false);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> service.initializeAllZonesForEvent("E1", "Venue1"));
+    }
+
+    @Test
+    void fingerprint_geometryChange_differs() {
+        // Given
+        List<SeatOccupiedService.ZoneLayout> before = List.of(new SeatOccupiedService.ZoneLayout(1, 3, 10, 30));
+        List<SeatOccupiedService.ZoneLayout> after = List.of(new SeatOccupiedService.ZoneLayout(1, 4, 10, 40));
+
+        // When / Then
+        assertEquals(SeatOccupiedService.fingerprint("Venue1", before),
+                SeatOccupiedService.fingerprint("Venue1", before));
+        assertNotEquals(SeatOccupiedService.fingerprint("Venue1", before),
+                SeatOccupiedService.fingerprint("Venue1", after));
+    }
+}
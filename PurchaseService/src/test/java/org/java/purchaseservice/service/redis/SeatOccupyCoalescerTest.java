@@ -0,0 +1,120 @@
+package org.java.purchaseservice.service.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SeatOccupyCoalescer.
+ * Verifies that seats of one zone share a single seats_occupy_each call and that every
+ * caller receives its own result code.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatOccupyCoalescerTest {
+
+    @Mock
+    private SeatFunctionLibrary seatFunctionLibrary;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SeatOccupyCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+    }
+
+    @Test
+    void occupy_fullBatch_sentAsOneCallAndCodesFannedOut() throws Exception {
+        // Given: Batch of two, window long enough that only the size limit flushes
+        coalescer = new SeatOccupyCoalescer(seatFunctionLibrary, meterRegistry, true, 10_000_000, 2, 1, 5000);
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_OCCUPY_EACH), anyList(), any(String[].class)))
+                .thenReturn(List.of(0L, 1L));
+
+        // When: Two seats of the same zone arrive together
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(
+                () -> coalescer.occupy("E1", 1, 10, 3, "T1"));
+        waitForQueued();
+        Long second = coalescer.occupy("E1", 1, 10, 3, "T2");
+
+        // Then: One FCALL, first seat won, duplicate got "occupied"
+        assertEquals(0L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, second);
+        verify(seatFunctionLibrary, times(1))
+                .fcallList(eq(SeatFunctionLibrary.FN_OCCUPY_EACH), anyList(), any(String[].class));
+        assertEquals(1.0, meterRegistry.get("tickets.coalescer.batch.fill.ratio").summary().max());
+        assertEquals(2, meterRegistry.get("tickets.coalescer.queue.delay").timer().count());
+    }
+
+    @Test
+    void occupy_singleSeat_flushedWhenWindowElapses() {
+        // Given: Batch never fills, short window
+        coalescer = new SeatOccupyCoalescer(seatFunctionLibrary, meterRegistry, true, 200, 32, 1, 5000);
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_OCCUPY_EACH), anyList(), any(String[].class)))
+                .thenReturn(List.of(0L));
+
+        // When
+        Long res = coalescer.occupy("E1", 2, 5, 7, "T1");
+
+        // Then: Zone keys including row counters, seat owners and change log; seatPerRow, seat, then its ticket
+        assertEquals(0L, res);
+        verify(seatFunctionLibrary).fcallList(SeatFunctionLibrary.FN_OCCUPY_EACH,
+                List.of(RedisKeyUtil.getZoneBitMapKey("E1", 2),
+                        RedisKeyUtil.getZoneRemainedSeats("E1", 2),
+                        RedisKeyUtil.getEventUsedSeatsKey("E1"),
+                        RedisKeyUtil.getEventTotalCapacityKey("E1"),
+                        RedisKeyUtil.getRowRemainedSeats("E1", 2),
+                        RedisKeyUtil.getSeatOwnersKey("E1", 2),
+                        RedisKeyUtil.getZoneChangesKey("E1", 2)),
+                "5", "7", "T1");
+    }
+
+    @Test
+    void occupy_redisFailure_propagatedToCaller() {
+        // Given
+        coalescer = new SeatOccupyCoalescer(seatFunctionLibrary, meterRegistry, true, 200, 32, 1, 5000);
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_OCCUPY_EACH), anyList(), any(String[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When & Then
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> coalescer.occupy("E1", 1, 10, 0, "T1"));
+    }
+
+    @Test
+    void occupy_badSeat_rejectedWithoutJoiningBatch() {
+        // Given
+        coalescer = new SeatOccupyCoalescer(seatFunctionLibrary, meterRegistry, true, 200, 32, 1, 5000);
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_OCCUPY_EACH), anyList(), any(String[].class)))
+                .thenReturn(List.of(0L));
+
+        // When: A negative bit position and an unknown venue arrive next to a valid seat
+        assertThrows(IllegalArgumentException.class, () -> coalescer.occupy("E1", 1, 10, -1, "T1"));
+        assertThrows(IllegalArgumentException.class, () -> coalescer.occupy("E1", 1, 0, 3, "T2"));
+        Long res = coalescer.occupy("E1", 1, 10, 3, "T3");
+
+        // Then: Only the valid seat reaches seatlib, and it is taken
+        assertEquals(0L, res);
+        verify(seatFunctionLibrary).fcallList(eq(SeatFunctionLibrary.FN_OCCUPY_EACH), anyList(), eq("10"), eq("3"),
+                eq("T3"));
+    }
+
+    private void waitForQueued() throws InterruptedException {
+        // The first caller has no observable hook, give it time to enqueue
+        Thread.sleep(100);
+    }
+}
@@ -0,0 +1,130 @@
+package org.java.purchaseservice.service.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.config.EventConfig;
+import org.java.purchaseservice.exception.EventFullException;
+import org.java.purchaseservice.exception.RowFullException;
+import org.java.purchaseservice.exception.ZoneFullException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SoldOutCache.
+ * Verifies that recorded full codes reject matching requests, that releases clear them locally
+ * and on other nodes, that entries expire and are dropped, and that events missing from events.yml are not recorded.
+ */
+@ExtendWith(MockitoExtension.class)
+class SoldOutCacheTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final EventConfig eventConfig = events("E1", "E2", "Event:With:Colons");
+
+    private SoldOutCache cache;
+
+    private static EventConfig events(String... eventIds) {
+        EventConfig config = new EventConfig();
+        config.setList(Arrays.stream(eventIds).map(eventId -> {
+            EventConfig.Event event = new EventConfig.Event();
+            event.setEventId(eventId);
+            event.setEnabled(true);
+            return event;
+        }).toList());
+        return config;
+    }
+
+    @BeforeEach
+    void setUp() {
+        cache = new SoldOutCache(stringRedisTemplate, meterRegistry, eventConfig, true, 60_000);
+    }
+
+    @Test
+    void checkSeat_recordedFull_rejectsWithoutRedis() {
+        // Given
+        cache.recordFull(3, "E1", 1, 4);
+        cache.recordFull(2, "E1", 2, 0);
+        cache.recordFull(4, "E2", 1, 0);
+
+        // When / Then
+        assertThrows(RowFullException.class, () -> cache.checkSeat("E1", 1, 4));
+        assertDoesNotThrow(() -> cache.checkSeat("E1", 1, 5));
+        assertThrows(ZoneFullException.class, () -> cache.checkSeat("E1", 2, 7));
+        assertThrows(ZoneFullException.class, () -> cache.checkZone("E1", 2));
+        assertThrows(EventFullException.class, () -> cache.checkZone("E2", 9));
+        assertEquals(4.0, meterRegistry.get("tickets.soldout.cache.rejected").counter().count());
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void released_clearsLocallyAndNotifiesOtherNodes() {
+        // Given
+        cache.recordFull(2, "E1", 1, 0);
+        cache.recordFull(3, "E1", 1, 4);
+
+        // When
+        cache.released("E1", 1, 4);
+
+        // Then
+        assertDoesNotThrow(() -> cache.checkSeat("E1", 1, 4));
+        verify(stringRedisTemplate).convertAndSend(SoldOutCache.RELEASE_CHANNEL, "E1:1:4");
+    }
+
+    @Test
+    void onMessage_releaseFromOtherNode_clearsWholeZone() {
+        // Given
+        cache.recordFull(3, "Event:With:Colons", 1, 4);
+        cache.recordFull(3, "Event:With:Colons", 1, 5);
+
+        // When
+        cache.onMessage(new DefaultMessage(SoldOutCache.RELEASE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("Event:With:Colons:1:" + SoldOutCache.WHOLE_ZONE).getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        assertDoesNotThrow(() -> cache.checkSeat("Event:With:Colons", 1, 4));
+        assertDoesNotThrow(() -> cache.checkSeat("Event:With:Colons", 1, 5));
+    }
+
+    @Test
+    void checkSeat_entryOlderThanTtl_passesThrough() throws InterruptedException {
+        // Given
+        SoldOutCache shortLived = new SoldOutCache(stringRedisTemplate, meterRegistry, eventConfig, true, 1);
+        shortLived.recordFull(2, "E1", 1, 0);
+        shortLived.recordFull(3, "E1", 2, 0);
+        shortLived.recordFull(3, "E1", 3, 0);
+
+        // When
+        Thread.sleep(5);
+
+        // Then: Expired rows are dropped when read or when their zone records another row
+        assertDoesNotThrow(() -> shortLived.checkSeat("E1", 1, 0));
+        assertDoesNotThrow(() -> shortLived.checkSeat("E1", 2, 0));
+        shortLived.recordFull(3, "E1", 3, 1);
+        assertEquals(1, shortLived.rowEntries());
+    }
+
+    @Test
+    void recordFull_eventNotConfigured_notRecorded() {
+        // When: seatlib answers "zone full" for an event it has no counters for
+        cache.recordFull(2, "made-up", 1, 0);
+        cache.recordFull(3, "made-up", 1, 7);
+        cache.recordFull(4, "made-up", 1, 0);
+
+        // Then
+        assertDoesNotThrow(() -> cache.checkSeat("made-up", 1, 7));
+        assertEquals(0, cache.rowEntries());
+    }
+}
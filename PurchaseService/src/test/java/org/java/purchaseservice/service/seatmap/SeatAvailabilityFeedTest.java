@@ -0,0 +1,146 @@
+package org.java.purchaseservice.service.seatmap;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.java.purchaseservice.exception.SeatStreamLimitException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SeatAvailabilityFeed.
+ * Verifies that seat changes are coalesced per zone into one frame per tick, that frames reach local
+ * subscribers and other nodes, and that slow subscribers are dropped instead of buffering without limit.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatAvailabilityFeedTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SeatAvailabilityFeed feed;
+
+    // ticks are driven by the test, the scheduled tick never fires
+    private SeatAvailabilityFeed feed(int maxSubscribers, int buffer) {
+        feed = new SeatAvailabilityFeed(stringRedisTemplate, meterRegistry, true, 3_600_000, maxSubscribers, buffer,
+                60_000, 3_600_000);
+        return feed;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (feed != null) {
+            feed.shutdown();
+        }
+    }
+
+    @Test
+    void frame_seatsSortedByState() {
+        String frame = SeatAvailabilityFeed.frame(2, Map.of(7, true, 3, false, 5, true));
+
+        assertEquals("{\"zoneId\":2,\"occupied\":[5,7],\"released\":[3]}", frame);
+    }
+
+    @Test
+    void tick_coalescesZoneChangesIntoOneFrame() {
+        // Given: seat 3 taken and released again within one tick
+        feed(10, 4);
+        feed.seatChanged("E1", 2, 5, true);
+        feed.seatChanged("E1", 2, 3, true);
+        feed.seatChanged("E1", 2, 3, false);
+
+        // When
+        feed.tick();
+        feed.tick();
+
+        // Then: one frame, last state wins
+        verify(stringRedisTemplate, times(1)).convertAndSend(eq(SeatAvailabilityFeed.CHANNEL),
+                endsWith("|E1|{\"zoneId\":2,\"occupied\":[5],\"released\":[3]}"));
+        assertEquals(1.0, meterRegistry.get("tickets.seat.stream.frames").counter().count());
+    }
+
+    @Test
+    void tick_sendsFrameToSubscribersOfTheEvent() throws Exception {
+        // Given
+        feed(10, 4);
+        SseEmitter watcher = mock(SseEmitter.class);
+        SseEmitter otherEvent = mock(SseEmitter.class);
+        feed.register("E1", watcher);
+        feed.register("E2", otherEvent);
+        feed.seatChanged("E1", 1, 0, true);
+
+        // When
+        feed.tick();
+
+        // Then
+        verify(watcher, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(otherEvent, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void onMessage_frameOfOtherNode_deliveredLocally() throws Exception {
+        // Given
+        feed(10, 4);
+        SseEmitter watcher = mock(SseEmitter.class);
+        feed.register("E1", watcher);
+        byte[] body = "other-node|E1|{\"zoneId\":1,\"occupied\":[],\"released\":[4]}".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        feed.onMessage(new DefaultMessage(SeatAvailabilityFeed.CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+
+        // Then
+        verify(watcher, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void slowSubscriber_dropped() throws Exception {
+        // Given: a subscriber stuck in its first send, one frame of buffer
+        feed(10, 1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(inv -> {
+            stuck.await();
+            return null;
+        }).when(slow).send(any(SseEmitter.SseEventBuilder.class));
+        feed.register("E1", slow);
+
+        // When
+        for (int pos = 0; pos < 3; pos++) {
+            feed.seatChanged("E1", 1, pos, true);
+            feed.tick();
+        }
+
+        // Then
+        verify(slow).complete();
+        assertEquals(0, feed.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("tickets.seat.stream.dropped").counter().count());
+        stuck.countDown();
+    }
+
+    @Test
+    void register_overLimit_rejected() {
+        // Given
+        feed(1, 4);
+        feed.register("E1", mock(SseEmitter.class));
+
+        // When / Then
+        assertThrows(SeatStreamLimitException.class, () -> feed.register("E1", mock(SseEmitter.class)));
+        assertEquals(1, feed.subscriberCount());
+    }
+}
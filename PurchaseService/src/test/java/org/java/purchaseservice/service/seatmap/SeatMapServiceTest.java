@@ -0,0 +1,127 @@
+package org.java.purchaseservice.service.seatmap;
+
+import org.java.purchaseservice.dto.SeatMapDeltaDTO;
+import org.java.purchaseservice.exception.SeatMapVersionGoneException;
+import org.java.purchaseservice.service.initialize.VenueConfigService;
+import org.java.purchaseservice.service.redis.RedisKeyUtil;
+import org.java.purchaseservice.service.redis.SeatFunctionLibrary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for SeatMapService.
+ * Verifies that snapshots are padded to the zone size or run-length encoded, that an unchanged version skips the
+ * bitmap, and that deltas fold the change log into final seat states.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatMapServiceTest {
+
+    @Mock
+    private SeatFunctionLibrary seatFunctionLibrary;
+
+    @Mock
+    private VenueConfigService venueConfigService;
+
+    private SeatMapService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SeatMapService(seatFunctionLibrary, venueConfigService);
+    }
+
+    private void zoneOfTwoRowsOfTen() {
+        when(venueConfigService.getRowCount("V1", 1)).thenReturn(2);
+        when(venueConfigService.getSeatPerRow("V1", 1)).thenReturn(10);
+    }
+
+    @Test
+    void snapshot_shortBitmap_paddedToZoneSize() {
+        // Given: seats 0 and 2 taken, Redis string only one byte long
+        zoneOfTwoRowsOfTen();
+        when(seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_ZONE_SNAPSHOT,
+                List.of(RedisKeyUtil.getZoneBitMapKey("E1", 1), RedisKeyUtil.getZoneChangesKey("E1", 1)), ""))
+                .thenReturn(List.of(bytes("5-0"), new byte[]{(byte) 0xA0}));
+
+        // When
+        SeatMapService.SeatMapSnapshot snapshot = service.snapshot("E1", "V1", 1, null, SeatMapService.RAW);
+
+        // Then
+        assertEquals("5-0", snapshot.version());
+        assertArrayEquals(new byte[]{(byte) 0xA0, 0, 0}, snapshot.data());
+    }
+
+    @Test
+    void snapshot_knownVersion_noData() {
+        // Given
+        zoneOfTwoRowsOfTen();
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_ZONE_SNAPSHOT), anyList(), eq("5-0")))
+                .thenReturn(List.of(bytes("5-0")));
+
+        // When
+        SeatMapService.SeatMapSnapshot snapshot = service.snapshot("E1", "V1", 1, "5-0", SeatMapService.RAW);
+
+        // Then
+        assertNull(snapshot.data());
+    }
+
+    @Test
+    void runLengths_alternateFreeAndTakenStartingWithFree() {
+        // seats: taken, free, taken, then 17 free
+        byte[] runs = SeatMapService.runLengths(new byte[]{(byte) 0xA0, 0, 0}, 20);
+
+        assertArrayEquals(new byte[]{0, 1, 1, 1, 17}, runs);
+    }
+
+    @Test
+    void runLengths_longRun_varintEncoded() {
+        byte[] runs = SeatMapService.runLengths(new byte[25], 200);
+
+        assertArrayEquals(new byte[]{(byte) 0xC8, 0x01}, runs);
+    }
+
+    @Test
+    void changesSince_foldsLogIntoFinalStates() {
+        // Given: 3 and 4 taken, then 4 released again, then 7 released
+        when(seatFunctionLibrary.fcallList(SeatFunctionLibrary.FN_ZONE_CHANGES,
+                List.of(RedisKeyUtil.getZoneChangesKey("E1", 1)), "5-0"))
+                .thenReturn(List.of(0L, bytes("8-0"), bytes("1"), bytes("3,4"), bytes("0"), bytes("4"),
+                        bytes("0"), bytes("7")));
+
+        // When
+        SeatMapDeltaDTO delta = service.changesSince("E1", 1, "5-0");
+
+        // Then
+        assertEquals("8-0", delta.getVersion());
+        assertEquals(List.of(3), delta.getOccupied());
+        assertEquals(List.of(4, 7), delta.getReleased());
+    }
+
+    @Test
+    void changesSince_logTrimmed_gone() {
+        // Given
+        when(seatFunctionLibrary.fcallList(eq(SeatFunctionLibrary.FN_ZONE_CHANGES), anyList(), eq("1-0")))
+                .thenReturn(List.of(1L, bytes("9-0")));
+
+        // When / Then
+        assertThrows(SeatMapVersionGoneException.class, () -> service.changesSince("E1", 1, "1-0"));
+    }
+
+    @Test
+    void changesSince_malformedVersion_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.changesSince("E1", 1, "latest"));
+        verifyNoInteractions(seatFunctionLibrary);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -11,13 +11,19 @@ import java.math.BigDecimal;
 @Repository
 public interface TicketInfoRepository extends JpaRepository<TicketInfo, String> {
 
-	int countByEventId(String eventId);
+	// cancelled tickets are no longer sold
+	@Query(value = """
+			select count(*)
+			from ticket t
+			where t.event_id = :eventId and t.status <> 'CANCELLED'
+			""", nativeQuery = true)
+	int countByEventId(@Param("eventId") String eventId);
 
 	@Query(value = """
 			select coalesce(sum(z.ticket_price), 0)
 			from ticket t
 					join zone z on z.zone_id = t.zone_id
-			where t.venue_id = :venueId and t.event_id = :eventId
+			where t.venue_id = :venueId and t.event_id = :eventId and t.status <> 'CANCELLED'
 			""", nativeQuery = true)
 	BigDecimal sumRevenueByVenueAndEvent(@Param("venueId") String venueId, @Param("eventId") String eventId);
 }
\ No newline at end of file
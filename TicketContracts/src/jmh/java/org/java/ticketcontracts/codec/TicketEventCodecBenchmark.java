@@ -0,0 +1,73 @@
+package org.java.ticketcontracts.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.java.ticketcontracts.TicketWireEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary codec vs the Jackson JSON path both services used before.
+ * Run: mvn -pl TicketContracts -P jmh test-compile exec:java -Dexec.args="TicketEventCodecBenchmark -prof gc"
+ * Payload sizes are printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketEventCodecBenchmark {
+
+	private final TicketEventCodec codec = new TicketEventCodec();
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	private TicketWireEvent event;
+	private byte[] binary;
+	private byte[] json;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		event = new TicketWireEvent(UUID.randomUUID().toString(), "Venue1", "Event1", 2, "AB", "17", "PAID",
+				Instant.now());
+		binary = codec.encode(event);
+		json = objectMapper.writeValueAsBytes(event);
+		System.out.printf("%nbytes per ticket: binary=%d json=%d%n", binary.length, json.length);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() {
+		return codec.encode(event);
+	}
+
+	@Benchmark
+	public byte[] encodeJson() throws Exception {
+		return objectMapper.writeValueAsBytes(event);
+	}
+
+	@Benchmark
+	public TicketWireEvent decodeBinary() {
+		return codec.decode(binary);
+	}
+
+	@Benchmark
+	public TicketWireEvent decodeJson() throws Exception {
+		return objectMapper.readValue(json, TicketWireEvent.class);
+	}
+}
@@ -0,0 +1,18 @@
+package org.java.ticketcontracts;
+
+import java.time.Instant;
+
+/**
+ * Ticket event as it travels on ticket.exchange.
+ * Field names match the JSON written by PurchaseService, so the same record reads both formats.
+ */
+public record TicketWireEvent(
+		String ticketId,
+		String venueId,
+		String eventId,
+		int zoneId,
+		String row,
+		String column,
+		String status,
+		Instant createdOn) {
+}
@@ -0,0 +1,289 @@
+package org.java.ticketcontracts.codec;
+
+import org.java.ticketcontracts.TicketWireEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of TicketWireEvent (content type application/x-ticket-event).
+ * <p>
+ * Layout, version 1:
+ * <pre>
+ * magic(1) version(1) flags(1)
+ * ticketId   16 raw bytes when flags has UUID_TICKET_ID, otherwise string
+ * venueId    string
+ * eventId    string
+ * zoneId     varint (zigzag)
+ * row        string
+ * column     string
+ * status     code(1), 0xFF followed by string for names outside the table
+ * createdOn  varlong epoch seconds (zigzag), varint nanos
+ * </pre>
+ * Strings are varint(length + 1) followed by UTF-8 bytes, length 0 means null.
+ * Decoded venue and event ids are interned, so a consumer does not allocate a new String for
+ * every message of the same event.
+ * Instances are thread-safe.
+ */
+public class TicketEventCodec {
+	public static final String CONTENT_TYPE = "application/x-ticket-event";
+	public static final byte MAGIC = (byte) 0xB7;
+	public static final byte VERSION = 1;
+
+	private static final int UUID_TICKET_ID = 1;
+	private static final int STATUS_OTHER = 0xFF;
+	// order is part of the wire format, append only
+	private static final String[] STATUS_CODES = {"PENDING_PAYMENT", "PAID", "CANCELLED"};
+
+	private final IdInterner venueIds = new IdInterner();
+	private final IdInterner eventIds = new IdInterner();
+
+	/**
+	 * True when the payload was produced by this codec (JSON always starts with '{').
+	 */
+	public static boolean isBinary(byte[] payload) {
+		return payload != null && payload.length > 1 && payload[0] == MAGIC;
+	}
+
+	public byte[] encode(TicketWireEvent event) {
+		Sink out = new Sink(64);
+		out.writeByte(MAGIC);
+		out.writeByte(VERSION);
+
+		UUID uuid = parseUuid(event.ticketId());
+		out.writeByte(uuid != null ? UUID_TICKET_ID : 0);
+		if (uuid != null) {
+			out.writeLong(uuid.getMostSignificantBits());
+			out.writeLong(uuid.getLeastSignificantBits());
+		} else {
+			out.writeString(event.ticketId());
+		}
+
+		out.writeString(event.venueId());
+		out.writeString(event.eventId());
+		out.writeVarLong(zigzag(event.zoneId()));
+		out.writeString(event.row());
+		out.writeString(event.column());
+
+		int status = statusCode(event.status());
+		out.writeByte(status);
+		if (status == STATUS_OTHER) {
+			out.writeString(event.status());
+		}
+
+		Instant createdOn = event.createdOn();
+		if (createdOn == null) {
+			out.writeByte(0);
+		} else {
+			out.writeByte(1);
+			out.writeVarLong(zigzag(createdOn.getEpochSecond()));
+			out.writeVarLong(createdOn.getNano());
+		}
+		return out.toByteArray();
+	}
+
+	public TicketWireEvent decode(byte[] payload) {
+		if (!isBinary(payload)) {
+			throw new IllegalArgumentException("Not a binary ticket event");
+		}
+		Source in = new Source(payload);
+		in.pos = 1;
+		int version = in.readByte();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported ticket event version " + version);
+		}
+
+		try {
+			int flags = in.readByte();
+			String ticketId = (flags & UUID_TICKET_ID) != 0
+					? new UUID(in.readLong(), in.readLong()).toString()
+					: in.readString();
+			String venueId = in.readString(venueIds);
+			String eventId = in.readString(eventIds);
+			int zoneId = (int) unzigzag(in.readVarLong());
+			String row = in.readString();
+			String column = in.readString();
+
+			int code = in.readByte();
+			String status;
+			if (code == STATUS_OTHER) {
+				status = in.readString();
+			} else if (code < STATUS_CODES.length) {
+				status = STATUS_CODES[code];
+			} else {
+				throw new IllegalArgumentException("Unknown status code " + code);
+			}
+
+			Instant createdOn = null;
+			if (in.readByte() == 1) {
+				createdOn = Instant.ofEpochSecond(unzigzag(in.readVarLong()), in.readVarLong());
+			}
+			return new TicketWireEvent(ticketId, venueId, eventId, zoneId, row, column, status, createdOn);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Truncated ticket event", e);
+		}
+	}
+
+	private static int statusCode(String status) {
+		for (int i = 0; i < STATUS_CODES.length; i++) {
+			if (STATUS_CODES[i].equals(status)) {
+				return i;
+			}
+		}
+		return STATUS_OTHER;
+	}
+
+	// only the canonical 36 char form is packed, anything else is sent as a string
+	private static UUID parseUuid(String id) {
+		if (id == null || id.length() != 36 || id.charAt(8) != '-' || id.charAt(13) != '-'
+				|| id.charAt(18) != '-' || id.charAt(23) != '-') {
+			return null;
+		}
+		try {
+			UUID uuid = UUID.fromString(id);
+			return uuid.toString().equals(id) ? uuid : null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static long zigzag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+
+	private static long unzigzag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static final class Sink {
+		private byte[] buf;
+		private int pos;
+
+		private Sink(int capacity) {
+			this.buf = new byte[capacity];
+		}
+
+		private void ensure(int n) {
+			if (pos + n > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+			}
+		}
+
+		private void writeByte(int b) {
+			ensure(1);
+			buf[pos++] = (byte) b;
+		}
+
+		private void writeLong(long v) {
+			ensure(8);
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				buf[pos++] = (byte) (v >>> shift);
+			}
+		}
+
+		private void writeVarLong(long v) {
+			ensure(10);
+			while ((v & ~0x7FL) != 0) {
+				buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			buf[pos++] = (byte) v;
+		}
+
+		private void writeString(String s) {
+			if (s == null) {
+				writeVarLong(0);
+				return;
+			}
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(bytes.length + 1L);
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, buf, pos, bytes.length);
+			pos += bytes.length;
+		}
+
+		private byte[] toByteArray() {
+			return Arrays.copyOf(buf, pos);
+		}
+	}
+
+	private static final class Source {
+		private final byte[] buf;
+		private int pos;
+
+		private Source(byte[] buf) {
+			this.buf = buf;
+		}
+
+		private int readByte() {
+			return buf[pos++] & 0xFF;
+		}
+
+		private long readLong() {
+			long v = 0;
+			for (int i = 0; i < 8; i++) {
+				v = (v << 8) | (buf[pos++] & 0xFF);
+			}
+			return v;
+		}
+
+		private long readVarLong() {
+			long v = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				byte b = buf[pos++];
+				v |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					return v;
+				}
+			}
+			throw new IllegalArgumentException("Malformed varint");
+		}
+
+		private String readString() {
+			return readString(null);
+		}
+
+		private String readString(IdInterner interner) {
+			int length = (int) readVarLong() - 1;
+			if (length < 0) {
+				return null;
+			}
+			if (pos + length > buf.length) {
+				throw new ArrayIndexOutOfBoundsException(pos + length);
+			}
+			String s = interner != null
+					? interner.intern(buf, pos, length)
+					: new String(buf, pos, length, StandardCharsets.UTF_8);
+			pos += length;
+			return s;
+		}
+	}
+
+	/**
+	 * Small direct-mapped cache of decoded ids. A miss just replaces the slot, races only cost an extra String.
+	 */
+	private static final class IdInterner {
+		private record Slot(byte[] bytes, String value) {
+		}
+
+		private final Slot[] slots = new Slot[256];
+
+		private String intern(byte[] buf, int offset, int length) {
+			int hash = 1;
+			for (int i = offset; i < offset + length; i++) {
+				hash = 31 * hash + buf[i];
+			}
+			int index = (hash ^ (hash >>> 16)) & (slots.length - 1);
+
+			Slot slot = slots[index];
+			if (slot != null && Arrays.equals(slot.bytes, 0, slot.bytes.length, buf, offset, offset + length)) {
+				return slot.value;
+			}
+			String value = new String(buf, offset, length, StandardCharsets.UTF_8);
+			slots[index] = new Slot(Arrays.copyOfRange(buf, offset, offset + length), value);
+			return value;
+		}
+	}
+}
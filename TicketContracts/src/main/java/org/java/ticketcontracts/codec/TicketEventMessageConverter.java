@@ -0,0 +1,51 @@
+package org.java.ticketcontracts.codec;
+
+import org.java.ticketcontracts.TicketWireEvent;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+
+import java.util.function.Function;
+
+/**
+ * Spring Cloud Stream message converter for application/x-ticket-event.
+ * Each service binds it to its own payload type; messages with another content type
+ * (e.g. JSON from an older producer) are left to the default converters.
+ */
+public class TicketEventMessageConverter<T> extends AbstractMessageConverter {
+	public static final MimeType MIME_TYPE = MimeType.valueOf(TicketEventCodec.CONTENT_TYPE);
+
+	private final TicketEventCodec codec;
+	private final Class<T> type;
+	private final Function<TicketWireEvent, T> fromWire;
+	private final Function<T, TicketWireEvent> toWire;
+
+	public TicketEventMessageConverter(TicketEventCodec codec, Class<T> type,
+			Function<TicketWireEvent, T> fromWire, Function<T, TicketWireEvent> toWire) {
+		super(MIME_TYPE);
+		setStrictContentTypeMatch(true);
+		this.codec = codec;
+		this.type = type;
+		this.fromWire = fromWire;
+		this.toWire = toWire;
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return type.equals(clazz);
+	}
+
+	@Override
+	protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+		if (!(message.getPayload() instanceof byte[] bytes) || !TicketEventCodec.isBinary(bytes)) {
+			return null;
+		}
+		return fromWire.apply(codec.decode(bytes));
+	}
+
+	@Override
+	protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+		return codec.encode(toWire.apply(type.cast(payload)));
+	}
+}
@@ -0,0 +1,84 @@
+package org.java.ticketcontracts.codec;
+
+import org.java.ticketcontracts.TicketWireEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for TicketEventCodec.
+ * Verifies round trips, the compact ticket id form and rejection of foreign or broken payloads.
+ */
+class TicketEventCodecTest {
+
+    private final TicketEventCodec codec = new TicketEventCodec();
+
+    @Test
+    void roundTrip_uuidTicketId_allFieldsPreserved() {
+        // Given
+        TicketWireEvent event = new TicketWireEvent(UUID.randomUUID().toString(), "Venue1", "Event1", 3,
+                "AB", "17", "PAID", Instant.parse("2026-03-01T10:15:30.123456789Z"));
+
+        // When
+        byte[] bytes = codec.encode(event);
+
+        // Then
+        assertTrue(TicketEventCodec.isBinary(bytes));
+        assertEquals(event, codec.decode(bytes));
+    }
+
+    @Test
+    void roundTrip_nonUuidIdsNullsAndUnknownStatus_preserved() {
+        TicketWireEvent event = new TicketWireEvent("ticket-42", "Venue1", null, -1, "A", null, "REFUNDED", null);
+
+        assertEquals(event, codec.decode(codec.encode(event)));
+    }
+
+    @Test
+    void encode_isMuchSmallerThanJson() {
+        // Given: The JSON PurchaseService used to send for one ticket
+        String ticketId = UUID.randomUUID().toString();
+        String json = "{\"ticketId\":\"" + ticketId + "\",\"venueId\":\"Venue1\",\"eventId\":\"Event1\","
+                + "\"zoneId\":1,\"row\":\"A\",\"column\":\"1\",\"status\":\"PAID\","
+                + "\"createdOn\":\"2026-03-01T10:15:30.123456Z\"}";
+        TicketWireEvent event = new TicketWireEvent(ticketId, "Venue1", "Event1", 1, "A", "1", "PAID",
+                Instant.parse("2026-03-01T10:15:30.123456Z"));
+
+        // When
+        int binary = codec.encode(event).length;
+
+        // Then
+        assertTrue(binary * 3 < json.getBytes(StandardCharsets.UTF_8).length,
+                "binary=" + binary + " json=" + json.length());
+    }
+
+    @Test
+    void decode_repeatedIds_returnsSameInstance() {
+        TicketWireEvent event = new TicketWireEvent("t", "Venue1", "Event1", 1, "A", "1", "PAID", Instant.EPOCH);
+
+        TicketWireEvent first = codec.decode(codec.encode(event));
+        TicketWireEvent second = codec.decode(codec.encode(event));
+
+        assertSame(first.venueId(), second.venueId());
+        assertSame(first.eventId(), second.eventId());
+    }
+
+    @Test
+    void decode_jsonOrUnknownVersionOrTruncated_rejected() {
+        byte[] valid = codec.encode(new TicketWireEvent("t", "V", "E", 1, "A", "1", "PAID", Instant.EPOCH));
+        byte[] futureVersion = valid.clone();
+        futureVersion[1] = 9;
+
+        assertFalse(TicketEventCodec.isBinary("{\"ticketId\":\"t\"}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode("{\"ticketId\":\"t\"}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(futureVersion));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(Arrays.copyOf(valid, valid.length - 3)));
+    }
+}